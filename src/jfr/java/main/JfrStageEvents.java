@@ -0,0 +1,120 @@
+package main;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Record the operations as Java Flight Recorder events, one type per stage, so that a slow call on a large cover can be
+ * lined up with the garbage collections and allocations around it.
+ * <p>
+ * Built by the {@code jfr} Maven profile only; see {@link Events}. Each event carries the dimensions of the image, the
+ * number of bits of the payload and the order of the pixels; the recorder adds its thread and duration. The events are
+ * enabled by default, without stack traces, and only the ones lasting more than the threshold of the recording
+ * settings are kept.
+ */
+public final class JfrStageEvents implements StageEvents
+{
+    @Override
+    public Object begin(Metrics.Stage stage)
+    {
+        final StageEvent event;
+        switch(stage)
+        {
+            case DECODE: event = new DecodeEvent(); break;
+            case CONVERT: event = new ConvertEvent(); break;
+            case TRAVERSE: event = new TraverseEvent(); break;
+            case EMBED: event = new EmbedEvent(); break;
+            case REVEAL: event = new RevealEvent(); break;
+            case ENCODE: event = new EncodeEvent(); break;
+            default: throw new IllegalArgumentException("Unknown stage: " + stage);
+        }
+        if(!event.isEnabled())
+            return null;
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public void end(Object event, String operation, int width, int height, long bits, TraversalOrder order)
+    {
+        final StageEvent stageEvent = (StageEvent) event;
+        stageEvent.end();
+        if(!stageEvent.shouldCommit())
+            return;
+        stageEvent.operation = operation;
+        stageEvent.width = width;
+        stageEvent.height = height;
+        stageEvent.pixels = (long) width * height;
+        stageEvent.bits = bits;
+        stageEvent.order = order == null ? null : order.name();
+        stageEvent.commit();
+    }
+
+    /**
+     * Hold the fields common to all the stages.
+     */
+    @Category("Steganography")
+    @StackTrace(false)
+    abstract static class StageEvent extends Event
+    {
+        @Label("Operation")
+        @Description("Method processing the image")
+        String operation;
+
+        @Label("Width")
+        int width;
+
+        @Label("Height")
+        int height;
+
+        @Label("Pixels")
+        long pixels;
+
+        @Label("Payload Bits")
+        @Description("Bits embedded or revealed, 0 for the stages not handling a payload")
+        long bits;
+
+        @Label("Traversal Order")
+        String order;
+    }
+
+    @Name("steganography.Decode")
+    @Label("Decode Image")
+    static final class DecodeEvent extends StageEvent
+    {
+    }
+
+    @Name("steganography.Convert")
+    @Label("Convert Image")
+    static final class ConvertEvent extends StageEvent
+    {
+    }
+
+    @Name("steganography.Traverse")
+    @Label("Build Traversal Table")
+    static final class TraverseEvent extends StageEvent
+    {
+    }
+
+    @Name("steganography.Embed")
+    @Label("Embed Payload")
+    static final class EmbedEvent extends StageEvent
+    {
+    }
+
+    @Name("steganography.Reveal")
+    @Label("Reveal Payload")
+    static final class RevealEvent extends StageEvent
+    {
+    }
+
+    @Name("steganography.Encode")
+    @Label("Encode Image")
+    static final class EncodeEvent extends StageEvent
+    {
+    }
+}
@@ -0,0 +1,87 @@
+package main;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * Load the covers the benchmarks are parameterized over, from the smallest sample image up to a synthetic 50 megapixel
+ * raster.
+ * <p>
+ * The sample images are looked up in the directory given by the {@code benchmark.images} system property, the
+ * {@code images} directory of the project by default.
+ */
+final class BenchmarkCovers
+{
+    /**
+     * The names accepted by {@link #load(String)}, to be used as {@code @Param} values.
+     */
+    static final String SMALL = "small", MEDIUM = "medium", TILES = "tiles", SYNTHETIC = "50mp";
+
+    private static final int SYNTHETIC_WIDTH = 8192, SYNTHETIC_HEIGHT = 6144; // 50.3 million pixels
+
+    private BenchmarkCovers()
+    {
+    }
+
+    /**
+     * Loads a cover.
+     * @param name one of {@link #SMALL}, {@link #MEDIUM}, {@link #TILES} and {@link #SYNTHETIC}
+     * @return the cover, contiguous
+     * @throws IOException if the image cannot be read
+     */
+    static IntRaster load(String name) throws IOException
+    {
+        final File images = new File(System.getProperty("benchmark.images", "images"));
+        switch(name)
+        {
+            case SMALL:
+                return read(new File(images, "AdeleBlochBauer/AdeleBlochBauer-small.png"));
+            case MEDIUM:
+                return read(new File(images, "AdeleBlochBauer/AdeleBlochBauer.png"));
+            case TILES:
+                return read(new File(images, "tiles-large.png"));
+            case SYNTHETIC:
+                return synthetic(SYNTHETIC_WIDTH, SYNTHETIC_HEIGHT);
+            default:
+                throw new IllegalArgumentException("Unknown cover: " + name);
+        }
+    }
+
+    /**
+     * Creates the bits of a payload, capped to what a cover holds at a given depth.
+     * @param bytes the size of the payload, in bytes
+     * @param cover the cover receiving the payload
+     * @param depth the number of bits per channel, {@code 0} standing for the single LSB of each pixel
+     * @return random bits
+     */
+    static BitBuffer message(int bytes, IntRaster cover, int depth)
+    {
+        final long capacity = (long) cover.area() * Steganography.bitsPerPixel(depth);
+        final BitBuffer message = new BitBuffer((int) Math.min(8L * bytes, capacity));
+        final Random random = new Random(42);
+        for(int i = 0; i < message.length(); i += Long.SIZE)
+            message.setBits(i, Math.min(Long.SIZE, message.length() - i), random.nextLong());
+        return message;
+    }
+
+    private static IntRaster read(File file) throws IOException
+    {
+        if(!file.isFile())
+            throw new IOException("No such image: " + file.getAbsolutePath() + " (set benchmark.images)");
+        return Helper.readRasterChecked(file.getPath(), false);
+    }
+
+    /**
+     * Creates a raster of random pixels, which compress as badly as photographs.
+     */
+    private static IntRaster synthetic(int width, int height)
+    {
+        final IntRaster raster = new IntRaster(width, height);
+        final int[] data = raster.data();
+        final Random random = new Random(42);
+        for(int i = 0; i < data.length; i++)
+            data[i] = random.nextInt(1 << 24);
+        return raster;
+    }
+}
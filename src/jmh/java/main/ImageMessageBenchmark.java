@@ -0,0 +1,67 @@
+package main;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measure the conversions between color, gray and black and white images, per cover.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ImageMessageBenchmark
+{
+    @Param({BenchmarkCovers.SMALL, BenchmarkCovers.MEDIUM, BenchmarkCovers.TILES, BenchmarkCovers.SYNTHETIC})
+    public String cover;
+
+    private IntRaster rgb, gray;
+    private BitRaster bw;
+
+    @Setup(Level.Trial)
+    public void load() throws IOException
+    {
+        rgb = BenchmarkCovers.load(cover);
+        gray = ImageMessage.toGray(rgb);
+        bw = ImageMessage.toBW(gray, 128);
+    }
+
+    @Benchmark
+    public IntRaster toGray()
+    {
+        return ImageMessage.toGray(rgb);
+    }
+
+    @Benchmark
+    public BitRaster toBW()
+    {
+        return ImageMessage.toBW(gray, 128);
+    }
+
+    @Benchmark
+    public IntRaster toRGB()
+    {
+        return ImageMessage.toRGB(bw);
+    }
+
+    @Benchmark
+    public BitBuffer bwImageToBitBuffer()
+    {
+        return ImageMessage.bwImageToBitBuffer(bw);
+    }
+}
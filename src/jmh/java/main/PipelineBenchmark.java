@@ -0,0 +1,416 @@
+package main;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Time the whole chain of hiding an image and getting it back, from files to files, over a grid of cover sizes and
+ * thread counts.
+ * <p>
+ * Each chain reads a cover and a message, converts the message to black and white, embeds it in spiral order, writes
+ * the result as PNG, reads it again and reveals the message, which is checked. For every cover size and thread count,
+ * each thread runs the chain a number of times on its own files, after a warm-up. The results give the throughput in
+ * cover megapixels per second, the median and 99th percentile latency of a chain, and the peak resident set size and
+ * heap of the process during the runs. The peak resident set size is read from {@code /proc/self/status}, and reset
+ * between the runs through {@code /proc/self/clear_refs} when allowed; it is {@code -1} on other systems.
+ * <p>
+ * Usage: {@code PipelineBenchmark [--sizes <megapixels,...>] [--threads <n,...>] [--iterations <n>] [--warmup <n>]
+ * [--label <name>] [--csv <file>] [--json <file>] [--dir <directory>]}, the results going to the standard output as CSV
+ * by default. Two builds are compared by running each with {@code --csv}, then
+ * {@code PipelineBenchmark --compare <baseline.csv> <candidate.csv>}.
+ * <p>
+ * With the {@code jmh} Maven profile: {@code mvn -Pjmh -DskipTests compile exec:exec -Dpipeline.args="--sizes 1,4"}.
+ */
+public final class PipelineBenchmark
+{
+    private static final String HEADER = "label,width,height,megapixels,threads,chains,seconds,mpix_per_s,p50_ms,p99_ms,peak_rss_mb,peak_heap_mb";
+    private static final int THRESHOLD = 128;
+
+    private final File directory;
+    private final int iterations, warmup;
+    private final String label;
+
+    private PipelineBenchmark(File directory, int iterations, int warmup, String label)
+    {
+        this.directory = directory;
+        this.iterations = iterations;
+        this.warmup = warmup;
+        this.label = label;
+    }
+
+    public static void main(String[] args) throws Exception
+    {
+        double[] sizes = {1, 4, 16};
+        int[] threads = {1, Runtime.getRuntime().availableProcessors()};
+        int iterations = 5, warmup = 1;
+        String label = "current", csv = null, json = null, directory = null;
+
+        for(int i = 0; i < args.length; i++)
+        {
+            switch(args[i])
+            {
+                case "--sizes":
+                    final String[] values = value(args, ++i).split(",");
+                    sizes = new double[values.length];
+                    for(int j = 0; j < values.length; j++)
+                        sizes[j] = Double.parseDouble(values[j]);
+                    break;
+                case "--threads": threads = integers(value(args, ++i)); break;
+                case "--iterations": iterations = Integer.parseInt(value(args, ++i)); break;
+                case "--warmup": warmup = Integer.parseInt(value(args, ++i)); break;
+                case "--label": label = value(args, ++i); break;
+                case "--csv": csv = value(args, ++i); break;
+                case "--json": json = value(args, ++i); break;
+                case "--dir": directory = value(args, ++i); break;
+                case "--compare":
+                    compare(new File(value(args, ++i)), new File(value(args, ++i)), System.out);
+                    return;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        if(iterations <= 0 || warmup < 0)
+            throw new IllegalArgumentException("Invalid number of iterations");
+
+        final File files = directory != null ? new File(directory) : Files.createTempDirectory("pipeline").toFile();
+        if(!files.isDirectory() && !files.mkdirs())
+            throw new IOException("Cannot create " + files);
+        final PipelineBenchmark benchmark = new PipelineBenchmark(files, iterations, warmup, label);
+
+        final List<Result> results = new ArrayList<>();
+        System.err.println(HEADER);
+        for(double size : sizes)
+        {
+            for(int count : threads)
+            {
+                final Result result = benchmark.run(size, count);
+                System.err.println(result.csv());
+                results.add(result);
+            }
+        }
+
+        if(csv == null && json == null)
+            write(results, System.out, false);
+        if(csv != null)
+            write(results, new File(csv), false);
+        if(json != null)
+            write(results, new File(json), true);
+    }
+
+    /**
+     * Runs the chains for a cover size and a number of threads.
+     * @param megapixels the size of the cover, in millions of pixels, with a 4:3 aspect ratio
+     * @param threads the number of chains run at once
+     * @return the measures
+     */
+    private Result run(double megapixels, int threads) throws Exception
+    {
+        final int height = (int) Math.max(8, Math.round(Math.sqrt(megapixels * 1e6 * 3 / 4)));
+        final int width = (int) Math.max(8, Math.round(height * 4.0 / 3));
+        final File cover = new File(directory, "cover-" + width + "x" + height + ".png");
+        final File message = new File(directory, "message-" + width + "x" + height + ".png");
+        if(!cover.isFile())
+            write(cover, noise(width, height));
+        if(!message.isFile())
+            write(message, shapes(width / 2, height / 2)); // A quarter of the pixels, leaving room for the dimensions
+
+        for(int i = 0; i < warmup; i++)
+            chain(cover, message, new File(directory, "warmup.png"));
+
+        System.gc();
+        resetPeaks();
+        final ExecutorService pool = Executors.newFixedThreadPool(threads);
+        final List<Future<long[]>> futures = new ArrayList<>();
+        final long start = System.nanoTime();
+        try
+        {
+            for(int t = 0; t < threads; t++)
+            {
+                final File output = new File(directory, "hidden-" + t + ".png");
+                futures.add(pool.submit(new Callable<long[]>()
+                {
+                    @Override
+                    public long[] call() throws IOException
+                    {
+                        final long[] latencies = new long[iterations];
+                        for(int i = 0; i < iterations; i++)
+                        {
+                            final long begin = System.nanoTime();
+                            chain(cover, message, output);
+                            latencies[i] = System.nanoTime() - begin;
+                        }
+                        return latencies;
+                    }
+                }));
+            }
+
+            final long[] latencies = new long[threads * iterations];
+            for(int t = 0; t < threads; t++)
+            {
+                try
+                {
+                    System.arraycopy(futures.get(t).get(), 0, latencies, t * iterations, iterations);
+                }
+                catch(ExecutionException e)
+                {
+                    throw new IOException("Chain failed", e.getCause());
+                }
+            }
+            final double seconds = (System.nanoTime() - start) / 1e9;
+            Arrays.sort(latencies);
+            return new Result(label, width, height, threads, latencies.length, seconds,
+                    (double) width * height * latencies.length / seconds / 1e6,
+                    percentile(latencies, 0.5) / 1e6, percentile(latencies, 0.99) / 1e6, peakRss(), peakHeap());
+        }
+        finally
+        {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Hides a message into a cover, then reveals it.
+     */
+    private static void chain(File cover, File message, File output) throws IOException
+    {
+        final IntRaster pixels = Helper.readRasterChecked(cover.getPath(), false);
+        final BitRaster bw = ImageMessage.toBW(ImageMessage.toGray(Helper.readRasterChecked(message.getPath(), false)), THRESHOLD);
+        final IntRaster hidden = Steganography.embedSpiralImage(pixels, bw);
+        if(!Helper.write(output.getPath(), hidden))
+            throw new IOException("Cannot write " + output);
+        final BitRaster revealed = Steganography.revealSpiralImage(Helper.readRasterChecked(output.getPath(), false));
+        if(!bw.equals(revealed))
+            throw new IOException("The revealed message differs");
+    }
+
+    private static void write(File file, IntRaster raster) throws IOException
+    {
+        if(!Helper.write(file.getPath(), raster))
+            throw new IOException("Cannot write " + file);
+    }
+
+    /**
+     * Creates a raster of random pixels, which compress as badly as photographs.
+     */
+    private static IntRaster noise(int width, int height)
+    {
+        final IntRaster raster = new IntRaster(width, height);
+        final int[] data = raster.data();
+        final Random random = new Random(42);
+        for(int i = 0; i < data.length; i++)
+            data[i] = random.nextInt(1 << 24);
+        return raster;
+    }
+
+    /**
+     * Creates a raster of concentric rings, whose black and white version has large uniform areas.
+     */
+    private static IntRaster shapes(int width, int height)
+    {
+        final IntRaster raster = new IntRaster(width, height);
+        for(int row = 0; row < height; row++)
+        {
+            for(int col = 0; col < width; col++)
+            {
+                final int dx = col - width / 2, dy = row - height / 2;
+                raster.set(row, col, ((int) Math.sqrt((double) dx * dx + dy * dy) / 16) % 2 == 0 ? 0xffffff : 0x202020);
+            }
+        }
+        return raster;
+    }
+
+    private static long percentile(long[] sorted, double fraction)
+    {
+        return sorted[Math.max(0, (int) Math.ceil(fraction * sorted.length) - 1)]; // Nearest rank
+    }
+
+    /**
+     * Resets the peak usage of the heap and, when allowed, of the resident set.
+     */
+    private static void resetPeaks()
+    {
+        for(MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+            pool.resetPeakUsage();
+        try
+        {
+            Files.write(Paths.get("/proc/self/clear_refs"), "5".getBytes(StandardCharsets.US_ASCII));
+        }
+        catch(IOException | UnsupportedOperationException | SecurityException e)
+        {
+            // The peak of the whole process is reported instead
+        }
+    }
+
+    /**
+     * Gets the peak resident set size of the process.
+     * @return the size in MiB, or {@code -1} if unknown
+     */
+    private static double peakRss()
+    {
+        try
+        {
+            for(String line : Files.readAllLines(Paths.get("/proc/self/status"), StandardCharsets.US_ASCII))
+            {
+                if(line.startsWith("VmHWM:"))
+                    return Long.parseLong(line.replaceAll("[^0-9]", "")) / 1024.0;
+            }
+        }
+        catch(IOException | NumberFormatException e)
+        {
+            // Not Linux
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the sum of the peak usages of the heap pools.
+     * @return the size in MiB
+     */
+    private static double peakHeap()
+    {
+        long bytes = 0;
+        for(MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+        {
+            if(pool.getType() == MemoryType.HEAP && pool.getPeakUsage() != null)
+                bytes += pool.getPeakUsage().getUsed();
+        }
+        return bytes / (1024.0 * 1024.0);
+    }
+
+    private static void write(List<Result> results, File file, boolean json) throws IOException
+    {
+        try(PrintStream out = new PrintStream(file, "UTF-8"))
+        {
+            write(results, out, json);
+        }
+    }
+
+    private static void write(List<Result> results, PrintStream out, boolean json)
+    {
+        if(!json)
+        {
+            out.println(HEADER);
+            for(Result result : results)
+                out.println(result.csv());
+            return;
+        }
+        out.println("[");
+        for(int i = 0; i < results.size(); i++)
+            out.println("  " + results.get(i).json() + (i + 1 < results.size() ? "," : ""));
+        out.println("]");
+    }
+
+    /**
+     * Prints the ratios of the measures of a candidate build to those of a baseline, for the runs found in both.
+     * @param baseline the CSV results of the baseline
+     * @param candidate the CSV results of the candidate
+     * @param out the stream receiving the comparison
+     */
+    static void compare(File baseline, File candidate, PrintStream out) throws IOException
+    {
+        final Map<String, String[]> base = read(baseline);
+        out.println("width,height,threads,mpix_per_s,candidate_mpix_per_s,speedup,p99_ms,candidate_p99_ms,p99_ratio,peak_rss_mb,candidate_peak_rss_mb");
+        for(Map.Entry<String, String[]> entry : read(candidate).entrySet())
+        {
+            final String[] before = base.get(entry.getKey()), after = entry.getValue();
+            if(before == null)
+                continue;
+            out.println(String.format(Locale.ROOT, "%s,%s,%s,%.2f,%s,%s,%.2f,%s,%s", entry.getKey(),
+                    before[7], after[7], Double.parseDouble(after[7]) / Double.parseDouble(before[7]),
+                    before[9], after[9], Double.parseDouble(after[9]) / Double.parseDouble(before[9]),
+                    before[10], after[10]));
+        }
+    }
+
+    /**
+     * Reads CSV results, keyed by {@code width,height,threads}.
+     */
+    private static Map<String, String[]> read(File file) throws IOException
+    {
+        final Map<String, String[]> rows = new LinkedHashMap<>(); // In the order of the runs
+        final List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        for(String line : lines.subList(1, lines.size()))
+        {
+            final String[] fields = line.split(",");
+            if(fields.length == HEADER.split(",").length)
+                rows.put(fields[1] + "," + fields[2] + "," + fields[4], fields);
+        }
+        return rows;
+    }
+
+    private static String value(String[] args, int index)
+    {
+        if(index >= args.length)
+            throw new IllegalArgumentException("Missing value for " + args[index - 1]);
+        return args[index];
+    }
+
+    private static int[] integers(String list)
+    {
+        final String[] values = list.split(",");
+        final int[] integers = new int[values.length];
+        for(int i = 0; i < values.length; i++)
+            integers[i] = Integer.parseInt(values[i]);
+        return integers;
+    }
+
+    /**
+     * Represent the measures of a cover size and a number of threads.
+     */
+    private static final class Result
+    {
+        private final String label;
+        private final int width, height, threads, chains;
+        private final double seconds, throughput, p50, p99, rss, heap;
+
+        Result(String label, int width, int height, int threads, int chains, double seconds, double throughput,
+               double p50, double p99, double rss, double heap)
+        {
+            this.label = label;
+            this.width = width;
+            this.height = height;
+            this.threads = threads;
+            this.chains = chains;
+            this.seconds = seconds;
+            this.throughput = throughput;
+            this.p50 = p50;
+            this.p99 = p99;
+            this.rss = rss;
+            this.heap = heap;
+        }
+
+        String csv()
+        {
+            return String.format(Locale.ROOT, "%s,%d,%d,%.2f,%d,%d,%.3f,%.2f,%.1f,%.1f,%.1f,%.1f", label.replace(',', '_'),
+                    width, height, width * (double) height / 1e6, threads, chains, seconds, throughput, p50, p99, rss, heap);
+        }
+
+        String json()
+        {
+            return String.format(Locale.ROOT, "{\"label\": \"%s\", \"width\": %d, \"height\": %d, \"megapixels\": %.2f, "
+                    + "\"threads\": %d, \"chains\": %d, \"seconds\": %.3f, \"mpix_per_s\": %.2f, \"p50_ms\": %.1f, "
+                    + "\"p99_ms\": %.1f, \"peak_rss_mb\": %.1f, \"peak_heap_mb\": %.1f}",
+                    label.replace("\\", "\\\\").replace("\"", "\\\""), width, height, width * (double) height / 1e6,
+                    threads, chains, seconds, throughput, p50, p99, rss, heap);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package main;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measure walking the spiral step by step against positioning the cursor directly, per cover size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class SpiralCursorBenchmark
+{
+    private static final int POSITIONS = 1024;
+
+    @Param({BenchmarkCovers.SMALL, BenchmarkCovers.MEDIUM, BenchmarkCovers.TILES, BenchmarkCovers.SYNTHETIC})
+    public String cover;
+
+    private int rows, cols;
+    private final int[] indices = new int[POSITIONS];
+
+    @Setup(Level.Trial)
+    public void load() throws IOException
+    {
+        final IntRaster raster = BenchmarkCovers.load(cover);
+        rows = raster.height();
+        cols = raster.width();
+        final Random random = new Random(42);
+        for(int i = 0; i < POSITIONS; i++)
+            indices[i] = random.nextInt(rows * cols);
+    }
+
+    /**
+     * Visits every pixel of the cover.
+     */
+    @Benchmark
+    public int walk()
+    {
+        final SpiralCursor cursor = new SpiralCursor(rows, cols);
+        int sum = cursor.getRow() + cursor.getCol();
+        for(long i = 1, area = (long) rows * cols; i < area; i++)
+        {
+            cursor.step();
+            sum += cursor.getRow() + cursor.getCol();
+        }
+        return sum;
+    }
+
+    /**
+     * Computes the position of random steps.
+     */
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS)
+    public int position()
+    {
+        int sum = 0;
+        for(int index : indices)
+        {
+            final SpiralCursor cursor = new SpiralCursor(rows, cols, index);
+            sum += cursor.getRow() + cursor.getCol();
+        }
+        return sum;
+    }
+
+    /**
+     * Computes the step of random cells.
+     */
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS)
+    public int indexOf()
+    {
+        int sum = 0;
+        for(int index : indices)
+            sum += SpiralCursor.indexOf(rows, cols, index / cols, index % cols);
+        return sum;
+    }
+
+    /**
+     * Builds the table of the spiral, as the first embedding into a cover of a new size does.
+     */
+    @Benchmark
+    public int[] table()
+    {
+        return TraversalOrder.SPIRAL.table(rows, cols);
+    }
+}
@@ -0,0 +1,126 @@
+package main;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measure embedding and revealing bits, per cover and payload size.
+ * <p>
+ * Payloads larger than a cover holds are cut to its capacity, so the largest ones fill the smaller covers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class SteganographyBenchmark
+{
+    private static final int DEPTH = 2;
+
+    @Param({BenchmarkCovers.SMALL, BenchmarkCovers.MEDIUM, BenchmarkCovers.TILES, BenchmarkCovers.SYNTHETIC})
+    public String cover;
+
+    /**
+     * The size of the payload, in bytes.
+     */
+    @Param({"1024", "65536", "1048576"})
+    public int payload;
+
+    private IntRaster raster, linear, spiral, deep, framed;
+    private BitBuffer message, deepMessage;
+    private Payload bytes;
+
+    @Setup(Level.Trial)
+    public void load() throws IOException
+    {
+        raster = BenchmarkCovers.load(cover);
+        message = BenchmarkCovers.message(payload, raster, 0);
+        deepMessage = BenchmarkCovers.message(payload, raster, DEPTH);
+        linear = Steganography.embedBitBuffer(raster, message);
+        spiral = Steganography.embedSpiralBitBuffer(raster, message);
+        deep = Steganography.embedBitBuffer(raster, deepMessage, DEPTH, TraversalOrder.LINEAR);
+
+        final byte[] data = new byte[(int) Math.min(payload, (raster.area() - Payload.HEADER_SIZE) / 8)];
+        for(int i = 0; i < data.length; i++)
+            data[i] = (byte) (i * 31);
+        bytes = Payload.ofBytes(data);
+        framed = Steganography.embedPayload(raster, bytes);
+    }
+
+    @Benchmark
+    public IntRaster embedLinear()
+    {
+        return Steganography.embedBitBuffer(raster, message);
+    }
+
+    @Benchmark
+    public BitBuffer revealLinear()
+    {
+        return Steganography.revealBitBuffer(linear);
+    }
+
+    @Benchmark
+    public IntRaster embedSpiral()
+    {
+        return Steganography.embedSpiralBitBuffer(raster, message);
+    }
+
+    @Benchmark
+    public BitBuffer revealSpiral()
+    {
+        return Steganography.revealSpiralBitBuffer(spiral);
+    }
+
+    @Benchmark
+    public IntRaster embedDeep()
+    {
+        return Steganography.embedBitBuffer(raster, deepMessage, DEPTH, TraversalOrder.LINEAR);
+    }
+
+    @Benchmark
+    public BitBuffer revealDeep()
+    {
+        return Steganography.revealBitBuffer(deep, DEPTH, TraversalOrder.LINEAR);
+    }
+
+    /**
+     * Frames, checksums and embeds bytes, as the command line does.
+     */
+    @Benchmark
+    public IntRaster embedPayload()
+    {
+        return Steganography.embedPayload(raster, bytes);
+    }
+
+    /**
+     * Reads the header, then only the pixels holding the data.
+     */
+    @Benchmark
+    public Payload revealPayload()
+    {
+        return Steganography.revealPayload(framed);
+    }
+
+    /**
+     * Converts the bits to booleans first, as the original array API does.
+     */
+    @Benchmark
+    public IntRaster embedBitArray()
+    {
+        return Steganography.embedBitArray(raster, message.toBitArray());
+    }
+}
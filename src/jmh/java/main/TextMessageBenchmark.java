@@ -0,0 +1,81 @@
+package main;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measure the conversions between texts and bits, per payload size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TextMessageBenchmark
+{
+    /**
+     * The number of characters of the text.
+     */
+    @Param({"1024", "65536", "1048576"})
+    public int payload;
+
+    private String text;
+    private BitBuffer bits, utf8;
+
+    @Setup(Level.Trial)
+    public void create()
+    {
+        final char[] chars = new char[payload];
+        final Random random = new Random(42);
+        for(int i = 0; i < chars.length; i++)
+            chars[i] = (char) (' ' + random.nextInt('~' - ' ' + 1)); // Printable ASCII
+        text = new String(chars);
+        bits = TextMessage.stringToBitBuffer(text);
+        utf8 = TextMessage.stringToBitBuffer(text, StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public BitBuffer stringToBitBuffer()
+    {
+        return TextMessage.stringToBitBuffer(text);
+    }
+
+    @Benchmark
+    public String bitBufferToString()
+    {
+        return TextMessage.bitBufferToString(bits);
+    }
+
+    @Benchmark
+    public BitBuffer stringToBitBufferUtf8()
+    {
+        return TextMessage.stringToBitBuffer(text, StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public String bitBufferToStringUtf8()
+    {
+        return TextMessage.bitBufferToString(utf8, StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public boolean[] stringToBitArray()
+    {
+        return TextMessage.stringToBitArray(text);
+    }
+}
@@ -0,0 +1,13 @@
+package main;
+
+/**
+ * Base of the preview sinks, showing the images held as arrays by copying them into rasters.
+ */
+public abstract class AbstractPreviewSink implements PreviewSink
+{
+    @Override
+    public void show(int[][] array, String title)
+    {
+        show(IntRaster.fromArray(array), title);
+    }
+}
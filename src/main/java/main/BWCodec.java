@@ -0,0 +1,337 @@
+package main;
+
+import java.util.Arrays;
+
+/**
+ * Compress black and white images, which are mostly long runs of a single color.
+ * <p>
+ * The pixels are read row after row as a single sequence of alternating runs. Each run length is written
+ * with a Rice code whose parameter adapts to the mean of the previous runs of the same color, so that
+ * both short runs in detailed areas and long runs in flat areas take few bits. Runs too long for their
+ * parameter are escaped and written in full. When runs do not pay off, as for noise, the pixels are
+ * stored as raw bits instead.
+ * <p>
+ * The stream holds, least significant bit first: the 32-bit width, the 32-bit height, a 1-bit method
+ * ({@code 0} for raw bits, {@code 1} for runs), then either the raw pixels or the color of the first
+ * pixel followed by the codes of the runs.
+ */
+public final class BWCodec
+{
+    private static final int RAW = 0, RUNS = 1;
+
+    private static final int ESCAPE = 24; // Unary prefix length announcing a 32-bit run length
+    private static final int MAX_PARAMETER = 30;
+    private static final int RESET = 64; // Number of runs after which the statistics are halved
+
+    private BWCodec()
+    {
+    }
+
+    /**
+     * Compresses a black and white image.
+     * @param image the image
+     * @return the compressed bytes
+     * @see #decode(byte[])
+     */
+    public static byte[] encode(BitRaster image)
+    {
+        assert image != null;
+
+        final BitBuffer pixels = image.bits();
+        final int area = pixels.length();
+
+        final Writer writer = new Writer();
+        writer.write(image.width(), Integer.SIZE);
+        writer.write(image.height(), Integer.SIZE);
+        writer.write(RUNS, 1);
+
+        final int headerSize = writer.size();
+        final Model model = new Model();
+        boolean color = area > 0 && pixels.get(0);
+        writer.write(color ? 1 : 0, 1);
+        int i = 0;
+        while(i < area && writer.size() - headerSize <= area) // Gives up once runs are larger than raw bits
+        {
+            final int end = runEnd(pixels, i, color);
+            model.write(writer, color, end - i - 1);
+            i = end;
+            color = !color;
+        }
+
+        if(writer.size() - headerSize > area) // Raw bits are smaller
+        {
+            writer.truncate(headerSize - 1);
+            writer.write(RAW, 1);
+            final long[] words = pixels.words();
+            for(int word = 0; word < words.length; word++)
+                writer.write(words[word], Math.min(Long.SIZE, area - word * Long.SIZE));
+        }
+        return writer.toByteArray();
+    }
+
+    /**
+     * Decompresses a black and white image.
+     * @param data the bytes written by {@link #encode(BitRaster)}
+     * @return the image
+     * @throws IllegalArgumentException if {@code data} is not a valid stream
+     */
+    public static BitRaster decode(byte[] data)
+    {
+        return decode(data, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Decompresses a black and white image of bounded size. The stream is checked to describe all the pixels its
+     * header announces before they are allocated, but a few runs can still describe a huge image.
+     * @param data the bytes written by {@link #encode(BitRaster)}
+     * @param maxArea the largest number of pixels of the image
+     * @return the image
+     * @throws IllegalArgumentException if {@code data} is not a valid stream, or holds a larger image
+     */
+    public static BitRaster decode(byte[] data, long maxArea)
+    {
+        assert data != null;
+
+        final Reader reader = new Reader(data);
+        final int width = (int) reader.read(Integer.SIZE), height = (int) reader.read(Integer.SIZE);
+        if(width <= 0 || height <= 0 || (long) width * height > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Invalid image size: " + width + "x" + height);
+        if((long) width * height > maxArea)
+            throw new IllegalArgumentException("The image has " + (long) width * height + " pixels, more than " + maxArea);
+        final int area = width * height;
+
+        final boolean raw = reader.read(1) == RAW;
+        if(raw && area > reader.left())
+            throw new IllegalArgumentException("Truncated stream");
+        if(!raw)
+            runs(new Reader(reader), null, area); // Only checks the runs, which may be fewer than announced
+
+        final BitRaster image = new BitRaster(width, height);
+        final long[] words = image.bits().words();
+        if(raw)
+        {
+            for(int word = 0; word < words.length; word++)
+                words[word] = reader.read(Math.min(Long.SIZE, area - word * Long.SIZE));
+        }
+        else
+            runs(reader, words, area);
+        return image;
+    }
+
+    /**
+     * Reads the runs of an image.
+     * @param reader the reader, past the method
+     * @param words the pixels to set, or {@code null} to only check that the runs fill the image
+     * @param area the number of pixels
+     * @throws IllegalArgumentException if the runs end before the pixels, or go past them
+     */
+    private static void runs(Reader reader, long[] words, int area)
+    {
+        final Model model = new Model();
+        boolean color = reader.read(1) == 1;
+        int i = 0;
+        while(i < area)
+        {
+            final long length = model.read(reader, color) + 1;
+            if(length > area - i)
+                throw new IllegalArgumentException("Run past the end of the image");
+            if(color && words != null)
+                fill(words, i, i + (int) length);
+            i += (int) length;
+            color = !color;
+        }
+    }
+
+    /**
+     * Finds the end of the run starting at a given pixel.
+     * @param pixels the pixels
+     * @param from the first pixel of the run, of the given color
+     * @param color the color of the run
+     * @return the index of the first pixel of another color, or the number of pixels
+     */
+    private static int runEnd(BitBuffer pixels, int from, boolean color)
+    {
+        final long[] words = pixels.words();
+        final long flip = color ? -1L : 0L; // Turns the run into zeros
+        int word = from >>> 6;
+        long bits = (words[word] ^ flip) >>> (from & 63);
+        if(bits != 0)
+            return Math.min(pixels.length(), from + Long.numberOfTrailingZeros(bits));
+        while(++word < words.length)
+        {
+            bits = words[word] ^ flip;
+            if(bits != 0)
+                return Math.min(pixels.length(), (word << 6) + Long.numberOfTrailingZeros(bits));
+        }
+        return pixels.length();
+    }
+
+    /**
+     * Sets a range of bits.
+     * @param words the packed bits
+     * @param from the first bit, inclusive
+     * @param to the last bit, exclusive
+     */
+    private static void fill(long[] words, int from, int to)
+    {
+        final int first = from >>> 6, last = (to - 1) >>> 6;
+        final long head = -1L << from, tail = -1L >>> -to; // Bits from 'from' on, bits before 'to'
+        if(first == last)
+        {
+            words[first] |= head & tail;
+            return;
+        }
+        words[first] |= head;
+        for(int word = first + 1; word < last; word++)
+            words[word] = -1L;
+        words[last] |= tail;
+    }
+
+    /**
+     * Adapt the Rice parameter of each color to the mean length of its recent runs.
+     */
+    private static final class Model
+    {
+        private final long[] sum = {4, 4};
+        private final int[] count = {1, 1};
+
+        /**
+         * Gets the Rice parameter of a color: the smallest {@code k} such that {@code count << k >= sum}.
+         */
+        private int parameter(int color)
+        {
+            int k = 0;
+            while(k < MAX_PARAMETER && ((long) count[color] << k) < sum[color])
+                k++;
+            return k;
+        }
+
+        private void update(int color, long value)
+        {
+            sum[color] += value;
+            if(++count[color] == RESET)
+            {
+                sum[color] >>= 1;
+                count[color] >>= 1;
+            }
+        }
+
+        void write(Writer writer, boolean set, long value)
+        {
+            final int color = set ? 1 : 0, k = parameter(color);
+            final long quotient = value >>> k;
+            if(quotient < ESCAPE)
+            {
+                writer.write((1L << quotient) - 1, (int) quotient + 1); // Ones ended by a zero
+                writer.write(value, k);
+            }
+            else
+            {
+                writer.write((1L << ESCAPE) - 1, ESCAPE);
+                writer.write(value, Integer.SIZE);
+            }
+            update(color, value);
+        }
+
+        long read(Reader reader, boolean set)
+        {
+            final int color = set ? 1 : 0, k = parameter(color);
+            int quotient = 0;
+            while(quotient < ESCAPE && reader.read(1) == 1)
+                quotient++;
+            final long value = quotient < ESCAPE ? (long) quotient << k | reader.read(k) : reader.read(Integer.SIZE);
+            update(color, value);
+            return value;
+        }
+    }
+
+    /**
+     * Append bits to a growing array, least significant bit first.
+     */
+    private static final class Writer
+    {
+        private long[] words = new long[16];
+        private int size = 0;
+
+        void write(long value, int count)
+        {
+            if(count == 0)
+                return;
+            if(((size + count + 63) >>> 6) > words.length)
+                words = Arrays.copyOf(words, words.length * 2);
+            if(count < Long.SIZE)
+                value &= (1L << count) - 1;
+            final int word = size >>> 6, offset = size & 63;
+            words[word] |= value << offset;
+            if(offset + count > Long.SIZE)
+                words[word + 1] |= value >>> (Long.SIZE - offset);
+            size += count;
+        }
+
+        int size()
+        {
+            return size;
+        }
+
+        void truncate(int size)
+        {
+            final int word = size >>> 6;
+            if((size & 63) != 0)
+                words[word] &= (1L << size) - 1;
+            Arrays.fill(words, (size + 63) >>> 6, words.length, 0);
+            this.size = size;
+        }
+
+        byte[] toByteArray()
+        {
+            final byte[] bytes = new byte[(size + 7) >>> 3];
+            for(int i = 0; i < bytes.length; i++)
+                bytes[i] = (byte) (words[i >>> 3] >>> ((i & 7) << 3));
+            return bytes;
+        }
+    }
+
+    /**
+     * Read bits from an array of bytes, least significant bit first.
+     */
+    private static final class Reader
+    {
+        private final byte[] data;
+        private long position = 0;
+
+        Reader(byte[] data)
+        {
+            this.data = data;
+        }
+
+        /**
+         * Creates a reader at the same position as another one.
+         */
+        Reader(Reader reader)
+        {
+            this.data = reader.data;
+            this.position = reader.position;
+        }
+
+        long left()
+        {
+            return (long) data.length * Byte.SIZE - position;
+        }
+
+        long read(int count)
+        {
+            if(position + count > (long) data.length * Byte.SIZE)
+                throw new IllegalArgumentException("Truncated stream");
+            long value = 0;
+            for(int i = 0; i < count; )
+            {
+                final int index = (int) (position >>> 3), offset = (int) (position & 7);
+                final int taken = Math.min(Byte.SIZE - offset, count - i);
+                value |= (long) ((data[index] & 0xff) >>> offset & ((1 << taken) - 1)) << i;
+                i += taken;
+                position += taken;
+            }
+            return value;
+        }
+    }
+}
@@ -0,0 +1,409 @@
+package main;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Embed a payload into many covers, or reveal the payloads of many images, on a pool of threads and without any window.
+ * <p>
+ * Each image is a job, named after its path relative to the directory or manifest listing it. A job belongs to
+ * shard {@code hash(name) mod N}, so processes given the same listing and {@code --shard i/N} for every {@code i}
+ * split it without talking to each other. A failed job is reported and does not stop the others.
+ * <p>
+ * The result of a job is written under the output directory at the path of its name, without its extension nor any
+ * {@code .} or {@code ..} segment. Jobs which would still share a result, such as {@code a.png} and {@code a.bmp},
+ * keep their extension in it.
+ *
+ * @see Main
+ */
+public final class Batch
+{
+    private static final List<String> EXTENSIONS = Arrays.asList("png", "bmp", "gif", "jpg", "jpeg");
+
+    private final Payload payload; // null to reveal
+    private final int depth;
+    private final TraversalOrder order;
+    private final File output;
+    private final boolean sidecar;
+
+    /**
+     * Creates a batch embedding a payload into each cover, written as a PNG image.
+     * @param payload the payload to embed
+     * @param depth the number of bits per channel, {@code 0} standing for the single LSB of each pixel
+     * @param order the order in which the pixels receive the bits
+     * @param output the directory receiving the images
+     * @param sidecar whether to read the covers through decoded copies, as {@link Helper#readRaster(String, boolean)}
+     * @return the batch
+     */
+    public static Batch embed(Payload payload, int depth, TraversalOrder order, File output, boolean sidecar)
+    {
+        assert payload != null && order != null && output != null;
+
+        final Payload framed = payload.withDepth(depth);
+        framed.toBitBuffer(); // Compresses once, before the payload is shared by the workers
+        return new Batch(framed, depth, order, output, sidecar);
+    }
+
+    /**
+     * Creates a batch revealing the payload of each image, written as a {@code .txt} file for a text, a {@code .png}
+     * image for a black and white image, and a {@code .bin} file otherwise.
+     * @param order the order in which the pixels hold the bits
+     * @param output the directory receiving the payloads
+     * @param sidecar whether to read the images through decoded copies, as {@link Helper#readRaster(String, boolean)}
+     * @return the batch
+     */
+    public static Batch reveal(TraversalOrder order, File output, boolean sidecar)
+    {
+        assert order != null && output != null;
+
+        return new Batch(null, 0, order, output, sidecar);
+    }
+
+    private Batch(Payload payload, int depth, TraversalOrder order, File output, boolean sidecar)
+    {
+        this.payload = payload;
+        this.depth = depth;
+        this.order = order;
+        this.output = output;
+        this.sidecar = sidecar;
+    }
+
+    /**
+     * Lists the images of files and directories, recursively and in a stable order.
+     * @param inputs image files, named after their file name, or directories, whose images are named after their path inside
+     * @return the jobs
+     * @throws IOException if an input does not exist, or if two images have the same name
+     */
+    public static List<Job> list(List<File> inputs) throws IOException
+    {
+        final List<Job> jobs = new ArrayList<>();
+        for(File input : inputs)
+        {
+            if(input.isDirectory())
+                walk(input, "", jobs);
+            else if(input.isFile())
+                jobs.add(new Job(input, input.getName()));
+            else
+                throw new IOException("No such file or directory: " + input);
+        }
+        return unique(jobs);
+    }
+
+    private static void walk(File directory, String prefix, List<Job> jobs)
+    {
+        final File[] files = directory.listFiles();
+        if(files == null)
+            return;
+        Arrays.sort(files);
+        for(File file : files)
+        {
+            if(file.isDirectory())
+                walk(file, prefix + file.getName() + "/", jobs);
+            else if(EXTENSIONS.contains(extension(file.getName()).toLowerCase(Locale.ROOT)))
+                jobs.add(new Job(file, prefix + file.getName()));
+        }
+    }
+
+    /**
+     * Lists the images of a manifest: one path per line, relative to the manifest unless absolute. Blank lines and
+     * lines starting with {@code #} are skipped.
+     * @param manifest the manifest file
+     * @return the jobs, named after their line
+     * @throws IOException if the manifest cannot be read, or if it lists the same name twice
+     */
+    public static List<Job> manifest(File manifest) throws IOException
+    {
+        final File base = manifest.getAbsoluteFile().getParentFile();
+        final List<Job> jobs = new ArrayList<>();
+        for(String line : Files.readAllLines(manifest.toPath(), StandardCharsets.UTF_8))
+        {
+            final String name = line.trim();
+            if(name.isEmpty() || name.startsWith("#"))
+                continue;
+            final File file = new File(name);
+            jobs.add(new Job(file.isAbsolute() ? file : new File(base, name), name));
+        }
+        return unique(jobs);
+    }
+
+    /**
+     * Gives distinct results to jobs, keeping the extension of the ones which would share a result without it.
+     * The jobs of a single listing are already distinct, the ones of several listings must be checked again.
+     * @param jobs the jobs
+     * @return the jobs, in the same order
+     * @throws IOException if two jobs still share a result
+     */
+    public static List<Job> unique(List<Job> jobs) throws IOException
+    {
+        final HashMap<String, Integer> stems = new HashMap<>();
+        for(Job job : jobs)
+        {
+            final String key = job.stem.toLowerCase(Locale.ROOT); // File systems may ignore the case
+            final Integer count = stems.get(key);
+            stems.put(key, count == null ? 1 : count + 1);
+        }
+
+        final HashMap<String, Job> targets = new HashMap<>();
+        final List<Job> unique = new ArrayList<>(jobs.size());
+        for(Job job : jobs)
+        {
+            final Job target = stems.get(job.stem.toLowerCase(Locale.ROOT)) > 1 ? new Job(job.file, job.name, relative(job.name)) : job;
+            final Job previous = targets.put(target.stem.toLowerCase(Locale.ROOT), target);
+            if(previous != null)
+                throw new IOException("Same output for " + previous.file + " and " + job.file + ": " + target.stem);
+            unique.add(target);
+        }
+        return unique;
+    }
+
+    /**
+     * Selects the jobs of a shard.
+     * @param jobs all the jobs
+     * @param index the index of the shard, from {@code 0} to {@code count - 1}
+     * @param count the number of shards
+     * @return the jobs whose name hashes to {@code index}, in the same order
+     */
+    public static List<Job> shard(List<Job> jobs, int index, int count)
+    {
+        if(count <= 0 || index < 0 || index >= count)
+            throw new IllegalArgumentException("Invalid shard: " + index + "/" + count);
+        final List<Job> selected = new ArrayList<>();
+        for(Job job : jobs)
+        {
+            if(((job.name.hashCode() * 0x9e3779b1) >>> 1) % count == index) // Spreads close names
+                selected.add(job);
+        }
+        return selected;
+    }
+
+    /**
+     * Runs jobs, each on a single thread.
+     * @param jobs the jobs
+     * @param threads the number of jobs run at once
+     * @param log the stream receiving a line per job and a summary
+     * @return the number of failed jobs
+     */
+    public int run(List<Job> jobs, int threads, PrintStream log)
+    {
+        if(threads <= 0)
+            throw new IllegalArgumentException("Invalid number of threads: " + threads);
+
+        final long start = System.nanoTime();
+        final ExecutorService pool = Executors.newFixedThreadPool(threads);
+        final List<Future<String>> results = new ArrayList<>(jobs.size());
+        try
+        {
+            for(final Job job : jobs)
+            {
+                results.add(pool.submit(new Callable<String>()
+                {
+                    @Override
+                    public String call() throws Exception
+                    {
+                        return process(job);
+                    }
+                }));
+            }
+
+            int failures = 0;
+            for(int i = 0; i < jobs.size(); i++) // Reports in the order of the listing
+            {
+                try
+                {
+                    log.println("ok     " + jobs.get(i).name + " -> " + results.get(i).get());
+                }
+                catch(ExecutionException e)
+                {
+                    failures++;
+                    log.println("FAILED " + jobs.get(i).name + ": " + e.getCause());
+                }
+                catch(InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                    log.println("Interrupted");
+                    return jobs.size() - i + failures;
+                }
+            }
+
+            final double seconds = (System.nanoTime() - start) / 1e9;
+            log.println(String.format(Locale.ROOT, "%d images, %d failed, %.1f s, %.0f images/hour on %d threads",
+                    jobs.size(), failures, seconds, jobs.size() * 3600 / Math.max(seconds, 1e-9), threads));
+            return failures;
+        }
+        finally
+        {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Runs a job.
+     * @return the path of the file written
+     */
+    private String process(Job job) throws IOException
+    {
+        final IntRaster cover = Helper.readRasterChecked(job.file.getPath(), sidecar);
+        return payload != null ? embed(job, cover) : reveal(job, cover);
+    }
+
+    private String embed(Job job, IntRaster cover) throws IOException
+    {
+        final long pixels = payload.pixels();
+        if(pixels > cover.area())
+            throw new IOException("The cover is too small: " + pixels + " pixels needed, " + cover.area() + " available");
+
+        final IntRaster hidden = Steganography.embedPayload(cover, payload, depth, order);
+        final File file = target(job, "png");
+        try(PngStripWriter writer = new PngStripWriter(new BufferedOutputStream(new FileOutputStream(file), 1 << 16),
+                hidden.width(), hidden.height()))
+        {
+            writer.write(hidden);
+        }
+        return file.getPath();
+    }
+
+    private String reveal(Job job, IntRaster cover) throws IOException
+    {
+        final Payload revealed = Steganography.revealPayload(cover, order);
+        if(revealed == null)
+            throw new IOException("No valid payload");
+
+        final File file;
+        switch(revealed.getType())
+        {
+            case Payload.TYPE_TEXT:
+                file = target(job, "txt");
+                Files.write(file.toPath(), revealed.getText().getBytes(StandardCharsets.UTF_8));
+                break;
+            case Payload.TYPE_BW_IMAGE:
+                final BitRaster image = revealed.getImage();
+                if(image == null)
+                    throw new IOException("Invalid image payload");
+                file = target(job, "png");
+                try(PngStripWriter writer = new PngStripWriter(new BufferedOutputStream(new FileOutputStream(file)),
+                        image.width(), image.height()))
+                {
+                    writer.write(ImageMessage.toRGB(image));
+                }
+                break;
+            default:
+                file = target(job, "bin");
+                Files.write(file.toPath(), revealed.getData());
+                break;
+        }
+        return file.getPath();
+    }
+
+    /**
+     * Gets the file receiving the result of a job, creating its directory.
+     */
+    private File target(Job job, String extension) throws IOException
+    {
+        final File root = output.getCanonicalFile();
+        final File file = new File(root, job.stem + "." + extension).getCanonicalFile();
+        if(!file.toPath().startsWith(root.toPath()))
+            throw new IOException("Outside of " + root + ": " + job.name);
+        final File parent = file.getParentFile();
+        if(parent != null && !parent.isDirectory() && !parent.mkdirs() && !parent.isDirectory())
+            throw new IOException("Cannot create " + parent);
+        return file;
+    }
+
+    /**
+     * Gets the path of the result of a job relative to the output directory, without the {@code .}, {@code ..} and
+     * empty segments of its name, as manifests may point outside of their directory.
+     * @param name the name of the job
+     * @return the path, with {@code /} separators
+     */
+    private static String relative(String name)
+    {
+        final StringBuilder path = new StringBuilder();
+        for(String segment : name.replace('\\', '/').split("/"))
+        {
+            if(segment.isEmpty() || segment.equals(".") || segment.equals(".."))
+                continue;
+            if(path.length() > 0)
+                path.append('/');
+            path.append(segment);
+        }
+        return path.toString();
+    }
+
+    private static String extension(String name)
+    {
+        final int dot = name.lastIndexOf('.');
+        return dot < 0 ? "" : name.substring(dot + 1);
+    }
+
+    /**
+     * Represent an image to process.
+     */
+    public static final class Job
+    {
+        private final File file;
+        private final String name;
+        private final String stem; // Path of the result relative to the output directory, before its extension
+
+        /**
+         * Creates a job.
+         * @param file the image file
+         * @param name the name of the job, giving its shard and the path of its result
+         */
+        public Job(File file, String name)
+        {
+            this(file, name, withoutExtension(relative(name)));
+        }
+
+        private Job(File file, String name, String stem)
+        {
+            this.file = file;
+            this.name = name;
+            this.stem = stem;
+        }
+
+        private static String withoutExtension(String path)
+        {
+            final int dot = path.lastIndexOf('.');
+            return dot > path.lastIndexOf('/') ? path.substring(0, dot) : path;
+        }
+
+        /**
+         * Gets the image file.
+         * @return the file
+         */
+        public File file()
+        {
+            return file;
+        }
+
+        /**
+         * Gets the name of the job.
+         * @return the name
+         */
+        public String name()
+        {
+            return name;
+        }
+
+        @Override
+        public String toString()
+        {
+            return name;
+        }
+    }
+}
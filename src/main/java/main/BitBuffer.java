@@ -0,0 +1,231 @@
+package main;
+
+import java.util.Arrays;
+
+/**
+ * Represent a fixed-length sequence of bits packed into 64-bit words.
+ * <p>
+ * Bit {@code i} is stored at position {@code i % 64} of word {@code i / 64}, which is the same
+ * least-significant-bit first ordering as {@link TextMessage#intToBitArray(int, int)}.
+ * Unused bits of the last word are always kept cleared.
+ */
+public final class BitBuffer
+{
+    private static final int WORD_SHIFT = 6;
+    private static final int WORD_MASK = Long.SIZE - 1;
+
+    private final long[] words;
+    private final int length;
+
+    /**
+     * Creates a buffer of {@code length} cleared bits.
+     * @param length the number of bits, non-negative
+     */
+    public BitBuffer(int length)
+    {
+        assert length >= 0;
+
+        this.length = length;
+        this.words = new long[wordCount(length)];
+    }
+
+    /**
+     * Creates a buffer over existing words, without copying them.
+     * @param words the packed bits, at least {@code wordCount(length)} long
+     * @param length the number of bits, non-negative
+     */
+    public BitBuffer(long[] words, int length)
+    {
+        assert words != null && length >= 0 && words.length >= wordCount(length);
+
+        this.words = words;
+        this.length = length;
+        clearTail();
+    }
+
+    /**
+     * Packs a boolean array.
+     * @param bits the bits to pack
+     * @return a new buffer holding the same bits
+     * @see #toBitArray()
+     */
+    public static BitBuffer fromBitArray(boolean[] bits)
+    {
+        assert bits != null;
+
+        final BitBuffer buffer = new BitBuffer(bits.length);
+        for(int i = 0; i < bits.length; i++)
+        {
+            if(bits[i])
+                buffer.words[i >>> WORD_SHIFT] |= 1L << i;
+        }
+        return buffer;
+    }
+
+    /**
+     * Unpacks this buffer.
+     * @return a boolean array of {@link #length()} elements holding the same bits
+     * @see #fromBitArray(boolean[])
+     */
+    public boolean[] toBitArray()
+    {
+        final boolean[] bits = new boolean[length];
+        for(int i = 0; i < length; i++)
+            bits[i] = get(i);
+        return bits;
+    }
+
+    /**
+     * Returns the number of 64-bit words needed to hold a given number of bits.
+     * @param length a number of bits
+     * @return the number of words
+     */
+    public static int wordCount(int length)
+    {
+        return (int) (((long) length + WORD_MASK) >>> WORD_SHIFT);
+    }
+
+    /**
+     * Gets the number of bits of this buffer.
+     * @return the number of bits
+     */
+    public int length()
+    {
+        return length;
+    }
+
+    /**
+     * Gets the backing words of this buffer, for bulk processing. Changes are visible in both directions.
+     * @return the backing array
+     */
+    public long[] words()
+    {
+        return words;
+    }
+
+    /**
+     * Gets the value of a bit.
+     * @param index the index of the bit
+     * @return the value of the bit
+     */
+    public boolean get(int index)
+    {
+        assert index >= 0 && index < length;
+
+        return ((words[index >>> WORD_SHIFT] >>> index) & 1) != 0; // Shift distance is taken modulo 64
+    }
+
+    /**
+     * Sets the value of a bit.
+     * @param index the index of the bit
+     * @param value the value of the bit
+     */
+    public void set(int index, boolean value)
+    {
+        assert index >= 0 && index < length;
+
+        final long mask = 1L << index;
+        if(value)
+            words[index >>> WORD_SHIFT] |= mask;
+        else
+            words[index >>> WORD_SHIFT] &= ~mask;
+    }
+
+    /**
+     * Reads up to 64 consecutive bits, the first one landing in the least significant position.
+     * @param index the index of the first bit
+     * @param count the number of bits to read, between 0 and 64
+     * @return the bits packed in a long
+     */
+    public long getBits(int index, int count)
+    {
+        assert count >= 0 && count <= Long.SIZE && index >= 0 && (long) index + count <= length;
+
+        if(count == 0)
+            return 0;
+
+        final int word = index >>> WORD_SHIFT, offset = index & WORD_MASK;
+        long value = words[word] >>> offset;
+        if(offset + count > Long.SIZE) // Straddles two words
+            value |= words[word + 1] << (Long.SIZE - offset);
+        return count == Long.SIZE ? value : value & ((1L << count) - 1);
+    }
+
+    /**
+     * Writes up to 64 consecutive bits, the least significant one going first.
+     * @param index the index of the first bit
+     * @param count the number of bits to write, between 0 and 64
+     * @param value the bits packed in a long
+     */
+    public void setBits(int index, int count, long value)
+    {
+        assert count >= 0 && count <= Long.SIZE && index >= 0 && (long) index + count <= length;
+
+        if(count == 0)
+            return;
+
+        final long mask = count == Long.SIZE ? -1L : (1L << count) - 1;
+        value &= mask;
+
+        final int word = index >>> WORD_SHIFT, offset = index & WORD_MASK;
+        words[word] = (words[word] & ~(mask << offset)) | (value << offset);
+        if(offset + count > Long.SIZE) // Straddles two words
+        {
+            final int shift = Long.SIZE - offset;
+            words[word + 1] = (words[word + 1] & ~(mask >>> shift)) | (value >>> shift);
+        }
+    }
+
+    /**
+     * Copies a range of this buffer into a new buffer.
+     * @param from the index of the first bit, inclusive
+     * @param to the index of the last bit, exclusive
+     * @return a new buffer of {@code to - from} bits
+     */
+    public BitBuffer copyOfRange(int from, int to)
+    {
+        assert from >= 0 && from <= to && to <= length;
+
+        final BitBuffer copy = new BitBuffer(to - from);
+        for(int i = 0; i < copy.length; i += Long.SIZE)
+        {
+            final int count = Math.min(Long.SIZE, copy.length - i);
+            copy.setBits(i, count, getBits(from + i, count));
+        }
+        return copy;
+    }
+
+    /**
+     * Clears the unused bits of the last word.
+     */
+    private void clearTail()
+    {
+        final int used = length & WORD_MASK;
+        if(used != 0)
+            words[length >>> WORD_SHIFT] &= (1L << used) - 1;
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if(this == o)
+            return true;
+        if(!(o instanceof BitBuffer))
+            return false;
+        final BitBuffer other = (BitBuffer) o;
+        if(length != other.length)
+            return false;
+        for(int i = 0; i < wordCount(length); i++)
+        {
+            if(words[i] != other.words[i])
+                return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return 31 * length + Arrays.hashCode(Arrays.copyOf(words, wordCount(length)));
+    }
+}
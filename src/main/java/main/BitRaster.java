@@ -0,0 +1,168 @@
+package main;
+
+/**
+ * Represent a HxW black and white image packed one bit per pixel, row after row.
+ * <p>
+ * Pixel {@code (row, col)} is bit {@code row * width + col} of the backing {@link BitBuffer};
+ * {@code false} stands for black, as in {@link ImageMessage#toRGB(boolean[][])}.
+ */
+public final class BitRaster
+{
+    private final BitBuffer bits;
+    private final int width, height;
+
+    /**
+     * Creates an all black raster.
+     * @param width the number of columns, positive
+     * @param height the number of rows, positive
+     */
+    public BitRaster(int width, int height)
+    {
+        this(new BitBuffer(checkedArea(width, height)), width, height);
+    }
+
+    /**
+     * Creates a raster over existing bits, without copying them.
+     * @param bits the pixels, row after row
+     * @param width the number of columns, positive
+     * @param height the number of rows, positive
+     */
+    public BitRaster(BitBuffer bits, int width, int height)
+    {
+        assert bits != null && width > 0 && height > 0 && (long) width * height == bits.length();
+
+        this.bits = bits;
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Copies a HxW boolean array into a new raster.
+     * @param array a HxW boolean array
+     * @return a new raster holding the same pixels
+     * @see #toArray()
+     */
+    public static BitRaster fromArray(boolean[][] array)
+    {
+        assert Utils.isImage(array);
+
+        final BitRaster raster = new BitRaster(array[0].length, array.length);
+        final long[] words = raster.bits.words();
+        int i = 0;
+        for(int row = 0; row < raster.height; row++)
+        {
+            for(int col = 0; col < raster.width; col++)
+            {
+                if(array[row][col])
+                    words[i >>> 6] |= 1L << i;
+                i++;
+            }
+        }
+        return raster;
+    }
+
+    /**
+     * Copies this raster into a new HxW boolean array.
+     * @return a HxW boolean array holding the same pixels
+     * @see #fromArray(boolean[][])
+     */
+    public boolean[][] toArray()
+    {
+        final long[] words = bits.words();
+        final boolean[][] array = new boolean[height][width];
+        int i = 0;
+        for(int row = 0; row < height; row++)
+        {
+            for(int col = 0; col < width; col++)
+            {
+                array[row][col] = ((words[i >>> 6] >>> i) & 1) != 0;
+                i++;
+            }
+        }
+        return array;
+    }
+
+    /**
+     * Gets the number of columns.
+     * @return the width
+     */
+    public int width()
+    {
+        return width;
+    }
+
+    /**
+     * Gets the number of rows.
+     * @return the height
+     */
+    public int height()
+    {
+        return height;
+    }
+
+    /**
+     * Gets the backing bits, row after row.
+     * @return the backing buffer
+     */
+    public BitBuffer bits()
+    {
+        return bits;
+    }
+
+    /**
+     * Gets the value of a pixel.
+     * @param row the row
+     * @param col the column
+     * @return {@code true} for white
+     */
+    public boolean get(int row, int col)
+    {
+        assert row >= 0 && row < height && col >= 0 && col < width;
+
+        return bits.get(row * width + col);
+    }
+
+    /**
+     * Sets the value of a pixel.
+     * @param row the row
+     * @param col the column
+     * @param value {@code true} for white
+     */
+    public void set(int row, int col, boolean value)
+    {
+        assert row >= 0 && row < height && col >= 0 && col < width;
+
+        bits.set(row * width + col, value);
+    }
+
+    /**
+     * Checks that an image of the given size can be held in a single buffer.
+     * @param width the number of columns
+     * @param height the number of rows
+     * @return the number of pixels
+     */
+    private static int checkedArea(int width, int height)
+    {
+        final long area = (long) width * height;
+        if(width <= 0 || height <= 0 || area > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Invalid raster size: " + width + "x" + height);
+        return (int) area;
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if(this == o)
+            return true;
+        if(!(o instanceof BitRaster))
+            return false;
+        final BitRaster other = (BitRaster) o;
+        return width == other.width && height == other.height && bits.equals(other.bits);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return 31 * (31 * width + height) + bits.hashCode();
+    }
+}
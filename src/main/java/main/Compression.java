@@ -0,0 +1,163 @@
+package main;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Represent the codecs which can compress the data of a {@link Payload}.
+ * <p>
+ * Compressed data starts with the 32-bit little-endian length of the original data, followed by the stream of the codec.
+ */
+public enum Compression
+{
+    /**
+     * Leave the data as is.
+     */
+    NONE
+    {
+        @Override
+        byte[] encode(byte[] data)
+        {
+            return data;
+        }
+
+        @Override
+        byte[] decode(byte[] stream, int offset, int length)
+        {
+            return Arrays.copyOfRange(stream, offset, stream.length);
+        }
+    },
+
+    /**
+     * Compress with the DEFLATE codec of {@code java.util.zip}, for the best ratio.
+     */
+    DEFLATE
+    {
+        @Override
+        byte[] encode(byte[] data)
+        {
+            final Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION, true); // Raw stream, the payload has its own checksum
+            try
+            {
+                deflater.setInput(data);
+                deflater.finish();
+                final ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 2 + 16);
+                final byte[] buffer = new byte[8192];
+                while(!deflater.finished())
+                    out.write(buffer, 0, deflater.deflate(buffer));
+                return out.toByteArray();
+            }
+            finally
+            {
+                deflater.end();
+            }
+        }
+
+        @Override
+        byte[] decode(byte[] stream, int offset, int length)
+        {
+            if(length > (long) (stream.length - offset) * DEFLATE_RATIO + LENGTH_SIZE)
+                throw new IllegalArgumentException("Length " + length + " out of reach of " + (stream.length - offset) + " DEFLATE bytes");
+            final Inflater inflater = new Inflater(true);
+            try
+            {
+                inflater.setInput(stream, offset, stream.length - offset);
+                final byte[] data = new byte[length];
+                int done = 0;
+                while(done < length && !inflater.finished())
+                {
+                    final int count = inflater.inflate(data, done, length - done);
+                    if(count == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+                        break;
+                    done += count;
+                }
+                if(done != length)
+                    throw new IllegalArgumentException("Expected " + length + " bytes, got " + done);
+                return data;
+            }
+            catch(DataFormatException e)
+            {
+                throw new IllegalArgumentException("Invalid DEFLATE stream", e);
+            }
+            finally
+            {
+                inflater.end();
+            }
+        }
+    },
+
+    /**
+     * Compress with {@link LzCodec}, several times faster than {@link #DEFLATE} for a lower ratio.
+     */
+    LZ
+    {
+        @Override
+        byte[] encode(byte[] data)
+        {
+            return LzCodec.compress(data);
+        }
+
+        @Override
+        byte[] decode(byte[] stream, int offset, int length)
+        {
+            return LzCodec.decompress(stream, offset, length);
+        }
+    };
+
+    private static final int LENGTH_SIZE = 4;
+    private static final int DEFLATE_RATIO = 1032; // Largest expansion of DEFLATE, a 258-byte match in 2 bits
+
+    /**
+     * Compresses bytes.
+     * @param data the bytes to compress
+     * @return the compressed bytes, prefixed by the length of {@code data}; {@code data} itself for {@link #NONE}
+     */
+    public byte[] compress(byte[] data)
+    {
+        assert data != null;
+
+        if(this == NONE)
+            return data;
+        final byte[] stream = encode(data);
+        final byte[] compressed = new byte[LENGTH_SIZE + stream.length];
+        for(int i = 0; i < LENGTH_SIZE; i++)
+            compressed[i] = (byte) (data.length >>> (Byte.SIZE * i));
+        System.arraycopy(stream, 0, compressed, LENGTH_SIZE, stream.length);
+        return compressed;
+    }
+
+    /**
+     * Decompresses bytes.
+     * @param compressed the bytes written by {@link #compress(byte[])}
+     * @return the original bytes; {@code compressed} itself for {@link #NONE}
+     * @throws IllegalArgumentException if {@code compressed} is not valid
+     */
+    public byte[] decompress(byte[] compressed)
+    {
+        assert compressed != null;
+
+        if(this == NONE)
+            return compressed;
+        if(compressed.length < LENGTH_SIZE)
+            throw new IllegalArgumentException("Missing length");
+        int length = 0;
+        for(int i = 0; i < LENGTH_SIZE; i++)
+            length |= (compressed[i] & 0xff) << (Byte.SIZE * i);
+        if(length < 0)
+            throw new IllegalArgumentException("Invalid length: " + length);
+        return decode(compressed, LENGTH_SIZE, length);
+    }
+
+    /**
+     * Runs the codec on all the bytes.
+     */
+    abstract byte[] encode(byte[] data);
+
+    /**
+     * Runs the codec backwards on the bytes from {@code offset} on, expecting {@code length} bytes.
+     */
+    abstract byte[] decode(byte[] stream, int offset, int length);
+}
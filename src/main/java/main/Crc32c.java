@@ -0,0 +1,68 @@
+package main;
+
+import java.util.zip.Checksum;
+
+/**
+ * Compute the CRC-32C (Castagnoli) checksum of a sequence of bytes.
+ * <p>
+ * Same results as {@code java.util.zip.CRC32C}, which is not available before Java 9.
+ */
+public final class Crc32c implements Checksum
+{
+    private static final int POLYNOMIAL = 0x82f63b78; // Reversed Castagnoli polynomial
+    private static final int[] TABLE = new int[256];
+
+    static
+    {
+        for(int i = 0; i < TABLE.length; i++)
+        {
+            int crc = i;
+            for(int bit = 0; bit < Byte.SIZE; bit++)
+                crc = (crc >>> 1) ^ ((crc & 1) != 0 ? POLYNOMIAL : 0);
+            TABLE[i] = crc;
+        }
+    }
+
+    private int crc = 0xffffffff;
+
+    @Override
+    public void update(int b)
+    {
+        crc = (crc >>> 8) ^ TABLE[(crc ^ b) & 0xff];
+    }
+
+    @Override
+    public void update(byte[] b, int off, int len)
+    {
+        assert b != null && off >= 0 && len >= 0 && off + len <= b.length;
+
+        int value = crc;
+        for(int i = off; i < off + len; i++)
+            value = (value >>> 8) ^ TABLE[(value ^ b[i]) & 0xff];
+        crc = value;
+    }
+
+    @Override
+    public long getValue()
+    {
+        return ~crc & 0xffffffffL;
+    }
+
+    @Override
+    public void reset()
+    {
+        crc = 0xffffffff;
+    }
+
+    /**
+     * Computes the checksum of a whole array.
+     * @param data the bytes
+     * @return the checksum, between 0 and 2^32 - 1
+     */
+    public static long of(byte[] data)
+    {
+        final Crc32c checksum = new Crc32c();
+        checksum.update(data, 0, data.length);
+        return checksum.getValue();
+    }
+}
@@ -0,0 +1,69 @@
+package main;
+
+/**
+ * Tell an embedding operation where to write the pixels it changes.
+ */
+public enum EmbedMode
+{
+    /**
+     * Return a full copy of the cover, which is left untouched.
+     */
+    COPY,
+
+    /**
+     * Modify the cover itself and return it.
+     */
+    IN_PLACE,
+
+    /**
+     * Return an image sharing the untouched rows of the cover, only the rows receiving bits being copied.
+     * The cover is left untouched, but later changes to one of the shared rows are seen by both images.
+     * Rasters have no rows to share, so they are fully copied as with {@link #COPY}.
+     */
+    COPY_ON_WRITE;
+
+    /**
+     * Prepares the image receiving the bits.
+     * @param cover the cover image
+     * @return the image to write into, through {@link #row(int[][], int[][], int)}
+     */
+    int[][] target(int[][] cover)
+    {
+        switch(this)
+        {
+            case COPY:
+                final int[][] copy = new int[cover.length][];
+                for(int row = 0; row < cover.length; row++)
+                    copy[row] = cover[row].clone();
+                return copy;
+            case IN_PLACE:
+                return cover;
+            default:
+                return cover.clone(); // Rows are copied on first write
+        }
+    }
+
+    /**
+     * Gets a row of the target image which can be written to.
+     * @param target the image returned by {@link #target(int[][])}
+     * @param cover the cover image
+     * @param row the index of the row
+     * @return the row, copied first if it was still shared with {@code cover}
+     */
+    int[] row(int[][] target, int[][] cover, int row)
+    {
+        if(this == COPY_ON_WRITE && target[row] == cover[row])
+            target[row] = cover[row].clone();
+        return target[row];
+    }
+
+    /**
+     * Prepares the raster receiving the bits.
+     * @param cover the cover raster
+     * @return {@code cover} if it is modified in place, a compact copy otherwise
+     */
+    IntRaster target(IntRaster cover)
+    {
+        return this == IN_PLACE ? cover : cover.copy();
+    }
+}
@@ -0,0 +1,77 @@
+package main;
+
+/**
+ * Select the implementation of the {@link StageEvents}.
+ * <p>
+ * The Java Flight Recorder implementation, {@code main.JfrStageEvents}, is only compiled by the {@code jfr} Maven
+ * profile and needs Java 11 or later. When it is missing or cannot be loaded, or when the {@code steganography.events}
+ * system property is set to {@code none}, no event is created and an operation only compares a constant with
+ * {@code null}. The events are recorded like any other, for instance with {@code -XX:StartFlightRecording}.
+ */
+public final class Events
+{
+    private static final String JFR_CLASS = "main.JfrStageEvents";
+    private static final StageEvents EVENTS = load(); // null when disabled
+
+    private Events()
+    {
+    }
+
+    /**
+     * Tells whether events are created.
+     * @return {@code true} if the flight recorder events are in use
+     */
+    public static boolean isAvailable()
+    {
+        return EVENTS != null;
+    }
+
+    /**
+     * Starts an event.
+     * @param stage the stage of the operation
+     * @return the event in progress, or {@code null} if it is not recorded
+     * @see StageEvents#begin(Metrics.Stage)
+     */
+    static Object begin(Metrics.Stage stage)
+    {
+        return EVENTS == null ? null : EVENTS.begin(stage);
+    }
+
+    /**
+     * Ends an event.
+     * @param event the value returned by {@link #begin(Metrics.Stage)}, possibly {@code null}
+     * @param operation the name of the operation
+     * @param width the width of the image
+     * @param height the height of the image
+     * @param bits the number of bits embedded or revealed, {@code 0} for the other stages
+     * @param order the order of the pixels, or {@code null} for the stages not traversing them
+     * @see StageEvents#end
+     */
+    static void end(Object event, String operation, int width, int height, long bits, TraversalOrder order)
+    {
+        if(event != null)
+            EVENTS.end(event, operation, width, height, bits, order);
+    }
+
+    /**
+     * Loads the flight recorder events, if allowed and available.
+     * @return the events to use, or {@code null}
+     */
+    private static StageEvents load()
+    {
+        if("none".equals(System.getProperty("steganography.events")))
+            return null;
+        try
+        {
+            return (StageEvents) Class.forName(JFR_CLASS).getDeclaredConstructor().newInstance();
+        }
+        catch(ReflectiveOperationException e)
+        {
+            return null; // Not compiled in
+        }
+        catch(LinkageError e)
+        {
+            return null; // Compiled in, but the runtime has no flight recorder
+        }
+    }
+}
@@ -1,11 +1,13 @@
 package main;
 import javax.imageio.ImageIO;
-import javax.swing.*;
 
 import java.awt.*;
-import java.awt.event.WindowAdapter;
-import java.awt.event.WindowEvent;
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferInt;
+import java.awt.image.DirectColorModel;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
 import java.io.File;
 import java.io.IOException;
 
@@ -14,14 +16,50 @@ import java.io.IOException;
  */
 public final class Helper {
 
-    // Convert specified BufferedImage into an array
-    private static int[][] fromBufferedImage(BufferedImage image) {
+    private static volatile ImageCache cache;
+    private static volatile PreviewSink preview;
+
+    // Get specified image as TYPE_INT_RGB or TYPE_INT_ARGB, converting it once if needed
+    private static BufferedImage toIntRGB(BufferedImage image) {
+        int type = image.getType();
+        if (type == BufferedImage.TYPE_INT_RGB || type == BufferedImage.TYPE_INT_ARGB)
+            return image; // Same packed layout, alpha is cleared afterwards
         int width = image.getWidth();
         int height = image.getHeight();
+        BufferedImage converted = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        if (type == BufferedImage.TYPE_3BYTE_BGR || type == BufferedImage.TYPE_INT_BGR) {
+            // Opaque 8-bit sRGB layouts are converted exactly by a native blit
+            Graphics2D graphics = converted.createGraphics();
+            graphics.drawImage(image, 0, 0, null);
+            graphics.dispose();
+        } else {
+            // Other layouts go through the color model, like getRGB(x, y), but in a single bulk call
+            image.getRGB(0, 0, width, height, wrap(converted).data(), 0, width);
+        }
+        return converted;
+    }
+
+    // Wrap the pixels of specified TYPE_INT_RGB or TYPE_INT_ARGB image, without copying them
+    private static IntRaster wrap(BufferedImage image) {
+        WritableRaster raster = image.getRaster();
+        DataBufferInt buffer = (DataBufferInt) raster.getDataBuffer();
+        int stride = ((SinglePixelPackedSampleModel) raster.getSampleModel()).getScanlineStride();
+        int offset = buffer.getOffset() - raster.getSampleModelTranslateY() * stride - raster.getSampleModelTranslateX();
+        return new IntRaster(buffer.getData(), offset, image.getWidth(), image.getHeight(), stride);
+    }
+
+    // Convert specified BufferedImage into an array
+    private static int[][] fromBufferedImage(BufferedImage image) {
+        IntRaster raster = wrap(toIntRGB(image));
+        int width = raster.width();
+        int height = raster.height();
+        int[] data = raster.data();
         int[][] array = new int[height][width];
         for (int row = 0; row < height; ++row) {
+            int[] line = array[row];
+            System.arraycopy(data, raster.index(row, 0), line, 0, width);
             for (int col = 0; col < width; ++col) {
-                array[row][col] = image.getRGB(col, row) & 0xffffff;
+                line[col] &= 0xffffff;
             }
         }
         return array;
@@ -32,14 +70,59 @@ public final class Helper {
         int width = array[0].length;
         int height = array.length;
         BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        IntRaster raster = wrap(image);
         for (int row = 0; row < height; ++row) {
-            for (int col = 0; col < width; ++col) {
-                image.setRGB(col, row, array[row][col] | 0xff000000);
-            }
+            System.arraycopy(array[row], 0, raster.data(), raster.index(row, 0), width); // Upper byte is ignored by the color model
         }
         return image;
     }
 
+    // Convert specified BufferedImage into a raster, sharing its pixels when possible
+    private static IntRaster fromBufferedImageRaster(BufferedImage image) {
+        BufferedImage rgb = toIntRGB(image);
+        IntRaster raster = wrap(rgb);
+        if (rgb == image && !raster.isContiguous()) // Do not hand out a view over a larger image
+            raster = raster.copy();
+        int[] data = raster.data();
+        for (int row = 0; row < raster.height(); ++row) {
+            int base = raster.index(row, 0);
+            for (int col = 0; col < raster.width(); ++col) {
+                data[base + col] &= 0xffffff;
+            }
+        }
+        return raster;
+    }
+
+    // Copy the pixels of specified image into a raster of the same size, as packed RGB colors
+    static void copy(BufferedImage image, IntRaster target) {
+        int type = image.getType();
+        if (type == BufferedImage.TYPE_INT_RGB || type == BufferedImage.TYPE_3BYTE_BGR || type == BufferedImage.TYPE_INT_BGR) {
+            // Opaque 8-bit sRGB layouts are converted exactly by a native blit
+            Graphics2D graphics = toBufferedImage(target).createGraphics();
+            graphics.drawImage(image, 0, 0, null);
+            graphics.dispose();
+            return;
+        }
+        image.getRGB(0, 0, target.width(), target.height(), target.data(), target.offset(), target.stride());
+        int[] data = target.data();
+        for (int row = 0; row < target.height(); ++row) {
+            int base = target.index(row, 0);
+            for (int col = 0; col < target.width(); ++col) {
+                data[base + col] &= 0xffffff;
+            }
+        }
+    }
+
+    // Wrap specified raster into a TYPE_INT_RGB compatible BufferedImage, without copying its pixels
+    static BufferedImage toBufferedImage(IntRaster raster) {
+        DirectColorModel model = new DirectColorModel(24, 0xff0000, 0xff00, 0xff);
+        DataBufferInt buffer = new DataBufferInt(raster.data(), raster.data().length - raster.offset(), raster.offset());
+        SinglePixelPackedSampleModel sampleModel = new SinglePixelPackedSampleModel(DataBuffer.TYPE_INT,
+                raster.width(), raster.height(), raster.stride(), model.getMasks());
+        WritableRaster writable = WritableRaster.createWritableRaster(sampleModel, buffer, null);
+        return new BufferedImage(model, writable, false, null);
+    }
+
     /**
      * Reads specified image from disk.
      * @param path Input file path
@@ -47,9 +130,17 @@ public final class Helper {
      * @see #write
      */
     public static int[][] read(String path) {
+        if (cache != null)
+            return readArray(path, false);
         try {
-            BufferedImage image = ImageIO.read(new File(path));
-            return fromBufferedImage(image);
+            long start = Metrics.start();
+            Object event = Events.begin(Metrics.Stage.DECODE);
+            File file = new File(path);
+            BufferedImage image = ImageIO.read(file);
+            int[][] array = fromBufferedImage(image);
+            Events.end(event, "read", image.getWidth(), image.getHeight(), 0, null);
+            Metrics.decoded(start, (long) image.getWidth() * image.getHeight(), file.length());
+            return array;
         } catch (IOException e) {
             System.out.println(e);
             System.out.println("Path: " + path);
@@ -58,6 +149,145 @@ public final class Helper {
         }
     }
 
+    /**
+     * Reads specified image from disk into a contiguous raster.
+     * @param path Input file path
+     * @return raster of packed RGB colors, or <code>null</code> on failure
+     * @see #read
+     * @see #write(String, IntRaster)
+     */
+    public static IntRaster readRaster(String path) {
+        return readRaster(path, false);
+    }
+
+    /**
+     * Reads specified image from disk, optionally through a decoded copy kept next to it.
+     * <p>
+     * With {@code sidecar}, the pixels are loaded from the {@link RasterFile} named after the image when it was
+     * decoded from the current version of the image, and the copy is written after decoding otherwise. Failing to
+     * write the copy, for instance in a read-only directory, only costs the next read a decoding.
+     * @param path Input file path
+     * @param sidecar whether to use a decoded copy
+     * @return raster of packed RGB colors, or <code>null</code> on failure
+     * @see #readRaster(String)
+     */
+    public static IntRaster readRaster(String path, boolean sidecar) {
+        try {
+            return readRasterChecked(path, sidecar);
+        } catch (IOException e) {
+            System.out.println(e);
+            System.out.println("Path: " + path);
+            System.exit(1);
+            return null;
+        }
+    }
+
+    /**
+     * Reads specified image from disk, optionally through a decoded copy kept next to it.
+     * @param path Input file path
+     * @param sidecar whether to use a decoded copy
+     * @return HxW array of packed RGB colors, or <code>null</code> on failure
+     * @see #readRaster(String, boolean)
+     */
+    public static int[][] read(String path, boolean sidecar) {
+        if (!sidecar)
+            return read(path);
+        return readArray(path, true);
+    }
+
+    // Read specified image like readRaster(path, sidecar), copying its pixels once into an array
+    private static int[][] readArray(String path, boolean sidecar) {
+        try {
+            ImageCache cache = Helper.cache;
+            IntRaster raster = cache != null ? cached(cache, path, sidecar) : load(path, sidecar);
+            return raster.toArray(); // The only copy, even of a cached raster
+        } catch (IOException e) {
+            System.out.println(e);
+            System.out.println("Path: " + path);
+            System.exit(1);
+            return null;
+        }
+    }
+
+    /**
+     * Sets the cache of decoded images used by all the reads, none by default.
+     * <p>
+     * Reads then return copies of the cached pixels, which callers are free to modify.
+     * @param cache the cache, or {@code null} to decode every image again
+     * @see #getCache()
+     */
+    public static void setCache(ImageCache cache) {
+        Helper.cache = cache;
+    }
+
+    /**
+     * Gets the cache of decoded images used by all the reads.
+     * @return the cache, or {@code null} if there is none
+     * @see #setCache(ImageCache)
+     */
+    public static ImageCache getCache() {
+        return cache;
+    }
+
+    // Read specified image like readRaster(path, sidecar), but report failures instead of exiting
+    static IntRaster readRasterChecked(String path, boolean sidecar) throws IOException {
+        ImageCache cache = Helper.cache;
+        if (cache != null)
+            return cached(cache, path, sidecar).copy();
+        return load(path, sidecar);
+    }
+
+    // Get specified image from the cache, loading it on a miss; the raster is shared and must be copied
+    private static IntRaster cached(ImageCache cache, String path, boolean sidecar) throws IOException {
+        File file = new File(path);
+        IntRaster raster = cache.get(file);
+        if (raster == null) {
+            long length = file.length();
+            long modified = file.lastModified();
+            raster = load(path, sidecar);
+            cache.put(file, length, modified, raster);
+        }
+        return raster;
+    }
+
+    // Decode specified image, through its decoded copy if asked to
+    private static IntRaster load(String path, boolean sidecar) throws IOException {
+        if (!sidecar)
+            return decode(path);
+        File image = new File(path);
+        try {
+            IntRaster raster = RasterFile.readSidecar(image);
+            if (raster != null)
+                return raster;
+        } catch (IOException e) {
+            // Decode the image again
+        }
+
+        long length = image.length();
+        long modified = image.lastModified();
+        IntRaster raster = decode(path);
+        try {
+            RasterFile.writeSidecar(image, raster, length, modified);
+        } catch (IOException e) {
+            // Keep working without a copy
+        }
+        return raster;
+    }
+
+    // Decode specified image into a contiguous raster
+    private static IntRaster decode(String path) throws IOException {
+        long start = Metrics.start();
+        Object event = Events.begin(Metrics.Stage.DECODE);
+        File file = new File(path);
+        BufferedImage image = ImageIO.read(file);
+        if (image == null)
+            throw new IOException("Unknown image format");
+        IntRaster raster = fromBufferedImageRaster(image);
+        Events.end(event, "readRaster", raster.width(), raster.height(), 0, null);
+        Metrics.decoded(start, raster.area(), file.length());
+        return raster;
+    }
+
     /**
      * Writes specified image to disk.
      * @param path Output file path
@@ -68,7 +298,24 @@ public final class Helper {
     public static boolean write(String path, int[][] array) {
 
         // Convert array to Java image
-        BufferedImage image = toBufferedImage(array);
+        return write(path, toBufferedImage(array));
+    }
+
+    /**
+     * Writes specified raster to disk.
+     * @param path Output file path
+     * @param raster raster of packed RGB colors
+     * @return {@code true} if write operation was successful, {@code false} otherwise
+     * @see #readRaster
+     */
+    public static boolean write(String path, IntRaster raster) {
+
+        // Convert raster to Java image
+        return write(path, toBufferedImage(raster));
+    }
+
+    // Encode specified image with the format given by the path extension
+    private static boolean write(String path, BufferedImage image) {
 
         // Get desired file format
         int index = path.lastIndexOf('.');
@@ -78,7 +325,14 @@ public final class Helper {
 
         // Export image
         try {
-            return ImageIO.write(image, extension, new File(path));
+            long start = Metrics.start();
+            Object event = Events.begin(Metrics.Stage.ENCODE);
+            File file = new File(path);
+            boolean written = ImageIO.write(image, extension, file);
+            Events.end(event, "write", image.getWidth(), image.getHeight(), 0, null);
+            if (written)
+                Metrics.encoded(start, (long) image.getWidth() * image.getHeight(), file.length());
+            return written;
         } catch (IOException e) {
             return false;
         }
@@ -86,56 +340,78 @@ public final class Helper {
     }
 
     /**
-     * Shows specified image in a window.
-     * @param array HxW array of packed RGB colors
-     * @param title title to be displayed
+     * Sets where the images shown go.
+     * <p>
+     * By default, the {@code steganography.preview} system property chooses it on the first image shown:
+     * {@code window} shows each image in a window until it is closed, {@code thumbnails} writes small copies of them in
+     * the background to the {@code steganography.preview.dir} directory, {@code previews} by default, and {@code none}
+     * discards them. Without this property, images are shown in windows unless the environment is headless.
+     * @param sink the sink, or {@code null} to choose it again from the system properties
+     * @see #getPreviewSink()
      */
-    public static void show(int[][] array, String title) {
+    public static void setPreviewSink(PreviewSink sink) {
+        Helper.preview = sink;
+    }
 
-        // Convert array to Java image
-        final BufferedImage image = toBufferedImage(array);
-
-        // Create a panel to render this image
-        @SuppressWarnings("serial")
-        JPanel panel = new JPanel() {
-            @Override
-            protected void paintComponent(Graphics g) {
-                super.paintComponent(g);
-                g.drawImage(image, 0, 0, Math.max(getWidth(), 100), Math.max(getHeight(), 100), null, null);
-            }
-        };
-
-        // Create a frame to hold this panel
-        final JFrame frame = new JFrame(title);
-        frame.add(panel);
-        frame.getContentPane().setPreferredSize(new Dimension(Math.max(image.getWidth(), 300), Math.max(image.getHeight(), 300)));
-        frame.pack();
-
-        // Register closing event
-        frame.setDefaultCloseOperation(JFrame.DO_NOTHING_ON_CLOSE);
-        frame.addWindowListener(new WindowAdapter() {
-            @Override
-            public void windowClosing(WindowEvent e) {
-                frame.setVisible(false);
-                synchronized (frame) {
-                    frame.notifyAll();
-                }
+    /**
+     * Gets where the images shown go, choosing it from the system properties if none was set.
+     * @return the sink
+     * @see #setPreviewSink(PreviewSink)
+     */
+    public static PreviewSink getPreviewSink() {
+        PreviewSink sink = preview;
+        if (sink == null) {
+            synchronized (Helper.class) {
+                sink = preview;
+                if (sink == null)
+                    preview = sink = defaultPreviewSink();
             }
-        });
-
-        // Show this frame
-        frame.setVisible(true);
+        }
+        return sink;
+    }
 
-        // Wait for close operation
-        try {
-            synchronized (frame) {
-                while (frame.isVisible())
-                    frame.wait();
-            }
-        } catch (InterruptedException e) {
-            // Empty on purpose
+    // Create the sink named by the steganography.preview property
+    private static PreviewSink defaultPreviewSink() {
+        String mode = System.getProperty("steganography.preview");
+        if (mode == null)
+            mode = GraphicsEnvironment.isHeadless() ? "none" : "window";
+        switch (mode) {
+            case "none":
+                return new NullPreviewSink();
+            case "window":
+                return new WindowPreviewSink();
+            case "thumbnails":
+                final PreviewSink sink = new ThumbnailPreviewSink(new File(System.getProperty("steganography.preview.dir", "previews")));
+                Runtime.getRuntime().addShutdownHook(new Thread("preview-flush") {
+                    @Override
+                    public void run() {
+                        sink.close(); // Write the pending thumbnails before exiting
+                    }
+                });
+                return sink;
+            default:
+                throw new IllegalArgumentException("Unknown preview mode: " + mode);
         }
-        frame.dispose();
+    }
+
+    /**
+     * Shows specified image with the current preview sink.
+     * @param array HxW array of packed RGB colors
+     * @param title title to be displayed
+     * @see #setPreviewSink(PreviewSink)
+     */
+    public static void show(int[][] array, String title) {
+        getPreviewSink().show(array, title);
+    }
+
+    /**
+     * Shows specified raster with the current preview sink.
+     * @param raster raster of packed RGB colors
+     * @param title title to be displayed
+     * @see #setPreviewSink(PreviewSink)
+     */
+    public static void show(IntRaster raster, String title) {
+        getPreviewSink().show(raster, title);
     }
 
 }
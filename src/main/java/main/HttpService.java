@@ -0,0 +1,487 @@
+package main;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Serve the steganography over HTTP, so that a single warm process handles many requests.
+ * <p>
+ * Every endpoint takes a {@code POST} whose body is an image, and options as query parameters:
+ * <ul>
+ * <li>{@code /embed-text?text=...[&charset=UTF-8][&compression=LZ]}: the cover with the text, as PNG</li>
+ * <li>{@code /reveal-text}: the hidden text, as UTF-8 plain text</li>
+ * <li>{@code /embed-image?coverLength=n[&threshold=128][&spiral=true][&compressed=true]}: the body is the cover, of
+ * {@code n} bytes, then the image to hide in black and white; the cover with the image, as PNG</li>
+ * <li>{@code /reveal-image[?spiral=true]}: the hidden black and white image, as PNG</li>
+ * </ul>
+ * Each request runs on its own thread, virtual when the runtime has them. At most a given number of requests decode
+ * and process images at once, the others waiting, and the bodies and the images they hold are bounded, which bounds
+ * the memory used: larger ones get a {@code 413} status, before any image is allocated. PNG responses are streamed as
+ * they are encoded. Invalid requests, including truncated or corrupt images, get a {@code 400} status with a plain
+ * text reason; a failure after the headers of an image response were sent only cuts the response short.
+ *
+ * @see Main
+ */
+public final class HttpService
+{
+    /**
+     * Default largest request body, in bytes.
+     */
+    public static final long DEFAULT_MAX_BODY = 64L << 20;
+
+    /**
+     * Default largest number of pixels of an image in a request.
+     */
+    public static final long DEFAULT_MAX_PIXELS = 64L << 20;
+
+    private static final int OK = 200, BAD_REQUEST = 400, NOT_FOUND = 404, BAD_METHOD = 405, TOO_LARGE = 413, ERROR = 500;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Semaphore decodes;
+    private final long maxBody, maxPixels;
+
+    /**
+     * Creates a service with the default limits, not started yet.
+     * @param address the address to listen to, port {@code 0} picking a free one
+     * @param decodes the number of requests processing images at once
+     * @throws IOException if the address cannot be bound
+     */
+    public HttpService(InetSocketAddress address, int decodes) throws IOException
+    {
+        this(address, decodes, DEFAULT_MAX_BODY, DEFAULT_MAX_PIXELS);
+    }
+
+    /**
+     * Creates a service, not started yet.
+     * @param address the address to listen to, port {@code 0} picking a free one
+     * @param decodes the number of requests processing images at once
+     * @param maxBody the largest request body, in bytes
+     * @param maxPixels the largest number of pixels of an image in a request
+     * @throws IOException if the address cannot be bound
+     */
+    public HttpService(InetSocketAddress address, int decodes, long maxBody, long maxPixels) throws IOException
+    {
+        if(decodes <= 0)
+            throw new IllegalArgumentException("Invalid number of decodes: " + decodes);
+        if(maxBody <= 0 || maxPixels <= 0)
+            throw new IllegalArgumentException("Invalid limits: " + maxBody + " bytes, " + maxPixels + " pixels");
+
+        ImageIO.setUseCache(false); // Request bodies are buffered in memory rather than in temporary files
+        this.maxBody = maxBody;
+        this.maxPixels = maxPixels;
+        this.decodes = new Semaphore(decodes, true);
+        this.executor = threadPerRequest();
+        this.server = HttpServer.create(address, 0);
+        server.setExecutor(executor);
+        server.createContext("/embed-text", new Endpoint()
+        {
+            @Override
+            void handle(HttpExchange exchange, Map<String, String> query) throws IOException
+            {
+                final String text = query.get("text");
+                if(text == null)
+                    throw new RequestException("Missing text");
+                final Charset charset = Charset.forName(option(query, "charset", "UTF-8"));
+                final Compression compression = Compression.valueOf(option(query, "compression", "NONE").toUpperCase(Locale.ROOT));
+                final Payload payload = Payload.ofText(text, charset).withCompression(compression);
+
+                final IntRaster cover = image(exchange.getRequestBody());
+                fits(cover, payload.pixels());
+                sendImage(exchange, Steganography.embedPayload(cover, payload));
+            }
+        });
+        server.createContext("/reveal-text", new Endpoint()
+        {
+            @Override
+            void handle(HttpExchange exchange, Map<String, String> query) throws IOException
+            {
+                final String text = Steganography.revealText(image(exchange.getRequestBody()));
+                send(exchange, OK, "text/plain; charset=utf-8", text.getBytes(StandardCharsets.UTF_8));
+            }
+        });
+        server.createContext("/embed-image", new Endpoint()
+        {
+            @Override
+            void handle(HttpExchange exchange, Map<String, String> query) throws IOException
+            {
+                final long coverLength = number(query, "coverLength", -1);
+                if(coverLength < 0)
+                    throw new RequestException("Missing coverLength");
+                final int threshold = (int) number(query, "threshold", 128);
+                final boolean spiral = Boolean.parseBoolean(query.get("spiral"));
+                final boolean compressed = Boolean.parseBoolean(query.get("compressed"));
+
+                final InputStream body = exchange.getRequestBody();
+                final BoundedInputStream coverBody = new BoundedInputStream(body, coverLength, false);
+                final IntRaster cover = image(coverBody);
+                coverBody.skipRest(); // Readers may stop before the end of the file
+                final BitRaster message = ImageMessage.toBW(ImageMessage.toGray(image(body)), threshold);
+                if(compressed)
+                    fits(cover, Payload.ofImage(message).pixels());
+                else if(spiral)
+                    fits(cover, 2L * Integer.SIZE + (long) message.width() * message.height());
+                else if(!Utils.isCoverLargeEnough(cover, message))
+                    throw new RequestException("The cover is smaller than the image");
+                sendImage(exchange, spiral ? Steganography.embedSpiralImage(cover, message, compressed)
+                        : Steganography.embedBWImage(cover, message, compressed));
+            }
+        });
+        server.createContext("/reveal-image", new Endpoint()
+        {
+            @Override
+            void handle(HttpExchange exchange, Map<String, String> query) throws IOException
+            {
+                final IntRaster cover = image(exchange.getRequestBody());
+                final boolean spiral = Boolean.parseBoolean(query.get("spiral"));
+                final Payload payload = Steganography.revealPayload(cover, spiral ? TraversalOrder.SPIRAL : TraversalOrder.LINEAR);
+                final BitRaster message;
+                if(payload != null && payload.getType() == Payload.TYPE_BW_IMAGE)
+                    message = payload.getImage(HttpService.this.maxPixels); // A few runs can describe a huge image
+                else
+                    message = spiral ? spiralImage(cover) : Steganography.revealBWImage(cover);
+                if(message == null)
+                    throw new RequestException("Invalid image payload");
+                sendImage(exchange, ImageMessage.toRGB(message));
+            }
+        });
+    }
+
+    /**
+     * Starts serving requests, in the background.
+     */
+    public void start()
+    {
+        server.start();
+    }
+
+    /**
+     * Stops serving requests.
+     * @param delay the number of seconds given to the requests in progress
+     */
+    public void stop(int delay)
+    {
+        server.stop(delay);
+        executor.shutdown();
+    }
+
+    /**
+     * Gets the address the service listens to.
+     * @return the address, with the actual port
+     */
+    public InetSocketAddress address()
+    {
+        return server.getAddress();
+    }
+
+    /**
+     * Creates an executor running each task on a new virtual thread when the runtime has them, on a new platform
+     * thread otherwise.
+     */
+    private static ExecutorService threadPerRequest()
+    {
+        try
+        {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        }
+        catch(ReflectiveOperationException e)
+        {
+            return Executors.newCachedThreadPool(); // Before Java 21, idle threads are reused
+        }
+    }
+
+    /**
+     * Decodes an image from a request body, checking its dimensions before decoding its pixels.
+     */
+    private IntRaster image(InputStream in) throws IOException
+    {
+        final BufferedImage image;
+        try(ImageInputStream stream = ImageIO.createImageInputStream(in))
+        {
+            final Iterator<ImageReader> readers = ImageIO.getImageReaders(stream);
+            if(!readers.hasNext())
+                throw new RequestException("The body is not an image");
+            final ImageReader reader = readers.next();
+            try
+            {
+                reader.setInput(stream, true, true);
+                final long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if(pixels > maxPixels)
+                    throw new RequestException(TOO_LARGE, "The image has " + pixels + " pixels, more than " + maxPixels);
+                image = reader.read(0);
+            }
+            finally
+            {
+                reader.dispose();
+            }
+        }
+        catch(RequestException e)
+        {
+            throw e;
+        }
+        catch(IOException | RuntimeException e) // Truncated or corrupt files, as the readers tell
+        {
+            for(Throwable cause = e.getCause(); cause != null; cause = cause.getCause())
+                if(cause instanceof RequestException) // The body is too large, as the readers may wrap it
+                    throw (RequestException) cause;
+            throw new RequestException("Invalid image: " + e.getMessage());
+        }
+        final IntRaster raster = new IntRaster(image.getWidth(), image.getHeight());
+        Helper.copy(image, raster);
+        return raster;
+    }
+
+    /**
+     * Reveals an image embedded in a spiral without a payload, checking that the dimensions it starts with fit in the cover.
+     */
+    private static BitRaster spiralImage(IntRaster cover) throws RequestException
+    {
+        final int header = 2 * Integer.SIZE;
+        if(cover.area() < header)
+            throw new RequestException("The cover is too small to hold an image");
+        final BitBuffer bits = Steganography.revealSpiralBitBuffer(cover);
+        final long height = bits.getBits(0, Integer.SIZE), width = bits.getBits(Integer.SIZE, Integer.SIZE);
+        final long available = cover.area() - header;
+        if(width == 0 || height == 0 || width > available || height > available || width * height > available)
+            throw new RequestException("No image in the cover, or a truncated one: " + width + "x" + height);
+        return ImageMessage.bitBufferToBitRaster(bits);
+    }
+
+    private static void fits(IntRaster cover, long pixels) throws RequestException
+    {
+        if(pixels > cover.area())
+            throw new RequestException("The cover is too small: " + pixels + " pixels needed, " + cover.area() + " available");
+    }
+
+    private static String option(Map<String, String> query, String name, String fallback)
+    {
+        final String value = query.get(name);
+        return value == null ? fallback : value;
+    }
+
+    private static long number(Map<String, String> query, String name, long fallback) throws RequestException
+    {
+        final String value = query.get(name);
+        try
+        {
+            return value == null ? fallback : Long.parseLong(value);
+        }
+        catch(NumberFormatException e)
+        {
+            throw new RequestException("Invalid " + name + ": " + value);
+        }
+    }
+
+    private static Map<String, String> query(HttpExchange exchange) throws IOException
+    {
+        final Map<String, String> query = new HashMap<>();
+        final String raw = exchange.getRequestURI().getRawQuery();
+        if(raw == null)
+            return query;
+        for(String pair : raw.split("&"))
+        {
+            final int equals = pair.indexOf('=');
+            final String name = equals < 0 ? pair : pair.substring(0, equals);
+            final String value = equals < 0 ? "" : pair.substring(equals + 1);
+            query.put(URLDecoder.decode(name, "UTF-8"), URLDecoder.decode(value, "UTF-8"));
+        }
+        return query;
+    }
+
+    private static void send(HttpExchange exchange, int status, String type, byte[] body) throws IOException
+    {
+        exchange.getResponseHeaders().set("Content-Type", type);
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        try(OutputStream out = exchange.getResponseBody())
+        {
+            out.write(body);
+        }
+    }
+
+    /**
+     * Streams an image as PNG, with a chunked body.
+     */
+    private static void sendImage(HttpExchange exchange, IntRaster image) throws IOException
+    {
+        exchange.getResponseHeaders().set("Content-Type", "image/png");
+        exchange.sendResponseHeaders(OK, 0);
+        try(PngStripWriter writer = new PngStripWriter(exchange.getResponseBody(), image.width(), image.height()))
+        {
+            writer.write(image);
+        }
+    }
+
+    /**
+     * Check the method of a request and turn failures into error responses, processing one image at a time per permit.
+     */
+    private abstract class Endpoint implements HttpHandler
+    {
+        @Override
+        public void handle(HttpExchange exchange) throws IOException
+        {
+            try
+            {
+                if(!"POST".equals(exchange.getRequestMethod()))
+                {
+                    exchange.getResponseHeaders().set("Allow", "POST");
+                    send(exchange, BAD_METHOD, "text/plain; charset=utf-8", "Expected POST\n".getBytes(StandardCharsets.UTF_8));
+                    return;
+                }
+                if(!exchange.getRequestURI().getPath().equals(exchange.getHttpContext().getPath()))
+                {
+                    send(exchange, NOT_FOUND, "text/plain; charset=utf-8", "Not found\n".getBytes(StandardCharsets.UTF_8));
+                    return;
+                }
+                final String length = exchange.getRequestHeaders().getFirst("Content-Length");
+                if(length != null && length.matches("\\d{1,18}") && Long.parseLong(length) > maxBody)
+                    throw new RequestException(TOO_LARGE, "The body is larger than " + maxBody + " bytes");
+                exchange.setStreams(new BoundedInputStream(exchange.getRequestBody(), maxBody, true), null); // Also chunked bodies
+                final Map<String, String> query = query(exchange);
+                decodes.acquireUninterruptibly();
+                try
+                {
+                    handle(exchange, query);
+                }
+                finally
+                {
+                    decodes.release();
+                }
+            }
+            catch(RequestException e)
+            {
+                if(exchange.getResponseCode() < 0) // Too late once an image is being streamed
+                    send(exchange, e.status, "text/plain; charset=utf-8", (e.getMessage() + "\n").getBytes(StandardCharsets.UTF_8));
+            }
+            catch(IllegalArgumentException e) // Unknown charsets and codecs
+            {
+                if(exchange.getResponseCode() < 0)
+                    send(exchange, BAD_REQUEST, "text/plain; charset=utf-8", (e.getMessage() + "\n").getBytes(StandardCharsets.UTF_8));
+            }
+            catch(RuntimeException e)
+            {
+                if(exchange.getResponseCode() < 0)
+                    send(exchange, ERROR, "text/plain; charset=utf-8", (e + "\n").getBytes(StandardCharsets.UTF_8));
+            }
+            finally
+            {
+                exchange.close();
+            }
+        }
+
+        /**
+         * Processes a valid request.
+         * @param exchange the request
+         * @param query the decoded query parameters
+         */
+        abstract void handle(HttpExchange exchange, Map<String, String> query) throws IOException;
+    }
+
+    /**
+     * Signal an invalid request.
+     */
+    private static final class RequestException extends IOException
+    {
+        private static final long serialVersionUID = 1L;
+
+        final int status;
+
+        RequestException(String message)
+        {
+            this(BAD_REQUEST, message);
+        }
+
+        RequestException(int status, String message)
+        {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    /**
+     * Read at most a given number of bytes of a stream, leaving the rest to be read, or failing beyond them.
+     */
+    private static final class BoundedInputStream extends InputStream
+    {
+        private final InputStream in;
+        private final long length;
+        private final boolean limit;
+        private long left;
+
+        /**
+         * @param limit whether reading beyond {@code length} bytes fails, rather than ending the stream
+         */
+        BoundedInputStream(InputStream in, long length, boolean limit)
+        {
+            this.in = in;
+            this.length = length;
+            this.limit = limit;
+            this.left = length;
+        }
+
+        @Override
+        public int read() throws IOException
+        {
+            if(left == 0)
+                return end();
+            final int b = in.read();
+            if(b >= 0)
+                left--;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException
+        {
+            if(left == 0)
+                return len == 0 ? 0 : end();
+            final int count = in.read(b, off, (int) Math.min(len, left));
+            if(count > 0)
+                left -= count;
+            return count;
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            in.close();
+        }
+
+        private int end() throws IOException
+        {
+            if(limit && in.read() >= 0)
+                throw new RequestException(TOO_LARGE, "The body is larger than " + length + " bytes");
+            return -1;
+        }
+
+        void skipRest() throws IOException
+        {
+            final byte[] buffer = new byte[4096];
+            while(read(buffer, 0, buffer.length) > 0)
+            {
+                // Discards the bytes
+            }
+            if(left > 0)
+                throw new RequestException("The body is shorter than coverLength");
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package main;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keep the most recently read images decoded, within a budget of bytes.
+ * <p>
+ * Images are identified by their canonical path, and an entry is only used while the file keeps the length and last
+ * modification time it had when it was decoded. The cached rasters are never handed out: {@link Helper} returns copies,
+ * so callers may modify what they get, for instance with {@link EmbedMode#IN_PLACE}. All the methods are thread-safe,
+ * and images are decoded outside of the lock, so two threads missing the same image at once both decode it.
+ *
+ * @see Helper#setCache(ImageCache)
+ */
+public final class ImageCache
+{
+    private final long capacity;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true); // Least recently used first
+    private long size = 0;
+    private long hits = 0, misses = 0, evictions = 0;
+
+    /**
+     * Creates an empty cache.
+     * @param capacity the maximal number of bytes of pixels kept, 4 per pixel
+     */
+    public ImageCache(long capacity)
+    {
+        if(capacity < 0)
+            throw new IllegalArgumentException("Negative capacity: " + capacity);
+        this.capacity = capacity;
+    }
+
+    /**
+     * Gets the decoded pixels of an image, if they are cached and the file did not change since.
+     * @param file the image file
+     * @return the cached raster, which must not be modified, or {@code null}
+     */
+    IntRaster get(File file)
+    {
+        final String key = key(file);
+        final long length = file.length(), modified = file.lastModified();
+        synchronized(this)
+        {
+            final Entry entry = key == null ? null : entries.get(key);
+            if(entry != null && entry.length == length && entry.modified == modified)
+            {
+                hits++;
+                return entry.raster;
+            }
+            if(entry != null) // Stale
+                remove(key, entry);
+            misses++;
+            return null;
+        }
+    }
+
+    /**
+     * Caches the decoded pixels of an image, evicting the least recently used ones to make room.
+     * @param file the image file
+     * @param length the length of the file when it was decoded
+     * @param modified the last modification time of the file when it was decoded
+     * @param raster the decoded pixels, owned by the cache from now on
+     */
+    void put(File file, long length, long modified, IntRaster raster)
+    {
+        final String key = key(file);
+        final long bytes = bytes(raster);
+        if(key == null || bytes > capacity)
+            return;
+        synchronized(this)
+        {
+            final Entry previous = entries.remove(key);
+            if(previous != null)
+                size -= bytes(previous.raster);
+            final Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+            while(size + bytes > capacity && eldest.hasNext())
+            {
+                size -= bytes(eldest.next().getValue().raster);
+                eldest.remove();
+                evictions++;
+            }
+            entries.put(key, new Entry(length, modified, raster));
+            size += bytes;
+        }
+    }
+
+    /**
+     * Removes all the images, keeping the counters.
+     */
+    public synchronized void clear()
+    {
+        entries.clear();
+        size = 0;
+    }
+
+    /**
+     * Gets the number of bytes of pixels kept.
+     * @return the number of bytes, at most the capacity
+     */
+    public synchronized long size()
+    {
+        return size;
+    }
+
+    /**
+     * Gets the maximal number of bytes of pixels kept.
+     * @return the capacity
+     */
+    public long capacity()
+    {
+        return capacity;
+    }
+
+    /**
+     * Gets the number of images kept.
+     * @return the number of images
+     */
+    public synchronized int count()
+    {
+        return entries.size();
+    }
+
+    /**
+     * Gets the number of reads served from the cache.
+     * @return the number of hits
+     */
+    public synchronized long hits()
+    {
+        return hits;
+    }
+
+    /**
+     * Gets the number of reads which had to decode the image, including those of images which changed.
+     * @return the number of misses
+     */
+    public synchronized long misses()
+    {
+        return misses;
+    }
+
+    /**
+     * Gets the number of images removed to make room for others.
+     * @return the number of evictions
+     */
+    public synchronized long evictions()
+    {
+        return evictions;
+    }
+
+    @Override
+    public synchronized String toString()
+    {
+        return "ImageCache[" + entries.size() + " images, " + size + "/" + capacity + " bytes, "
+                + hits + " hits, " + misses + " misses, " + evictions + " evictions]";
+    }
+
+    private void remove(String key, Entry entry)
+    {
+        entries.remove(key);
+        size -= bytes(entry.raster);
+    }
+
+    private static long bytes(IntRaster raster)
+    {
+        return 4L * raster.area();
+    }
+
+    /**
+     * Gets the canonical path of a file.
+     * @return the path, or {@code null} if it cannot be resolved, the file not being cached then
+     */
+    private static String key(File file)
+    {
+        try
+        {
+            return file.getCanonicalPath();
+        }
+        catch(IOException e)
+        {
+            return null;
+        }
+    }
+
+    private static final class Entry
+    {
+        final long length, modified;
+        final IntRaster raster;
+
+        Entry(long length, long modified, IntRaster raster)
+        {
+            this.length = length;
+            this.modified = modified;
+            this.raster = raster;
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package main;
 
+import java.util.concurrent.ForkJoinPool;
+
 
 public final class ImageMessage {
 
@@ -113,6 +115,8 @@ public final class ImageMessage {
     public static int[][] toGray(int[][] image) {
         assert Utils.isImage(image);
 
+        final long start = Metrics.start();
+        final Object event = Events.begin(Metrics.Stage.CONVERT);
         int[][] grayscale = new int[image.length][image[0].length];
         for(int row = 0; row < image.length; row++)
         {
@@ -121,6 +125,8 @@ public final class ImageMessage {
                 grayscale[row][col] = getGray(image[row][col]);
             }
         }
+        Events.end(event, "toGray", image[0].length, image.length, 0, null);
+        Metrics.stop(Metrics.Stage.CONVERT, start, (long) image.length * image[0].length);
         return grayscale;
     }
 
@@ -133,6 +139,8 @@ public final class ImageMessage {
     public static int[][] toRGB(int[][] gray) {
         assert Utils.isImage(gray);
 
+        final long start = Metrics.start();
+        final Object event = Events.begin(Metrics.Stage.CONVERT);
         int[][] packed = new int[gray.length][gray[0].length];
         for(int row = 0; row < gray.length; row++)
         {
@@ -141,6 +149,8 @@ public final class ImageMessage {
                 packed[row][col] = getRGB(gray[row][col]);
             }
         }
+        Events.end(event, "toRGB", gray[0].length, gray.length, 0, null);
+        Metrics.stop(Metrics.Stage.CONVERT, start, (long) gray.length * gray[0].length);
         return packed;
     }
 
@@ -153,6 +163,8 @@ public final class ImageMessage {
     public static boolean[][] toBW(int[][] gray, int threshold) {
         assert Utils.isImage(gray);
 
+        final long start = Metrics.start();
+        final Object event = Events.begin(Metrics.Stage.CONVERT);
         boolean[][] bw = new boolean[gray.length][gray[0].length];
         for(int row = 0; row < gray.length; row++)
         {
@@ -161,6 +173,8 @@ public final class ImageMessage {
                 bw[row][col] = getBW(gray[row][col], threshold);
             }
         }
+        Events.end(event, "toBW", gray[0].length, gray.length, 0, null);
+        Metrics.stop(Metrics.Stage.CONVERT, start, (long) gray.length * gray[0].length);
         return bw;
     }
 
@@ -172,6 +186,8 @@ public final class ImageMessage {
     public static int[][] toRGB(boolean[][] image) {
         assert Utils.isImage(image);
 
+        final long start = Metrics.start();
+        final Object event = Events.begin(Metrics.Stage.CONVERT);
         int[][] packed = new int[image.length][image[0].length];
         for(int row = 0; row < image.length; row++)
         {
@@ -180,6 +196,275 @@ public final class ImageMessage {
                 packed[row][col] = getRGB(image[row][col]);
             }
         }
+        Events.end(event, "toRGB", image[0].length, image.length, 0, null);
+        Metrics.stop(Metrics.Stage.CONVERT, start, (long) image.length * image[0].length);
+        return packed;
+    }
+
+    /**
+     * Converts packed RGB raster to grayscale raster.
+     * @param image a raster of packed colors
+     * @return a new compact raster of gray values
+     * @see #toGray(int[][])
+     */
+    public static IntRaster toGray(IntRaster image) {
+        assert image != null;
+
+        final long start = Metrics.start();
+        final Object event = Events.begin(Metrics.Stage.CONVERT);
+        final int width = image.width();
+        final IntRaster grayscale = new IntRaster(width, image.height());
+        final PixelKernels kernels = Kernels.best();
+        if(image.isContiguous())
+        {
+            kernels.toGray(image.data(), image.offset(), grayscale.data(), 0, image.area());
+        }
+        else
+        {
+            for(int row = 0; row < image.height(); row++)
+                kernels.toGray(image.data(), image.index(row, 0), grayscale.data(), row * width, width);
+        }
+        Events.end(event, "toGray", image.width(), image.height(), 0, null);
+        Metrics.stop(Metrics.Stage.CONVERT, start, image.area());
+        return grayscale;
+    }
+
+    /**
+     * Converts grayscale raster to packed RGB raster.
+     * @param gray a raster of gray values
+     * @return a new compact raster of packed colors
+     * @see #toRGB(int[][])
+     */
+    public static IntRaster toRGB(IntRaster gray) {
+        assert gray != null;
+
+        final long start = Metrics.start();
+        final Object event = Events.begin(Metrics.Stage.CONVERT);
+        final int width = gray.width();
+        final int[] source = gray.data();
+        final IntRaster packed = new IntRaster(width, gray.height());
+        final int[] target = packed.data();
+        for(int row = 0; row < gray.height(); row++)
+        {
+            final int from = gray.index(row, 0), to = row * width;
+            for(int col = 0; col < width; col++)
+            {
+                target[to + col] = getRGB(source[from + col]);
+            }
+        }
+        Events.end(event, "toRGB", gray.width(), gray.height(), 0, null);
+        Metrics.stop(Metrics.Stage.CONVERT, start, gray.area());
+        return packed;
+    }
+
+    /**
+     * Converts grayscale raster to a black and white raster using a given threshold
+     * @param gray a raster of gray values
+     * @param threshold an integer threshold
+     * @return a new black and white raster
+     * @see #toBW(int[][], int)
+     */
+    public static BitRaster toBW(IntRaster gray, int threshold) {
+        assert gray != null;
+
+        final long start = Metrics.start();
+        final Object event = Events.begin(Metrics.Stage.CONVERT);
+        final IntRaster source = gray.isContiguous() ? gray : gray.copy(); // Bits are packed over the whole image
+        final BitRaster bw = new BitRaster(gray.width(), gray.height());
+        Kernels.best().toBW(source.data(), source.offset(), source.area(), threshold, bw.bits().words());
+        Events.end(event, "toBW", gray.width(), gray.height(), 0, null);
+        Metrics.stop(Metrics.Stage.CONVERT, start, gray.area());
+        return bw;
+    }
+
+    /**
+     * Converts a black and white raster to packed RGB raster
+     * @param image a black and white raster (false stands for black)
+     * @return a new compact raster of packed colors
+     * @see #toRGB(boolean[][])
+     */
+    public static IntRaster toRGB(BitRaster image) {
+        assert image != null;
+
+        final long start = Metrics.start();
+        final Object event = Events.begin(Metrics.Stage.CONVERT);
+        final long[] words = image.bits().words();
+        final IntRaster packed = new IntRaster(image.width(), image.height());
+        final int[] target = packed.data();
+        for(int i = 0; i < target.length; i++)
+        {
+            target[i] = getRGB(((words[i >>> 6] >>> i) & 1) != 0);
+        }
+        Events.end(event, "toRGB", image.width(), image.height(), 0, null);
+        Metrics.stop(Metrics.Stage.CONVERT, start, packed.area());
+        return packed;
+    }
+
+    /*
+     * ********************************************
+     * Parallel conversions
+     * ********************************************
+     */
+
+    /**
+     * Converts packed RGB image to grayscale image, on the default pool.
+     * @param image a HxW int array
+     * @return a HxW int array, identical to the result of {@link #toGray(int[][])}
+     * @see Parallel#getPool()
+     */
+    public static int[][] toGrayParallel(int[][] image) {
+        return toGrayParallel(image, Parallel.getPool());
+    }
+
+    /**
+     * Converts packed RGB image to grayscale image, processing bands of rows concurrently.
+     * @param image a HxW int array
+     * @param pool the pool running the bands
+     * @return a HxW int array, identical to the result of {@link #toGray(int[][])}
+     * @see Parallel#forRows
+     */
+    public static int[][] toGrayParallel(final int[][] image, ForkJoinPool pool) {
+        assert Utils.isImage(image);
+
+        final long start = Metrics.start();
+        final Object event = Events.begin(Metrics.Stage.CONVERT);
+        final int[][] grayscale = new int[image.length][image[0].length];
+        Parallel.forRows(pool, image.length, image[0].length, new Parallel.Rows() {
+            @Override
+            public void process(int from, int to) {
+                for(int row = from; row < to; row++)
+                {
+                    for(int col = 0; col < image[0].length; col++)
+                    {
+                        grayscale[row][col] = getGray(image[row][col]);
+                    }
+                }
+            }
+        });
+        Events.end(event, "toGrayParallel", image[0].length, image.length, 0, null);
+        Metrics.stop(Metrics.Stage.CONVERT, start, (long) image.length * image[0].length);
+        return grayscale;
+    }
+
+    /**
+     * Converts grayscale image to packed RGB image, on the default pool.
+     * @param gray a HxW grayscale array
+     * @return a HxW int array, identical to the result of {@link #toRGB(int[][])}
+     * @see Parallel#getPool()
+     */
+    public static int[][] toRGBParallel(int[][] gray) {
+        return toRGBParallel(gray, Parallel.getPool());
+    }
+
+    /**
+     * Converts grayscale image to packed RGB image, processing bands of rows concurrently.
+     * @param gray a HxW grayscale array
+     * @param pool the pool running the bands
+     * @return a HxW int array, identical to the result of {@link #toRGB(int[][])}
+     * @see Parallel#forRows
+     */
+    public static int[][] toRGBParallel(final int[][] gray, ForkJoinPool pool) {
+        assert Utils.isImage(gray);
+
+        final long start = Metrics.start();
+        final Object event = Events.begin(Metrics.Stage.CONVERT);
+        final int[][] packed = new int[gray.length][gray[0].length];
+        Parallel.forRows(pool, gray.length, gray[0].length, new Parallel.Rows() {
+            @Override
+            public void process(int from, int to) {
+                for(int row = from; row < to; row++)
+                {
+                    for(int col = 0; col < gray[0].length; col++)
+                    {
+                        packed[row][col] = getRGB(gray[row][col]);
+                    }
+                }
+            }
+        });
+        Events.end(event, "toRGBParallel", gray[0].length, gray.length, 0, null);
+        Metrics.stop(Metrics.Stage.CONVERT, start, (long) gray.length * gray[0].length);
+        return packed;
+    }
+
+    /**
+     * Converts grayscale image to a black and white image using a given threshold, on the default pool.
+     * @param gray a HxW int array
+     * @param threshold an integer threshold
+     * @return a HxW boolean array, identical to the result of {@link #toBW(int[][], int)}
+     * @see Parallel#getPool()
+     */
+    public static boolean[][] toBWParallel(int[][] gray, int threshold) {
+        return toBWParallel(gray, threshold, Parallel.getPool());
+    }
+
+    /**
+     * Converts grayscale image to a black and white image using a given threshold, processing bands of rows concurrently.
+     * @param gray a HxW int array
+     * @param threshold an integer threshold
+     * @param pool the pool running the bands
+     * @return a HxW boolean array, identical to the result of {@link #toBW(int[][], int)}
+     * @see Parallel#forRows
+     */
+    public static boolean[][] toBWParallel(final int[][] gray, final int threshold, ForkJoinPool pool) {
+        assert Utils.isImage(gray);
+
+        final long start = Metrics.start();
+        final Object event = Events.begin(Metrics.Stage.CONVERT);
+        final boolean[][] bw = new boolean[gray.length][gray[0].length];
+        Parallel.forRows(pool, gray.length, gray[0].length, new Parallel.Rows() {
+            @Override
+            public void process(int from, int to) {
+                for(int row = from; row < to; row++)
+                {
+                    for(int col = 0; col < gray[0].length; col++)
+                    {
+                        bw[row][col] = getBW(gray[row][col], threshold);
+                    }
+                }
+            }
+        });
+        Events.end(event, "toBWParallel", gray[0].length, gray.length, 0, null);
+        Metrics.stop(Metrics.Stage.CONVERT, start, (long) gray.length * gray[0].length);
+        return bw;
+    }
+
+    /**
+     * Converts a black and white image to packed RGB image, on the default pool.
+     * @param image a HxW boolean array (false stands for black)
+     * @return a HxW int array, identical to the result of {@link #toRGB(boolean[][])}
+     * @see Parallel#getPool()
+     */
+    public static int[][] toRGBParallel(boolean[][] image) {
+        return toRGBParallel(image, Parallel.getPool());
+    }
+
+    /**
+     * Converts a black and white image to packed RGB image, processing bands of rows concurrently.
+     * @param image a HxW boolean array (false stands for black)
+     * @param pool the pool running the bands
+     * @return a HxW int array, identical to the result of {@link #toRGB(boolean[][])}
+     * @see Parallel#forRows
+     */
+    public static int[][] toRGBParallel(final boolean[][] image, ForkJoinPool pool) {
+        assert Utils.isImage(image);
+
+        final long start = Metrics.start();
+        final Object event = Events.begin(Metrics.Stage.CONVERT);
+        final int[][] packed = new int[image.length][image[0].length];
+        Parallel.forRows(pool, image.length, image[0].length, new Parallel.Rows() {
+            @Override
+            public void process(int from, int to) {
+                for(int row = from; row < to; row++)
+                {
+                    for(int col = 0; col < image[0].length; col++)
+                    {
+                        packed[row][col] = getRGB(image[row][col]);
+                    }
+                }
+            }
+        });
+        Events.end(event, "toRGBParallel", image[0].length, image.length, 0, null);
+        Metrics.stop(Metrics.Stage.CONVERT, start, (long) image.length * image[0].length);
         return packed;
     }
 
@@ -248,6 +533,96 @@ public final class ImageMessage {
     }
 
 
+    /**
+     * Converts a black-and-white image to a packed bit buffer
+     * @param bwImage A black and white (boolean) image
+     * @return A bit buffer holding the same bits as {@link #bwImageToBitArray(boolean[][])}
+     * @see ImageMessage#bitBufferToImage(BitBuffer)
+     */
+    public static BitBuffer bwImageToBitBuffer(boolean[][] bwImage) {
+        assert Utils.isImage(bwImage);
+
+        final int width = bwImage[0].length;
+        final BitBuffer buffer = new BitBuffer(Integer.SIZE * 2 + bwImage.length * width);
+        buffer.setBits(0, Integer.SIZE, bwImage.length); // Encode height
+        buffer.setBits(Integer.SIZE, Integer.SIZE, width); // Encode width
+
+        final long[] words = buffer.words();
+        int i = Integer.SIZE * 2;
+        for(int row = 0; row < bwImage.length; row++) // Encode bwImage
+        {
+            for(int col = 0; col < width; col++)
+            {
+                if(bwImage[row][col])
+                    words[i >>> 6] |= 1L << i;
+                i++;
+            }
+        }
+        return buffer;
+    }
+
+    /**
+     * Converts a bit buffer back to a black and white image
+     * @param bits A bit buffer containing the binary representation of the image's height and width (32 bits each), followed by the image's pixel values
+     * @return The reconstructed image
+     * @see ImageMessage#bwImageToBitBuffer(boolean[][])
+     */
+    public static boolean[][] bitBufferToImage(BitBuffer bits) {
+        assert bits != null && bits.length() >= Integer.SIZE * 2; // Checks if the buffer contains height and width data
+
+        final int height = (int) bits.getBits(0, Integer.SIZE), width = (int) bits.getBits(Integer.SIZE, Integer.SIZE);
+
+        assert bits.length() >= Integer.SIZE * 2 + (long) width * height; // Checks if the data to read corresponds to the length specified
+
+        final long[] words = bits.words();
+        boolean[][] array = new boolean[height][width];
+        int i = Integer.SIZE * 2;
+        for(int row = 0; row < height; row++) // Decode bwImage
+        {
+            for(int col = 0; col < width; col++)
+            {
+                array[row][col] = ((words[i >>> 6] >>> i) & 1) != 0;
+                i++;
+            }
+        }
+        return array;
+    }
+
+    /**
+     * Converts a black and white raster to a packed bit buffer
+     * @param bwImage A black and white raster
+     * @return A bit buffer holding the image's height and width (32 bits each), followed by the image's pixel values
+     * @see ImageMessage#bitBufferToBitRaster(BitBuffer)
+     */
+    public static BitBuffer bwImageToBitBuffer(BitRaster bwImage) {
+        assert bwImage != null;
+
+        final BitBuffer pixels = bwImage.bits();
+        final BitBuffer buffer = new BitBuffer(Integer.SIZE * 2 + pixels.length());
+        buffer.setBits(0, Integer.SIZE, bwImage.height()); // Encode height
+        buffer.setBits(Integer.SIZE, Integer.SIZE, bwImage.width()); // Encode width
+
+        // The header is exactly one word long, so the pixels are copied word by word
+        System.arraycopy(pixels.words(), 0, buffer.words(), 1, BitBuffer.wordCount(pixels.length()));
+        return buffer;
+    }
+
+    /**
+     * Converts a bit buffer back to a black and white raster
+     * @param bits A bit buffer containing the binary representation of the image's height and width (32 bits each), followed by the image's pixel values
+     * @return The reconstructed raster
+     * @see ImageMessage#bwImageToBitBuffer(BitRaster)
+     */
+    public static BitRaster bitBufferToBitRaster(BitBuffer bits) {
+        assert bits != null && bits.length() >= Integer.SIZE * 2; // Checks if the buffer contains height and width data
+
+        final int height = (int) bits.getBits(0, Integer.SIZE), width = (int) bits.getBits(Integer.SIZE, Integer.SIZE);
+
+        assert bits.length() >= Integer.SIZE * 2 + (long) width * height; // Checks if the data to read corresponds to the length specified
+
+        return new BitRaster(bits.copyOfRange(Integer.SIZE * 2, Integer.SIZE * 2 + width * height), width, height);
+    }
+
     /**
      * Returns a safe color value
      * @param value the color value to process
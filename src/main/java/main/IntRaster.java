@@ -0,0 +1,255 @@
+package main;
+
+/**
+ * Represent a HxW image of packed integer values stored in a single contiguous array.
+ * <p>
+ * Pixel {@code (row, col)} lives at {@code data[offset + row * stride + col]}. A raster created by
+ * {@link #subRaster(int, int, int, int)} is a view sharing the array of its parent, so writes through
+ * one are visible through the other.
+ */
+public final class IntRaster
+{
+    private final int[] data;
+    private final int offset, width, height, stride;
+
+    /**
+     * Creates a compact raster filled with zeros.
+     * @param width the number of columns, positive
+     * @param height the number of rows, positive
+     */
+    public IntRaster(int width, int height)
+    {
+        this(new int[checkedArea(width, height)], 0, width, height, width);
+    }
+
+    /**
+     * Creates a raster over an existing array, without copying it.
+     * @param data the backing array
+     * @param offset the index of pixel {@code (0, 0)}
+     * @param width the number of columns, positive
+     * @param height the number of rows, positive
+     * @param stride the distance between the starts of two consecutive rows, at least {@code width}
+     */
+    public IntRaster(int[] data, int offset, int width, int height, int stride)
+    {
+        assert data != null && width > 0 && height > 0 && stride >= width && offset >= 0;
+        assert offset + (long) (height - 1) * stride + width <= data.length;
+
+        this.data = data;
+        this.offset = offset;
+        this.width = width;
+        this.height = height;
+        this.stride = stride;
+    }
+
+    /**
+     * Copies a HxW array into a new compact raster.
+     * @param array a HxW int array
+     * @return a new raster holding the same pixels
+     * @see #toArray()
+     */
+    public static IntRaster fromArray(int[][] array)
+    {
+        assert Utils.isImage(array);
+
+        final IntRaster raster = new IntRaster(array[0].length, array.length);
+        for(int row = 0; row < raster.height; row++)
+            System.arraycopy(array[row], 0, raster.data, row * raster.width, raster.width);
+        return raster;
+    }
+
+    /**
+     * Copies this raster into a new HxW array.
+     * @return a HxW int array holding the same pixels
+     * @see #fromArray(int[][])
+     */
+    public int[][] toArray()
+    {
+        final int[][] array = new int[height][width];
+        for(int row = 0; row < height; row++)
+            System.arraycopy(data, index(row, 0), array[row], 0, width);
+        return array;
+    }
+
+    /**
+     * Gets the number of columns.
+     * @return the width
+     */
+    public int width()
+    {
+        return width;
+    }
+
+    /**
+     * Gets the number of rows.
+     * @return the height
+     */
+    public int height()
+    {
+        return height;
+    }
+
+    /**
+     * Gets the distance between the starts of two consecutive rows in the backing array.
+     * @return the stride
+     */
+    public int stride()
+    {
+        return stride;
+    }
+
+    /**
+     * Gets the index of pixel {@code (0, 0)} in the backing array.
+     * @return the offset
+     */
+    public int offset()
+    {
+        return offset;
+    }
+
+    /**
+     * Gets the backing array, for bulk processing.
+     * @return the backing array
+     */
+    public int[] data()
+    {
+        return data;
+    }
+
+    /**
+     * Gets the number of pixels.
+     * @return {@code width * height}
+     */
+    public int area()
+    {
+        return width * height;
+    }
+
+    /**
+     * Tells whether rows follow each other without gaps, i.e. whether pixels {@code 0} to {@code area() - 1}
+     * are exactly the range starting at {@link #offset()}.
+     * @return {@code true} if {@code stride == width}
+     */
+    public boolean isContiguous()
+    {
+        return stride == width;
+    }
+
+    /**
+     * Gets the index of a pixel in the backing array.
+     * @param row the row
+     * @param col the column
+     * @return the index of the pixel
+     */
+    public int index(int row, int col)
+    {
+        assert row >= 0 && row < height && col >= 0 && col < width;
+
+        return offset + row * stride + col;
+    }
+
+    /**
+     * Gets the value of a pixel.
+     * @param row the row
+     * @param col the column
+     * @return the value
+     */
+    public int get(int row, int col)
+    {
+        return data[index(row, col)];
+    }
+
+    /**
+     * Sets the value of a pixel.
+     * @param row the row
+     * @param col the column
+     * @param value the value
+     */
+    public void set(int row, int col, int value)
+    {
+        data[index(row, col)] = value;
+    }
+
+    /**
+     * Creates a view over a rectangular region of this raster, without copying.
+     * @param row the top row of the region
+     * @param col the left column of the region
+     * @param width the number of columns of the region
+     * @param height the number of rows of the region
+     * @return a raster sharing the backing array of this one
+     */
+    public IntRaster subRaster(int row, int col, int width, int height)
+    {
+        assert row >= 0 && col >= 0 && width > 0 && height > 0 && row + height <= this.height && col + width <= this.width;
+
+        return new IntRaster(data, index(row, col), width, height, stride);
+    }
+
+    /**
+     * Copies this raster into a new compact raster.
+     * @return a raster with its own backing array
+     */
+    public IntRaster copy()
+    {
+        final IntRaster copy = new IntRaster(width, height);
+        if(isContiguous())
+        {
+            System.arraycopy(data, offset, copy.data, 0, area());
+        }
+        else
+        {
+            for(int row = 0; row < height; row++)
+                System.arraycopy(data, index(row, 0), copy.data, row * width, width);
+        }
+        return copy;
+    }
+
+    /**
+     * Checks that an image of the given size can be held in a single array.
+     * @param width the number of columns
+     * @param height the number of rows
+     * @return the number of pixels
+     */
+    private static int checkedArea(int width, int height)
+    {
+        final long area = (long) width * height;
+        if(width <= 0 || height <= 0 || area > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Invalid raster size: " + width + "x" + height);
+        return (int) area;
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if(this == o)
+            return true;
+        if(!(o instanceof IntRaster))
+            return false;
+        final IntRaster other = (IntRaster) o;
+        if(width != other.width || height != other.height)
+            return false;
+        for(int row = 0; row < height; row++)
+        {
+            final int a = index(row, 0), b = other.index(row, 0);
+            for(int col = 0; col < width; col++)
+            {
+                if(data[a + col] != other.data[b + col])
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        int hash = 31 * width + height;
+        for(int row = 0; row < height; row++)
+        {
+            final int base = index(row, 0);
+            for(int col = 0; col < width; col++)
+                hash = 31 * hash + data[base + col];
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,68 @@
+package main;
+
+/**
+ * Select the implementation of the pixel kernels.
+ * <p>
+ * The Vector API implementation, {@code main.VectorPixelKernels}, is only compiled by the {@code vector} Maven profile
+ * and needs {@code --add-modules jdk.incubator.vector} at run time. When it is missing or cannot be loaded, or when the
+ * {@code steganography.kernels} system property is set to {@code scalar}, the scalar implementation is used.
+ */
+public final class Kernels
+{
+    private static final String VECTOR_CLASS = "main.VectorPixelKernels";
+    private static final PixelKernels SCALAR = new ScalarPixelKernels();
+    private static final PixelKernels BEST = load();
+
+    private Kernels()
+    {
+    }
+
+    /**
+     * Gets the reference implementation.
+     * @return the scalar kernels
+     */
+    public static PixelKernels scalar()
+    {
+        return SCALAR;
+    }
+
+    /**
+     * Gets the fastest implementation available.
+     * @return the vector kernels if they can be used, the scalar ones otherwise
+     */
+    public static PixelKernels best()
+    {
+        return BEST;
+    }
+
+    /**
+     * Tells whether the Vector API implementation is in use.
+     * @return {@code true} if {@link #best()} is vectorized
+     */
+    public static boolean isVectorized()
+    {
+        return BEST != SCALAR;
+    }
+
+    /**
+     * Loads the vector kernels, if allowed and available.
+     * @return the kernels to use
+     */
+    private static PixelKernels load()
+    {
+        if("scalar".equals(System.getProperty("steganography.kernels")))
+            return SCALAR;
+        try
+        {
+            return (PixelKernels) Class.forName(VECTOR_CLASS).getDeclaredConstructor().newInstance();
+        }
+        catch(ReflectiveOperationException e)
+        {
+            return SCALAR; // Not compiled in
+        }
+        catch(LinkageError e)
+        {
+            return SCALAR; // Compiled in, but jdk.incubator.vector is not resolved
+        }
+    }
+}
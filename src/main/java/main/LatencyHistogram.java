@@ -0,0 +1,139 @@
+package main;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Count durations in buckets of logarithmic width, so that any percentile is known within a few percent in constant
+ * memory, whatever the range of the durations.
+ * <p>
+ * Durations below {@code 32} nanoseconds are counted exactly. Above, each power of two is split into {@code 16}
+ * buckets, so a percentile is given within {@code 1/16} of its value. Recording is lock-free and allocation-free; a
+ * percentile read while durations are recorded may miss the latest ones.
+ */
+public final class LatencyHistogram
+{
+    private static final int SUB_BITS = 4; // 16 buckets per power of two
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int LINEAR = 2 * SUB_BUCKETS; // Values counted exactly
+    private static final int LINEAR_BITS = SUB_BITS + 1;
+    private static final int BUCKETS = LINEAR + (Long.SIZE - 1 - LINEAR_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong(), total = new AtomicLong(), max = new AtomicLong();
+
+    /**
+     * Counts a duration.
+     * @param nanos the duration in nanoseconds, negative ones counting as {@code 0}
+     */
+    public void record(long nanos)
+    {
+        final long value = Math.max(0, nanos);
+        counts.incrementAndGet(bucket(value));
+        count.incrementAndGet();
+        total.addAndGet(value);
+        long previous;
+        while(value > (previous = max.get()) && !max.compareAndSet(previous, value))
+        {
+            // Another thread raised the maximum, compare again
+        }
+    }
+
+    /**
+     * Gets the number of durations counted.
+     * @return the count
+     */
+    public long count()
+    {
+        return count.get();
+    }
+
+    /**
+     * Gets the sum of the durations counted.
+     * @return the sum in nanoseconds
+     */
+    public long total()
+    {
+        return total.get();
+    }
+
+    /**
+     * Gets the longest duration counted.
+     * @return the maximum in nanoseconds, {@code 0} if none was counted
+     */
+    public long max()
+    {
+        return max.get();
+    }
+
+    /**
+     * Gets the mean of the durations counted.
+     * @return the mean in nanoseconds, {@code 0} if none was counted
+     */
+    public double mean()
+    {
+        final long n = count.get();
+        return n == 0 ? 0 : (double) total.get() / n;
+    }
+
+    /**
+     * Gets a percentile of the durations counted.
+     * @param percentile the percentile, between {@code 0} and {@code 100}
+     * @return the largest duration of the bucket holding the percentile, at most {@link #max()}, {@code 0} if none
+     * was counted
+     */
+    public long percentile(double percentile)
+    {
+        if(percentile < 0 || percentile > 100)
+            throw new IllegalArgumentException("Invalid percentile: " + percentile);
+
+        long n = 0;
+        for(int i = 0; i < BUCKETS; i++)
+            n += counts.get(i);
+        final long rank = Math.max(1, (long) Math.ceil(percentile / 100 * n)); // Nearest rank
+        long seen = 0;
+        for(int i = 0; i < BUCKETS; i++)
+        {
+            seen += counts.get(i);
+            if(seen >= rank)
+                return Math.min(highest(i), max.get());
+        }
+        return 0;
+    }
+
+    /**
+     * Forgets all the durations counted.
+     */
+    public void reset()
+    {
+        for(int i = 0; i < BUCKETS; i++)
+            counts.set(i, 0);
+        count.set(0);
+        total.set(0);
+        max.set(0);
+    }
+
+    /**
+     * Gets the bucket of a value.
+     */
+    static int bucket(long value)
+    {
+        if(value < LINEAR)
+            return (int) value;
+        final int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value); // At least LINEAR_BITS
+        final int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1); // Bits after the leading one
+        return LINEAR + (exponent - LINEAR_BITS) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * Gets the largest value of a bucket.
+     */
+    static long highest(int bucket)
+    {
+        if(bucket < LINEAR)
+            return bucket;
+        final int exponent = LINEAR_BITS + (bucket - LINEAR) / SUB_BUCKETS;
+        final long lowest = (long) (SUB_BUCKETS + (bucket - LINEAR) % SUB_BUCKETS) << (exponent - SUB_BITS);
+        return lowest + (1L << (exponent - SUB_BITS)) - 1;
+    }
+}
@@ -0,0 +1,96 @@
+package main;
+
+import java.io.InputStream;
+
+/**
+ * Read bytes from the low bits of the pixels of a raster, as they are needed.
+ * <p>
+ * The reverse of {@link LsbOutputStream}: pixels are only read when their bits are consumed, so a message can be
+ * extracted in constant memory without decoding the rest of the cover. The stream ends with the last complete byte
+ * of the cover.
+ */
+public class LsbInputStream extends InputStream
+{
+    private final int[] data;
+    private final PixelCursor cursor;
+    private final int depth, perPixel;
+    private long bits = 0; // Pending bits, the first one in the least significant position
+    private int count = 0;
+
+    /**
+     * Creates a stream reading the single LSB of the pixels of a raster.
+     * @param raster the raster to read
+     * @param order the order in which the pixels received the bits
+     */
+    public LsbInputStream(IntRaster raster, TraversalOrder order)
+    {
+        this(raster, order, 0);
+    }
+
+    /**
+     * Creates a stream reading the low bits of the color channels of a raster.
+     * @param raster the raster to read
+     * @param order the order in which the pixels received the bits
+     * @param depth the number of bits per channel, {@code 0} standing for the single LSB of each pixel
+     */
+    public LsbInputStream(IntRaster raster, TraversalOrder order, int depth)
+    {
+        assert depth >= 0 && depth <= Steganography.MAX_DEPTH;
+
+        this.data = raster.data();
+        this.cursor = new PixelCursor(raster, order, 0);
+        this.depth = depth;
+        this.perPixel = Steganography.bitsPerPixel(depth);
+    }
+
+    @Override
+    public int read()
+    {
+        if(!fill())
+            return -1;
+        final int b = (int) bits & 0xff;
+        bits >>>= Byte.SIZE;
+        count -= Byte.SIZE;
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len)
+    {
+        if(off < 0 || len < 0 || off + len > b.length)
+            throw new IndexOutOfBoundsException();
+        if(len == 0)
+            return 0;
+
+        int i = 0;
+        while(i < len && fill())
+        {
+            b[off + i++] = (byte) bits;
+            bits >>>= Byte.SIZE;
+            count -= Byte.SIZE;
+        }
+        return i == 0 ? -1 : i;
+    }
+
+    @Override
+    public int available()
+    {
+        return (int) Math.min(Integer.MAX_VALUE, ((long) cursor.remaining() * perPixel + count) / Byte.SIZE);
+    }
+
+    /**
+     * Reads pixels until a whole byte is pending.
+     * @return {@code false} if the cover is exhausted
+     */
+    private boolean fill()
+    {
+        while(count < Byte.SIZE)
+        {
+            if(!cursor.hasNext())
+                return false;
+            bits |= (long) Steganography.getChannelBits(data[cursor.next()], depth) << count;
+            count += perPixel;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,124 @@
+package main;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Write bytes into the low bits of the pixels of a raster, as they come.
+ * <p>
+ * Each byte is written least significant bit first, {@link Steganography#bitsPerPixel(int)} bits per pixel, the pixels
+ * being visited in a {@link TraversalOrder}. The raster is modified in place and only a few bits are buffered, so any
+ * amount of data can be streamed in constant memory. The bits of a pixel are written once it is full, or when the
+ * stream is closed; bits of the last pixel past the end of the data keep their value.
+ * <p>
+ * The stream does not record the length of the data: frame it, for instance with a {@link java.io.DataOutputStream}
+ * writing the length first, to read it back from an {@link LsbInputStream}.
+ */
+public class LsbOutputStream extends OutputStream
+{
+    private final int[] data;
+    private final PixelCursor cursor;
+    private final int depth, perPixel;
+    private long bits = 0; // Pending bits, the first one in the least significant position
+    private int count = 0;
+    private boolean closed = false;
+
+    /**
+     * Creates a stream writing into the single LSB of the pixels of a raster.
+     * @param raster the raster to modify
+     * @param order the order in which the pixels receive the bits
+     */
+    public LsbOutputStream(IntRaster raster, TraversalOrder order)
+    {
+        this(raster, order, 0);
+    }
+
+    /**
+     * Creates a stream writing into the low bits of the color channels of a raster.
+     * @param raster the raster to modify
+     * @param order the order in which the pixels receive the bits
+     * @param depth the number of bits per channel, {@code 0} standing for the single LSB of each pixel
+     */
+    public LsbOutputStream(IntRaster raster, TraversalOrder order, int depth)
+    {
+        assert depth >= 0 && depth <= Steganography.MAX_DEPTH;
+
+        this.data = raster.data();
+        this.cursor = new PixelCursor(raster, order, 0);
+        this.depth = depth;
+        this.perPixel = Steganography.bitsPerPixel(depth);
+    }
+
+    /**
+     * Gets the number of bytes which can still be written.
+     * @return the number of bytes
+     */
+    public long remaining()
+    {
+        return ((long) cursor.remaining() * perPixel - count) / Byte.SIZE;
+    }
+
+    @Override
+    public void write(int b) throws IOException
+    {
+        ensureOpen();
+        if(remaining() < 1)
+            throw new IOException("The cover is full");
+
+        bits |= (long) (b & 0xff) << count;
+        count += Byte.SIZE;
+        while(count >= perPixel)
+            writePixel(perPixel);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException
+    {
+        ensureOpen();
+        if(off < 0 || len < 0 || off + len > b.length)
+            throw new IndexOutOfBoundsException();
+        if(remaining() < len)
+            throw new IOException("The cover is full");
+
+        for(int i = off; i < off + len; i++)
+        {
+            bits |= (long) (b[i] & 0xff) << count;
+            count += Byte.SIZE;
+            while(count >= perPixel)
+                writePixel(perPixel);
+        }
+    }
+
+    /**
+     * Writes the bits of the last, incomplete pixel. No more bytes can be written.
+     */
+    @Override
+    public void close()
+    {
+        if(closed)
+            return;
+        if(count > 0)
+            writePixel(count);
+        closed = true;
+    }
+
+    /**
+     * Writes pending bits into the next pixel.
+     * @param size the number of bits, at most {@link #perPixel}
+     */
+    private void writePixel(int size)
+    {
+        final int index = cursor.next();
+        final int mask = (int) ((1L << size) - 1);
+        final int value = (Steganography.getChannelBits(data[index], depth) & ~mask) | ((int) bits & mask); // Keeps the bits past the data
+        data[index] = Steganography.embedInChannels(data[index], value, depth);
+        bits >>>= size;
+        count -= size;
+    }
+
+    private void ensureOpen() throws IOException
+    {
+        if(closed)
+            throw new IOException("Stream closed");
+    }
+}
@@ -0,0 +1,176 @@
+package main;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Compress bytes with a fast LZ77 codec, in the block format of LZ4.
+ * <p>
+ * The stream is a series of sequences, each made of a token byte, literal bytes copied as is, then a
+ * match copying bytes already decoded. The high half of the token holds the number of literals, the
+ * low half the length of the match minus 4, the value 15 announcing extra length bytes of up to 255
+ * each. A match is given by a 2-byte little-endian distance backwards, then its extra length bytes.
+ * The last sequence only holds literals. Matches are found through a single hash table of 4-byte
+ * prefixes, trading ratio for speed.
+ */
+public final class LzCodec
+{
+    private static final int MIN_MATCH = 4;
+    private static final int MAX_DISTANCE = 0xffff;
+    private static final int HASH_BITS = 14;
+    private static final int END_LITERALS = 5; // Bytes always left as literals at the end
+    private static final int MAX_RATIO = 255; // Largest expansion, each extra length byte adding up to 255 bytes
+
+    private LzCodec()
+    {
+    }
+
+    /**
+     * Compresses bytes.
+     * @param data the bytes to compress
+     * @return the compressed stream, which does not hold the length of {@code data}
+     * @see #decompress(byte[], int, int)
+     */
+    public static byte[] compress(byte[] data)
+    {
+        assert data != null;
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 2 + 16);
+        final int[] table = new int[1 << HASH_BITS]; // Last position + 1 of each hashed prefix, 0 if none
+        final int limit = data.length - END_LITERALS - MIN_MATCH;
+
+        int anchor = 0, i = 0;
+        while(i <= limit)
+        {
+            final int prefix = readInt(data, i);
+            final int hash = (prefix * 0x9e3779b1) >>> (Integer.SIZE - HASH_BITS);
+            final int candidate = table[hash] - 1;
+            table[hash] = i + 1;
+            if(candidate < 0 || i - candidate > MAX_DISTANCE || readInt(data, candidate) != prefix)
+            {
+                i++;
+                continue;
+            }
+
+            int length = MIN_MATCH;
+            while(i + length < data.length - END_LITERALS && data[candidate + length] == data[i + length])
+                length++;
+            writeSequence(out, data, anchor, i - anchor, i - candidate, length);
+            i += length;
+            anchor = i;
+        }
+        writeSequence(out, data, anchor, data.length - anchor, 0, 0);
+        return out.toByteArray();
+    }
+
+    /**
+     * Decompresses bytes.
+     * @param stream the stream written by {@link #compress(byte[])}
+     * @param offset the index of the first byte of the stream in {@code stream}
+     * @param length the number of bytes to decompress
+     * @return the bytes
+     * @throws IllegalArgumentException if {@code stream} is not a valid stream of {@code length} bytes, or too short
+     *         to hold them
+     */
+    public static byte[] decompress(byte[] stream, int offset, int length)
+    {
+        assert stream != null && offset >= 0 && length >= 0;
+
+        if(length > (long) (stream.length - offset) * MAX_RATIO + MIN_MATCH + 15) // Checked before allocating
+            throw new IllegalArgumentException("Length " + length + " out of reach of " + (stream.length - offset) + " bytes");
+        final byte[] data = new byte[length];
+        int in = offset, out = 0;
+        try
+        {
+            while(true)
+            {
+                final int token = stream[in++] & 0xff;
+                int literals = token >>> 4;
+                if(literals == 15)
+                {
+                    int extra;
+                    do
+                    {
+                        extra = stream[in++] & 0xff;
+                        literals += extra;
+                    }
+                    while(extra == 255);
+                }
+                System.arraycopy(stream, in, data, out, literals);
+                in += literals;
+                out += literals;
+                if(in == stream.length) // The last sequence has no match
+                    break;
+
+                final int distance = (stream[in] & 0xff) | (stream[in + 1] & 0xff) << 8;
+                in += 2;
+                int match = (token & 15) + MIN_MATCH;
+                if((token & 15) == 15)
+                {
+                    int extra;
+                    do
+                    {
+                        extra = stream[in++] & 0xff;
+                        match += extra;
+                    }
+                    while(extra == 255);
+                }
+                if(distance == 0 || distance > out || out + match > length)
+                    throw new IllegalArgumentException("Invalid match at byte " + out);
+                for(int j = 0; j < match; j++) // Byte per byte, as the match may overlap its own output
+                    data[out + j] = data[out - distance + j];
+                out += match;
+            }
+        }
+        catch(IndexOutOfBoundsException e)
+        {
+            throw new IllegalArgumentException("Truncated or invalid stream", e);
+        }
+        if(out != length)
+            throw new IllegalArgumentException("Expected " + length + " bytes, got " + out);
+        return data;
+    }
+
+    /**
+     * Writes a sequence.
+     * @param out the stream
+     * @param data the bytes being compressed
+     * @param from the index of the first literal
+     * @param literals the number of literals
+     * @param distance the distance of the match, unused for the last sequence
+     * @param match the length of the match, {@code 0} for the last sequence
+     */
+    private static void writeSequence(ByteArrayOutputStream out, byte[] data, int from, int literals, int distance, int match)
+    {
+        final int matchCode = match == 0 ? 0 : match - MIN_MATCH;
+        out.write(Math.min(literals, 15) << 4 | Math.min(matchCode, 15));
+        if(literals >= 15)
+            writeLength(out, literals - 15);
+        out.write(data, from, literals);
+        if(match == 0)
+            return;
+        out.write(distance);
+        out.write(distance >>> 8);
+        if(matchCode >= 15)
+            writeLength(out, matchCode - 15);
+    }
+
+    /**
+     * Writes the extra bytes of a length.
+     * @param out the stream
+     * @param value the length beyond 15
+     */
+    private static void writeLength(ByteArrayOutputStream out, int value)
+    {
+        while(value >= 255)
+        {
+            out.write(255);
+            value -= 255;
+        }
+        out.write(value);
+    }
+
+    private static int readInt(byte[] data, int index)
+    {
+        return (data[index] & 0xff) | (data[index + 1] & 0xff) << 8 | (data[index + 2] & 0xff) << 16 | (data[index + 3] & 0xff) << 24;
+    }
+}
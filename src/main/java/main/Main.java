@@ -1,12 +1,193 @@
 package main;
 
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
 /**
- * @author
+ * Run the steganography over whole directories from the command line, without any window.
+ * <p>
+ * Usage: {@code Main <command> [options] <image or directory>...} where the command is one of
+ * <ul>
+ * <li>{@code embed-text --text <text> | --text-file <file> [--charset <name>]}: hide a text in each cover</li>
+ * <li>{@code embed-image --image <file> [--threshold <0-255>]}: hide a black and white image in each cover</li>
+ * <li>{@code embed-file --file <file>}: hide the bytes of a file in each cover</li>
+ * <li>{@code reveal}: extract the payload of each image</li>
+ * <li>{@code serve [--port <port>] [--bind <address>] [--decodes <n>]}: serve requests with an {@link HttpService}
+ * instead, on port 8080 of the loopback address by default, processing at most {@code n} images at once, one per core
+ * by default. The service has no authentication: binding another address, such as {@code 0.0.0.0}, exposes it to the
+ * network</li>
+ * </ul>
+ * and the options are
+ * <ul>
+ * <li>{@code -o, --output <dir>}: the directory receiving the results, required</li>
+ * <li>{@code --manifest <file>}: also process the images listed in a file, one per line</li>
+ * <li>{@code --threads <n>}: the number of images processed at once, one per core by default</li>
+ * <li>{@code --shard <i>/<n>}: only process the images of shard {@code i} out of {@code n}</li>
+ * <li>{@code --depth <0-8>}: the number of bits per channel, {@code 0} for the single LSB (default)</li>
+ * <li>{@code --spiral}: visit the pixels in spiral order</li>
+ * <li>{@code --compression <NONE|DEFLATE|LZ>}: compress the payload</li>
+ * <li>{@code --sidecar}: read the images through decoded copies kept next to them</li>
+ * </ul>
+ * The exit status is {@code 0} if all the images were processed, {@code 1} if some failed, {@code 2} on a usage error.
+ *
+ * @see Batch
  */
 public final class Main {
 
+    private static final String USAGE = "Usage: Main <embed-text|embed-image|embed-file|reveal> [options] <image or directory>...\n"
+            + "       Main serve [--port <port>] [--bind <address>] [--decodes <n>]\n"
+            + "  --text <text> | --text-file <file> [--charset <name>]   text to embed (embed-text)\n"
+            + "  --image <file> [--threshold <0-255>]                    image to embed in black and white (embed-image)\n"
+            + "  --file <file>                                           bytes to embed (embed-file)\n"
+            + "  -o, --output <dir>                                      directory receiving the results\n"
+            + "  --manifest <file>                                       list of images, one per line\n"
+            + "  --threads <n>                                           images processed at once (default: cores)\n"
+            + "  --shard <i>/<n>                                         only process shard i out of n\n"
+            + "  --depth <0-8>                                           bits per channel, 0 for the single LSB\n"
+            + "  --spiral                                                spiral order instead of linear\n"
+            + "  --compression <NONE|DEFLATE|LZ>                         codec of the payload\n"
+            + "  --sidecar                                               keep decoded copies next to the images";
+
     public static void main(String[] args) {
+        try {
+            int failures = run(args);
+            if (failures >= 0) // The service keeps running otherwise
+                System.exit(failures == 0 ? 0 : 1);
+        } catch (IllegalArgumentException | IOException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+    }
+
+    /**
+     * Parses the arguments and runs the batch.
+     * @param args the command line
+     * @return the number of failed images, or {@code -1} once the service is started
+     * @throws IllegalArgumentException if the arguments are invalid
+     * @throws IOException if an input cannot be read
+     */
+    static int run(String[] args) throws IOException {
+        if (args.length == 0)
+            throw new IllegalArgumentException("Missing command");
+        String command = args[0];
+        if (!Arrays.asList("embed-text", "embed-image", "embed-file", "reveal", "serve").contains(command))
+            throw new IllegalArgumentException("Unknown command: " + command);
+
+        String text = null, textFile = null, image = null, file = null, output = null, manifest = null, bind = null;
+        Charset charset = StandardCharsets.UTF_8;
+        Compression compression = Compression.NONE;
+        TraversalOrder order = TraversalOrder.LINEAR;
+        int threshold = 128, depth = 0, threads = Runtime.getRuntime().availableProcessors(), shard = 0, shards = 1;
+        int port = 8080, decodes = Runtime.getRuntime().availableProcessors();
+        boolean sidecar = false;
+        List<File> inputs = new ArrayList<>();
+
+        for (int i = 1; i < args.length; ++i) {
+            String arg = args[i];
+            switch (arg) {
+                case "--text": text = value(args, ++i, arg); break;
+                case "--text-file": textFile = value(args, ++i, arg); break;
+                case "--charset": charset = Charset.forName(value(args, ++i, arg)); break;
+                case "--image": image = value(args, ++i, arg); break;
+                case "--threshold": threshold = number(args, ++i, arg, 0, 255); break;
+                case "--file": file = value(args, ++i, arg); break;
+                case "-o":
+                case "--output": output = value(args, ++i, arg); break;
+                case "--manifest": manifest = value(args, ++i, arg); break;
+                case "--threads": threads = number(args, ++i, arg, 1, 1024); break;
+                case "--depth": depth = number(args, ++i, arg, 0, Steganography.MAX_DEPTH); break;
+                case "--spiral": order = TraversalOrder.SPIRAL; break;
+                case "--sidecar": sidecar = true; break;
+                case "--port": port = number(args, ++i, arg, 0, 65535); break;
+                case "--bind": bind = value(args, ++i, arg); break;
+                case "--decodes": decodes = number(args, ++i, arg, 1, 1024); break;
+                case "--compression":
+                    compression = Compression.valueOf(value(args, ++i, arg).toUpperCase(Locale.ROOT));
+                    break;
+                case "--shard": {
+                    String[] parts = value(args, ++i, arg).split("/");
+                    if (parts.length != 2)
+                        throw new IllegalArgumentException("Expected --shard <i>/<n>");
+                    shard = Integer.parseInt(parts[0]);
+                    shards = Integer.parseInt(parts[1]);
+                    break;
+                }
+                default:
+                    if (arg.startsWith("-"))
+                        throw new IllegalArgumentException("Unknown option: " + arg);
+                    inputs.add(new File(arg));
+            }
+        }
+        if (command.equals("serve")) {
+            InetAddress address = bind == null ? InetAddress.getLoopbackAddress() : InetAddress.getByName(bind); // Local only by default
+            HttpService service = new HttpService(new InetSocketAddress(address, port), decodes);
+            service.start();
+            System.out.println("Serving on " + service.address().getAddress().getHostAddress() + " port " + service.address().getPort());
+            return -1;
+        }
+        if (output == null)
+            throw new IllegalArgumentException("Missing --output");
+
+        Batch batch;
+        switch (command) {
+            case "embed-text":
+                if ((text == null) == (textFile == null))
+                    throw new IllegalArgumentException("Expected one of --text and --text-file");
+                if (textFile != null)
+                    text = new String(Files.readAllBytes(new File(textFile).toPath()), StandardCharsets.UTF_8);
+                batch = Batch.embed(Payload.ofText(text, charset).withCompression(compression), depth, order, new File(output), sidecar);
+                break;
+            case "embed-image":
+                if (image == null)
+                    throw new IllegalArgumentException("Missing --image");
+                BitRaster bw = ImageMessage.toBW(ImageMessage.toGray(Helper.readRasterChecked(image, false)), threshold);
+                batch = Batch.embed(Payload.ofImage(bw).withCompression(compression), depth, order, new File(output), sidecar);
+                break;
+            case "embed-file":
+                if (file == null)
+                    throw new IllegalArgumentException("Missing --file");
+                byte[] data = Files.readAllBytes(new File(file).toPath());
+                batch = Batch.embed(Payload.ofBytes(data).withCompression(compression), depth, order, new File(output), sidecar);
+                break;
+            case "reveal":
+                batch = Batch.reveal(order, new File(output), sidecar);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown command: " + command);
+        }
+
+        List<Batch.Job> jobs = Batch.list(inputs);
+        if (manifest != null)
+            jobs.addAll(Batch.manifest(new File(manifest)));
+        jobs = Batch.unique(jobs);
+        if (jobs.isEmpty())
+            throw new IllegalArgumentException("No images to process");
+        return batch.run(Batch.shard(jobs, shard, shards), threads, System.out);
+    }
+
+    // Get the value of an option
+    private static String value(String[] args, int index, String option) {
+        if (index >= args.length)
+            throw new IllegalArgumentException("Missing value for " + option);
+        return args[index];
+    }
 
+    // Get the value of a numeric option, checking its range
+    private static int number(String[] args, int index, String option, int min, int max) {
+        int value = Integer.parseInt(value(args, index, option));
+        if (value < min || value > max)
+            throw new IllegalArgumentException(option + " must be between " + min + " and " + max);
+        return value;
     }
 
 }
@@ -0,0 +1,68 @@
+package main;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * Compare the end-to-end cost of embedding and revealing a text with each {@link Compression}.
+ * <p>
+ * Usage: {@code MainCompression [cover] [lines]}, the cover defaulting to {@code images/tiles-large.png}
+ * and the message to a generated log of 200 lines.
+ */
+public class MainCompression {
+
+    private static final int WARMUP = 50;
+    private static final int RUNS = 100;
+
+    public static void main(String[] args) {
+        final String path = args.length > 0 ? args[0] : "images/tiles-large.png";
+        final int lines = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+
+        final IntRaster cover = Helper.readRaster(path);
+        final String message = log(lines);
+        System.out.println("Cover: " + path + " (" + cover.width() + "x" + cover.height() + "), message: " + message.length() + " chars");
+        System.out.println("codec      bytes   pixels   embed ms  reveal ms");
+
+        for(Compression compression : Compression.values())
+        {
+            final Payload payload = Payload.ofText(message, StandardCharsets.UTF_8).withCompression(compression);
+            IntRaster hidden = null;
+            for(int i = 0; i < WARMUP; i++)
+                hidden = Steganography.embedText(cover, message, StandardCharsets.UTF_8, compression);
+
+            long start = System.nanoTime();
+            for(int i = 0; i < RUNS; i++)
+                hidden = Steganography.embedText(cover, message, StandardCharsets.UTF_8, compression);
+            final double embed = (System.nanoTime() - start) / 1e6 / RUNS;
+
+            for(int i = 0; i < WARMUP; i++)
+                Steganography.revealText(hidden);
+            start = System.nanoTime();
+            String revealed = null;
+            for(int i = 0; i < RUNS; i++)
+                revealed = Steganography.revealText(hidden);
+            final double reveal = (System.nanoTime() - start) / 1e6 / RUNS;
+
+            if(!message.equals(revealed))
+                throw new AssertionError("Round trip failed with " + compression);
+            System.out.println(String.format("%-8s %7d %8d %10.3f %10.3f",
+                    compression, (payload.toBitBuffer().length() - Payload.HEADER_SIZE) / 8, payload.pixels(), embed, reveal));
+        }
+    }
+
+    /**
+     * Generates a log, as repetitive as the blobs usually hidden.
+     * @param lines The number of lines
+     * @return The log
+     */
+    private static String log(int lines) {
+        final Random random = new Random(0);
+        final StringBuilder builder = new StringBuilder();
+        for(int i = 0; i < lines; i++)
+        {
+            builder.append("2017-11-").append(10 + random.nextInt(20)).append(" INFO [worker-").append(random.nextInt(8))
+                    .append("] request ").append(random.nextInt(100000)).append(" served in ").append(random.nextInt(500)).append(" ms\n");
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,444 @@
+package main;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measure where the time goes: decoding, converting, traversing, embedding, revealing and encoding images.
+ * <p>
+ * Each stage keeps a {@link LatencyHistogram} of its calls and the number of pixels it processed. The bits embedded
+ * and revealed and the bytes of the images decoded and encoded are counted too. The measures are taken around whole
+ * operations, never per pixel, and only when enabled: disabled, an operation only reads a flag. They are disabled by
+ * default, and enabled from the start when the {@code steganography.metrics} system property is {@code true}. Once
+ * enabled, they are also exposed through JMX as {@link MetricsMXBean}.
+ */
+public final class Metrics
+{
+    /**
+     * The name of the JMX bean.
+     */
+    public static final String OBJECT_NAME = "steganography:type=Metrics";
+
+    /**
+     * Represent a stage of the processing of an image.
+     */
+    public enum Stage
+    {
+        /**
+         * Decoding an image file into pixels, by {@link Helper}.
+         */
+        DECODE,
+
+        /**
+         * Converting between color, gray and black and white, by {@link ImageMessage}.
+         */
+        CONVERT,
+
+        /**
+         * Building the table of a traversal order other than linear, by {@link TraversalOrder#table(int, int)}, or
+         * positioning and turning a {@link SpiralCursor} walking the sides of a spiral in {@link Steganography}.
+         */
+        TRAVERSE,
+
+        /**
+         * Embedding bits into a cover, by {@link Steganography}.
+         */
+        EMBED,
+
+        /**
+         * Revealing bits from an image, by {@link Steganography}.
+         */
+        REVEAL,
+
+        /**
+         * Encoding pixels into an image file, by {@link Helper}.
+         */
+        ENCODE
+    }
+
+    private static final Stage[] STAGES = Stage.values();
+    private static final LatencyHistogram[] latencies = new LatencyHistogram[STAGES.length];
+    private static final AtomicLong[] pixels = new AtomicLong[STAGES.length];
+    private static final AtomicLong bitsEmbedded = new AtomicLong(), bitsRevealed = new AtomicLong();
+    private static final AtomicLong bytesRead = new AtomicLong(), bytesWritten = new AtomicLong();
+
+    private static volatile boolean enabled;
+    private static boolean registered;
+
+    static
+    {
+        for(int i = 0; i < STAGES.length; i++)
+        {
+            latencies[i] = new LatencyHistogram();
+            pixels[i] = new AtomicLong();
+        }
+        if(Boolean.getBoolean("steganography.metrics"))
+            setEnabled(true);
+    }
+
+    private Metrics()
+    {
+    }
+
+    /**
+     * Tells whether the measures are taken.
+     * @return {@code true} if enabled
+     */
+    public static boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    /**
+     * Starts or stops taking the measures, registering the JMX bean the first time they are started.
+     * @param enabled whether to take them
+     */
+    public static void setEnabled(boolean enabled)
+    {
+        if(enabled)
+            register();
+        Metrics.enabled = enabled;
+    }
+
+    /**
+     * Gets the durations of the calls of a stage.
+     * @param stage the stage
+     * @return the live histogram
+     */
+    public static LatencyHistogram latencies(Stage stage)
+    {
+        return latencies[stage.ordinal()];
+    }
+
+    /**
+     * Gets the number of pixels processed by a stage.
+     * @param stage the stage
+     * @return the count
+     */
+    public static long pixels(Stage stage)
+    {
+        return pixels[stage.ordinal()].get();
+    }
+
+    /**
+     * Gets the number of bits embedded into covers.
+     * @return the count
+     */
+    public static long bitsEmbedded()
+    {
+        return bitsEmbedded.get();
+    }
+
+    /**
+     * Gets the number of bits revealed from images.
+     * @return the count
+     */
+    public static long bitsRevealed()
+    {
+        return bitsRevealed.get();
+    }
+
+    /**
+     * Gets the number of bytes of the image files decoded.
+     * @return the count
+     */
+    public static long bytesRead()
+    {
+        return bytesRead.get();
+    }
+
+    /**
+     * Gets the number of bytes of the image files encoded.
+     * @return the count
+     */
+    public static long bytesWritten()
+    {
+        return bytesWritten.get();
+    }
+
+    /**
+     * Forgets all the measures.
+     */
+    public static void reset()
+    {
+        for(int i = 0; i < STAGES.length; i++)
+        {
+            latencies[i].reset();
+            pixels[i].set(0);
+        }
+        bitsEmbedded.set(0);
+        bitsRevealed.set(0);
+        bytesRead.set(0);
+        bytesWritten.set(0);
+    }
+
+    /**
+     * Starts measuring an operation.
+     * @return the start time to give back when the operation ends, {@code 0} when disabled
+     */
+    static long start()
+    {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Ends measuring an operation.
+     * @param stage the stage of the operation
+     * @param start the value returned by {@link #start()}
+     * @param pixels the number of pixels processed
+     */
+    static void stop(Stage stage, long start, long pixels)
+    {
+        if(start == 0)
+            return;
+        latencies[stage.ordinal()].record(System.nanoTime() - start);
+        Metrics.pixels[stage.ordinal()].addAndGet(pixels);
+    }
+
+    /**
+     * Records an operation measured in several parts.
+     * @param stage the stage of the operation
+     * @param nanos the total duration of the parts
+     * @param pixels the number of pixels processed
+     */
+    static void record(Stage stage, long nanos, long pixels)
+    {
+        if(!enabled)
+            return;
+        latencies[stage.ordinal()].record(nanos);
+        Metrics.pixels[stage.ordinal()].addAndGet(pixels);
+    }
+
+    /**
+     * Ends measuring an embedding.
+     * @param start the value returned by {@link #start()}
+     * @param pixels the number of pixels of the cover
+     * @param bits the number of bits embedded
+     */
+    static void embedded(long start, long pixels, long bits)
+    {
+        if(start == 0)
+            return;
+        stop(Stage.EMBED, start, pixels);
+        bitsEmbedded.addAndGet(bits);
+    }
+
+    /**
+     * Ends measuring a reveal.
+     * @param start the value returned by {@link #start()}
+     * @param pixels the number of pixels of the image
+     * @param bits the number of bits revealed
+     */
+    static void revealed(long start, long pixels, long bits)
+    {
+        if(start == 0)
+            return;
+        stop(Stage.REVEAL, start, pixels);
+        bitsRevealed.addAndGet(bits);
+    }
+
+    /**
+     * Ends measuring a decoding.
+     * @param start the value returned by {@link #start()}
+     * @param pixels the number of pixels of the image
+     * @param bytes the size of the file
+     */
+    static void decoded(long start, long pixels, long bytes)
+    {
+        if(start == 0)
+            return;
+        stop(Stage.DECODE, start, pixels);
+        bytesRead.addAndGet(bytes);
+    }
+
+    /**
+     * Ends measuring an encoding.
+     * @param start the value returned by {@link #start()}
+     * @param pixels the number of pixels of the image
+     * @param bytes the size of the file
+     */
+    static void encoded(long start, long pixels, long bytes)
+    {
+        if(start == 0)
+            return;
+        stop(Stage.ENCODE, start, pixels);
+        bytesWritten.addAndGet(bytes);
+    }
+
+    /**
+     * Registers the JMX bean, once.
+     */
+    private static synchronized void register()
+    {
+        if(registered)
+            return;
+        try
+        {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new Bean(), new ObjectName(OBJECT_NAME));
+        }
+        catch(InstanceAlreadyExistsException e)
+        {
+            // Registered by another class loader
+        }
+        catch(JMException e)
+        {
+            throw new IllegalStateException("Cannot register " + OBJECT_NAME, e);
+        }
+        registered = true;
+    }
+
+    /**
+     * Represent the measures of a stage, in milliseconds.
+     */
+    public static final class StageStatistics
+    {
+        private final long count, pixels;
+        private final double total, mean, p50, p90, p99, max;
+
+        StageStatistics(LatencyHistogram latencies, long pixels)
+        {
+            this.count = latencies.count();
+            this.pixels = pixels;
+            this.total = latencies.total() / 1e6;
+            this.mean = latencies.mean() / 1e6;
+            this.p50 = latencies.percentile(50) / 1e6;
+            this.p90 = latencies.percentile(90) / 1e6;
+            this.p99 = latencies.percentile(99) / 1e6;
+            this.max = latencies.max() / 1e6;
+        }
+
+        /**
+         * @return the number of calls
+         */
+        public long getCount()
+        {
+            return count;
+        }
+
+        /**
+         * @return the number of pixels processed
+         */
+        public long getPixels()
+        {
+            return pixels;
+        }
+
+        /**
+         * @return the total duration of the calls, in milliseconds
+         */
+        public double getTotalMillis()
+        {
+            return total;
+        }
+
+        /**
+         * @return the mean duration of a call, in milliseconds
+         */
+        public double getMeanMillis()
+        {
+            return mean;
+        }
+
+        /**
+         * @return the median duration of a call, in milliseconds
+         */
+        public double getP50Millis()
+        {
+            return p50;
+        }
+
+        /**
+         * @return the 90th percentile of the durations, in milliseconds
+         */
+        public double getP90Millis()
+        {
+            return p90;
+        }
+
+        /**
+         * @return the 99th percentile of the durations, in milliseconds
+         */
+        public double getP99Millis()
+        {
+            return p99;
+        }
+
+        /**
+         * @return the longest duration of a call, in milliseconds
+         */
+        public double getMaxMillis()
+        {
+            return max;
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format(Locale.ROOT, "%d calls, %d pixels, %.3f ms total, mean %.3f ms, p50 %.3f ms, p99 %.3f ms, max %.3f ms",
+                    count, pixels, total, mean, p50, p99, max);
+        }
+    }
+
+    /**
+     * Expose the static measures as a bean.
+     */
+    private static final class Bean implements MetricsMXBean
+    {
+        @Override
+        public boolean isEnabled()
+        {
+            return Metrics.isEnabled();
+        }
+
+        @Override
+        public void setEnabled(boolean enabled)
+        {
+            Metrics.setEnabled(enabled);
+        }
+
+        @Override
+        public Map<String, StageStatistics> getStages()
+        {
+            final Map<String, StageStatistics> stages = new LinkedHashMap<>();
+            for(Stage stage : STAGES)
+                stages.put(stage.name(), new StageStatistics(latencies(stage), pixels(stage)));
+            return stages;
+        }
+
+        @Override
+        public long getBitsEmbedded()
+        {
+            return Metrics.bitsEmbedded();
+        }
+
+        @Override
+        public long getBitsRevealed()
+        {
+            return Metrics.bitsRevealed();
+        }
+
+        @Override
+        public long getBytesRead()
+        {
+            return Metrics.bytesRead();
+        }
+
+        @Override
+        public long getBytesWritten()
+        {
+            return Metrics.bytesWritten();
+        }
+
+        @Override
+        public void reset()
+        {
+            Metrics.reset();
+        }
+    }
+}
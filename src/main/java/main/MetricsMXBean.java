@@ -0,0 +1,56 @@
+package main;
+
+import java.util.Map;
+
+/**
+ * Expose the {@link Metrics} through JMX, as {@code steganography:type=Metrics}.
+ */
+public interface MetricsMXBean
+{
+    /**
+     * Tells whether the measures are taken.
+     * @return {@code true} if enabled
+     */
+    boolean isEnabled();
+
+    /**
+     * Starts or stops taking the measures.
+     * @param enabled whether to take them
+     */
+    void setEnabled(boolean enabled);
+
+    /**
+     * Gets the measures of each stage.
+     * @return the statistics, keyed by the name of the stage
+     */
+    Map<String, Metrics.StageStatistics> getStages();
+
+    /**
+     * Gets the number of bits embedded into covers.
+     * @return the count
+     */
+    long getBitsEmbedded();
+
+    /**
+     * Gets the number of bits revealed from images.
+     * @return the count
+     */
+    long getBitsRevealed();
+
+    /**
+     * Gets the number of bytes of the images decoded.
+     * @return the count
+     */
+    long getBytesRead();
+
+    /**
+     * Gets the number of bytes of the images encoded.
+     * @return the count
+     */
+    long getBytesWritten();
+
+    /**
+     * Forgets all the measures.
+     */
+    void reset();
+}
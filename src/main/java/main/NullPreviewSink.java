@@ -0,0 +1,22 @@
+package main;
+
+/**
+ * Discard the images shown, for headless runs.
+ */
+public final class NullPreviewSink extends AbstractPreviewSink
+{
+    @Override
+    public void show(IntRaster raster, String title)
+    {
+    }
+
+    @Override
+    public void show(int[][] array, String title)
+    {
+    }
+
+    @Override
+    public void close()
+    {
+    }
+}
@@ -0,0 +1,138 @@
+package main;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Hold the settings shared by the parallel variants of the image operations.
+ */
+public final class Parallel
+{
+    /**
+     * Default number of pixels below which a task is not split any further.
+     */
+    public static final int DEFAULT_CUTOFF = 1 << 16;
+
+    private static ForkJoinPool pool;
+    private static volatile int cutoff = DEFAULT_CUTOFF;
+
+    private Parallel()
+    {
+    }
+
+    /**
+     * Gets the pool used when none is given, creating one thread per core on first use.
+     * @return the default pool
+     */
+    public static synchronized ForkJoinPool getPool()
+    {
+        if(pool == null)
+            pool = new ForkJoinPool();
+        return pool;
+    }
+
+    /**
+     * Sets the pool used when none is given.
+     * @param pool the new default pool
+     * @see #newPool(int)
+     */
+    public static synchronized void setPool(ForkJoinPool pool)
+    {
+        assert pool != null;
+
+        Parallel.pool = pool;
+    }
+
+    /**
+     * Creates a pool with a given number of threads.
+     * @param threads the number of threads, positive
+     * @return a new pool
+     */
+    public static ForkJoinPool newPool(int threads)
+    {
+        if(threads <= 0)
+            throw new IllegalArgumentException("Invalid number of threads: " + threads);
+        return new ForkJoinPool(threads);
+    }
+
+    /**
+     * Gets the number of pixels below which a task runs sequentially.
+     * @return the cutoff
+     */
+    public static int getCutoff()
+    {
+        return cutoff;
+    }
+
+    /**
+     * Sets the number of pixels below which a task runs sequentially.
+     * @param cutoff the cutoff, positive
+     */
+    public static void setCutoff(int cutoff)
+    {
+        if(cutoff <= 0)
+            throw new IllegalArgumentException("Invalid cutoff: " + cutoff);
+        Parallel.cutoff = cutoff;
+    }
+
+    /**
+     * Runs an operation over all the rows of an image, cut into bands processed concurrently.
+     * Images of at most {@link #getCutoff()} pixels are processed sequentially, in the calling thread.
+     * @param pool the pool running the bands
+     * @param height the number of rows
+     * @param width the number of pixels per row
+     * @param rows the operation, which must only touch the rows it is given
+     */
+    public static void forRows(ForkJoinPool pool, int height, int width, Rows rows)
+    {
+        assert pool != null && height >= 0 && width >= 0 && rows != null;
+
+        if((long) height * width <= cutoff)
+            rows.process(0, height);
+        else
+            pool.invoke(new RowBandTask(rows, 0, height, width));
+    }
+
+    /**
+     * Represent an operation applied to a band of rows.
+     */
+    public interface Rows
+    {
+        /**
+         * Processes a band of rows.
+         * @param from the first row, inclusive
+         * @param to the last row, exclusive
+         */
+        void process(int from, int to);
+    }
+
+    /**
+     * Splits a band of rows in halves until it holds at most {@link #getCutoff()} pixels.
+     */
+    @SuppressWarnings("serial")
+    private static final class RowBandTask extends RecursiveAction
+    {
+        private final Rows rows;
+        private final int from, to, width;
+
+        RowBandTask(Rows rows, int from, int to, int width)
+        {
+            this.rows = rows;
+            this.from = from;
+            this.to = to;
+            this.width = width;
+        }
+
+        @Override
+        protected void compute()
+        {
+            if(to - from <= 1 || (long) (to - from) * width <= cutoff)
+            {
+                rows.process(from, to);
+                return;
+            }
+            final int middle = (from + to) >>> 1;
+            invokeAll(new RowBandTask(rows, from, middle, width), new RowBandTask(rows, middle, to, width));
+        }
+    }
+}
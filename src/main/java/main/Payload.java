@@ -0,0 +1,430 @@
+package main;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Represent a framed message: a fixed-size header followed by the message bytes.
+ * <p>
+ * The header is {@link #HEADER_SIZE} bits long and holds, least significant bit first:
+ * <ul>
+ *     <li>a 32-bit magic number, {@link #MAGIC};</li>
+ *     <li>an 8-bit format version, {@link #VERSION};</li>
+ *     <li>an 8-bit payload type, such as {@link #TYPE_TEXT} or {@link #TYPE_BINARY};</li>
+ *     <li>16 bits of flags holding the encoding options of the payload: its {@linkplain #getDepth() depth} in the lowest four,
+ *     the {@linkplain #getCharset() charset} of a text in the next four, then the {@linkplain #getCompression() compression} of the data;</li>
+ *     <li>the 32-bit length of the data, in bytes;</li>
+ *     <li>the 32-bit CRC-32C of the data.</li>
+ * </ul>
+ * The data bytes follow, each one least significant bit first, compressed if it makes them smaller. Knowing the length upfront,
+ * a reader only needs to look at {@code HEADER_SIZE + 8 * length} bits of the cover.
+ */
+public final class Payload
+{
+    /**
+     * The magic number, {@code "STG1"} read as a little-endian integer.
+     */
+    public static final int MAGIC = 0x31475453;
+    public static final int VERSION = 1;
+
+    /**
+     * The number of bits of the header.
+     */
+    public static final int HEADER_SIZE = 128;
+
+    public static final int TYPE_BINARY = 0;
+    public static final int TYPE_TEXT = 1; // String, encoded with the charset given by the flags
+    public static final int TYPE_BW_IMAGE = 2; // Black and white image compressed by BWCodec
+
+    /**
+     * The flags holding the number of bits written per color channel for the data, {@code 0} standing for the single LSB of each pixel.
+     */
+    public static final int DEPTH_MASK = 0x000f;
+
+    /**
+     * The flags holding the charset of a text payload, as an index in {@link #CHARSETS}.
+     */
+    public static final int CHARSET_MASK = 0x00f0;
+    private static final int CHARSET_SHIFT = 4;
+
+    /**
+     * The charsets a text payload can be encoded with, the first one being the 16 bits per char of {@link TextMessage}.
+     */
+    private static final Charset[] CHARSETS = {
+        StandardCharsets.UTF_16LE,
+        StandardCharsets.UTF_8,
+        StandardCharsets.ISO_8859_1,
+        StandardCharsets.US_ASCII,
+        StandardCharsets.UTF_16BE
+    };
+
+    /**
+     * The flags holding the {@link Compression} of the data, as its ordinal.
+     */
+    public static final int COMPRESSION_MASK = 0x0f00;
+    private static final int COMPRESSION_SHIFT = 8;
+
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 32;
+    private static final int TYPE_OFFSET = 40;
+    private static final int FLAGS_OFFSET = 48;
+    private static final int LENGTH_OFFSET = 64;
+    private static final int CRC_OFFSET = 96;
+
+    private final int type;
+    private final int flags;
+    private final byte[] data;
+    private byte[] stored; // The data as written, computed on first use
+
+    /**
+     * Creates a payload.
+     * @param type the type of the payload, between 0 and 255
+     * @param flags the encoding options, between 0 and 65535
+     * @param data the bytes of the payload, not copied
+     */
+    public Payload(int type, int flags, byte[] data)
+    {
+        assert type >= 0 && type <= 0xff && flags >= 0 && flags <= 0xffff && data != null;
+
+        this.type = type;
+        this.flags = flags;
+        this.data = data;
+    }
+
+    /**
+     * Creates a binary payload.
+     * @param data the bytes to frame, not copied
+     * @return a payload of type {@link #TYPE_BINARY}
+     */
+    public static Payload ofBytes(byte[] data)
+    {
+        return new Payload(TYPE_BINARY, 0, data);
+    }
+
+    /**
+     * Creates a text payload in a given charset, recorded in the flags.
+     * @param message the String to frame
+     * @param charset one of the supported charsets, such as {@link StandardCharsets#UTF_8} which takes 8 bits per ASCII char
+     * @return a payload of type {@link #TYPE_TEXT}
+     * @throws IllegalArgumentException if {@code charset} is not supported
+     */
+    public static Payload ofText(String message, Charset charset)
+    {
+        final int index = charsetIndex(charset);
+        if(index == 0) // Keeps lone surrogates, which UTF-16LE would replace
+            return ofText(message);
+        return new Payload(TYPE_TEXT, index << CHARSET_SHIFT, TextMessage.encode(message, charset));
+    }
+
+    /**
+     * Creates a text payload, storing each char as 16 bits like {@link TextMessage#stringToBitArray(String)}.
+     * @param message the String to frame
+     * @return a payload of type {@link #TYPE_TEXT}
+     */
+    public static Payload ofText(String message)
+    {
+        assert message != null;
+
+        final byte[] data = new byte[message.length() * 2];
+        for(int i = 0; i < message.length(); i++) // Little-endian, so bits stay in the same order
+        {
+            final char c = message.charAt(i);
+            data[2 * i] = (byte) c;
+            data[2 * i + 1] = (byte) (c >>> 8);
+        }
+        return new Payload(TYPE_TEXT, 0, data);
+    }
+
+    /**
+     * Creates a black and white image payload, compressed with {@link BWCodec}.
+     * @param image the image to frame
+     * @return a payload of type {@link #TYPE_BW_IMAGE}
+     */
+    public static Payload ofImage(BitRaster image)
+    {
+        return new Payload(TYPE_BW_IMAGE, 0, BWCodec.encode(image));
+    }
+
+    /**
+     * Gets the type of this payload.
+     * @return the type, such as {@link #TYPE_TEXT}
+     */
+    public int getType()
+    {
+        return type;
+    }
+
+    /**
+     * Gets the encoding options of this payload.
+     * @return the flags
+     */
+    public int getFlags()
+    {
+        return flags;
+    }
+
+    /**
+     * Decodes the image held by a black and white image payload.
+     * @return the image
+     * @throws IllegalArgumentException if the data is not a valid compressed image
+     * @see #ofImage(BitRaster)
+     */
+    public BitRaster getImage()
+    {
+        return getImage(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Decodes the image held by a black and white image payload, unless it is larger than a given size.
+     * @param maxArea the largest number of pixels of the image
+     * @return the image
+     * @throws IllegalArgumentException if the data is not a valid compressed image, or holds a larger one
+     * @see BWCodec#decode(byte[], long)
+     */
+    public BitRaster getImage(long maxArea)
+    {
+        assert type == TYPE_BW_IMAGE;
+
+        return BWCodec.decode(data, maxArea);
+    }
+
+    /**
+     * Gets the number of bits per color channel with which the data of this payload is embedded.
+     * The header itself is always embedded in the single LSB of its pixels.
+     * @return the depth, {@code 0} for the single LSB of each pixel
+     * @see Steganography#embedPayload(int[][], Payload, int, TraversalOrder)
+     */
+    public int getDepth()
+    {
+        return flags & DEPTH_MASK;
+    }
+
+    /**
+     * Creates a copy of this payload with another depth.
+     * @param depth the number of bits per color channel, between 0 and {@link Steganography#MAX_DEPTH}
+     * @return a payload sharing the data of this one, or this payload if it has that depth
+     */
+    public Payload withDepth(int depth)
+    {
+        assert depth >= 0 && depth <= Steganography.MAX_DEPTH;
+
+        if(depth == getDepth())
+            return this;
+        final Payload copy = new Payload(type, (flags & ~DEPTH_MASK) | depth, data);
+        copy.stored = stored; // The compressed data does not depend on the depth
+        return copy;
+    }
+
+    /**
+     * Gets the codec compressing the data of this payload once serialized.
+     * @return the codec, {@link Compression#NONE} by default
+     * @throws IllegalArgumentException if the flags name an unknown codec
+     */
+    public Compression getCompression()
+    {
+        final int index = (flags & COMPRESSION_MASK) >>> COMPRESSION_SHIFT;
+        if(index >= Compression.values().length)
+            throw new IllegalArgumentException("Unknown compression: " + index);
+        return Compression.values()[index];
+    }
+
+    /**
+     * Creates a copy of this payload compressed by a given codec once serialized.
+     * The data is stored as is when the codec does not make it smaller.
+     * @param compression the codec
+     * @return a payload sharing the data of this one
+     */
+    public Payload withCompression(Compression compression)
+    {
+        assert compression != null;
+
+        return new Payload(type, (flags & ~COMPRESSION_MASK) | compression.ordinal() << COMPRESSION_SHIFT, data);
+    }
+
+    /**
+     * Gets the number of pixels taken by this payload once embedded.
+     * @return the number of pixels
+     */
+    public long pixels()
+    {
+        return pixels((long) stored().length * Byte.SIZE, getDepth());
+    }
+
+    /**
+     * Gets the data as serialized, compressing it on first use.
+     * @return the compressed data if it is smaller, the data itself otherwise
+     */
+    private byte[] stored()
+    {
+        if(stored == null)
+        {
+            final byte[] compressed = getCompression().compress(data);
+            stored = compressed.length < data.length ? compressed : data;
+        }
+        return stored;
+    }
+
+    /**
+     * Computes the number of pixels taken by an embedded payload.
+     * @param dataSize the number of data bits following the header
+     * @param depth the depth of the data
+     * @return the number of pixels holding the header and the data
+     */
+    static long pixels(long dataSize, int depth)
+    {
+        final int perPixel = Steganography.bitsPerPixel(depth);
+        return HEADER_SIZE + (dataSize + perPixel - 1) / perPixel;
+    }
+
+    /**
+     * Gets the bytes of this payload.
+     * @return the backing array
+     */
+    public byte[] getData()
+    {
+        return data;
+    }
+
+    /**
+     * Gets the charset of a text payload.
+     * @return the charset, {@link StandardCharsets#UTF_16LE} unless another one was given to {@link #ofText(String, Charset)}
+     * @throws IllegalArgumentException if the flags name an unknown charset
+     */
+    public Charset getCharset()
+    {
+        final int index = (flags & CHARSET_MASK) >>> CHARSET_SHIFT;
+        if(index >= CHARSETS.length)
+            throw new IllegalArgumentException("Unknown charset: " + index);
+        return CHARSETS[index];
+    }
+
+    /**
+     * Tells whether a charset can be recorded in a text payload.
+     * @param charset the charset
+     * @return {@code true} if {@link #ofText(String, Charset)} accepts it
+     */
+    public static boolean isSupported(Charset charset)
+    {
+        for(Charset supported : CHARSETS)
+            if(supported.equals(charset))
+                return true;
+        return false;
+    }
+
+    /**
+     * Finds the index of a supported charset.
+     * @param charset the charset
+     * @return the index in {@link #CHARSETS}
+     */
+    private static int charsetIndex(Charset charset)
+    {
+        for(int i = 0; i < CHARSETS.length; i++)
+            if(CHARSETS[i].equals(charset))
+                return i;
+        throw new IllegalArgumentException("Unsupported charset: " + charset);
+    }
+
+    /**
+     * Decodes the String held by a text payload, in the charset recorded in its flags.
+     * @return the String
+     * @throws IllegalArgumentException if the flags name an unknown charset
+     * @see #ofText(String)
+     * @see #ofText(String, Charset)
+     */
+    public String getText()
+    {
+        assert type == TYPE_TEXT;
+
+        final int index = (flags & CHARSET_MASK) >>> CHARSET_SHIFT;
+        if(index != 0)
+            return new String(data, getCharset());
+
+        final char[] characters = new char[data.length / 2];
+        for(int i = 0; i < characters.length; i++)
+            characters[i] = (char) ((data[2 * i] & 0xff) | (data[2 * i + 1] & 0xff) << 8);
+        return new String(characters);
+    }
+
+    /**
+     * Serializes this payload.
+     * @return the header followed by the data, compressed if it pays off
+     * @see #fromBitBuffer(BitBuffer)
+     */
+    public BitBuffer toBitBuffer()
+    {
+        final byte[] data = stored();
+        final int flags = data == this.data ? this.flags & ~COMPRESSION_MASK : this.flags; // Compression skipped
+
+        final BitBuffer bits = new BitBuffer(HEADER_SIZE + data.length * Byte.SIZE);
+        bits.setBits(MAGIC_OFFSET, Integer.SIZE, MAGIC);
+        bits.setBits(VERSION_OFFSET, Byte.SIZE, VERSION);
+        bits.setBits(TYPE_OFFSET, Byte.SIZE, type);
+        bits.setBits(FLAGS_OFFSET, Short.SIZE, flags);
+        bits.setBits(LENGTH_OFFSET, Integer.SIZE, data.length);
+        bits.setBits(CRC_OFFSET, Integer.SIZE, Crc32c.of(data));
+
+        final long[] words = bits.words();
+        final int first = HEADER_SIZE / Long.SIZE; // The header is word aligned
+        for(int i = 0; i < data.length; i++)
+            words[first + i / 8] |= (long) (data[i] & 0xff) << (8 * (i % 8));
+        return bits;
+    }
+
+    /**
+     * Reads the header of a serialized payload.
+     * @param header at least the first {@link #HEADER_SIZE} bits of a serialized payload
+     * @return the number of data bits following the header, or {@code -1} if {@code header} is not a valid header
+     */
+    public static long dataSize(BitBuffer header)
+    {
+        assert header != null;
+
+        if(header.length() < HEADER_SIZE)
+            return -1;
+        if((int) header.getBits(MAGIC_OFFSET, Integer.SIZE) != MAGIC || header.getBits(VERSION_OFFSET, Byte.SIZE) != VERSION)
+            return -1;
+        return header.getBits(LENGTH_OFFSET, Integer.SIZE) * Byte.SIZE;
+    }
+
+    /**
+     * Reads the flags of a serialized payload.
+     * @param header at least the first {@link #HEADER_SIZE} bits of a serialized payload, valid according to {@link #dataSize(BitBuffer)}
+     * @return the flags
+     */
+    static int flags(BitBuffer header)
+    {
+        return (int) header.getBits(FLAGS_OFFSET, Short.SIZE);
+    }
+
+    /**
+     * Deserializes a payload.
+     * @param bits a header followed by at least the number of data bits it announces
+     * @return the payload with its data decompressed, or {@code null} if the header is not valid or the data does not match its checksum
+     * @see #toBitBuffer()
+     */
+    public static Payload fromBitBuffer(BitBuffer bits)
+    {
+        final long size = dataSize(bits);
+        if(size < 0 || size / Byte.SIZE > Integer.MAX_VALUE || bits.length() < HEADER_SIZE + size)
+            return null;
+
+        final byte[] data = new byte[(int) (size / Byte.SIZE)];
+        final long[] words = bits.words();
+        final int first = HEADER_SIZE / Long.SIZE;
+        for(int i = 0; i < data.length; i++)
+            data[i] = (byte) (words[first + i / 8] >>> (8 * (i % 8)));
+
+        if(Crc32c.of(data) != bits.getBits(CRC_OFFSET, Integer.SIZE))
+            return null;
+
+        final Payload stored = new Payload((int) bits.getBits(TYPE_OFFSET, Byte.SIZE), (int) bits.getBits(FLAGS_OFFSET, Short.SIZE), data);
+        try
+        {
+            return new Payload(stored.type, stored.flags, stored.getCompression().decompress(data));
+        }
+        catch(IllegalArgumentException e)
+        {
+            return null; // Unknown codec or corrupted stream
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package main;
+
+/**
+ * Walk the pixels of a raster in a traversal order, one at a time and in constant memory.
+ */
+final class PixelCursor
+{
+    private final IntRaster raster;
+    private final SpiralCursor spiral; // null for the linear order
+    private final int area;
+    private int position;
+
+    /**
+     * Creates a cursor on the first pixel.
+     * @param raster the raster to walk
+     * @param order the traversal order
+     * @param position the position of the first pixel in traversal order
+     */
+    PixelCursor(IntRaster raster, TraversalOrder order, int position)
+    {
+        assert raster != null && order != null && position >= 0 && position <= raster.area();
+
+        this.raster = raster;
+        this.area = raster.area();
+        this.position = position;
+        this.spiral = order == TraversalOrder.SPIRAL && position < area ? new SpiralCursor(raster.height(), raster.width(), position) : null;
+    }
+
+    /**
+     * Tells whether pixels remain.
+     * @return {@code true} if {@link #next()} can be called
+     */
+    boolean hasNext()
+    {
+        return position < area;
+    }
+
+    /**
+     * Gets the number of pixels left.
+     * @return the number of pixels
+     */
+    int remaining()
+    {
+        return area - position;
+    }
+
+    /**
+     * Moves to the next pixel.
+     * @return the index of the current pixel in {@link IntRaster#data()}
+     */
+    int next()
+    {
+        assert hasNext();
+
+        final int index;
+        if(spiral == null)
+        {
+            final int row = position / raster.width();
+            index = raster.index(row, position - row * raster.width());
+        }
+        else
+        {
+            index = raster.index(spiral.getRow(), spiral.getCol());
+            if(position + 1 < area) // The cursor cannot step past the last pixel
+                spiral.step();
+        }
+        position++;
+        return index;
+    }
+}
@@ -0,0 +1,49 @@
+package main;
+
+/**
+ * Represent the innermost loops of the conversions and of the LSB embedding, over contiguous ranges of pixels.
+ * <p>
+ * Bits are read from or written to a {@link BitBuffer} word array starting at bit 0, in the same order as the pixels.
+ * Implementations must give exactly the same results as {@link ScalarPixelKernels}.
+ * @see Kernels
+ */
+public interface PixelKernels
+{
+    /**
+     * Converts packed RGB colors to gray values, as {@link ImageMessage#getGray(int)} does.
+     * @param source the packed colors
+     * @param sourceOffset the index of the first color
+     * @param target the array receiving the gray values
+     * @param targetOffset the index of the first gray value
+     * @param length the number of pixels
+     */
+    void toGray(int[] source, int sourceOffset, int[] target, int targetOffset, int length);
+
+    /**
+     * Thresholds gray values, as {@link ImageMessage#getBW(int, int)} does.
+     * @param gray the gray values
+     * @param offset the index of the first gray value
+     * @param length the number of pixels
+     * @param threshold the threshold
+     * @param words the cleared words receiving one bit per pixel
+     */
+    void toBW(int[] gray, int offset, int length, int threshold, long[] words);
+
+    /**
+     * Replaces the LSB of pixels with bits, as {@link Steganography#embedInLSB(int, boolean)} does.
+     * @param pixels the pixels, modified in place
+     * @param offset the index of the first pixel
+     * @param words the bits to embed
+     * @param length the number of pixels
+     */
+    void embed(int[] pixels, int offset, long[] words, int length);
+
+    /**
+     * Extracts the LSB of pixels, as {@link Steganography#getLSB(int)} does.
+     * @param pixels the pixels
+     * @param offset the index of the first pixel
+     * @param words the cleared words receiving one bit per pixel
+     * @param length the number of pixels
+     */
+    void reveal(int[] pixels, int offset, long[] words, int length);
+}
@@ -0,0 +1,225 @@
+package main;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Decode the rows of a PNG image in a single pass, keeping only two rows of bytes.
+ * <p>
+ * Only 8-bit RGB and RGBA images without interlacing are supported, the alpha channel being dropped. Chunk checksums
+ * are not verified.
+ */
+final class PngStripReader implements StripSource
+{
+    private static final int RGB = 2, RGBA = 6; // Color types
+
+    private final DataInputStream file;
+    private final Inflater inflater = new Inflater();
+    private final DataInputStream pixels;
+    private final int width, height, bytesPerPixel;
+    private byte[] line, previous;
+    private int row = 0;
+
+    private PngStripReader(DataInputStream file, int width, int height, int bytesPerPixel, int firstChunk)
+    {
+        this.file = file;
+        this.width = width;
+        this.height = height;
+        this.bytesPerPixel = bytesPerPixel;
+        this.line = new byte[1 + width * bytesPerPixel];
+        this.previous = new byte[line.length];
+        this.pixels = new DataInputStream(new InflaterInputStream(new ImageData(firstChunk), inflater, 1 << 16));
+    }
+
+    /**
+     * Opens a PNG image.
+     * @param path the image file
+     * @return the reader positioned on the first row, or {@code null} if the file is not a supported PNG image
+     * @throws IOException if the file cannot be read
+     */
+    static PngStripReader open(File path) throws IOException
+    {
+        final DataInputStream file = new DataInputStream(new BufferedInputStream(new FileInputStream(path), 1 << 16));
+        try
+        {
+            final byte[] signature = new byte[PngStripWriter.SIGNATURE.length];
+            file.readFully(signature);
+            if(!Arrays.equals(signature, PngStripWriter.SIGNATURE) || file.readInt() != 13 || file.readInt() != PngStripWriter.IHDR)
+            {
+                file.close();
+                return null;
+            }
+            final int width = file.readInt(), height = file.readInt();
+            final int bitDepth = file.readUnsignedByte(), colorType = file.readUnsignedByte();
+            file.readUnsignedShort(); // Compression and filter methods, only 0 is defined
+            final int interlace = file.readUnsignedByte();
+            file.readInt(); // CRC
+            if(width <= 0 || height <= 0 || bitDepth != 8 || (colorType != RGB && colorType != RGBA) || interlace != 0
+                    || 1L + width * 4L > Integer.MAX_VALUE)
+            {
+                file.close();
+                return null;
+            }
+
+            int length = file.readInt(), type = file.readInt();
+            while(type != PngStripWriter.IDAT) // Skips the palette and ancillary chunks
+            {
+                if(type == PngStripWriter.IEND)
+                    throw new IOException("No image data in " + path);
+                skipFully(file, (length & 0xffffffffL) + 4); // Data and CRC
+                length = file.readInt();
+                type = file.readInt();
+            }
+            return new PngStripReader(file, width, height, colorType == RGB ? 3 : 4, length);
+        }
+        catch(IOException | RuntimeException e)
+        {
+            file.close();
+            throw e;
+        }
+    }
+
+    private static void skipFully(InputStream in, long count) throws IOException
+    {
+        while(count > 0)
+        {
+            final long skipped = in.skip(count);
+            if(skipped <= 0)
+            {
+                if(in.read() < 0)
+                    throw new EOFException();
+                count--;
+            }
+            else
+                count -= skipped;
+        }
+    }
+
+    @Override
+    public int width()
+    {
+        return width;
+    }
+
+    @Override
+    public int height()
+    {
+        return height;
+    }
+
+    @Override
+    public void read(IntRaster strip) throws IOException
+    {
+        assert strip.width() == width && row + strip.height() <= height;
+
+        final int[] data = strip.data();
+        for(int r = 0; r < strip.height(); r++)
+        {
+            pixels.readFully(line);
+            unfilter();
+            final int base = strip.index(r, 0);
+            for(int col = 0, i = 1; col < width; col++, i += bytesPerPixel)
+                data[base + col] = (line[i] & 0xff) << 16 | (line[i + 1] & 0xff) << 8 | (line[i + 2] & 0xff);
+
+            final byte[] swap = previous;
+            previous = line;
+            line = swap;
+        }
+        row += strip.height();
+    }
+
+    /**
+     * Reverts the filter of the current line, given the previous one.
+     */
+    private void unfilter() throws IOException
+    {
+        final byte[] cur = line, up = previous;
+        final int n = cur.length, bpp = bytesPerPixel;
+        switch(cur[0])
+        {
+            case 0:
+                break;
+            case 1: // Sub
+                for(int i = 1 + bpp; i < n; i++)
+                    cur[i] += cur[i - bpp];
+                break;
+            case 2: // Up
+                for(int i = 1; i < n; i++)
+                    cur[i] += up[i];
+                break;
+            case 3: // Average
+                for(int i = 1; i < n; i++)
+                {
+                    final int left = i > bpp ? cur[i - bpp] & 0xff : 0;
+                    cur[i] += (left + (up[i] & 0xff)) >>> 1;
+                }
+                break;
+            case 4: // Paeth
+                for(int i = 1; i < n; i++)
+                {
+                    final int a = i > bpp ? cur[i - bpp] & 0xff : 0, b = up[i] & 0xff, c = i > bpp ? up[i - bpp] & 0xff : 0;
+                    final int p = a + b - c, pa = Math.abs(p - a), pb = Math.abs(p - b), pc = Math.abs(p - c);
+                    cur[i] += pa <= pb && pa <= pc ? a : pb <= pc ? b : c;
+                }
+                break;
+            default:
+                throw new IOException("Invalid filter type " + cur[0] + " at row " + row);
+        }
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        inflater.end();
+        file.close();
+    }
+
+    /**
+     * Chain the data of the consecutive {@code IDAT} chunks.
+     */
+    private final class ImageData extends InputStream
+    {
+        private long left; // Bytes left in the current chunk
+        private boolean end = false;
+
+        ImageData(int length)
+        {
+            left = length & 0xffffffffL;
+        }
+
+        @Override
+        public int read() throws IOException
+        {
+            final byte[] one = new byte[1];
+            return read(one, 0, 1) < 0 ? -1 : one[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException
+        {
+            while(left == 0)
+            {
+                if(end)
+                    return -1;
+                file.readInt(); // CRC of the previous chunk
+                left = file.readInt() & 0xffffffffL;
+                end = file.readInt() != PngStripWriter.IDAT;
+                if(end)
+                    return -1;
+            }
+            final int count = file.read(b, off, (int) Math.min(len, left));
+            if(count < 0)
+                throw new EOFException("Truncated image data");
+            left -= count;
+            return count;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package main;
+
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Write a PNG image strip after strip, without holding it in memory.
+ * <p>
+ * The image is 8-bit RGB without interlacing. Each row is filtered with the Sub filter, then deflated into
+ * {@code IDAT} chunks of at most 64 KiB as it comes, so the memory used depends on the width only.
+ */
+public final class PngStripWriter implements Closeable
+{
+    static final byte[] SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n'};
+    static final int IHDR = 0x49484452, IDAT = 0x49444154, IEND = 0x49454e44;
+
+    private static final int CHUNK_SIZE = 1 << 16;
+    private static final int SUB = 1;
+
+    private final DataOutputStream out;
+    private final int width, height;
+    private final Deflater deflater;
+    private final CRC32 crc = new CRC32();
+    private final byte[] line, chunk = new byte[CHUNK_SIZE];
+    private int chunkSize = 0;
+    private int row = 0;
+    private boolean closed = false;
+
+    /**
+     * Starts an image with the fastest compression level, as covers are mostly noise in their low bits.
+     * @param out the stream receiving the image, closed with this writer
+     * @param width the number of columns
+     * @param height the number of rows
+     * @throws IOException if the header cannot be written
+     */
+    public PngStripWriter(OutputStream out, int width, int height) throws IOException
+    {
+        this(out, width, height, Deflater.BEST_SPEED);
+    }
+
+    /**
+     * Starts an image.
+     * @param out the stream receiving the image, closed with this writer
+     * @param width the number of columns
+     * @param height the number of rows
+     * @param level the compression level, from {@link Deflater#BEST_SPEED} to {@link Deflater#BEST_COMPRESSION}
+     * @throws IOException if the header cannot be written
+     */
+    public PngStripWriter(OutputStream out, int width, int height, int level) throws IOException
+    {
+        if(width <= 0 || height <= 0 || 1L + 3L * width > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Invalid image size: " + width + "x" + height);
+
+        this.out = new DataOutputStream(out);
+        this.width = width;
+        this.height = height;
+        this.deflater = new Deflater(level);
+        this.line = new byte[1 + 3 * width];
+
+        this.out.write(SIGNATURE);
+        final byte[] header = {
+                (byte) (width >>> 24), (byte) (width >>> 16), (byte) (width >>> 8), (byte) width,
+                (byte) (height >>> 24), (byte) (height >>> 16), (byte) (height >>> 8), (byte) height,
+                8, 2, 0, 0, 0 // 8-bit RGB, deflate, adaptive filtering, no interlacing
+        };
+        writeChunk(IHDR, header, header.length);
+    }
+
+    /**
+     * Appends the next rows of the image.
+     * @param strip the packed RGB colors of the rows, as wide as the image
+     * @throws IOException if the rows cannot be written
+     */
+    public void write(IntRaster strip) throws IOException
+    {
+        if(closed)
+            throw new IOException("Writer closed");
+        if(strip.width() != width || row + strip.height() > height)
+            throw new IllegalArgumentException("The strip does not fit the image");
+
+        final int[] data = strip.data();
+        line[0] = SUB;
+        for(int r = 0; r < strip.height(); r++)
+        {
+            final int base = strip.index(r, 0);
+            int previous = 0;
+            for(int col = 0, i = 1; col < width; col++, i += 3)
+            {
+                final int pixel = data[base + col];
+                line[i] = (byte) ((pixel >>> 16) - (previous >>> 16));
+                line[i + 1] = (byte) ((pixel >>> 8) - (previous >>> 8));
+                line[i + 2] = (byte) (pixel - previous);
+                previous = pixel;
+            }
+            deflater.setInput(line);
+            while(!deflater.needsInput())
+                deflate();
+        }
+        row += strip.height();
+    }
+
+    /**
+     * Ends the image and closes the stream.
+     * @throws IOException if rows are missing, or the end of the image cannot be written
+     */
+    @Override
+    public void close() throws IOException
+    {
+        if(closed)
+            return;
+        closed = true;
+        try
+        {
+            if(row != height)
+                throw new IOException("Missing rows: " + row + " of " + height + " written");
+            deflater.finish();
+            while(!deflater.finished())
+                deflate();
+            if(chunkSize > 0)
+                writeChunk(IDAT, chunk, chunkSize);
+            writeChunk(IEND, chunk, 0);
+        }
+        finally
+        {
+            deflater.end();
+            out.close();
+        }
+    }
+
+    /**
+     * Deflates some bytes into the current chunk, writing it once full.
+     */
+    private void deflate() throws IOException
+    {
+        chunkSize += deflater.deflate(chunk, chunkSize, CHUNK_SIZE - chunkSize);
+        if(chunkSize == CHUNK_SIZE)
+        {
+            writeChunk(IDAT, chunk, chunkSize);
+            chunkSize = 0;
+        }
+    }
+
+    private void writeChunk(int type, byte[] data, int length) throws IOException
+    {
+        out.writeInt(length);
+        out.writeInt(type);
+        out.write(data, 0, length);
+        crc.reset();
+        crc.update(type >>> 24);
+        crc.update(type >>> 16);
+        crc.update(type >>> 8);
+        crc.update(type);
+        crc.update(data, 0, length);
+        out.writeInt((int) crc.getValue());
+    }
+}
@@ -0,0 +1,34 @@
+package main;
+
+import java.io.Closeable;
+
+/**
+ * Receive the images shown by {@link Helper#show(IntRaster, String)}.
+ * <p>
+ * Three implementations are provided: {@link NullPreviewSink} discards the images, {@link ThumbnailPreviewSink} writes
+ * small copies of them to disk in the background, and {@link WindowPreviewSink} shows each of them in a window until
+ * it is closed.
+ * @see Helper#setPreviewSink(PreviewSink)
+ */
+public interface PreviewSink extends Closeable
+{
+    /**
+     * Shows an image.
+     * @param raster the packed RGB colors, which the caller may modify once this method returns
+     * @param title the title of the image
+     */
+    void show(IntRaster raster, String title);
+
+    /**
+     * Shows an image held as an array, which {@link AbstractPreviewSink} copies into a raster.
+     * @param array HxW array of packed RGB colors, which the caller may modify once this method returns
+     * @param title the title of the image
+     */
+    void show(int[][] array, String title);
+
+    /**
+     * Finishes showing the images already received. Images shown afterwards may be ignored.
+     */
+    @Override
+    void close();
+}
@@ -0,0 +1,184 @@
+package main;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Store decoded rasters uncompressed, to be loaded back through memory mapping at the cost of a copy.
+ * <p>
+ * The file holds, little-endian: the magic number {@code "LSBR"}, the 32-bit version, width and height, the 64-bit
+ * length and last modification time of the image it was decoded from ({@code -1} if none), then the packed pixels,
+ * row after row. The pages of a file are shared through the page cache by all the processes reading it.
+ */
+public final class RasterFile
+{
+    /**
+     * The extension appended to the name of an image to get the name of its decoded copy.
+     */
+    public static final String EXTENSION = ".lsbr";
+
+    private static final int MAGIC = 'L' | 'S' << 8 | 'B' << 16 | 'R' << 24;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+    private static final long MAX_MAPPING = 1 << 30; // Bytes mapped at once, below the 2 GiB limit of a buffer
+
+    private RasterFile()
+    {
+    }
+
+    /**
+     * Writes a raster, atomically replacing any existing file.
+     * @param file the file to write
+     * @param raster the raster
+     * @throws IOException if the file cannot be written
+     * @see #read(File)
+     */
+    public static void write(File file, IntRaster raster) throws IOException
+    {
+        write(file, raster, -1, -1);
+    }
+
+    /**
+     * Reads a raster.
+     * @param file the file written by {@link #write(File, IntRaster)}
+     * @return a new compact raster
+     * @throws IOException if the file cannot be read or is not a valid raster file
+     */
+    public static IntRaster read(File file) throws IOException
+    {
+        try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ))
+        {
+            final ByteBuffer header = readHeader(channel);
+            if(header == null)
+                throw new IOException("Not a raster file: " + file);
+            return readPixels(channel, header.getInt(8), header.getInt(12));
+        }
+    }
+
+    /**
+     * Gets the file holding the decoded copy of an image.
+     * @param image the image file
+     * @return the file next to it, named after it
+     */
+    public static File sidecar(File image)
+    {
+        return new File(image.getPath() + EXTENSION);
+    }
+
+    /**
+     * Reads the decoded copy of an image, if it was decoded from the current version of the image.
+     * @param image the image file
+     * @return a new compact raster, or {@code null} if there is no valid copy or the image changed since
+     * @throws IOException if the copy cannot be read
+     */
+    public static IntRaster readSidecar(File image) throws IOException
+    {
+        final File file = sidecar(image);
+        if(!file.isFile())
+            return null;
+        try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ))
+        {
+            final ByteBuffer header = readHeader(channel);
+            if(header == null || header.getLong(16) != image.length() || header.getLong(24) != image.lastModified())
+                return null;
+            return readPixels(channel, header.getInt(8), header.getInt(12));
+        }
+    }
+
+    /**
+     * Writes the decoded copy of an image.
+     * @param image the image file
+     * @param raster the decoded pixels of the image
+     * @param length the length of the image when it was decoded
+     * @param modified the last modification time of the image when it was decoded
+     * @throws IOException if the copy cannot be written
+     */
+    public static void writeSidecar(File image, IntRaster raster, long length, long modified) throws IOException
+    {
+        write(sidecar(image), raster, length, modified);
+    }
+
+    private static void write(File file, IntRaster raster, long sourceLength, long sourceModified) throws IOException
+    {
+        final Path target = file.getAbsoluteFile().toPath();
+        final Path temp = Files.createTempFile(target.getParent(), file.getName(), ".tmp");
+        try
+        {
+            try(FileChannel channel = FileChannel.open(temp, StandardOpenOption.READ, StandardOpenOption.WRITE))
+            {
+                final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+                header.putInt(MAGIC).putInt(VERSION).putInt(raster.width()).putInt(raster.height());
+                header.putLong(sourceLength).putLong(sourceModified);
+                header.flip();
+                while(header.hasRemaining())
+                    channel.write(header, HEADER_SIZE - header.remaining());
+
+                final int[] data = raster.data();
+                final int width = raster.width(), rowsPerMapping = rowsPerMapping(width);
+                for(int row = 0; row < raster.height(); row += rowsPerMapping)
+                {
+                    final int rows = Math.min(rowsPerMapping, raster.height() - row);
+                    final IntBuffer pixels = map(channel, FileChannel.MapMode.READ_WRITE, width, row, rows);
+                    for(int r = row; r < row + rows; r++)
+                        pixels.put(data, raster.index(r, 0), width);
+                }
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE); // Readers see the old file or the whole new one
+        }
+        finally
+        {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Reads and checks the header of a raster file.
+     * @return the header, or {@code null} if the file is not a valid raster file
+     */
+    private static ByteBuffer readHeader(FileChannel channel) throws IOException
+    {
+        final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        while(header.hasRemaining())
+        {
+            if(channel.read(header, header.position()) < 0)
+                return null;
+        }
+        final int width = header.getInt(8), height = header.getInt(12);
+        if(header.getInt(0) != MAGIC || header.getInt(4) != VERSION || width <= 0 || height <= 0
+                || (long) width * height > Integer.MAX_VALUE || channel.size() != HEADER_SIZE + 4L * width * height)
+            return null;
+        return header;
+    }
+
+    private static IntRaster readPixels(FileChannel channel, int width, int height) throws IOException
+    {
+        final IntRaster raster = new IntRaster(width, height);
+        final int rowsPerMapping = rowsPerMapping(width);
+        for(int row = 0; row < height; row += rowsPerMapping)
+        {
+            final int rows = Math.min(rowsPerMapping, height - row);
+            map(channel, FileChannel.MapMode.READ_ONLY, width, row, rows).get(raster.data(), row * width, rows * width);
+        }
+        return raster;
+    }
+
+    private static int rowsPerMapping(int width)
+    {
+        return (int) Math.max(1, MAX_MAPPING / (4L * width));
+    }
+
+    private static IntBuffer map(FileChannel channel, FileChannel.MapMode mode, int width, int row, int rows) throws IOException
+    {
+        final MappedByteBuffer buffer = channel.map(mode, HEADER_SIZE + 4L * width * row, 4L * width * rows);
+        return buffer.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+    }
+}
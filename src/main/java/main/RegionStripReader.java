@@ -0,0 +1,79 @@
+package main;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+
+/**
+ * Decode strips of an image in any format known to {@link ImageIO}, through source regions of an {@link ImageReader}.
+ * <p>
+ * Only the pixels of the strip are kept, but most readers decode the rows above it again for each strip: the time
+ * grows with the number of strips, so prefer tall strips.
+ */
+final class RegionStripReader implements StripSource
+{
+    private final ImageInputStream input;
+    private final ImageReader reader;
+    private final ImageReadParam param;
+    private final int width, height;
+    private int row = 0;
+
+    /**
+     * Opens an image.
+     * @param file the image file
+     * @throws IOException if no reader knows the format of the file
+     */
+    RegionStripReader(File file) throws IOException
+    {
+        input = ImageIO.createImageInputStream(file);
+        if(input == null)
+            throw new IOException("Cannot open " + file);
+        final Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+        if(!readers.hasNext())
+        {
+            input.close();
+            throw new IOException("Unknown image format: " + file);
+        }
+        reader = readers.next();
+        reader.setInput(input, false, true); // Regions may seek backwards, metadata is not needed
+        param = reader.getDefaultReadParam();
+        width = reader.getWidth(0);
+        height = reader.getHeight(0);
+    }
+
+    @Override
+    public int width()
+    {
+        return width;
+    }
+
+    @Override
+    public int height()
+    {
+        return height;
+    }
+
+    @Override
+    public void read(IntRaster strip) throws IOException
+    {
+        assert strip.width() == width && row + strip.height() <= height;
+
+        param.setSourceRegion(new Rectangle(0, row, width, strip.height()));
+        final BufferedImage image = reader.read(0, param);
+        Helper.copy(image, strip);
+        row += strip.height();
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        reader.dispose();
+        input.close();
+    }
+}
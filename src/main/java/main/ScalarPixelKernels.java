@@ -0,0 +1,44 @@
+package main;
+
+/**
+ * Implement the pixel kernels one pixel at a time; this is the reference and the fallback implementation.
+ */
+public final class ScalarPixelKernels implements PixelKernels
+{
+    @Override
+    public void toGray(int[] source, int sourceOffset, int[] target, int targetOffset, int length)
+    {
+        for(int i = 0; i < length; i++)
+            target[targetOffset + i] = ImageMessage.getGray(source[sourceOffset + i]);
+    }
+
+    @Override
+    public void toBW(int[] gray, int offset, int length, int threshold, long[] words)
+    {
+        for(int i = 0; i < length; i++)
+        {
+            if(ImageMessage.getBW(gray[offset + i], threshold))
+                words[i >>> 6] |= 1L << i;
+        }
+    }
+
+    @Override
+    public void embed(int[] pixels, int offset, long[] words, int length)
+    {
+        long word = 0;
+        for(int i = 0; i < length; i++)
+        {
+            if((i & 63) == 0) // Load the next 64 bits
+                word = words[i >>> 6];
+            pixels[offset + i] = (pixels[offset + i] & 0xfffffffe) | ((int) word & 1);
+            word >>>= 1;
+        }
+    }
+
+    @Override
+    public void reveal(int[] pixels, int offset, long[] words, int length)
+    {
+        for(int i = 0; i < length; i++)
+            words[i >>> 6] |= (long) (pixels[offset + i] & 1) << i;
+    }
+}
@@ -24,6 +24,114 @@ public class SpiralCursor
         maxCol = cols - 1;
     }
 
+    /**
+     * Creates a cursor already moved {@code index} steps through the spiral, in constant time
+     * @param rows the number of rows
+     * @param cols the number of columns
+     * @param index the number of steps, between 0 and {@code rows * cols} (excluded)
+     */
+    public SpiralCursor(int rows, int cols, int index)
+    {
+        assert rows > 0 && cols > 0 && index >= 0 && index < (long) rows * cols;
+
+        final int ring = ringOf(rows, cols, index);
+        final int height = rows - 2 * ring, width = cols - 2 * ring;
+        final int offset = (int) (index - cellsBefore(rows, cols, ring)); // Position in the ring
+
+        minRow = ring;
+        maxRow = rows - 1 - ring;
+        minCol = ring;
+        maxCol = cols - 1 - ring;
+
+        if(offset < width) // Top side, to the right
+        {
+            row = ring;
+            col = ring + offset;
+            direction = RIGHT;
+            return;
+        }
+        minRow++;
+        if(offset < width + height - 1) // Right side, downwards
+        {
+            row = ring + offset - width + 1;
+            col = maxCol;
+            direction = DOWN;
+            return;
+        }
+        maxCol--;
+        if(offset < 2 * width + height - 2) // Bottom side, to the left
+        {
+            row = maxRow;
+            col = ring + width - 1 - (offset - width - height + 2);
+            direction = LEFT;
+            return;
+        }
+        maxRow--;
+        row = ring + height - 1 - (offset - 2 * width - height + 3); // Left side, upwards
+        col = ring;
+        direction = UP;
+    }
+
+    /**
+     * Computes in constant time the number of steps after which a cursor reaches a cell
+     * @param rows the number of rows
+     * @param cols the number of columns
+     * @param row the row of the cell
+     * @param col the column of the cell
+     * @return the index of the cell along the spiral
+     * @see #SpiralCursor(int, int, int)
+     */
+    public static int indexOf(int rows, int cols, int row, int col)
+    {
+        assert row >= 0 && row < rows && col >= 0 && col < cols;
+
+        final int ring = Math.min(Math.min(row, col), Math.min(rows - 1 - row, cols - 1 - col));
+        final int height = rows - 2 * ring, width = cols - 2 * ring;
+        final int top = ring, bottom = ring + height - 1, left = ring, right = ring + width - 1;
+
+        final int offset;
+        if(row == top)
+            offset = col - left;
+        else if(col == right)
+            offset = width - 1 + row - top;
+        else if(row == bottom)
+            offset = width + height - 2 + right - col;
+        else
+            offset = 2 * width + height - 3 + bottom - row;
+        return (int) (cellsBefore(rows, cols, ring) + offset);
+    }
+
+    /**
+     * Gets the index of the first cell of a ring, i.e. the number of cells of the outer rings
+     * @param rows the number of rows
+     * @param cols the number of columns
+     * @param ring the ring, 0 being the outermost one
+     * @return the index along the spiral of cell {@code (ring, ring)}
+     */
+    public static long cellsBefore(int rows, int cols, int ring)
+    {
+        return (long) rows * cols - (long) (rows - 2 * ring) * (cols - 2 * ring);
+    }
+
+    /**
+     * Finds the ring holding a given index
+     * @param rows the number of rows
+     * @param cols the number of columns
+     * @param index the index along the spiral
+     * @return the ring, 0 being the outermost one
+     */
+    public static int ringOf(int rows, int cols, long index)
+    {
+        // Largest ring k such that cellsBefore(k) = 2k(rows + cols) - 4k^2 <= index
+        final double sum = (double) rows + cols;
+        int ring = (int) ((sum - Math.sqrt(Math.max(0, sum * sum - 4.0 * index))) / 4);
+        while(ring > 0 && cellsBefore(rows, cols, ring) > index) // Fix rounding errors
+            ring--;
+        while(2 * (ring + 1) < Math.min(rows, cols) && cellsBefore(rows, cols, ring + 1) <= index)
+            ring++;
+        return ring;
+    }
+
     /**
      * Moves the cursor one step further through the spiral
      */
@@ -45,6 +153,57 @@ public class SpiralCursor
         row += projectionY(direction);
     }
 
+    /**
+     * Moves the cursor several steps further through the spiral at once, along the current side
+     * @param steps the number of steps, between 1 and {@link #getRun()}
+     */
+    public void advance(int steps)
+    {
+        assert steps > 0 && steps <= getRun();
+
+        col += (steps - 1) * projectionX(direction);
+        row += (steps - 1) * projectionY(direction);
+        step(); // Turns if the cursor reached the corner
+    }
+
+    /**
+     * Gets the number of cells left on the current side of the spiral, the current cell included. The cells are
+     * reached by adding {@link #getRowStep()} and {@link #getColStep()} to the current position, without stepping
+     * @return the number of cells, at least 1 while the cursor is in the array
+     */
+    public int getRun()
+    {
+        switch(direction)
+        {
+            case RIGHT:
+                return maxCol - col + 1;
+            case DOWN:
+                return maxRow - row + 1;
+            case LEFT:
+                return col - minCol + 1;
+            default:
+                return row - minRow + 1;
+        }
+    }
+
+    /**
+     * Gets the change of row from one cell of the current side to the next
+     * @return -1, 0 or 1
+     */
+    public int getRowStep()
+    {
+        return projectionY(direction);
+    }
+
+    /**
+     * Gets the change of col from one cell of the current side to the next
+     * @return -1, 0 or 1
+     */
+    public int getColStep()
+    {
+        return projectionX(direction);
+    }
+
     /**
      * Gets the current col
      * @return the current col
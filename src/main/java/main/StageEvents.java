@@ -0,0 +1,29 @@
+package main;
+
+/**
+ * Record single operations of the processing of images as events, such as those of a flight recorder.
+ * <p>
+ * An operation calls {@link #begin(Metrics.Stage)} when it starts and {@link #end} with its description when it ends,
+ * both in the same thread.
+ * @see Events
+ */
+public interface StageEvents
+{
+    /**
+     * Starts an event.
+     * @param stage the stage of the operation
+     * @return the event in progress, or {@code null} if events of this stage are not recorded
+     */
+    Object begin(Metrics.Stage stage);
+
+    /**
+     * Ends an event, which is recorded if it meets the settings of the recorder.
+     * @param event the event returned by {@link #begin(Metrics.Stage)}, not {@code null}
+     * @param operation the name of the operation
+     * @param width the width of the image
+     * @param height the height of the image
+     * @param bits the number of bits embedded or revealed, {@code 0} for the other stages
+     * @param order the order of the pixels, or {@code null} for the stages not traversing them
+     */
+    void end(Object event, String operation, int width, int height, long bits, TraversalOrder order);
+}
@@ -1,7 +1,19 @@
 package main;
 
+import java.nio.charset.Charset;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
 public class Steganography {
 
+    /**
+     * The largest number of bits which can be embedded per color channel.
+     */
+    public static final int MAX_DEPTH = 8;
+
+    // A spiral table is built for operations visiting at least 1 / SPIRAL_TABLE_RATIO of the pixels of a cover
+    private static final int SPIRAL_TABLE_RATIO = 8;
+
     /*
      * ********************************************
      * Part 1b: embed/reveal BW
@@ -30,6 +42,49 @@ public class Steganography {
         return (value & 1) == 1;
     }
 
+    /**
+     * Inserts bits into the low bits of the color channels of a pixel
+     * @param value The RGB pixel in which to insert the bits
+     * @param bits The bits to insert: the first {@code depth} ones go to blue, the next ones to green, the last ones to red
+     * @param depth The number of bits per channel, {@code 0} standing for the single LSB of the pixel as in {@link #embedInLSB(int, boolean)}
+     * @return An int corresponding to {@code value} with the {@link #bitsPerPixel(int)} low bits of {@code bits} inserted into its channels
+     */
+    public static int embedInChannels(int value, int bits, int depth) {
+        assert depth >= 0 && depth <= MAX_DEPTH;
+
+        if(depth == 0)
+            return (value & 0xfffffffe) | (bits & 1);
+        final int mask = (1 << depth) - 1;
+        final int channels = mask | mask << 8 | mask << 16;
+        return (value & ~channels) | (bits & mask) | (bits >>> depth & mask) << 8 | (bits >>> 2 * depth & mask) << 16;
+    }
+
+    /**
+     * Extracts the low bits of the color channels of a pixel
+     * @param value The RGB pixel from which to extract the bits
+     * @param depth The number of bits per channel, {@code 0} standing for the single LSB of the pixel
+     * @return The bits, in the order of {@link #embedInChannels(int, int, int)}
+     */
+    public static int getChannelBits(int value, int depth) {
+        assert depth >= 0 && depth <= MAX_DEPTH;
+
+        if(depth == 0)
+            return value & 1;
+        final int mask = (1 << depth) - 1;
+        return (value & mask) | (value >>> 8 & mask) << depth | (value >>> 16 & mask) << 2 * depth;
+    }
+
+    /**
+     * Gives the number of bits held by a pixel at a given depth
+     * @param depth The number of bits per channel, {@code 0} standing for the single LSB of the pixel
+     * @return {@code 3 * depth}, or {@code 1} for depth {@code 0}
+     */
+    public static int bitsPerPixel(int depth) {
+        assert depth >= 0 && depth <= MAX_DEPTH;
+
+        return depth == 0 ? 1 : 3 * depth;
+    }
+
     /*
      * Linear embedding
      */
@@ -40,31 +95,67 @@ public class Steganography {
      * @return A <b>copy</b> of {@code cover} with {@code message}'s pixel values embedded in a linear fashion in the LSB layer
      */
     public static int[][] embedBWImage(int[][] cover, boolean[][] message) {
+        return embedBWImage(cover, message, EmbedMode.COPY);
+    }
+
+    /**
+     * Embeds a black and white image into a color image's LSB layer using linear embedding
+     * @param cover The image in which to embed {@code message}
+     * @param message The image to embed into {@code cover}
+     * @param mode Where to write the embedded pixels
+     * @return {@code cover} or a copy of it, as chosen by {@code mode}, with {@code message}'s pixel values embedded in a linear fashion in the LSB layer
+     */
+    public static int[][] embedBWImage(int[][] cover, boolean[][] message, EmbedMode mode) {
         assert Utils.isCoverLargeEnough(cover, message);
 
-        int[][] copy = new int[cover.length][cover[0].length];
+        final long start = Metrics.start();
+        final Object event = Events.begin(Metrics.Stage.EMBED);
+        final long bits = message.length == 0 ? 0 : (long) message.length * message[0].length;
+        int[][] result = mode.target(cover);
 
-        for(int row = 0; row < cover.length; row++) // For every pixel
+        for(int row = 0; row < message.length; row++) // Only the rows of the message are touched
         {
-            for(int col = 0; col < cover[0].length; col++)
+            final int[] line = mode.row(result, cover, row);
+            for(int col = 0; col < message[0].length; col++)
             {
-                boolean bit = getLSB(cover[row][col]);
-                if(message.length > 0 && row < message.length && col < message[0].length) // Checks if the message is in the bounds
-                    bit = message[row][col];
-                copy[row][col] = embedInLSB(cover[row][col], bit); // Embeds message or copy the cover
+                line[col] = embedInLSB(line[col], message[row][col]);
             }
         }
-        return copy;
+        Events.end(event, "embedBWImage", cover[0].length, cover.length, bits, TraversalOrder.LINEAR);
+        Metrics.embedded(start, (long) cover.length * cover[0].length, bits);
+        return result;
+    }
+
+    /**
+     * Embeds a black and white image into a color image's LSB layer using linear embedding, optionally compressed
+     * @param cover The image in which to embed {@code message}
+     * @param message The image to embed into {@code cover}
+     * @param compressed Whether to embed {@code message} as a {@link Payload#TYPE_BW_IMAGE} payload, compressed by {@link BWCodec}, instead of pixel per pixel
+     * @return A <b>copy</b> of {@code cover} with {@code message} embedded in a linear fashion in the LSB layer
+     * @see Steganography#revealBWImage(int[][])
+     */
+    public static int[][] embedBWImage(int[][] cover, boolean[][] message, boolean compressed) {
+        if(!compressed)
+            return embedBWImage(cover, message);
+        return embedPayload(cover, Payload.ofImage(BitRaster.fromArray(message)));
     }
 
     /**
-     * Reveals a black and white image which was embedded in the LSB layer of another
+     * Reveals a black and white image which was embedded in the LSB layer of another.
+     * An image compressed by {@link #embedBWImage(int[][], boolean[][], boolean)} is detected and decompressed;
+     * otherwise the whole LSB layer is returned.
      * @param cover A color image containing an image embedded in its LSB layer
      * @return The image extracted from the LSB layer of {@code cover}
      */
     public static boolean[][] revealBWImage(int[][] cover) {
         assert Utils.isImage(cover);
 
+        final BitRaster compressed = compressedImage(revealPayload(cover));
+        if(compressed != null)
+            return compressed.toArray();
+
+        final long start = Metrics.start();
+        final Object event = Events.begin(Metrics.Stage.REVEAL);
         boolean[][] reveal = new boolean[cover.length][cover[0].length];
 
         for(int row = 0; row < cover.length; row++)
@@ -74,6 +165,8 @@ public class Steganography {
                 reveal[row][col] = getLSB(cover[row][col]); // Get the least significant bit
             }
         }
+        Events.end(event, "revealBWImage", cover[0].length, cover.length, (long) cover.length * cover[0].length, TraversalOrder.LINEAR);
+        Metrics.revealed(start, (long) cover.length * cover[0].length, (long) cover.length * cover[0].length);
         return reveal;
     }
 
@@ -91,20 +184,35 @@ public class Steganography {
      * @return A <b>copy</b> of {@code cover} with {@code message}'s values embedded in a linear fashion in the LSB layer
      */
     public static int[][] embedBitArray(int[][] cover, boolean[] message) {
-        assert Utils.isCoverLargeEnough(cover, message);
+        return embedBitArray(cover, message, EmbedMode.COPY);
+    }
 
+    /**
+     * Embeds a boolean array into the LSB layer of a color image, in a linear fashion
+     * @param cover The image in which to embed the bit array
+     * @param message The boolean array to be embedded
+     * @param mode Where to write the embedded pixels
+     * @return {@code cover} or a copy of it, as chosen by {@code mode}, with {@code message}'s values embedded in a linear fashion in the LSB layer
+     */
+    public static int[][] embedBitArray(int[][] cover, boolean[] message, EmbedMode mode) {
+        assert Utils.isCoverLargeEnough(cover, message);
 
-        int[][] copy = new int[cover.length][cover[0].length];
+        final long start = Metrics.start();
+        final Object event = Events.begin(Metrics.Stage.EMBED);
+        int[][] result = mode.target(cover);
         int i = 0;
-        for(int row = 0; row < cover.length; row++)
+        for(int row = 0; i < message.length; row++) // Stops at the last row holding the message
         {
-            for(int col = 0; col < cover[0].length; col++)
+            final int[] line = mode.row(result, cover, row);
+            for(int col = 0; col < line.length && i < message.length; col++)
             {
-                copy[row][col] = i < message.length ? embedInLSB(cover[row][col], message[i]) : cover[row][col]; // If the message is in the bounds, embeds it else copy the cover
+                line[col] = embedInLSB(line[col], message[i]);
                 i++;
             }
         }
-        return copy;
+        Events.end(event, "embedBitArray", cover[0].length, cover.length, message.length, TraversalOrder.LINEAR);
+        Metrics.embedded(start, (long) cover.length * cover[0].length, message.length);
+        return result;
     }
 
     /**
@@ -115,6 +223,8 @@ public class Steganography {
     public static boolean[] revealBitArray(int[][] cover) {
         assert Utils.isImage(cover);
 
+        final long start = Metrics.start();
+        final Object event = Events.begin(Metrics.Stage.REVEAL);
         boolean[] array = new boolean[cover.length * cover[0].length];
         int i = 0;
         for(int row = 0; row < cover.length; row++)
@@ -126,29 +236,212 @@ public class Steganography {
             }
         }
 
+        Events.end(event, "revealBitArray", cover[0].length, cover.length, array.length, TraversalOrder.LINEAR);
+        Metrics.revealed(start, (long) cover.length * cover[0].length, array.length);
         return array;
     }
 
+    /**
+     * Embeds a bit buffer into the LSB layer of a color image, in a linear fashion
+     * @param cover The image in which to embed the bit buffer
+     * @param message The bits to be embedded
+     * @return A <b>copy</b> of {@code cover} with {@code message}'s values embedded in a linear fashion in the LSB layer
+     * @see Steganography#embedBitArray(int[][], boolean[])
+     */
+    public static int[][] embedBitBuffer(int[][] cover, BitBuffer message) {
+        return embedBitBuffer(cover, message, EmbedMode.COPY);
+    }
+
+    /**
+     * Embeds a bit buffer into the LSB layer of a color image, in a linear fashion
+     * @param cover The image in which to embed the bit buffer
+     * @param message The bits to be embedded
+     * @param mode Where to write the embedded pixels
+     * @return {@code cover} or a copy of it, as chosen by {@code mode}, with {@code message}'s values embedded in a linear fashion in the LSB layer
+     * @see Steganography#embedBitArray(int[][], boolean[], EmbedMode)
+     */
+    public static int[][] embedBitBuffer(int[][] cover, BitBuffer message, EmbedMode mode) {
+        assert Utils.isCoverLargeEnough(cover, message);
+
+        final long start = Metrics.start();
+        final Object event = Events.begin(Metrics.Stage.EMBED);
+        final long[] words = message.words();
+        final int length = message.length();
+
+        int[][] result = mode.target(cover);
+        int i = 0;
+        long word = 0;
+        for(int row = 0; i < length; row++) // Stops at the last row holding the message
+        {
+            final int[] line = mode.row(result, cover, row);
+            for(int col = 0; col < line.length && i < length; col++)
+            {
+                if((i & 63) == 0) // Load the next 64 bits
+                    word = words[i >>> 6];
+                line[col] = (line[col] & 0xfffffffe) | ((int) word & 1);
+                word >>>= 1;
+                i++;
+            }
+        }
+        Events.end(event, "embedBitBuffer", cover[0].length, cover.length, length, TraversalOrder.LINEAR);
+        Metrics.embedded(start, (long) cover.length * cover[0].length, length);
+        return result;
+    }
+
+    /**
+     * Reveals a bit buffer which was embedded in the LSB layer of an image
+     * @param cover A color image containing bits embedded in its LSB layer
+     * @return The bits extracted from the LSB layer of {@code cover}, packed
+     * @see Steganography#revealBitArray(int[][])
+     */
+    public static BitBuffer revealBitBuffer(int[][] cover) {
+        assert Utils.isImage(cover);
+
+        final long start = Metrics.start();
+        final Object event = Events.begin(Metrics.Stage.REVEAL);
+        final BitBuffer buffer = new BitBuffer(cover.length * cover[0].length);
+        final long[] words = buffer.words();
+        int i = 0;
+        long word = 0;
+        for(int row = 0; row < cover.length; row++)
+        {
+            for(int col = 0; col < cover[0].length; col++)
+            {
+                word |= (long) (cover[row][col] & 1) << i;
+                if((i & 63) == 63 || i == buffer.length() - 1) // Store every 64 bits
+                {
+                    words[i >>> 6] = word;
+                    word = 0;
+                }
+                i++;
+            }
+        }
+
+        Events.end(event, "revealBitBuffer", cover[0].length, cover.length, buffer.length(), TraversalOrder.LINEAR);
+        Metrics.revealed(start, (long) cover.length * cover[0].length, buffer.length());
+        return buffer;
+    }
+
+    /**
+     * Reveals a range of the bits which were embedded in the LSB layer of an image, in a linear fashion
+     * @param cover A color image containing bits embedded in its LSB layer
+     * @param from The index of the first bit, i.e. of the first pixel to read
+     * @param count The number of bits to read
+     * @return The bits extracted from the LSB layer of pixels {@code from} to {@code from + count - 1}, packed
+     * @see Steganography#revealBitBuffer(int[][])
+     */
+    public static BitBuffer revealBitBuffer(int[][] cover, int from, int count) {
+        assert Utils.isImage(cover);
+        assert from >= 0 && count >= 0 && (long) from + count <= (long) cover.length * cover[0].length;
+
+        final long start = Metrics.start();
+        final Object event = Events.begin(Metrics.Stage.REVEAL);
+        final BitBuffer buffer = readLinear(cover, from, count);
+        Events.end(event, "revealBitBuffer", cover[0].length, cover.length, count, TraversalOrder.LINEAR);
+        Metrics.revealed(start, count, count);
+        return buffer;
+    }
+
+    // Read the LSB of a range of pixels, in a linear fashion
+    private static BitBuffer readLinear(int[][] cover, int from, int count) {
+        final int width = cover[0].length;
+        final BitBuffer buffer = new BitBuffer(count);
+        final long[] words = buffer.words();
+        int row = from / width, col = from % width;
+        long word = 0;
+        for(int i = 0; i < count; i++)
+        {
+            word |= (long) (cover[row][col] & 1) << i;
+            if((i & 63) == 63 || i == count - 1) // Store every 64 bits
+            {
+                words[i >>> 6] = word;
+                word = 0;
+            }
+            if(++col == width)
+            {
+                col = 0;
+                row++;
+            }
+        }
+        return buffer;
+    }
+
+    /**
+     * Embeds a framed payload into the LSB layer of a color image, in a linear fashion
+     * @param cover The image in which to embed the payload
+     * @param payload The payload to be embedded, header first
+     * @return A <b>copy</b> of {@code cover} with {@code payload} embedded in a linear fashion in the LSB layer
+     * @see Steganography#revealPayload(int[][])
+     */
+    public static int[][] embedPayload(int[][] cover, Payload payload) {
+        return embedBitBuffer(cover, payload.toBitBuffer());
+    }
+
+    /**
+     * Reveals a framed payload which was embedded in the LSB layer of an image, in a linear fashion.
+     * Only the pixels covered by the header and the data it announces are read.
+     * @param cover A color image possibly containing a payload embedded in its LSB layer
+     * @return The payload, or {@code null} if {@code cover} does not hold a valid one
+     * @see Steganography#embedPayload(int[][], Payload)
+     */
+    public static Payload revealPayload(int[][] cover) {
+        return revealPayload(cover, TraversalOrder.LINEAR);
+    }
+
     /**
      * Embeds a String into the LSB layer of a color image, in a linear fashion
      * @param cover The image in which to embed the bit array
      * @param message The String to be embedded
      * @return A <b>copy</b> of {@code cover} with {@code message}'s binary representation embedded in a linear fashion in the LSB layer
-     * @see TextMessage#stringToBitArray(String)
-     * @see Steganography#embedBitArray(int[][], boolean[])
+     * @see TextMessage#stringToBitBuffer(String)
+     * @see Steganography#embedBitBuffer(int[][], BitBuffer)
+     * @see Steganography#embedPayload(int[][], Payload) to frame the message so that revealing it does not read the whole cover
      */
     public static int[][] embedText(int[][] cover, String message) {
-        return embedBitArray(cover, TextMessage.stringToBitArray(message));
+        return embedBitBuffer(cover, TextMessage.stringToBitBuffer(message));
+    }
+
+    /**
+     * Embeds a String into the LSB layer of a color image, in a linear fashion, encoded in a given charset.
+     * The String is framed in a text {@link Payload} recording the charset, so that {@link #revealText(int[][])} decodes it.
+     * @param cover The image in which to embed the String
+     * @param message The String to be embedded
+     * @param charset The charset encoding {@code message}, such as {@link java.nio.charset.StandardCharsets#UTF_8}
+     * @return A <b>copy</b> of {@code cover} with {@code message} embedded in a linear fashion in the LSB layer
+     * @see Payload#ofText(String, Charset)
+     */
+    public static int[][] embedText(int[][] cover, String message, Charset charset) {
+        return embedPayload(cover, Payload.ofText(message, charset));
+    }
+
+    /**
+     * Embeds a String into the LSB layer of a color image, in a linear fashion, encoded in a given charset then compressed.
+     * Compression is skipped when it does not make the String smaller.
+     * @param cover The image in which to embed the String
+     * @param message The String to be embedded
+     * @param charset The charset encoding {@code message}
+     * @param compression The codec compressing the encoded String
+     * @return A <b>copy</b> of {@code cover} with {@code message} embedded in a linear fashion in the LSB layer
+     * @see Payload#withCompression(Compression)
+     */
+    public static int[][] embedText(int[][] cover, String message, Charset charset, Compression compression) {
+        return embedPayload(cover, Payload.ofText(message, charset).withCompression(compression));
     }
 
     /**
-     * Reveals a String which was embedded in the LSB layer of an image
+     * Reveals a String which was embedded in the LSB layer of an image.
+     * A text {@link Payload} is decoded from its header and the pixels it spans only;
+     * otherwise the whole LSB layer is decoded, as written by {@link #embedText(int[][], String)}.
      * @param cover A color image containing a String embedded in its LSB layer
      * @return The String extracted from the LSB layer of {@code cover}
-     * @see TextMessage#bitArrayToString(boolean[])
+     * @see TextMessage#bitBufferToString(BitBuffer)
+     * @see Steganography#revealPayload(int[][])
      */
     public static String revealText(int[][] cover) {
-        return TextMessage.bitArrayToString(revealBitArray(cover));
+        final Payload payload = revealPayload(cover);
+        if(payload != null && payload.getType() == Payload.TYPE_TEXT)
+            return payload.getText();
+        return TextMessage.bitBufferToString(revealBitBuffer(cover)); // Unframed text
     }
 
     /*
@@ -163,24 +456,42 @@ public class Steganography {
      * @param cover The image in which to embed {@code message}
      * @param bwImage The image to embed into {@code cover}
      * @return A <b>copy</b> of {@code cover} with {@code message}'s pixel values embedded in a spiral fashion in the LSB layer
-     * @see ImageMessage#bwImageToBitArray(boolean[][])
-     * @see Steganography#embedSpiralBitArray(int[][], boolean[])
+     * @see ImageMessage#bwImageToBitBuffer(boolean[][])
+     * @see Steganography#embedSpiralBitBuffer(int[][], BitBuffer)
      */
     public static int[][] embedSpiralImage(int[][] cover, boolean[][] bwImage) {
-        boolean[] bits = ImageMessage.bwImageToBitArray(bwImage);
-        return embedSpiralBitArray(cover, bits);
+        BitBuffer bits = ImageMessage.bwImageToBitBuffer(bwImage);
+        return embedSpiralBitBuffer(cover, bits);
+    }
+
+    /**
+     * Embeds a black and white image into a color image's LSB layer using spiral embedding, optionally compressed
+     * @param cover The image in which to embed {@code message}
+     * @param bwImage The image to embed into {@code cover}
+     * @param compressed Whether to embed {@code bwImage} as a {@link Payload#TYPE_BW_IMAGE} payload, compressed by {@link BWCodec}
+     * @return A <b>copy</b> of {@code cover} with {@code bwImage} embedded in a spiral fashion in the LSB layer
+     * @see Steganography#revealSpiralImage(int[][])
+     */
+    public static int[][] embedSpiralImage(int[][] cover, boolean[][] bwImage, boolean compressed) {
+        if(!compressed)
+            return embedSpiralImage(cover, bwImage);
+        return embedPayload(cover, Payload.ofImage(BitRaster.fromArray(bwImage)), 0, TraversalOrder.SPIRAL);
     }
 
     /**
-     * Reveals an image which was embedded in the LSB layer of an image in a spiral fashion
+     * Reveals an image which was embedded in the LSB layer of an image in a spiral fashion.
+     * An image compressed by {@link #embedSpiralImage(int[][], boolean[][], boolean)} is detected and decompressed.
      * @param cover A color image containing an bit array embedded in its LSB layer
      * @return The image extracted from the LSB layer of {@code cover}
-     * @see ImageMessage#bitArrayToImage(boolean[])
-     * @see Steganography#revealSpiralBitArray(int[][])
+     * @see ImageMessage#bitBufferToImage(BitBuffer)
+     * @see Steganography#revealSpiralBitBuffer(int[][])
      */
     public static boolean[][] revealSpiralImage(int[][] cover) {
-        boolean[] bits = revealSpiralBitArray(cover);
-        return ImageMessage.bitArrayToImage(bits);
+        final BitRaster compressed = compressedImage(revealPayload(cover, TraversalOrder.SPIRAL));
+        if(compressed != null)
+            return compressed.toArray();
+        BitBuffer bits = revealSpiralBitBuffer(cover);
+        return ImageMessage.bitBufferToImage(bits);
     }
 
     /**
@@ -190,24 +501,39 @@ public class Steganography {
      * @return A <b>copy</b> of {@code cover} with {@code message}'s values embedded in a spiral fashion in the LSB layer
      */
     public static int[][] embedSpiralBitArray(int[][] cover, boolean[] message) {
+        return embedSpiralBitArray(cover, message, EmbedMode.COPY);
+    }
+
+    /**
+     * Embeds a bit array into a color image's LSB layer using spiral embedding
+     * @param cover The image in which to embed {@code message}
+     * @param message The boolean array to embed into {@code cover}
+     * @param mode Where to write the embedded pixels
+     * @return {@code cover} or a copy of it, as chosen by {@code mode}, with {@code message}'s values embedded in a spiral fashion in the LSB layer
+     */
+    public static int[][] embedSpiralBitArray(int[][] cover, boolean[] message, EmbedMode mode) {
         assert Utils.isCoverLargeEnough(cover, message);
         assert cover.length * cover[0].length >= message.length; // Checks if the message is not too long
 
-        int[][] copy = new int[cover.length][cover[0].length];
-        for(int row = 0; row < cover.length; row++) // Copy the cover
-            for(int col = 0; col < cover[0].length; col++)
-                copy[row][col] = cover[row][col];
+        final long start = Metrics.start();
+        final Object event = Events.begin(Metrics.Stage.EMBED);
+        int[][] result = mode.target(cover);
 
-        final SpiralCursor cursor = new SpiralCursor(cover.length, cover[0].length);
-
-        for(boolean bit : message)
+        final Runs runs = new Runs(cover.length, cover[0].length, TraversalOrder.SPIRAL, 0, message.length);
+        for(int i = 0; i < message.length; )
         {
-            copy[cursor.getRow()][cursor.getCol()] = embedInLSB(cover[cursor.getRow()][cursor.getCol()], bit); // Replacement
-
-            cursor.step();
+            final int end = i + Math.min(runs.start(), message.length - i);
+            runs.advance(end - i);
+            for(int row = runs.row, col = runs.col; i < end; i++, row += runs.rowStep, col += runs.colStep)
+            {
+                final int[] line = mode.row(result, cover, row);
+                line[col] = embedInLSB(line[col], message[i]); // Replacement
+            }
         }
 
-        return copy;
+        Events.end(event, "embedSpiralBitArray", cover[0].length, cover.length, message.length, TraversalOrder.SPIRAL);
+        Metrics.embedded(start, (long) cover.length * cover[0].length, message.length);
+        return result;
     }
 
     /**
@@ -218,18 +544,1564 @@ public class Steganography {
     public static boolean[] revealSpiralBitArray(int[][] hidden) {
         assert Utils.isImage(hidden);
 
+        final long start = Metrics.start();
+        final Object event = Events.begin(Metrics.Stage.REVEAL);
         boolean[] bits = new boolean[hidden.length * hidden[0].length];
 
-        final SpiralCursor cursor = new SpiralCursor(hidden.length, hidden[0].length);
+        final Runs runs = new Runs(hidden.length, hidden[0].length, TraversalOrder.SPIRAL, 0, bits.length);
+        for(int i = 0; i < bits.length; )
+        {
+            final int end = i + Math.min(runs.start(), bits.length - i);
+            runs.advance(end - i);
+            for(int row = runs.row, col = runs.col; i < end; i++, row += runs.rowStep, col += runs.colStep)
+                bits[i] = getLSB(hidden[row][col]);
+        }
+
+        Events.end(event, "revealSpiralBitArray", hidden[0].length, hidden.length, bits.length, TraversalOrder.SPIRAL);
+        Metrics.revealed(start, (long) hidden.length * hidden[0].length, bits.length);
+        return bits;
+    }
+
+    /**
+     * Embeds a bit buffer into a color image's LSB layer using spiral embedding
+     * @param cover The image in which to embed {@code message}
+     * @param message The bits to embed into {@code cover}
+     * @return A <b>copy</b> of {@code cover} with {@code message}'s values embedded in a spiral fashion in the LSB layer
+     * @see Steganography#embedSpiralBitArray(int[][], boolean[])
+     */
+    public static int[][] embedSpiralBitBuffer(int[][] cover, BitBuffer message) {
+        return embedSpiralBitBuffer(cover, message, EmbedMode.COPY);
+    }
+
+    /**
+     * Embeds a bit buffer into a color image's LSB layer using spiral embedding
+     * @param cover The image in which to embed {@code message}
+     * @param message The bits to embed into {@code cover}
+     * @param mode Where to write the embedded pixels
+     * @return {@code cover} or a copy of it, as chosen by {@code mode}, with {@code message}'s values embedded in a spiral fashion in the LSB layer
+     * @see Steganography#embedSpiralBitArray(int[][], boolean[], EmbedMode)
+     */
+    public static int[][] embedSpiralBitBuffer(int[][] cover, BitBuffer message, EmbedMode mode) {
+        assert Utils.isCoverLargeEnough(cover, message);
+
+        final long start = Metrics.start();
+        final Object event = Events.begin(Metrics.Stage.EMBED);
+        int[][] result = mode.target(cover);
+
+        final Runs runs = new Runs(cover.length, cover[0].length, TraversalOrder.SPIRAL, 0, message.length());
+        final long[] words = message.words();
 
-        for(int i = 0; i < bits.length; i++)
+        long word = 0;
+        for(int i = 0; i < message.length(); ) // Scatter
         {
-            bits[i] = getLSB(hidden[cursor.getRow()][cursor.getCol()]); // Replacement
+            final int end = i + Math.min(runs.start(), message.length() - i);
+            runs.advance(end - i);
+            for(int row = runs.row, col = runs.col; i < end; i++, row += runs.rowStep, col += runs.colStep)
+            {
+                if((i & 63) == 0) // Load the next 64 bits
+                    word = words[i >>> 6];
+                final int[] line = mode.row(result, cover, row);
+                line[col] = (line[col] & 0xfffffffe) | ((int) word & 1);
+                word >>>= 1;
+            }
+        }
+
+        Events.end(event, "embedSpiralBitBuffer", cover[0].length, cover.length, message.length(), TraversalOrder.SPIRAL);
+        Metrics.embedded(start, (long) cover.length * cover[0].length, message.length());
+        return result;
+    }
+
+    /**
+     * Reveals a bit buffer which was embedded in the LSB layer of an image in a spiral fashion
+     * @param hidden A color image containing bits embedded in its LSB layer
+     * @return The bits extracted from the LSB layer of {@code hidden}, packed
+     * @see Steganography#revealSpiralBitArray(int[][])
+     */
+    public static BitBuffer revealSpiralBitBuffer(int[][] hidden) {
+        assert Utils.isImage(hidden);
 
-            cursor.step();
+        final long start = Metrics.start();
+        final Object event = Events.begin(Metrics.Stage.REVEAL);
+        final BitBuffer buffer = new BitBuffer(hidden.length * hidden[0].length);
+        final long[] words = buffer.words();
+
+        final Runs runs = new Runs(hidden.length, hidden[0].length, TraversalOrder.SPIRAL, 0, buffer.length());
+
+        long word = 0;
+        for(int i = 0; i < buffer.length(); ) // Gather
+        {
+            final int end = i + Math.min(runs.start(), buffer.length() - i);
+            runs.advance(end - i);
+            for(int row = runs.row, col = runs.col; i < end; i++, row += runs.rowStep, col += runs.colStep)
+            {
+                word |= (long) (hidden[row][col] & 1) << i;
+                if((i & 63) == 63 || i == buffer.length() - 1) // Store every 64 bits
+                {
+                    words[i >>> 6] = word;
+                    word = 0;
+                }
+            }
         }
 
-        return bits;
+        Events.end(event, "revealSpiralBitBuffer", hidden[0].length, hidden.length, buffer.length(), TraversalOrder.SPIRAL);
+        Metrics.revealed(start, (long) hidden.length * hidden[0].length, buffer.length());
+        return buffer;
     }
-}
 
+    /*
+     * ********************************************
+     * Contiguous raster variants
+     * ********************************************
+     */
+
+    /**
+     * Embeds a black and white raster into a color raster's LSB layer using linear embedding
+     * @param cover The raster in which to embed {@code message}
+     * @param message The raster to embed into {@code cover}
+     * @return A <b>copy</b> of {@code cover} with {@code message}'s pixel values embedded in a linear fashion in the LSB layer
+     * @see Steganography#embedBWImage(int[][], boolean[][])
+     */
+    public static IntRaster embedBWImage(IntRaster cover, BitRaster message) {
+        return embedBWImage(cover, message, EmbedMode.COPY);
+    }
+
+    /**
+     * Embeds a black and white raster into a color raster's LSB layer using linear embedding
+     * @param cover The raster in which to embed {@code message}
+     * @param message The raster to embed into {@code cover}
+     * @param mode Where to write the embedded pixels
+     * @return {@code cover} or a copy of it, as chosen by {@code mode}, with {@code message}'s pixel values embedded in a linear fashion in the LSB layer
+     * @see Steganography#embedBWImage(int[][], boolean[][], EmbedMode)
+     */
+    public static IntRaster embedBWImage(IntRaster cover, BitRaster message, EmbedMode mode) {
+        assert Utils.isCoverLargeEnough(cover, message);
+
+        final long start = Metrics.start();
+        final Object event = Events.begin(Metrics.Stage.EMBED);
+        final IntRaster result = mode.target(cover);
+        final int[] data = result.data();
+        final long[] words = message.bits().words();
+        int i = 0;
+        for(int row = 0; row < message.height(); row++)
+        {
+            final int base = result.index(row, 0);
+            for(int col = 0; col < message.width(); col++)
+            {
+                data[base + col] = (data[base + col] & 0xfffffffe) | (int) ((words[i >>> 6] >>> i) & 1);
+                i++;
+            }
+        }
+        Events.end(event, "embedBWImage", cover.width(), cover.height(), (long) message.width() * message.height(), TraversalOrder.LINEAR);
+        Metrics.embedded(start, cover.area(), (long) message.width() * message.height());
+        return result;
+    }
+
+    /**
+     * Reveals a black and white raster which was embedded in the LSB layer of another
+     * @param cover A color raster containing an image embedded in its LSB layer
+     * @return The raster extracted from the LSB layer of {@code cover}
+     * @see Steganography#revealBWImage(int[][])
+     */
+    public static BitRaster revealBWImage(IntRaster cover) {
+        final BitRaster compressed = compressedImage(revealPayload(cover));
+        if(compressed != null)
+            return compressed;
+        return new BitRaster(revealBitBuffer(cover), cover.width(), cover.height());
+    }
+
+    /**
+     * Embeds a black and white raster into a color raster's LSB layer using linear embedding, optionally compressed
+     * @param cover The raster in which to embed {@code message}
+     * @param message The raster to embed into {@code cover}
+     * @param compressed Whether to embed {@code message} as a {@link Payload#TYPE_BW_IMAGE} payload, compressed by {@link BWCodec}
+     * @return A <b>copy</b> of {@code cover} with {@code message} embedded in a linear fashion in the LSB layer
+     * @see Steganography#embedBWImage(int[][], boolean[][], boolean)
+     */
+    public static IntRaster embedBWImage(IntRaster cover, BitRaster message, boolean compressed) {
+        if(!compressed)
+            return embedBWImage(cover, message);
+        return embedPayload(cover, Payload.ofImage(message));
+    }
+
+    /**
+     * Embeds a bit buffer into the LSB layer of a color raster, in a linear fashion
+     * @param cover The raster in which to embed the bit buffer
+     * @param message The bits to be embedded
+     * @return A <b>copy</b> of {@code cover} with {@code message}'s values embedded in a linear fashion in the LSB layer
+     * @see Steganography#embedBitBuffer(int[][], BitBuffer)
+     */
+    public static IntRaster embedBitBuffer(IntRaster cover, BitBuffer message) {
+        return embedBitBuffer(cover, message, EmbedMode.COPY);
+    }
+
+    /**
+     * Embeds a bit buffer into the LSB layer of a color raster, in a linear fashion
+     * @param cover The raster in which to embed the bit buffer
+     * @param message The bits to be embedded
+     * @param mode Where to write the embedded pixels
+     * @return {@code cover} or a copy of it, as chosen by {@code mode}, with {@code message}'s values embedded in a linear fashion in the LSB layer
+     * @see Steganography#embedBitBuffer(int[][], BitBuffer, EmbedMode)
+     */
+    public static IntRaster embedBitBuffer(IntRaster cover, BitBuffer message, EmbedMode mode) {
+        assert Utils.isCoverLargeEnough(cover, message);
+
+        final long start = Metrics.start();
+        final Object event = Events.begin(Metrics.Stage.EMBED);
+        final IntRaster result = mode.target(cover);
+        if(result.isContiguous()) // Bit i lands on pixel i
+        {
+            Kernels.best().embed(result.data(), result.offset(), message.words(), message.length());
+            Events.end(event, "embedBitBuffer", cover.width(), cover.height(), message.length(), TraversalOrder.LINEAR);
+            Metrics.embedded(start, cover.area(), message.length());
+            return result;
+        }
+
+        final int[] data = result.data();
+        final long[] words = message.words();
+        int i = 0;
+        for(int row = 0; i < message.length(); row++) // A view modified in place
+        {
+            final int base = result.index(row, 0);
+            for(int col = 0; col < result.width() && i < message.length(); col++)
+            {
+                data[base + col] = (data[base + col] & 0xfffffffe) | (int) ((words[i >>> 6] >>> i) & 1);
+                i++;
+            }
+        }
+        Events.end(event, "embedBitBuffer", cover.width(), cover.height(), message.length(), TraversalOrder.LINEAR);
+        Metrics.embedded(start, cover.area(), message.length());
+        return result;
+    }
+
+    /**
+     * Reveals a bit buffer which was embedded in the LSB layer of a raster
+     * @param cover A color raster containing bits embedded in its LSB layer
+     * @return The bits extracted from the LSB layer of {@code cover}, packed
+     * @see Steganography#revealBitBuffer(int[][])
+     */
+    public static BitBuffer revealBitBuffer(IntRaster cover) {
+        assert cover != null;
+
+        final long start = Metrics.start();
+        final Object event = Events.begin(Metrics.Stage.REVEAL);
+        final IntRaster source = cover.isContiguous() ? cover : cover.copy(); // Bits are packed over the whole image
+        final BitBuffer buffer = new BitBuffer(cover.area());
+        Kernels.best().reveal(source.data(), source.offset(), buffer.words(), buffer.length());
+        Events.end(event, "revealBitBuffer", cover.width(), cover.height(), buffer.length(), TraversalOrder.LINEAR);
+        Metrics.revealed(start, cover.area(), buffer.length());
+        return buffer;
+    }
+
+    /**
+     * Reveals a range of the bits which were embedded in the LSB layer of a raster, in a linear fashion
+     * @param cover A color raster containing bits embedded in its LSB layer
+     * @param from The index of the first bit, i.e. of the first pixel to read
+     * @param count The number of bits to read
+     * @return The bits extracted from the LSB layer of pixels {@code from} to {@code from + count - 1}, packed
+     * @see Steganography#revealBitBuffer(int[][], int, int)
+     */
+    public static BitBuffer revealBitBuffer(IntRaster cover, int from, int count) {
+        assert cover != null && from >= 0 && count >= 0 && (long) from + count <= cover.area();
+
+        final long start = Metrics.start();
+        final Object event = Events.begin(Metrics.Stage.REVEAL);
+        final BitBuffer buffer = readLinear(cover, from, count);
+        Events.end(event, "revealBitBuffer", cover.width(), cover.height(), count, TraversalOrder.LINEAR);
+        Metrics.revealed(start, count, count);
+        return buffer;
+    }
+
+    // Read the LSB of a range of pixels, in a linear fashion
+    private static BitBuffer readLinear(IntRaster cover, int from, int count) {
+        final int width = cover.width();
+        final int[] data = cover.data();
+        final BitBuffer buffer = new BitBuffer(count);
+        final long[] words = buffer.words();
+        int row = from / width, col = from % width, base = cover.index(row, 0);
+        long word = 0;
+        for(int i = 0; i < count; i++)
+        {
+            word |= (long) (data[base + col] & 1) << i;
+            if((i & 63) == 63 || i == count - 1) // Store every 64 bits
+            {
+                words[i >>> 6] = word;
+                word = 0;
+            }
+            if(++col == width && i < count - 1)
+            {
+                col = 0;
+                base = cover.index(++row, 0);
+            }
+        }
+        return buffer;
+    }
+
+    /**
+     * Embeds a framed payload into the LSB layer of a color raster, in a linear fashion
+     * @param cover The raster in which to embed the payload
+     * @param payload The payload to be embedded, header first
+     * @return A <b>copy</b> of {@code cover} with {@code payload} embedded in a linear fashion in the LSB layer
+     * @see Steganography#embedPayload(int[][], Payload)
+     */
+    public static IntRaster embedPayload(IntRaster cover, Payload payload) {
+        return embedBitBuffer(cover, payload.toBitBuffer());
+    }
+
+    /**
+     * Reveals a framed payload which was embedded in the LSB layer of a raster, in a linear fashion
+     * @param cover A color raster possibly containing a payload embedded in its LSB layer
+     * @return The payload, or {@code null} if {@code cover} does not hold a valid one
+     * @see Steganography#revealPayload(int[][])
+     */
+    public static Payload revealPayload(IntRaster cover) {
+        return revealPayload(cover, TraversalOrder.LINEAR);
+    }
+
+    /**
+     * Embeds a boolean array into the LSB layer of a color raster, in a linear fashion
+     * @param cover The raster in which to embed the bit array
+     * @param message The boolean array to be embedded
+     * @return A <b>copy</b> of {@code cover} with {@code message}'s values embedded in a linear fashion in the LSB layer
+     * @see Steganography#embedBitArray(int[][], boolean[])
+     */
+    public static IntRaster embedBitArray(IntRaster cover, boolean[] message) {
+        return embedBitBuffer(cover, BitBuffer.fromBitArray(message));
+    }
+
+    /**
+     * Embeds a boolean array into the LSB layer of a color raster, in a linear fashion
+     * @param cover The raster in which to embed the bit array
+     * @param message The boolean array to be embedded
+     * @param mode Where to write the embedded pixels
+     * @return {@code cover} or a copy of it, as chosen by {@code mode}, with {@code message}'s values embedded in a linear fashion in the LSB layer
+     * @see Steganography#embedBitArray(int[][], boolean[], EmbedMode)
+     */
+    public static IntRaster embedBitArray(IntRaster cover, boolean[] message, EmbedMode mode) {
+        return embedBitBuffer(cover, BitBuffer.fromBitArray(message), mode);
+    }
+
+    /**
+     * Reveals a boolean array which was embedded in the LSB layer of a raster
+     * @param cover A color raster containing an bit array embedded in its LSB layer
+     * @return The bit array extracted from the LSB layer of {@code cover}
+     * @see Steganography#revealBitArray(int[][])
+     */
+    public static boolean[] revealBitArray(IntRaster cover) {
+        return revealBitBuffer(cover).toBitArray();
+    }
+
+    /**
+     * Embeds a String into the LSB layer of a color raster, in a linear fashion
+     * @param cover The raster in which to embed the String
+     * @param message The String to be embedded
+     * @return A <b>copy</b> of {@code cover} with {@code message}'s binary representation embedded in a linear fashion in the LSB layer
+     * @see Steganography#embedText(int[][], String)
+     */
+    public static IntRaster embedText(IntRaster cover, String message) {
+        return embedBitBuffer(cover, TextMessage.stringToBitBuffer(message));
+    }
+
+    /**
+     * Embeds a String into the LSB layer of a color raster, in a linear fashion, encoded in a given charset
+     * @param cover The raster in which to embed the String
+     * @param message The String to be embedded
+     * @param charset The charset encoding {@code message}
+     * @return A <b>copy</b> of {@code cover} with {@code message} embedded in a linear fashion in the LSB layer
+     * @see Steganography#embedText(int[][], String, Charset)
+     */
+    public static IntRaster embedText(IntRaster cover, String message, Charset charset) {
+        return embedPayload(cover, Payload.ofText(message, charset));
+    }
+
+    /**
+     * Embeds a String into the LSB layer of a color raster, in a linear fashion, encoded in a given charset then compressed
+     * @param cover The raster in which to embed the String
+     * @param message The String to be embedded
+     * @param charset The charset encoding {@code message}
+     * @param compression The codec compressing the encoded String
+     * @return A <b>copy</b> of {@code cover} with {@code message} embedded in a linear fashion in the LSB layer
+     * @see Steganography#embedText(int[][], String, Charset, Compression)
+     */
+    public static IntRaster embedText(IntRaster cover, String message, Charset charset, Compression compression) {
+        return embedPayload(cover, Payload.ofText(message, charset).withCompression(compression));
+    }
+
+    /**
+     * Reveals a String which was embedded in the LSB layer of a raster
+     * @param cover A color raster containing a String embedded in its LSB layer
+     * @return The String extracted from the LSB layer of {@code cover}
+     * @see Steganography#revealText(int[][])
+     */
+    public static String revealText(IntRaster cover) {
+        final Payload payload = revealPayload(cover);
+        if(payload != null && payload.getType() == Payload.TYPE_TEXT)
+            return payload.getText();
+        return TextMessage.bitBufferToString(revealBitBuffer(cover)); // Unframed text
+    }
+
+    /**
+     * Embeds a black and white raster into a color raster's LSB layer using spiral embedding
+     * @param cover The raster in which to embed {@code bwImage}
+     * @param bwImage The raster to embed into {@code cover}
+     * @return A <b>copy</b> of {@code cover} with {@code bwImage}'s dimensions and pixel values embedded in a spiral fashion in the LSB layer
+     * @see Steganography#embedSpiralImage(int[][], boolean[][])
+     */
+    public static IntRaster embedSpiralImage(IntRaster cover, BitRaster bwImage) {
+        return embedSpiralBitBuffer(cover, ImageMessage.bwImageToBitBuffer(bwImage));
+    }
+
+    /**
+     * Reveals a black and white raster which was embedded in the LSB layer of a raster in a spiral fashion
+     * @param cover A color raster containing an image embedded in its LSB layer
+     * @return The raster extracted from the LSB layer of {@code cover}
+     * @see Steganography#revealSpiralImage(int[][])
+     */
+    public static BitRaster revealSpiralImage(IntRaster cover) {
+        final BitRaster compressed = compressedImage(revealPayload(cover, TraversalOrder.SPIRAL));
+        if(compressed != null)
+            return compressed;
+        return ImageMessage.bitBufferToBitRaster(revealSpiralBitBuffer(cover));
+    }
+
+    /**
+     * Embeds a black and white raster into a color raster's LSB layer using spiral embedding, optionally compressed
+     * @param cover The raster in which to embed {@code bwImage}
+     * @param bwImage The raster to embed into {@code cover}
+     * @param compressed Whether to embed {@code bwImage} as a {@link Payload#TYPE_BW_IMAGE} payload, compressed by {@link BWCodec}
+     * @return A <b>copy</b> of {@code cover} with {@code bwImage} embedded in a spiral fashion in the LSB layer
+     * @see Steganography#embedSpiralImage(int[][], boolean[][], boolean)
+     */
+    public static IntRaster embedSpiralImage(IntRaster cover, BitRaster bwImage, boolean compressed) {
+        if(!compressed)
+            return embedSpiralImage(cover, bwImage);
+        return embedPayload(cover, Payload.ofImage(bwImage), 0, TraversalOrder.SPIRAL);
+    }
+
+    /**
+     * Embeds a bit buffer into a color raster's LSB layer using spiral embedding
+     * @param cover The raster in which to embed {@code message}
+     * @param message The bits to embed into {@code cover}
+     * @return A <b>copy</b> of {@code cover} with {@code message}'s values embedded in a spiral fashion in the LSB layer
+     * @see Steganography#embedSpiralBitBuffer(int[][], BitBuffer)
+     */
+    public static IntRaster embedSpiralBitBuffer(IntRaster cover, BitBuffer message) {
+        return embedSpiralBitBuffer(cover, message, EmbedMode.COPY);
+    }
+
+    /**
+     * Embeds a bit buffer into a color raster's LSB layer using spiral embedding
+     * @param cover The raster in which to embed {@code message}
+     * @param message The bits to embed into {@code cover}
+     * @param mode Where to write the embedded pixels
+     * @return {@code cover} or a copy of it, as chosen by {@code mode}, with {@code message}'s values embedded in a spiral fashion in the LSB layer
+     * @see Steganography#embedSpiralBitBuffer(int[][], BitBuffer, EmbedMode)
+     */
+    public static IntRaster embedSpiralBitBuffer(IntRaster cover, BitBuffer message, EmbedMode mode) {
+        assert Utils.isCoverLargeEnough(cover, message);
+
+        final long start = Metrics.start();
+        final Object event = Events.begin(Metrics.Stage.EMBED);
+        final IntRaster result = mode.target(cover);
+        final int[] data = result.data();
+        final int[] table = table(result, TraversalOrder.SPIRAL, message.length());
+        final Runs runs = table != null ? null : new Runs(result.height(), result.width(), TraversalOrder.SPIRAL, 0, message.length());
+        final long[] words = message.words();
+
+        long word = 0;
+        for(int i = 0; i < message.length(); ) // Scatter
+        {
+            final int end = table != null ? message.length() : i + Math.min(runs.start(), message.length() - i);
+            final int step = table != null ? 0 : runs.rowStep * result.stride() + runs.colStep;
+            int index = table != null ? 0 : result.index(runs.row, runs.col);
+            if(table == null)
+                runs.advance(end - i);
+            for(; i < end; i++, index += step)
+            {
+                if((i & 63) == 0) // Load the next 64 bits
+                    word = words[i >>> 6];
+                if(table != null)
+                    index = result.offset() + table[i];
+                data[index] = (data[index] & 0xfffffffe) | ((int) word & 1);
+                word >>>= 1;
+            }
+        }
+        Events.end(event, "embedSpiralBitBuffer", cover.width(), cover.height(), message.length(), TraversalOrder.SPIRAL);
+        Metrics.embedded(start, cover.area(), message.length());
+        return result;
+    }
+
+    /**
+     * Reveals a bit buffer which was embedded in the LSB layer of a raster in a spiral fashion
+     * @param hidden A color raster containing bits embedded in its LSB layer
+     * @return The bits extracted from the LSB layer of {@code hidden}, packed
+     * @see Steganography#revealSpiralBitBuffer(int[][])
+     */
+    public static BitBuffer revealSpiralBitBuffer(IntRaster hidden) {
+        assert hidden != null;
+
+        final long start = Metrics.start();
+        final Object event = Events.begin(Metrics.Stage.REVEAL);
+        final BitBuffer buffer = new BitBuffer(hidden.area());
+        final long[] words = buffer.words();
+        final int[] table = table(hidden, TraversalOrder.SPIRAL, buffer.length());
+        final int[] data = hidden.data();
+        final Runs runs = table != null ? null : new Runs(hidden.height(), hidden.width(), TraversalOrder.SPIRAL, 0, buffer.length());
+
+        long word = 0;
+        for(int i = 0; i < buffer.length(); ) // Gather
+        {
+            final int end = table != null ? buffer.length() : i + Math.min(runs.start(), buffer.length() - i);
+            final int step = table != null ? 0 : runs.rowStep * hidden.stride() + runs.colStep;
+            int index = table != null ? 0 : hidden.index(runs.row, runs.col);
+            if(table == null)
+                runs.advance(end - i);
+            for(; i < end; i++, index += step)
+            {
+                if(table != null)
+                    index = hidden.offset() + table[i];
+                word |= (long) (data[index] & 1) << i;
+                if((i & 63) == 63 || i == buffer.length() - 1) // Store every 64 bits
+                {
+                    words[i >>> 6] = word;
+                    word = 0;
+                }
+            }
+        }
+        Events.end(event, "revealSpiralBitBuffer", hidden.width(), hidden.height(), buffer.length(), TraversalOrder.SPIRAL);
+        Metrics.revealed(start, hidden.area(), buffer.length());
+        return buffer;
+    }
+
+    /**
+     * Embeds a boolean array into a color raster's LSB layer using spiral embedding
+     * @param cover The raster in which to embed {@code message}
+     * @param message The boolean array to embed into {@code cover}
+     * @return A <b>copy</b> of {@code cover} with {@code message}'s values embedded in a spiral fashion in the LSB layer
+     * @see Steganography#embedSpiralBitArray(int[][], boolean[])
+     */
+    public static IntRaster embedSpiralBitArray(IntRaster cover, boolean[] message) {
+        return embedSpiralBitBuffer(cover, BitBuffer.fromBitArray(message));
+    }
+
+    /**
+     * Embeds a boolean array into a color raster's LSB layer using spiral embedding
+     * @param cover The raster in which to embed {@code message}
+     * @param message The boolean array to embed into {@code cover}
+     * @param mode Where to write the embedded pixels
+     * @return {@code cover} or a copy of it, as chosen by {@code mode}, with {@code message}'s values embedded in a spiral fashion in the LSB layer
+     * @see Steganography#embedSpiralBitArray(int[][], boolean[], EmbedMode)
+     */
+    public static IntRaster embedSpiralBitArray(IntRaster cover, boolean[] message, EmbedMode mode) {
+        return embedSpiralBitBuffer(cover, BitBuffer.fromBitArray(message), mode);
+    }
+
+    /**
+     * Reveals a boolean array which was embedded in the LSB layer of a raster in a spiral fashion
+     * @param hidden A color raster containing an bit array embedded in its LSB layer
+     * @return The bit array extracted from the LSB layer of {@code hidden}
+     * @see Steganography#revealSpiralBitArray(int[][])
+     */
+    public static boolean[] revealSpiralBitArray(IntRaster hidden) {
+        return revealSpiralBitBuffer(hidden).toBitArray();
+    }
+
+    /*
+     * ********************************************
+     * Multi-bit embedding
+     * ********************************************
+     */
+
+    /**
+     * Embeds a bit buffer into the low bits of the color channels of an image
+     * @param cover The image in which to embed {@code message}
+     * @param message The bits to embed into {@code cover}
+     * @param depth The number of bits per channel, {@code 0} standing for the single LSB of each pixel
+     * @param order The order in which the pixels receive the bits
+     * @return A <b>copy</b> of {@code cover} with {@code message}'s values embedded in {@link #bitsPerPixel(int)} bits per pixel
+     * @see Steganography#embedInChannels(int, int, int)
+     */
+    public static int[][] embedBitBuffer(int[][] cover, BitBuffer message, int depth, TraversalOrder order) {
+        assert Utils.isCoverLargeEnough(cover, message, depth);
+
+        final long start = Metrics.start();
+        final Object event = Events.begin(Metrics.Stage.EMBED);
+        final int[][] copy = EmbedMode.COPY.target(cover);
+        writeBits(copy, order, 0, message, 0, message.length(), depth);
+        Events.end(event, "embedBitBuffer", cover[0].length, cover.length, message.length(), order);
+        Metrics.embedded(start, (long) cover.length * cover[0].length, message.length());
+        return copy;
+    }
+
+    /**
+     * Reveals a bit buffer which was embedded in the low bits of the color channels of an image
+     * @param cover A color image containing bits embedded in its color channels
+     * @param depth The number of bits per channel, {@code 0} standing for the single LSB of each pixel
+     * @param order The order in which the pixels received the bits
+     * @return The {@link #bitsPerPixel(int)} bits of every pixel of {@code cover}, packed
+     * @see Steganography#embedBitBuffer(int[][], BitBuffer, int, TraversalOrder)
+     */
+    public static BitBuffer revealBitBuffer(int[][] cover, int depth, TraversalOrder order) {
+        assert Utils.isImage(cover);
+        assert (long) cover.length * cover[0].length * bitsPerPixel(depth) <= Integer.MAX_VALUE;
+
+        final long start = Metrics.start();
+        final Object event = Events.begin(Metrics.Stage.REVEAL);
+        final BitBuffer buffer = new BitBuffer(cover.length * cover[0].length * bitsPerPixel(depth));
+        readBits(cover, order, 0, buffer, 0, buffer.length(), depth);
+        Events.end(event, "revealBitBuffer", cover[0].length, cover.length, buffer.length(), order);
+        Metrics.revealed(start, (long) cover.length * cover[0].length, buffer.length());
+        return buffer;
+    }
+
+    /**
+     * Embeds a framed payload into an image, its header in the single LSB of the first pixels and its data at a given depth.
+     * The depth is recorded in the header, so that {@link #revealPayload(int[][], TraversalOrder)} needs not be told.
+     * @param cover The image in which to embed the payload
+     * @param payload The payload to be embedded, whose own depth is ignored
+     * @param depth The number of bits per channel for the data, {@code 0} standing for the single LSB of each pixel
+     * @param order The order in which the pixels receive the bits
+     * @return A <b>copy</b> of {@code cover} with {@code payload} embedded in it
+     * @see Payload#getDepth()
+     */
+    public static int[][] embedPayload(int[][] cover, Payload payload, int depth, TraversalOrder order) {
+        final Payload framed = payload.withDepth(depth);
+        assert Utils.isImage(cover) && (long) cover.length * cover[0].length >= framed.pixels();
+
+        final BitBuffer bits = framed.toBitBuffer();
+        final long start = Metrics.start();
+        final Object event = Events.begin(Metrics.Stage.EMBED);
+        final int[][] copy = EmbedMode.COPY.target(cover);
+        writeBits(copy, order, 0, bits, 0, Payload.HEADER_SIZE, 0);
+        writeBits(copy, order, Payload.HEADER_SIZE, bits, Payload.HEADER_SIZE, bits.length() - Payload.HEADER_SIZE, depth);
+        Events.end(event, "embedPayload", cover[0].length, cover.length, bits.length(), order);
+        Metrics.embedded(start, (long) cover.length * cover[0].length, bits.length());
+        return copy;
+    }
+
+    /**
+     * Reveals a framed payload which was embedded in an image, at the depth recorded in its header.
+     * Only the pixels covered by the header and the data it announces are read.
+     * @param cover A color image possibly containing a payload
+     * @param order The order in which the pixels received the bits
+     * @return The payload, or {@code null} if {@code cover} does not hold a valid one
+     * @see Steganography#embedPayload(int[][], Payload, int, TraversalOrder)
+     */
+    public static Payload revealPayload(int[][] cover, TraversalOrder order) {
+        assert Utils.isImage(cover);
+
+        final long pixels = (long) cover.length * cover[0].length;
+        if(pixels < Payload.HEADER_SIZE)
+            return null;
+
+        final long start = Metrics.start();
+        final Object event = Events.begin(Metrics.Stage.REVEAL);
+        final BitBuffer header = new BitBuffer(Payload.HEADER_SIZE);
+        readBits(cover, order, 0, header, 0, Payload.HEADER_SIZE, 0);
+        final long size = Payload.dataSize(header);
+        final int depth = Payload.flags(header) & Payload.DEPTH_MASK;
+        if(size < 0 || Payload.HEADER_SIZE + size > Integer.MAX_VALUE
+                || depth > MAX_DEPTH || Payload.pixels(size, depth) > pixels) // Not a payload, or a truncated one
+        {
+            Events.end(event, "revealPayload", cover[0].length, cover.length, Payload.HEADER_SIZE, order);
+            return null; // Not measured, the unframed reveal following this probe is
+        }
+
+        final BitBuffer bits;
+        if(depth == 0 && order == TraversalOrder.LINEAR) // Packed linear LSB
+        {
+            bits = readLinear(cover, 0, (int) (Payload.HEADER_SIZE + size));
+        }
+        else
+        {
+            bits = new BitBuffer((int) (Payload.HEADER_SIZE + size));
+            System.arraycopy(header.words(), 0, bits.words(), 0, header.words().length); // The header is word aligned
+            readBits(cover, order, Payload.HEADER_SIZE, bits, Payload.HEADER_SIZE, (int) size, depth);
+        }
+        Events.end(event, "revealPayload", cover[0].length, cover.length, bits.length(), order);
+        Metrics.revealed(start, Payload.pixels(size, depth), bits.length());
+        return Payload.fromBitBuffer(bits);
+    }
+
+    /**
+     * Embeds a bit buffer into the low bits of the color channels of a raster
+     * @param cover The raster in which to embed {@code message}
+     * @param message The bits to embed into {@code cover}
+     * @param depth The number of bits per channel, {@code 0} standing for the single LSB of each pixel
+     * @param order The order in which the pixels receive the bits
+     * @return A <b>copy</b> of {@code cover} with {@code message}'s values embedded in {@link #bitsPerPixel(int)} bits per pixel
+     * @see Steganography#embedBitBuffer(int[][], BitBuffer, int, TraversalOrder)
+     */
+    public static IntRaster embedBitBuffer(IntRaster cover, BitBuffer message, int depth, TraversalOrder order) {
+        assert Utils.isCoverLargeEnough(cover, message, depth);
+
+        final long start = Metrics.start();
+        final Object event = Events.begin(Metrics.Stage.EMBED);
+        final IntRaster copy = cover.copy();
+        final int[] table = table(copy, order, pixels(message.length(), depth));
+        writeBits(copy, order, table, 0, message, 0, message.length(), depth);
+        Events.end(event, "embedBitBuffer", cover.width(), cover.height(), message.length(), order);
+        Metrics.embedded(start, cover.area(), message.length());
+        return copy;
+    }
+
+    /**
+     * Reveals a bit buffer which was embedded in the low bits of the color channels of a raster
+     * @param cover A color raster containing bits embedded in its color channels
+     * @param depth The number of bits per channel, {@code 0} standing for the single LSB of each pixel
+     * @param order The order in which the pixels received the bits
+     * @return The {@link #bitsPerPixel(int)} bits of every pixel of {@code cover}, packed
+     * @see Steganography#revealBitBuffer(int[][], int, TraversalOrder)
+     */
+    public static BitBuffer revealBitBuffer(IntRaster cover, int depth, TraversalOrder order) {
+        assert cover != null && (long) cover.area() * bitsPerPixel(depth) <= Integer.MAX_VALUE;
+
+        final long start = Metrics.start();
+        final Object event = Events.begin(Metrics.Stage.REVEAL);
+        final BitBuffer buffer = new BitBuffer(cover.area() * bitsPerPixel(depth));
+        readBits(cover, order, table(cover, order, cover.area()), 0, buffer, 0, buffer.length(), depth);
+        Events.end(event, "revealBitBuffer", cover.width(), cover.height(), buffer.length(), order);
+        Metrics.revealed(start, cover.area(), buffer.length());
+        return buffer;
+    }
+
+    /**
+     * Embeds a framed payload into a raster, its header in the single LSB of the first pixels and its data at a given depth
+     * @param cover The raster in which to embed the payload
+     * @param payload The payload to be embedded, whose own depth is ignored
+     * @param depth The number of bits per channel for the data, {@code 0} standing for the single LSB of each pixel
+     * @param order The order in which the pixels receive the bits
+     * @return A <b>copy</b> of {@code cover} with {@code payload} embedded in it
+     * @see Steganography#embedPayload(int[][], Payload, int, TraversalOrder)
+     */
+    public static IntRaster embedPayload(IntRaster cover, Payload payload, int depth, TraversalOrder order) {
+        final Payload framed = payload.withDepth(depth);
+        assert cover != null && cover.area() >= framed.pixels();
+
+        final BitBuffer bits = framed.toBitBuffer();
+        final long start = Metrics.start();
+        final Object event = Events.begin(Metrics.Stage.EMBED);
+        final IntRaster copy = cover.copy();
+        final int[] table = table(copy, order, framed.pixels());
+        writeBits(copy, order, table, 0, bits, 0, Payload.HEADER_SIZE, 0);
+        writeBits(copy, order, table, Payload.HEADER_SIZE, bits, Payload.HEADER_SIZE, bits.length() - Payload.HEADER_SIZE, depth);
+        Events.end(event, "embedPayload", cover.width(), cover.height(), bits.length(), order);
+        Metrics.embedded(start, cover.area(), bits.length());
+        return copy;
+    }
+
+    /**
+     * Reveals a framed payload which was embedded in a raster, at the depth recorded in its header
+     * @param cover A color raster possibly containing a payload
+     * @param order The order in which the pixels received the bits
+     * @return The payload, or {@code null} if {@code cover} does not hold a valid one
+     * @see Steganography#revealPayload(int[][], TraversalOrder)
+     */
+    public static Payload revealPayload(IntRaster cover, TraversalOrder order) {
+        assert cover != null;
+
+        if(cover.area() < Payload.HEADER_SIZE)
+            return null;
+
+        final long start = Metrics.start();
+        final Object event = Events.begin(Metrics.Stage.REVEAL);
+        final int[] cached = cachedTable(cover, order); // Never built for the header alone
+        final BitBuffer header = new BitBuffer(Payload.HEADER_SIZE);
+        readBits(cover, order, cached, 0, header, 0, Payload.HEADER_SIZE, 0); // Views are read in place
+        final long size = Payload.dataSize(header);
+        final int depth = Payload.flags(header) & Payload.DEPTH_MASK;
+        if(size < 0 || Payload.HEADER_SIZE + size > Integer.MAX_VALUE
+                || depth > MAX_DEPTH || Payload.pixels(size, depth) > cover.area()) // Not a payload, or a truncated one
+        {
+            Events.end(event, "revealPayload", cover.width(), cover.height(), Payload.HEADER_SIZE, order);
+            return null; // Not measured, the unframed reveal following this probe is
+        }
+
+        final BitBuffer bits;
+        if(depth == 0 && order == TraversalOrder.LINEAR) // Packed linear LSB
+        {
+            bits = readLinear(cover, 0, (int) (Payload.HEADER_SIZE + size));
+        }
+        else
+        {
+            final int[] table = cached != null ? cached : table(cover, order, Payload.pixels(size, depth));
+            bits = new BitBuffer((int) (Payload.HEADER_SIZE + size));
+            System.arraycopy(header.words(), 0, bits.words(), 0, header.words().length); // The header is word aligned
+            readBits(cover, order, table, Payload.HEADER_SIZE, bits, Payload.HEADER_SIZE, (int) size, depth);
+        }
+        Events.end(event, "revealPayload", cover.width(), cover.height(), bits.length(), order);
+        Metrics.revealed(start, Payload.pixels(size, depth), bits.length());
+        return Payload.fromBitBuffer(bits);
+    }
+
+    /**
+     * Gets the image held by a payload, if it is a compressed black and white image.
+     * @param payload a revealed payload, possibly {@code null}
+     * @return the image, or {@code null} if {@code payload} does not hold one
+     */
+    private static BitRaster compressedImage(Payload payload) {
+        return payload != null && payload.getType() == Payload.TYPE_BW_IMAGE ? payload.getImage() : null;
+    }
+
+    /**
+     * Gets the traversal table of an order for a raster, when it is worth using for a given number of pixels.
+     * @param raster the raster
+     * @param order the traversal order
+     * @param pixels the number of pixels to visit
+     * @return the shared table, or {@code null} for the linear order whose table is the identity, for a view whose
+     * rows are apart, and for a spiral which is cheaper to walk in {@link Runs}
+     * @see #spiralTable(int, int, long)
+     */
+    private static int[] table(IntRaster raster, TraversalOrder order, long pixels) {
+        if(order == TraversalOrder.LINEAR || !raster.isContiguous())
+            return null;
+        return spiralTable(raster.height(), raster.width(), pixels);
+    }
+
+    /**
+     * Gets the traversal table of an order for a raster only if it is already cached, for reads too short to pay for building it.
+     * @param raster the raster
+     * @param order the traversal order
+     * @return the shared table, or {@code null} for the linear order, for a view and for a spiral which is not cached
+     */
+    private static int[] cachedTable(IntRaster raster, TraversalOrder order) {
+        if(order == TraversalOrder.LINEAR || !raster.isContiguous())
+            return null;
+        return TraversalCache.getDefault().peek(raster.height(), raster.width(), order);
+    }
+
+    /**
+     * Gets the spiral table of a cover size if it is cached, or builds and caches it if the cache can keep it and the
+     * pixels to visit are enough to pay for building it. Walking the spiral in {@link Runs} visits only these pixels,
+     * while a table costs four bytes and a step for every pixel of the cover.
+     * @param rows the number of rows
+     * @param cols the number of columns
+     * @param pixels the number of pixels to visit
+     * @return the shared table, or {@code null} if walking the spiral in {@link Runs} is cheaper
+     */
+    private static int[] spiralTable(int rows, int cols, long pixels) {
+        final TraversalCache cache = TraversalCache.getDefault();
+        final int[] table = cache.peek(rows, cols, TraversalOrder.SPIRAL);
+        if(table != null || !cache.fits(rows, cols) || pixels * SPIRAL_TABLE_RATIO < (long) rows * cols)
+            return table;
+        return cache.get(rows, cols, TraversalOrder.SPIRAL);
+    }
+
+    /**
+     * Computes the number of pixels holding a number of bits.
+     * @param bits the number of bits
+     * @param depth the number of bits per channel
+     * @return the number of pixels
+     */
+    private static long pixels(long bits, int depth) {
+        final int step = bitsPerPixel(depth);
+        return (bits + step - 1) / step;
+    }
+
+    /**
+     * Writes a range of bits into consecutive pixels of an image, in traversal order.
+     * @param image the image to modify
+     * @param order the traversal order
+     * @param pixel the position in traversal order of the first pixel to write
+     * @param bits the bits to write
+     * @param from the index of the first bit
+     * @param count the number of bits
+     * @param depth the number of bits per channel
+     */
+    private static void writeBits(int[][] image, TraversalOrder order, int pixel, BitBuffer bits, int from, int count, int depth) {
+        if(count == 0)
+            return;
+        final int step = bitsPerPixel(depth);
+        final Runs runs = new Runs(image.length, image[0].length, order, pixel, pixels(count, depth));
+        for(int i = 0; i < count; )
+        {
+            final int end = (int) Math.min(count, i + (long) runs.start() * step);
+            runs.advance((int) pixels(end - i, depth));
+            for(int row = runs.row, col = runs.col; i < end; i += step, row += runs.rowStep, col += runs.colStep)
+                image[row][col] = embedInChannels(image[row][col], (int) bits.getBits(from + i, Math.min(step, count - i)), depth);
+        }
+    }
+
+    /**
+     * Reads a range of bits from consecutive pixels of an image, in traversal order.
+     * @param image the image to read
+     * @param order the traversal order
+     * @param pixel the position in traversal order of the first pixel to read
+     * @param bits the buffer receiving the bits
+     * @param from the index of the first bit
+     * @param count the number of bits
+     * @param depth the number of bits per channel
+     */
+    private static void readBits(int[][] image, TraversalOrder order, int pixel, BitBuffer bits, int from, int count, int depth) {
+        if(count == 0)
+            return;
+        final int step = bitsPerPixel(depth);
+        final Runs runs = new Runs(image.length, image[0].length, order, pixel, pixels(count, depth));
+        for(int i = 0; i < count; )
+        {
+            final int end = (int) Math.min(count, i + (long) runs.start() * step);
+            runs.advance((int) pixels(end - i, depth));
+            for(int row = runs.row, col = runs.col; i < end; i += step, row += runs.rowStep, col += runs.colStep)
+                bits.setBits(from + i, Math.min(step, count - i), getChannelBits(image[row][col], depth));
+        }
+    }
+
+    /**
+     * Writes a range of bits into consecutive pixels of a raster, in traversal order.
+     * @param table the traversal table of a compact raster, {@code null} to walk the order in {@link Runs}
+     * @see #writeBits(int[][], TraversalOrder, int, BitBuffer, int, int, int)
+     */
+    private static void writeBits(IntRaster raster, TraversalOrder order, int[] table, int pixel, BitBuffer bits, int from, int count, int depth) {
+        if(count == 0)
+            return;
+        final int[] data = raster.data();
+        final int step = bitsPerPixel(depth);
+        final Runs runs = table != null ? null : new Runs(raster.height(), raster.width(), order, pixel, pixels(count, depth));
+        for(int i = 0; i < count; )
+        {
+            final int end = runs == null ? count : (int) Math.min(count, i + (long) runs.start() * step);
+            final int delta = runs == null ? 0 : runs.rowStep * raster.stride() + runs.colStep;
+            int index = runs == null ? 0 : raster.index(runs.row, runs.col);
+            if(runs != null)
+                runs.advance((int) pixels(end - i, depth));
+            for(; i < end; i += step, index += delta)
+            {
+                if(runs == null)
+                    index = raster.offset() + table[pixel++];
+                data[index] = embedInChannels(data[index], (int) bits.getBits(from + i, Math.min(step, count - i)), depth);
+            }
+        }
+    }
+
+    /**
+     * Reads a range of bits from consecutive pixels of a raster, in traversal order.
+     * @param table the traversal table of a compact raster, {@code null} to walk the order in {@link Runs}
+     * @see #readBits(int[][], TraversalOrder, int, BitBuffer, int, int, int)
+     */
+    private static void readBits(IntRaster raster, TraversalOrder order, int[] table, int pixel, BitBuffer bits, int from, int count, int depth) {
+        if(count == 0)
+            return;
+        final int[] data = raster.data();
+        final int step = bitsPerPixel(depth);
+        final Runs runs = table != null ? null : new Runs(raster.height(), raster.width(), order, pixel, pixels(count, depth));
+        for(int i = 0; i < count; )
+        {
+            final int end = runs == null ? count : (int) Math.min(count, i + (long) runs.start() * step);
+            final int delta = runs == null ? 0 : runs.rowStep * raster.stride() + runs.colStep;
+            int index = runs == null ? 0 : raster.index(runs.row, runs.col);
+            if(runs != null)
+                runs.advance((int) pixels(end - i, depth));
+            for(; i < end; i += step, index += delta)
+            {
+                if(runs == null)
+                    index = raster.offset() + table[pixel++];
+                bits.setBits(from + i, Math.min(step, count - i), getChannelBits(data[index], depth));
+            }
+        }
+    }
+
+    /**
+     * Walk the pixels of a traversal order as straight runs: the rows for the linear order, the sides of the rings
+     * for the spiral. The pixels of a run are reached by adding a step to the position of the first one, without
+     * dividing an index nor reading a table. The time spent positioning and turning the cursor of a spiral is
+     * recorded as the {@link Metrics.Stage#TRAVERSE} stage once all the pixels are walked.
+     */
+    private static final class Runs {
+        private final int cols;
+        private final SpiralCursor cursor; // null for the linear order
+        private int pixel; // Position in the linear order
+        private final long pixels;
+        private long walked, nanos;
+
+        /**
+         * The first pixel of the current run, and the change of row and column from one pixel to the next.
+         */
+        int row, col, rowStep, colStep;
+
+        /**
+         * @param pixel the position in traversal order of the first pixel, less than {@code rows * cols}
+         * @param pixels the number of pixels to walk
+         */
+        Runs(int rows, int cols, TraversalOrder order, int pixel, long pixels) {
+            final long start = Metrics.start();
+            this.cols = cols;
+            this.cursor = order == TraversalOrder.SPIRAL ? new SpiralCursor(rows, cols, pixel) : null;
+            this.pixel = pixel;
+            this.pixels = pixels;
+            if(start != 0)
+                nanos = System.nanoTime() - start;
+        }
+
+        /**
+         * Positions the fields on the current run.
+         * @return the number of pixels left in the run
+         */
+        int start() {
+            if(cursor != null)
+            {
+                row = cursor.getRow();
+                col = cursor.getCol();
+                rowStep = cursor.getRowStep();
+                colStep = cursor.getColStep();
+                return cursor.getRun();
+            }
+            row = pixel / cols; // Once per row
+            col = pixel - row * cols;
+            rowStep = 0;
+            colStep = 1;
+            return cols - col;
+        }
+
+        /**
+         * Moves past pixels of the current run, leaving the fields on its first pixel.
+         * @param pixels the number of pixels, at most the value returned by {@link #start()}
+         */
+        void advance(int pixels) {
+            if(cursor == null)
+            {
+                pixel += pixels;
+                return;
+            }
+            final long start = Metrics.start();
+            cursor.advance(pixels);
+            if(start == 0)
+                return;
+            nanos += System.nanoTime() - start;
+            walked += pixels;
+            if(walked == this.pixels) // Measured as a whole, like a table
+                Metrics.record(Metrics.Stage.TRAVERSE, nanos, walked);
+        }
+    }
+
+    /*
+     * ********************************************
+     * Parallel linear embedding
+     * ********************************************
+     */
+
+    /**
+     * Embeds a black and white image into a color image's LSB layer using linear embedding, on the default pool
+     * @param cover The image in which to embed {@code message}
+     * @param message The image to embed into {@code cover}
+     * @return A <b>copy</b> of {@code cover}, identical to the result of {@link #embedBWImage(int[][], boolean[][])}
+     * @see Parallel#getPool()
+     */
+    public static int[][] embedBWImageParallel(int[][] cover, boolean[][] message) {
+        return embedBWImageParallel(cover, message, Parallel.getPool());
+    }
+
+    /**
+     * Embeds a black and white image into a color image's LSB layer using linear embedding, processing bands of rows concurrently
+     * @param cover The image in which to embed {@code message}
+     * @param message The image to embed into {@code cover}
+     * @param pool The pool running the bands
+     * @return A <b>copy</b> of {@code cover}, identical to the result of {@link #embedBWImage(int[][], boolean[][])}
+     * @see Parallel#forRows
+     */
+    public static int[][] embedBWImageParallel(final int[][] cover, final boolean[][] message, ForkJoinPool pool) {
+        assert Utils.isCoverLargeEnough(cover, message);
+
+        final long start = Metrics.start();
+        final Object event = Events.begin(Metrics.Stage.EMBED);
+        final long bits = message.length == 0 ? 0 : (long) message.length * message[0].length;
+        final int[][] copy = new int[cover.length][];
+        Parallel.forRows(pool, cover.length, cover[0].length, new Parallel.Rows() {
+            @Override
+            public void process(int from, int to) {
+                for(int row = from; row < to; row++)
+                {
+                    final int[] line = cover[row].clone(); // Pixels outside the message keep their LSB
+                    if(row < message.length)
+                    {
+                        for(int col = 0; col < message[0].length; col++)
+                            line[col] = embedInLSB(line[col], message[row][col]);
+                    }
+                    copy[row] = line;
+                }
+            }
+        });
+        Events.end(event, "embedBWImageParallel", cover[0].length, cover.length, bits, TraversalOrder.LINEAR);
+        Metrics.embedded(start, (long) cover.length * cover[0].length, bits);
+        return copy;
+    }
+
+    /**
+     * Reveals a black and white image which was embedded in the LSB layer of another, on the default pool
+     * @param cover A color image containing an image embedded in its LSB layer
+     * @return The image extracted from the LSB layer of {@code cover}, identical to {@link #revealBWImage(int[][])}
+     * @see Parallel#getPool()
+     */
+    public static boolean[][] revealBWImageParallel(int[][] cover) {
+        return revealBWImageParallel(cover, Parallel.getPool());
+    }
+
+    /**
+     * Reveals a black and white image which was embedded in the LSB layer of another, processing bands of rows concurrently
+     * @param cover A color image containing an image embedded in its LSB layer
+     * @param pool The pool running the bands
+     * @return The image extracted from the LSB layer of {@code cover}, identical to {@link #revealBWImage(int[][])}
+     * @see Parallel#forRows
+     */
+    public static boolean[][] revealBWImageParallel(final int[][] cover, ForkJoinPool pool) {
+        assert Utils.isImage(cover);
+
+        final BitRaster compressed = compressedImage(revealPayload(cover));
+        if(compressed != null)
+            return compressed.toArray();
+
+        final long start = Metrics.start();
+        final Object event = Events.begin(Metrics.Stage.REVEAL);
+        final boolean[][] reveal = new boolean[cover.length][cover[0].length];
+        Parallel.forRows(pool, cover.length, cover[0].length, new Parallel.Rows() {
+            @Override
+            public void process(int from, int to) {
+                for(int row = from; row < to; row++)
+                {
+                    for(int col = 0; col < cover[0].length; col++)
+                        reveal[row][col] = getLSB(cover[row][col]);
+                }
+            }
+        });
+        Events.end(event, "revealBWImageParallel", cover[0].length, cover.length, (long) cover.length * cover[0].length, TraversalOrder.LINEAR);
+        Metrics.revealed(start, (long) cover.length * cover[0].length, (long) cover.length * cover[0].length);
+        return reveal;
+    }
+
+    /**
+     * Embeds a boolean array into the LSB layer of a color image in a linear fashion, on the default pool
+     * @param cover The image in which to embed the bit array
+     * @param message The boolean array to be embedded
+     * @return A <b>copy</b> of {@code cover}, identical to the result of {@link #embedBitArray(int[][], boolean[])}
+     * @see Parallel#getPool()
+     */
+    public static int[][] embedBitArrayParallel(int[][] cover, boolean[] message) {
+        return embedBitArrayParallel(cover, message, Parallel.getPool());
+    }
+
+    /**
+     * Embeds a boolean array into the LSB layer of a color image in a linear fashion, processing bands of rows concurrently.
+     * The bits of a band start at offset {@code row * width} of {@code message}.
+     * @param cover The image in which to embed the bit array
+     * @param message The boolean array to be embedded
+     * @param pool The pool running the bands
+     * @return A <b>copy</b> of {@code cover}, identical to the result of {@link #embedBitArray(int[][], boolean[])}
+     * @see Parallel#forRows
+     */
+    public static int[][] embedBitArrayParallel(final int[][] cover, final boolean[] message, ForkJoinPool pool) {
+        assert Utils.isCoverLargeEnough(cover, message);
+
+        final int width = cover[0].length;
+        final long start = Metrics.start();
+        final Object event = Events.begin(Metrics.Stage.EMBED);
+        final int[][] copy = new int[cover.length][];
+        Parallel.forRows(pool, cover.length, width, new Parallel.Rows() {
+            @Override
+            public void process(int from, int to) {
+                for(int row = from; row < to; row++)
+                {
+                    final int[] line = cover[row].clone(); // Pixels past the message are copied as is
+                    final int offset = row * width;
+                    final int count = Math.max(0, Math.min(width, message.length - offset));
+                    for(int col = 0; col < count; col++)
+                        line[col] = embedInLSB(line[col], message[offset + col]);
+                    copy[row] = line;
+                }
+            }
+        });
+        Events.end(event, "embedBitArrayParallel", cover[0].length, cover.length, message.length, TraversalOrder.LINEAR);
+        Metrics.embedded(start, (long) cover.length * cover[0].length, message.length);
+        return copy;
+    }
+
+    /**
+     * Reveals a boolean array which was embedded in the LSB layer of an image, on the default pool
+     * @param cover A color image containing an bit array embedded in its LSB layer
+     * @return The bit array extracted from the LSB layer of {@code cover}, identical to {@link #revealBitArray(int[][])}
+     * @see Parallel#getPool()
+     */
+    public static boolean[] revealBitArrayParallel(int[][] cover) {
+        return revealBitArrayParallel(cover, Parallel.getPool());
+    }
+
+    /**
+     * Reveals a boolean array which was embedded in the LSB layer of an image, processing bands of rows concurrently
+     * @param cover A color image containing an bit array embedded in its LSB layer
+     * @param pool The pool running the bands
+     * @return The bit array extracted from the LSB layer of {@code cover}, identical to {@link #revealBitArray(int[][])}
+     * @see Parallel#forRows
+     */
+    public static boolean[] revealBitArrayParallel(final int[][] cover, ForkJoinPool pool) {
+        assert Utils.isImage(cover);
+
+        final int width = cover[0].length;
+        final long start = Metrics.start();
+        final Object event = Events.begin(Metrics.Stage.REVEAL);
+        final boolean[] array = new boolean[cover.length * width];
+        Parallel.forRows(pool, cover.length, width, new Parallel.Rows() {
+            @Override
+            public void process(int from, int to) {
+                for(int row = from; row < to; row++)
+                {
+                    final int offset = row * width;
+                    for(int col = 0; col < width; col++)
+                        array[offset + col] = getLSB(cover[row][col]);
+                }
+            }
+        });
+        Events.end(event, "revealBitArrayParallel", cover[0].length, cover.length, array.length, TraversalOrder.LINEAR);
+        Metrics.revealed(start, (long) cover.length * cover[0].length, array.length);
+        return array;
+    }
+
+    /**
+     * Embeds a bit buffer into the LSB layer of a color image in a linear fashion, on the default pool
+     * @param cover The image in which to embed the bit buffer
+     * @param message The bits to be embedded
+     * @return A <b>copy</b> of {@code cover}, identical to the result of {@link #embedBitBuffer(int[][], BitBuffer)}
+     * @see Parallel#getPool()
+     */
+    public static int[][] embedBitBufferParallel(int[][] cover, BitBuffer message) {
+        return embedBitBufferParallel(cover, message, Parallel.getPool());
+    }
+
+    /**
+     * Embeds a bit buffer into the LSB layer of a color image in a linear fashion, processing bands of rows concurrently
+     * @param cover The image in which to embed the bit buffer
+     * @param message The bits to be embedded
+     * @param pool The pool running the bands
+     * @return A <b>copy</b> of {@code cover}, identical to the result of {@link #embedBitBuffer(int[][], BitBuffer)}
+     * @see Parallel#forRows
+     */
+    public static int[][] embedBitBufferParallel(final int[][] cover, final BitBuffer message, ForkJoinPool pool) {
+        assert Utils.isCoverLargeEnough(cover, message);
+
+        final int width = cover[0].length;
+        final long[] words = message.words();
+        final long start = Metrics.start();
+        final Object event = Events.begin(Metrics.Stage.EMBED);
+        final int[][] copy = new int[cover.length][];
+        Parallel.forRows(pool, cover.length, width, new Parallel.Rows() {
+            @Override
+            public void process(int from, int to) {
+                for(int row = from; row < to; row++)
+                {
+                    final int[] line = cover[row].clone(); // Pixels past the message are copied as is
+                    final int offset = row * width;
+                    final int count = Math.max(0, Math.min(width, message.length() - offset));
+                    for(int col = 0; col < count; col++)
+                    {
+                        final int i = offset + col;
+                        line[col] = (line[col] & 0xfffffffe) | (int) ((words[i >>> 6] >>> i) & 1);
+                    }
+                    copy[row] = line;
+                }
+            }
+        });
+        Events.end(event, "embedBitBufferParallel", cover[0].length, cover.length, message.length(), TraversalOrder.LINEAR);
+        Metrics.embedded(start, (long) cover.length * cover[0].length, message.length());
+        return copy;
+    }
+
+    /**
+     * Reveals a bit buffer which was embedded in the LSB layer of an image, on the default pool
+     * @param cover A color image containing bits embedded in its LSB layer
+     * @return The bits extracted from the LSB layer of {@code cover}, identical to {@link #revealBitBuffer(int[][])}
+     * @see Parallel#getPool()
+     */
+    public static BitBuffer revealBitBufferParallel(int[][] cover) {
+        return revealBitBufferParallel(cover, Parallel.getPool());
+    }
+
+    /**
+     * Reveals a bit buffer which was embedded in the LSB layer of an image, processing bands of 64-bit words concurrently
+     * so that no word of the result is shared by two bands
+     * @param cover A color image containing bits embedded in its LSB layer
+     * @param pool The pool running the bands
+     * @return The bits extracted from the LSB layer of {@code cover}, identical to {@link #revealBitBuffer(int[][])}
+     * @see Parallel#forRows
+     */
+    public static BitBuffer revealBitBufferParallel(final int[][] cover, ForkJoinPool pool) {
+        assert Utils.isImage(cover);
+
+        final int width = cover[0].length;
+        final long start = Metrics.start();
+        final Object event = Events.begin(Metrics.Stage.REVEAL);
+        final BitBuffer buffer = new BitBuffer(cover.length * width);
+        final long[] words = buffer.words();
+        Parallel.forRows(pool, words.length, Long.SIZE, new Parallel.Rows() { // One "row" per word
+            @Override
+            public void process(int from, int to) {
+                final int first = from * Long.SIZE, last = (int) Math.min((long) to * Long.SIZE, buffer.length());
+                int row = first / width, col = first % width;
+                long word = 0;
+                for(int i = first; i < last; i++)
+                {
+                    word |= (long) (cover[row][col] & 1) << i;
+                    if((i & 63) == 63 || i == last - 1) // Store every 64 bits
+                    {
+                        words[i >>> 6] = word;
+                        word = 0;
+                    }
+                    if(++col == width)
+                    {
+                        col = 0;
+                        row++;
+                    }
+                }
+            }
+        });
+        Events.end(event, "revealBitBufferParallel", cover[0].length, cover.length, buffer.length(), TraversalOrder.LINEAR);
+        Metrics.revealed(start, (long) cover.length * cover[0].length, buffer.length());
+        return buffer;
+    }
+
+    /*
+     * ********************************************
+     * Parallel spiral embedding
+     * ********************************************
+     */
+
+    /**
+     * Embeds a bit buffer into a color image's LSB layer using spiral embedding, on the default pool
+     * @param cover The image in which to embed {@code message}
+     * @param message The bits to embed into {@code cover}
+     * @return A <b>copy</b> of {@code cover}, identical to the result of {@link #embedSpiralBitBuffer(int[][], BitBuffer)}
+     * @see Parallel#getPool()
+     */
+    public static int[][] embedSpiralBitBufferParallel(int[][] cover, BitBuffer message) {
+        return embedSpiralBitBufferParallel(cover, message, Parallel.getPool());
+    }
+
+    /**
+     * Embeds a bit buffer into a color image's LSB layer using spiral embedding.
+     * The spiral is cut into segments which are positioned in constant time and filled concurrently.
+     * @param cover The image in which to embed {@code message}
+     * @param message The bits to embed into {@code cover}
+     * @param pool The pool running the segments
+     * @return A <b>copy</b> of {@code cover}, identical to the result of {@link #embedSpiralBitBuffer(int[][], BitBuffer)}
+     */
+    public static int[][] embedSpiralBitBufferParallel(final int[][] cover, final BitBuffer message, ForkJoinPool pool) {
+        assert Utils.isCoverLargeEnough(cover, message);
+
+        final long start = Metrics.start();
+        final Object event = Events.begin(Metrics.Stage.EMBED);
+        final int[][] copy = new int[cover.length][];
+        for(int row = 0; row < cover.length; row++) // Copy the cover
+            copy[row] = cover[row].clone();
+
+        pool.invoke(new SpiralEmbedTask(copy, message, 0, message.length()));
+        Events.end(event, "embedSpiralBitBufferParallel", cover[0].length, cover.length, message.length(), TraversalOrder.SPIRAL);
+        Metrics.embedded(start, (long) cover.length * cover[0].length, message.length());
+        return copy;
+    }
+
+    /**
+     * Reveals a bit buffer which was embedded in the LSB layer of an image in a spiral fashion, on the default pool
+     * @param hidden A color image containing bits embedded in its LSB layer
+     * @return The bits extracted from the LSB layer of {@code hidden}, identical to {@link #revealSpiralBitBuffer(int[][])}
+     * @see Parallel#getPool()
+     */
+    public static BitBuffer revealSpiralBitBufferParallel(int[][] hidden) {
+        return revealSpiralBitBufferParallel(hidden, Parallel.getPool());
+    }
+
+    /**
+     * Reveals a bit buffer which was embedded in the LSB layer of an image in a spiral fashion.
+     * The spiral is cut into segments which are positioned in constant time and read concurrently.
+     * @param hidden A color image containing bits embedded in its LSB layer
+     * @param pool The pool running the segments
+     * @return The bits extracted from the LSB layer of {@code hidden}, identical to {@link #revealSpiralBitBuffer(int[][])}
+     */
+    public static BitBuffer revealSpiralBitBufferParallel(int[][] hidden, ForkJoinPool pool) {
+        assert Utils.isImage(hidden);
+
+        final long start = Metrics.start();
+        final Object event = Events.begin(Metrics.Stage.REVEAL);
+        final BitBuffer buffer = new BitBuffer(hidden.length * hidden[0].length);
+        pool.invoke(new SpiralRevealTask(hidden, buffer, 0, buffer.length()));
+        Events.end(event, "revealSpiralBitBufferParallel", hidden[0].length, hidden.length, buffer.length(), TraversalOrder.SPIRAL);
+        Metrics.revealed(start, (long) hidden.length * hidden[0].length, buffer.length());
+        return buffer;
+    }
+
+    /**
+     * Embeds a bit buffer into a color raster's LSB layer using spiral embedding, on the default pool
+     * @param cover The raster in which to embed {@code message}
+     * @param message The bits to embed into {@code cover}
+     * @return A <b>copy</b> of {@code cover}, identical to the result of {@link #embedSpiralBitBuffer(IntRaster, BitBuffer)}
+     * @see Parallel#getPool()
+     */
+    public static IntRaster embedSpiralBitBufferParallel(IntRaster cover, BitBuffer message) {
+        return embedSpiralBitBufferParallel(cover, message, Parallel.getPool());
+    }
+
+    /**
+     * Embeds a bit buffer into a color raster's LSB layer using spiral embedding, filling segments of the spiral concurrently
+     * @param cover The raster in which to embed {@code message}
+     * @param message The bits to embed into {@code cover}
+     * @param pool The pool running the segments
+     * @return A <b>copy</b> of {@code cover}, identical to the result of {@link #embedSpiralBitBuffer(IntRaster, BitBuffer)}
+     */
+    public static IntRaster embedSpiralBitBufferParallel(IntRaster cover, BitBuffer message, ForkJoinPool pool) {
+        assert Utils.isCoverLargeEnough(cover, message);
+
+        final long start = Metrics.start();
+        final Object event = Events.begin(Metrics.Stage.EMBED);
+        final IntRaster copy = cover.copy();
+        pool.invoke(new SpiralEmbedTask(copy, message, 0, message.length()));
+        Events.end(event, "embedSpiralBitBufferParallel", cover.width(), cover.height(), message.length(), TraversalOrder.SPIRAL);
+        Metrics.embedded(start, cover.area(), message.length());
+        return copy;
+    }
+
+    /**
+     * Reveals a bit buffer which was embedded in the LSB layer of a raster in a spiral fashion, on the default pool
+     * @param hidden A color raster containing bits embedded in its LSB layer
+     * @return The bits extracted from the LSB layer of {@code hidden}, identical to {@link #revealSpiralBitBuffer(IntRaster)}
+     * @see Parallel#getPool()
+     */
+    public static BitBuffer revealSpiralBitBufferParallel(IntRaster hidden) {
+        return revealSpiralBitBufferParallel(hidden, Parallel.getPool());
+    }
+
+    /**
+     * Reveals a bit buffer which was embedded in the LSB layer of a raster in a spiral fashion, reading segments of the spiral concurrently
+     * @param hidden A color raster containing bits embedded in its LSB layer
+     * @param pool The pool running the segments
+     * @return The bits extracted from the LSB layer of {@code hidden}, identical to {@link #revealSpiralBitBuffer(IntRaster)}
+     */
+    public static BitBuffer revealSpiralBitBufferParallel(IntRaster hidden, ForkJoinPool pool) {
+        assert hidden != null;
+
+        final long start = Metrics.start();
+        final Object event = Events.begin(Metrics.Stage.REVEAL);
+        final BitBuffer buffer = new BitBuffer(hidden.area());
+        pool.invoke(new SpiralRevealTask(hidden, buffer, 0, buffer.length()));
+        Events.end(event, "revealSpiralBitBufferParallel", hidden.width(), hidden.height(), buffer.length(), TraversalOrder.SPIRAL);
+        Metrics.revealed(start, hidden.area(), buffer.length());
+        return buffer;
+    }
+
+    /**
+     * Processes a segment of a spiral, splitting it while it is larger than {@link Parallel#getCutoff()}
+     */
+    @SuppressWarnings("serial")
+    private abstract static class SpiralTask extends RecursiveAction {
+        final int rows, cols, from, to;
+
+        SpiralTask(int rows, int cols, int from, int to) {
+            this.rows = rows;
+            this.cols = cols;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if(from >= to)
+                return;
+            final int half = ((to - from) / 2) & ~63; // Segments start on word boundaries, so they never share a word of the buffer
+            if(to - from <= Parallel.getCutoff() || half == 0)
+                process(new SpiralCursor(rows, cols, from));
+            else
+                invokeAll(split(from, from + half), split(from + half, to));
+        }
+
+        abstract void process(SpiralCursor cursor);
+
+        abstract SpiralTask split(int from, int to);
+    }
+
+    @SuppressWarnings("serial")
+    private static final class SpiralEmbedTask extends SpiralTask {
+        private final int[][] image;
+        private final IntRaster raster;
+        private final BitBuffer message;
+
+        SpiralEmbedTask(int[][] image, BitBuffer message, int from, int to) {
+            super(image.length, image[0].length, from, to);
+            this.image = image;
+            this.raster = null;
+            this.message = message;
+        }
+
+        SpiralEmbedTask(IntRaster raster, BitBuffer message, int from, int to) {
+            super(raster.height(), raster.width(), from, to);
+            this.image = null;
+            this.raster = raster;
+            this.message = message;
+        }
+
+        @Override
+        void process(SpiralCursor cursor) {
+            final long[] words = message.words();
+            long word = words[from >>> 6] >>> from;
+            for(int i = from; i < to; i++)
+            {
+                if((i & 63) == 0) // Load the next 64 bits
+                    word = words[i >>> 6];
+                if(image != null)
+                {
+                    final int[] line = image[cursor.getRow()];
+                    line[cursor.getCol()] = (line[cursor.getCol()] & 0xfffffffe) | ((int) word & 1);
+                }
+                else
+                {
+                    final int index = cursor.getRow() * cols + cursor.getCol(); // The copy is compact
+                    raster.data()[index] = (raster.data()[index] & 0xfffffffe) | ((int) word & 1);
+                }
+                word >>>= 1;
+
+                cursor.step();
+            }
+        }
+
+        @Override
+        SpiralTask split(int from, int to) {
+            return image != null ? new SpiralEmbedTask(image, message, from, to) : new SpiralEmbedTask(raster, message, from, to);
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private static final class SpiralRevealTask extends SpiralTask {
+        private final int[][] image;
+        private final IntRaster raster;
+        private final BitBuffer buffer;
+
+        SpiralRevealTask(int[][] image, BitBuffer buffer, int from, int to) {
+            super(image.length, image[0].length, from, to);
+            this.image = image;
+            this.raster = null;
+            this.buffer = buffer;
+        }
+
+        SpiralRevealTask(IntRaster raster, BitBuffer buffer, int from, int to) {
+            super(raster.height(), raster.width(), from, to);
+            this.image = null;
+            this.raster = raster;
+            this.buffer = buffer;
+        }
+
+        @Override
+        void process(SpiralCursor cursor) {
+            final long[] words = buffer.words();
+            long word = 0;
+            for(int i = from; i < to; i++)
+            {
+                final int pixel = image != null ? image[cursor.getRow()][cursor.getCol()] : raster.get(cursor.getRow(), cursor.getCol());
+                word |= (long) (pixel & 1) << i;
+                if((i & 63) == 63 || i == to - 1) // Store every 64 bits
+                {
+                    words[i >>> 6] = word;
+                    word = 0;
+                }
+
+                cursor.step();
+            }
+        }
+
+        @Override
+        SpiralTask split(int from, int to) {
+            return image != null ? new SpiralRevealTask(image, buffer, from, to) : new SpiralRevealTask(raster, buffer, from, to);
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package main;
+
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Hide data in covers too large to be held in memory, a strip of rows at a time.
+ * <p>
+ * The cover is decoded strip after strip, each strip receiving the next bits of the data in {@link TraversalOrder#LINEAR}
+ * order before being written to a {@link PngStripWriter}, so the memory used depends on the width and the strip height
+ * only. PNG covers are decoded in a single pass by {@link PngStripReader}, other formats through the source regions of
+ * an {@link javax.imageio.ImageReader}.
+ * <p>
+ * The bits are those of an {@link LsbOutputStream} on the whole cover: the 64-bit little-endian length of the data,
+ * then the data, {@link Steganography#bitsPerPixel(int)} bits per pixel.
+ */
+public final class StripPipeline
+{
+    /**
+     * The default number of rows per strip.
+     */
+    public static final int STRIP_HEIGHT = 256;
+
+    private static final int LENGTH_SIZE = Long.SIZE / Byte.SIZE;
+    private static final int BUFFER_SIZE = 1 << 13;
+
+    private StripPipeline()
+    {
+    }
+
+    /**
+     * Gets the number of bytes which can be hidden in a cover.
+     * @param width the number of columns of the cover
+     * @param height the number of rows of the cover
+     * @param depth the number of bits per channel, {@code 0} standing for the single LSB of each pixel
+     * @return the number of bytes, the length of the data excluded, or a negative number if not even the length fits
+     */
+    public static long capacity(long width, long height, int depth)
+    {
+        return width * height * Steganography.bitsPerPixel(depth) / Byte.SIZE - LENGTH_SIZE;
+    }
+
+    /**
+     * Hides data in a cover, writing the result as a PNG image.
+     * @param cover the cover image, in any format known to {@link javax.imageio.ImageIO}
+     * @param output the PNG image to create
+     * @param message the data, of which {@code length} bytes are read
+     * @param length the number of bytes to hide
+     * @param depth the number of bits per channel, {@code 0} standing for the single LSB of each pixel
+     * @param stripHeight the number of rows decoded at once
+     * @throws IOException if the cover cannot be read, is too small, or the output cannot be written
+     * @see #reveal(File, OutputStream, int, int)
+     */
+    public static void embed(File cover, File output, InputStream message, long length, int depth, int stripHeight) throws IOException
+    {
+        assert depth >= 0 && depth <= Steganography.MAX_DEPTH && stripHeight > 0 && length >= 0;
+
+        try(StripSource source = open(cover))
+        {
+            final int width = source.width(), height = source.height();
+            if(length > capacity(width, height, depth))
+                throw new IOException("The cover is full: " + length + " bytes for " + Math.max(0, capacity(width, height, depth)));
+
+            final Bits bits = new Bits(message, length);
+            final int perPixel = Steganography.bitsPerPixel(depth);
+            final IntRaster strip = new IntRaster(width, rows(width, height, stripHeight));
+            try(PngStripWriter writer = new PngStripWriter(new BufferedOutputStream(new FileOutputStream(output), 1 << 16), width, height))
+            {
+                for(int row = 0; row < height; row += strip.height())
+                {
+                    final IntRaster rows = strip.subRaster(0, 0, width, Math.min(strip.height(), height - row));
+                    source.read(rows);
+                    if(!bits.done())
+                        embed(rows, bits, depth, perPixel);
+                    writer.write(rows);
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the next bits into the pixels of a strip, as {@link LsbOutputStream} does.
+     */
+    private static void embed(IntRaster strip, Bits bits, int depth, int perPixel) throws IOException
+    {
+        final int[] data = strip.data();
+        for(int row = 0; row < strip.height(); row++)
+        {
+            final int base = strip.index(row, 0);
+            for(int col = 0; col < strip.width(); col++)
+            {
+                final int size = bits.fill(perPixel);
+                if(size == 0)
+                    return;
+                final int index = base + col;
+                final int mask = (int) ((1L << size) - 1);
+                final int value = (Steganography.getChannelBits(data[index], depth) & ~mask) | (bits.take(size) & mask); // Keeps the bits past the data
+                data[index] = Steganography.embedInChannels(data[index], value, depth);
+            }
+        }
+    }
+
+    /**
+     * Reveals data hidden by {@link #embed(File, File, InputStream, long, int, int)}, reading only the strips holding it.
+     * @param cover the image holding the data
+     * @param message the stream receiving the data, left open
+     * @param depth the number of bits per channel, {@code 0} standing for the single LSB of each pixel
+     * @param stripHeight the number of rows decoded at once
+     * @return the number of bytes revealed
+     * @throws IOException if the image cannot be read or holds no valid length
+     */
+    public static long reveal(File cover, OutputStream message, int depth, int stripHeight) throws IOException
+    {
+        assert depth >= 0 && depth <= Steganography.MAX_DEPTH && stripHeight > 0;
+
+        try(StripSource source = open(cover))
+        {
+            final int width = source.width(), height = source.height();
+            final int perPixel = Steganography.bitsPerPixel(depth);
+            final IntRaster strip = new IntRaster(width, rows(width, height, stripHeight));
+            final byte[] buffer = new byte[BUFFER_SIZE];
+            long bits = 0, length = -1, written = 0;
+            int count = 0, buffered = 0;
+            long header = 0;
+            int headerBytes = 0;
+
+            for(int row = 0; row < height && written != length; row += strip.height())
+            {
+                final IntRaster rows = strip.subRaster(0, 0, width, Math.min(strip.height(), height - row));
+                source.read(rows);
+                final int[] data = rows.data();
+                for(int r = 0; r < rows.height() && written != length; r++)
+                {
+                    final int base = rows.index(r, 0);
+                    for(int col = 0; col < width && written != length; col++)
+                    {
+                        bits |= (long) Steganography.getChannelBits(data[base + col], depth) << count;
+                        count += perPixel;
+                        while(count >= Byte.SIZE && written != length)
+                        {
+                            final int b = (int) bits & 0xff;
+                            bits >>>= Byte.SIZE;
+                            count -= Byte.SIZE;
+                            if(headerBytes < LENGTH_SIZE)
+                            {
+                                header |= (long) b << (Byte.SIZE * headerBytes);
+                                if(++headerBytes == LENGTH_SIZE)
+                                {
+                                    if(header < 0 || header > capacity(width, height, depth))
+                                        throw new IOException("Invalid length: " + header);
+                                    length = header;
+                                }
+                                continue;
+                            }
+                            buffer[buffered++] = (byte) b;
+                            written++;
+                            if(buffered == buffer.length)
+                            {
+                                message.write(buffer, 0, buffered);
+                                buffered = 0;
+                            }
+                        }
+                    }
+                }
+            }
+            if(written != length)
+                throw new EOFException("The image is too small to hold a length");
+            message.write(buffer, 0, buffered);
+            return written;
+        }
+    }
+
+    /**
+     * Opens a cover for decoding, in a single pass when possible.
+     * @param cover the image file
+     * @return the source of its strips
+     * @throws IOException if the file cannot be read
+     */
+    static StripSource open(File cover) throws IOException
+    {
+        final PngStripReader png = PngStripReader.open(cover);
+        return png != null ? png : new RegionStripReader(cover);
+    }
+
+    /**
+     * Gets the height of the strips, so that a strip is no larger than an array can be.
+     */
+    private static int rows(int width, int height, int stripHeight)
+    {
+        return Math.max(1, Math.min(Math.min(stripHeight, height), Integer.MAX_VALUE / 2 / width));
+    }
+
+    /**
+     * Serve the bits of the length then of the data, least significant bit first.
+     */
+    private static final class Bits
+    {
+        private final InputStream in;
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+        private int position = 0, size = 0;
+        private long left; // Bytes not yet in 'bits'
+        private final long length;
+        private long bits = 0;
+        private int count = 0;
+
+        Bits(InputStream in, long length)
+        {
+            this.in = in;
+            this.length = length;
+            this.left = LENGTH_SIZE + length;
+        }
+
+        boolean done()
+        {
+            return left == 0 && count == 0;
+        }
+
+        /**
+         * Buffers up to {@code size} bits.
+         * @return the number of bits available, at most {@code size}
+         */
+        int fill(int size) throws IOException
+        {
+            while(count < size && left > 0)
+            {
+                bits |= (long) next() << count;
+                count += Byte.SIZE;
+                left--;
+            }
+            return Math.min(size, count);
+        }
+
+        int take(int size)
+        {
+            final int value = (int) bits;
+            bits >>>= size;
+            count -= size;
+            return value;
+        }
+
+        private int next() throws IOException
+        {
+            final long index = LENGTH_SIZE + length - left;
+            if(index < LENGTH_SIZE)
+                return (int) (length >>> (Byte.SIZE * index)) & 0xff;
+            if(position == size)
+            {
+                size = in.read(buffer, 0, (int) Math.min(buffer.length, left));
+                position = 0;
+                if(size <= 0)
+                    throw new EOFException("The data ended " + left + " bytes early");
+            }
+            return buffer[position++] & 0xff;
+        }
+    }
+}
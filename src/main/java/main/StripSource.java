@@ -0,0 +1,29 @@
+package main;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Decode an image strip after strip, from top to bottom.
+ */
+interface StripSource extends Closeable
+{
+    /**
+     * Gets the width of the image.
+     * @return the number of columns
+     */
+    int width();
+
+    /**
+     * Gets the height of the image.
+     * @return the number of rows
+     */
+    int height();
+
+    /**
+     * Decodes the next rows of the image.
+     * @param strip the raster receiving the packed RGB colors of the next {@code strip.height()} rows, as wide as the image
+     * @throws IOException if the image cannot be decoded
+     */
+    void read(IntRaster strip) throws IOException;
+}
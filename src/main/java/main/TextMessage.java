@@ -1,5 +1,6 @@
 package main;
 
+import java.nio.charset.Charset;
 
 public class TextMessage {
 
@@ -83,4 +84,123 @@ public class TextMessage {
         return new String(characters); //.replace("\r", ""); // Formerly used to remove unwanted characters that prevented the message to be read
     }
 
+    /**
+     * Converts a String to its packed binary representation, i.e. the sequence of the 16-bit binary representations of its chars' integer values
+     * @param message The String to be converted
+     * @return A bit buffer holding the same bits as {@link #stringToBitArray(String)}
+     */
+    public static BitBuffer stringToBitBuffer(String message) {
+        assert message != null;
+
+        final int perWord = Long.SIZE / CHARACTER_LENGTH;
+        final BitBuffer buffer = new BitBuffer(message.length() * CHARACTER_LENGTH);
+        final long[] words = buffer.words();
+        for(int i = 0; i < message.length(); i++) // Four chars per word
+        {
+            words[i / perWord] |= (long) message.charAt(i) << ((i % perWord) * CHARACTER_LENGTH);
+        }
+        return buffer;
+    }
+
+    /**
+     * Converts a bit buffer to the String of which it is the representation
+     * @param bits A bit buffer representing a String
+     * @return The String that the buffer represented
+     * @see TextMessage#stringToBitBuffer(String)
+     */
+    public static String bitBufferToString(BitBuffer bits) {
+        assert bits != null;
+
+        final int perWord = Long.SIZE / CHARACTER_LENGTH;
+        final long[] words = bits.words();
+        char[] characters = new char[bits.length() / CHARACTER_LENGTH];
+        for(int i = 0; i < characters.length; i++)
+        {
+            characters[i] = (char) (words[i / perWord] >>> ((i % perWord) * CHARACTER_LENGTH));
+        }
+        return new String(characters);
+    }
+
+    /**
+     * Converts a String to the bits of its encoding in a given charset, each byte least significant bit first
+     * @param message The String to be converted
+     * @param charset The charset encoding the String, such as {@link java.nio.charset.StandardCharsets#UTF_8}
+     * @return A boolean array of 8 bits per encoded byte
+     * @see TextMessage#bitArrayToString(boolean[], Charset)
+     */
+    public static boolean[] stringToBitArray(String message, Charset charset) {
+        final byte[] bytes = encode(message, charset);
+        boolean[] array = new boolean[bytes.length * Byte.SIZE];
+        for(int i = 0; i < array.length; i++)
+        {
+            array[i] = ((bytes[i >>> 3] >>> (i & 7)) & 1) == 1;
+        }
+        return array;
+    }
+
+    /**
+     * Converts a boolean array to the String whose encoding in a given charset it holds
+     * @param bitArray A boolean array representing the bytes of a String, the trailing incomplete byte being ignored
+     * @param charset The charset which encoded the String
+     * @return The String that the array represented, malformed bytes being replaced
+     * @see TextMessage#stringToBitArray(String, Charset)
+     */
+    public static String bitArrayToString(boolean[] bitArray, Charset charset) {
+        assert bitArray != null && charset != null;
+
+        byte[] bytes = new byte[bitArray.length / Byte.SIZE];
+        for(int i = 0; i < bytes.length * Byte.SIZE; i++)
+        {
+            bytes[i >>> 3] |= (bitArray[i] ? 1 : 0) << (i & 7);
+        }
+        return new String(bytes, charset);
+    }
+
+    /**
+     * Converts a String to the packed bits of its encoding in a given charset
+     * @param message The String to be converted
+     * @param charset The charset encoding the String
+     * @return A bit buffer holding the same bits as {@link #stringToBitArray(String, Charset)}
+     */
+    public static BitBuffer stringToBitBuffer(String message, Charset charset) {
+        final byte[] bytes = encode(message, charset);
+        final BitBuffer buffer = new BitBuffer(bytes.length * Byte.SIZE);
+        final long[] words = buffer.words();
+        for(int i = 0; i < bytes.length; i++) // Eight bytes per word
+        {
+            words[i >>> 3] |= (long) (bytes[i] & 0xff) << ((i & 7) * Byte.SIZE);
+        }
+        return buffer;
+    }
+
+    /**
+     * Converts a bit buffer to the String whose encoding in a given charset it holds
+     * @param bits A bit buffer representing the bytes of a String, the trailing incomplete byte being ignored
+     * @param charset The charset which encoded the String
+     * @return The String that the buffer represented, malformed bytes being replaced
+     * @see TextMessage#stringToBitBuffer(String, Charset)
+     */
+    public static String bitBufferToString(BitBuffer bits, Charset charset) {
+        assert bits != null && charset != null;
+
+        final long[] words = bits.words();
+        byte[] bytes = new byte[bits.length() / Byte.SIZE];
+        for(int i = 0; i < bytes.length; i++)
+        {
+            bytes[i] = (byte) (words[i >>> 3] >>> ((i & 7) * Byte.SIZE));
+        }
+        return new String(bytes, charset);
+    }
+
+    /**
+     * Encodes a String in one pass, without intermediate objects per character
+     * @param message The String to be encoded
+     * @param charset The charset to use, unmappable characters being replaced
+     * @return The encoded bytes
+     */
+    public static byte[] encode(String message, Charset charset) {
+        assert message != null && charset != null;
+
+        return message.getBytes(charset);
+    }
 }
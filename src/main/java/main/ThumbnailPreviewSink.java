@@ -0,0 +1,228 @@
+package main;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write a thumbnail of each image shown as a PNG file, on a background thread, without ever blocking the caller.
+ * <p>
+ * The thumbnail is sampled from the image in the calling thread, which is cheap as it holds at most
+ * {@code size x size} pixels, so the image is free to change afterwards. It is then encoded and written by a single
+ * daemon thread. When more thumbnails are waiting than the queue holds, new ones are dropped. The files are named
+ * after the order and the title of the images, such as {@code 0003-Revealed-message.png}.
+ */
+public final class ThumbnailPreviewSink extends AbstractPreviewSink
+{
+    /**
+     * Default largest dimension of the thumbnails, in pixels.
+     */
+    public static final int DEFAULT_SIZE = 256;
+
+    /**
+     * Default number of thumbnails waiting to be written.
+     */
+    public static final int DEFAULT_QUEUE = 64;
+
+    private final File directory;
+    private final int size;
+    private final ThreadPoolExecutor writer;
+    private final AtomicInteger sequence = new AtomicInteger();
+    private final AtomicLong written = new AtomicLong(), dropped = new AtomicLong(), failed = new AtomicLong();
+
+    /**
+     * Creates a sink with the default size and queue.
+     * @param directory the directory receiving the thumbnails, created if needed
+     */
+    public ThumbnailPreviewSink(File directory)
+    {
+        this(directory, DEFAULT_SIZE, DEFAULT_QUEUE);
+    }
+
+    /**
+     * Creates a sink.
+     * @param directory the directory receiving the thumbnails, created if needed
+     * @param size the largest dimension of the thumbnails, smaller images being written as they are
+     * @param queue the number of thumbnails waiting to be written beyond which new ones are dropped
+     */
+    public ThumbnailPreviewSink(File directory, int size, int queue)
+    {
+        if(size <= 0 || queue <= 0)
+            throw new IllegalArgumentException("Invalid thumbnail size or queue: " + size + ", " + queue);
+
+        this.directory = directory;
+        this.size = size;
+        this.writer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<Runnable>(queue),
+                new ThreadFactory()
+                {
+                    @Override
+                    public Thread newThread(Runnable task)
+                    {
+                        final Thread thread = new Thread(task, "thumbnail-writer");
+                        thread.setDaemon(true); // Never keeps the process alive
+                        return thread;
+                    }
+                },
+                new RejectedExecutionHandler()
+                {
+                    @Override
+                    public void rejectedExecution(Runnable task, ThreadPoolExecutor executor)
+                    {
+                        dropped.incrementAndGet(); // Queue full, or sink closed
+                    }
+                });
+    }
+
+    @Override
+    public void show(IntRaster raster, String title)
+    {
+        enqueue(thumbnail(raster, size), title);
+    }
+
+    /**
+     * Shows an image held as an array, sampling the thumbnail from its rows without copying them into a raster.
+     * @param array HxW array of packed RGB colors
+     * @param title the title of the image
+     */
+    @Override
+    public void show(int[][] array, String title)
+    {
+        enqueue(thumbnail(array, size), title);
+    }
+
+    private void enqueue(final IntRaster thumbnail, String title)
+    {
+        final String name = String.format(Locale.ROOT, "%04d-%s.png", sequence.getAndIncrement(), sanitize(title));
+        writer.execute(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    write(new File(directory, name), thumbnail);
+                    written.incrementAndGet();
+                }
+                catch(IOException | RuntimeException e)
+                {
+                    failed.incrementAndGet();
+                }
+            }
+        });
+    }
+
+    /**
+     * Waits until the thumbnails already received are written. Thumbnails shown afterwards are dropped.
+     */
+    @Override
+    public void close()
+    {
+        writer.shutdown();
+        try
+        {
+            writer.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        }
+        catch(InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Gets the number of thumbnails written.
+     * @return the count
+     */
+    public long written()
+    {
+        return written.get();
+    }
+
+    /**
+     * Gets the number of thumbnails dropped, because too many were waiting or the sink was closed.
+     * @return the count
+     */
+    public long dropped()
+    {
+        return dropped.get();
+    }
+
+    /**
+     * Gets the number of thumbnails which could not be written.
+     * @return the count
+     */
+    public long failed()
+    {
+        return failed.get();
+    }
+
+    /**
+     * Samples an image down to a given largest dimension, keeping its aspect ratio.
+     * @param raster the image
+     * @param size the largest dimension
+     * @return a new compact raster, of the same size as {@code raster} if it is already small enough
+     */
+    static IntRaster thumbnail(IntRaster raster, int size)
+    {
+        final double scale = Math.min(1, (double) size / Math.max(raster.width(), raster.height()));
+        final int width = Math.max(1, (int) Math.round(raster.width() * scale));
+        final int height = Math.max(1, (int) Math.round(raster.height() * scale));
+        final IntRaster thumbnail = new IntRaster(width, height);
+        for(int row = 0; row < height; row++)
+        {
+            final int sourceRow = (int) ((long) row * raster.height() / height); // Nearest pixel
+            for(int col = 0; col < width; col++)
+                thumbnail.set(row, col, raster.get(sourceRow, (int) ((long) col * raster.width() / width)) & 0xffffff);
+        }
+        return thumbnail;
+    }
+
+    /**
+     * Samples an image held as an array down to a given largest dimension, like {@link #thumbnail(IntRaster, int)}.
+     * @param array the HxW image
+     * @param size the largest dimension
+     * @return a new compact raster
+     */
+    static IntRaster thumbnail(int[][] array, int size)
+    {
+        assert Utils.isImage(array);
+
+        final int rows = array.length, cols = array[0].length;
+        final double scale = Math.min(1, (double) size / Math.max(cols, rows));
+        final int width = Math.max(1, (int) Math.round(cols * scale));
+        final int height = Math.max(1, (int) Math.round(rows * scale));
+        final IntRaster thumbnail = new IntRaster(width, height);
+        for(int row = 0; row < height; row++)
+        {
+            final int[] source = array[(int) ((long) row * rows / height)]; // Nearest pixel
+            for(int col = 0; col < width; col++)
+                thumbnail.set(row, col, source[(int) ((long) col * cols / width)] & 0xffffff);
+        }
+        return thumbnail;
+    }
+
+    private void write(File file, IntRaster thumbnail) throws IOException
+    {
+        if(!directory.isDirectory() && !directory.mkdirs() && !directory.isDirectory())
+            throw new IOException("Cannot create " + directory);
+        try(PngStripWriter png = new PngStripWriter(new BufferedOutputStream(new FileOutputStream(file)),
+                thumbnail.width(), thumbnail.height()))
+        {
+            png.write(thumbnail);
+        }
+    }
+
+    private static String sanitize(String title)
+    {
+        final String name = title == null ? "" : title.replaceAll("[^A-Za-z0-9._-]+", "-").replaceAll("^-+|-+$", "");
+        return name.isEmpty() ? "image" : name.length() > 64 ? name.substring(0, 64) : name;
+    }
+}
@@ -0,0 +1,244 @@
+package main;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keep the traversal tables of recently used cover sizes, so that walking a spiral becomes a table lookup.
+ * <p>
+ * The cache is bounded by the memory taken by its tables, not by their number: the least recently used
+ * tables are evicted until the total fits in {@link #getCapacity()}. Tables larger than the capacity are
+ * built on each call and never cached, so callers walking such covers should step a {@link SpiralCursor} instead,
+ * as told by {@link #fits(int, int)}. All methods are thread-safe.
+ */
+public final class TraversalCache
+{
+    /**
+     * Default capacity of the shared cache, in bytes.
+     */
+    public static final long DEFAULT_CAPACITY = 64L << 20;
+
+    private static final int ARRAY_OVERHEAD = 16; // Bytes of the header of an array
+
+    private static final TraversalCache DEFAULT = new TraversalCache(DEFAULT_CAPACITY);
+
+    private final LinkedHashMap<Key, int[]> tables = new LinkedHashMap<Key, int[]>(16, 0.75f, true); // Access order
+    private long capacity;
+    private long size = 0;
+    private long hits = 0, misses = 0, evictions = 0;
+
+    /**
+     * Creates an empty cache.
+     * @param capacity the maximum number of bytes taken by the cached tables
+     */
+    public TraversalCache(long capacity)
+    {
+        if(capacity < 0)
+            throw new IllegalArgumentException("Invalid capacity: " + capacity);
+        this.capacity = capacity;
+    }
+
+    /**
+     * Gets the cache shared by the spiral operations of {@link Steganography}.
+     * @return the shared cache
+     */
+    public static TraversalCache getDefault()
+    {
+        return DEFAULT;
+    }
+
+    /**
+     * Gets the traversal table of a cover size, building it if needed.
+     * The returned array is shared and must not be modified.
+     * @param rows the number of rows
+     * @param cols the number of columns
+     * @param order the traversal order
+     * @return the array of pixel indices {@code row * cols + col}, in traversal order
+     * @see TraversalOrder#table(int, int)
+     */
+    public int[] get(int rows, int cols, TraversalOrder order)
+    {
+        final Key key = new Key(rows, cols, order);
+        synchronized(this)
+        {
+            final int[] table = tables.get(key);
+            if(table != null)
+            {
+                hits++;
+                return table;
+            }
+            misses++;
+        }
+
+        final int[] table = order.table(rows, cols); // Built outside the lock, a concurrent miss may build it twice
+        final long bytes = bytes(table);
+
+        synchronized(this)
+        {
+            if(bytes > capacity || tables.containsKey(key))
+                return table;
+            tables.put(key, table);
+            size += bytes;
+            evict();
+        }
+        return table;
+    }
+
+    /**
+     * Gets the traversal table of a cover size if it is cached, without ever building it.
+     * The returned array is shared and must not be modified.
+     * @param rows the number of rows
+     * @param cols the number of columns
+     * @param order the traversal order
+     * @return the array of pixel indices {@code row * cols + col}, in traversal order, or {@code null} if it is not cached
+     */
+    public synchronized int[] peek(int rows, int cols, TraversalOrder order)
+    {
+        final int[] table = tables.get(new Key(rows, cols, order));
+        if(table != null)
+            hits++;
+        return table;
+    }
+
+    /**
+     * Tells whether the table of a cover size is small enough to be kept by this cache.
+     * @param rows the number of rows
+     * @param cols the number of columns
+     * @return {@code false} if {@link #get} would build this table on every call
+     */
+    public synchronized boolean fits(int rows, int cols)
+    {
+        return ARRAY_OVERHEAD + (long) rows * cols * (Integer.SIZE / Byte.SIZE) <= capacity;
+    }
+
+    /**
+     * Gets the maximum number of bytes taken by the cached tables.
+     * @return the capacity
+     */
+    public synchronized long getCapacity()
+    {
+        return capacity;
+    }
+
+    /**
+     * Sets the maximum number of bytes taken by the cached tables, evicting tables if needed.
+     * @param capacity the new capacity
+     */
+    public synchronized void setCapacity(long capacity)
+    {
+        if(capacity < 0)
+            throw new IllegalArgumentException("Invalid capacity: " + capacity);
+        this.capacity = capacity;
+        evict();
+    }
+
+    /**
+     * Gets the number of bytes taken by the cached tables.
+     * @return the size
+     */
+    public synchronized long getSize()
+    {
+        return size;
+    }
+
+    /**
+     * Gets the number of cached tables.
+     * @return the number of tables
+     */
+    public synchronized int getCount()
+    {
+        return tables.size();
+    }
+
+    /**
+     * Gets the number of calls to {@link #get} which found their table.
+     * @return the number of hits
+     */
+    public synchronized long getHits()
+    {
+        return hits;
+    }
+
+    /**
+     * Gets the number of calls to {@link #get} which had to build their table.
+     * @return the number of misses
+     */
+    public synchronized long getMisses()
+    {
+        return misses;
+    }
+
+    /**
+     * Gets the number of tables evicted to stay within the capacity.
+     * @return the number of evictions
+     */
+    public synchronized long getEvictions()
+    {
+        return evictions;
+    }
+
+    /**
+     * Removes all the cached tables.
+     */
+    public synchronized void clear()
+    {
+        tables.clear();
+        size = 0;
+    }
+
+    /**
+     * Removes the least recently used tables until the cache fits in its capacity.
+     */
+    private void evict()
+    {
+        final Iterator<Map.Entry<Key, int[]>> iterator = tables.entrySet().iterator();
+        while(size > capacity && iterator.hasNext())
+        {
+            size -= bytes(iterator.next().getValue());
+            iterator.remove();
+            evictions++;
+        }
+    }
+
+    /**
+     * Estimates the memory taken by a table.
+     * @param table the table
+     * @return a number of bytes
+     */
+    private static long bytes(int[] table)
+    {
+        return ARRAY_OVERHEAD + (long) table.length * (Integer.SIZE / Byte.SIZE);
+    }
+
+    /**
+     * Identify a table by its cover size and traversal order.
+     */
+    private static final class Key
+    {
+        private final int rows, cols;
+        private final TraversalOrder order;
+
+        Key(int rows, int cols, TraversalOrder order)
+        {
+            this.rows = rows;
+            this.cols = cols;
+            this.order = order;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if(!(o instanceof Key))
+                return false;
+            final Key other = (Key) o;
+            return rows == other.rows && cols == other.cols && order == other.order;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return (31 * rows + cols) * 31 + order.ordinal();
+        }
+    }
+}
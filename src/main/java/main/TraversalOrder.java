@@ -0,0 +1,50 @@
+package main;
+
+/**
+ * Represent the order in which the pixels of a cover receive the bits of a message.
+ */
+public enum TraversalOrder
+{
+    /**
+     * Row after row, from left to right.
+     */
+    LINEAR,
+
+    /**
+     * Clockwise spiral starting from the top left corner.
+     * @see SpiralCursor
+     */
+    SPIRAL;
+
+    /**
+     * Lists the pixels of a {@code rows x cols} image in this order.
+     * @param rows the number of rows
+     * @param cols the number of columns
+     * @return the array of pixel indices {@code row * cols + col}, in traversal order
+     */
+    public int[] table(int rows, int cols)
+    {
+        assert rows > 0 && cols > 0 && (long) rows * cols <= Integer.MAX_VALUE;
+
+        final int[] table = new int[rows * cols];
+        if(this == LINEAR)
+        {
+            for(int i = 0; i < table.length; i++)
+                table[i] = i;
+        }
+        else
+        {
+            final long start = Metrics.start();
+            final Object event = Events.begin(Metrics.Stage.TRAVERSE);
+            final SpiralCursor cursor = new SpiralCursor(rows, cols);
+            for(int i = 0; i < table.length; i++)
+            {
+                table[i] = cursor.getRow() * cols + cursor.getCol();
+                cursor.step();
+            }
+            Events.end(event, "table", cols, rows, 0, this);
+            Metrics.stop(Metrics.Stage.TRAVERSE, start, table.length);
+        }
+        return table;
+    }
+}
@@ -17,10 +17,22 @@ public class Utils {
     public static boolean isCoverLargeEnough(int[][] cover, boolean[] message) {
         if (!isImage(cover)) return false;
 
-        int coverHeight = cover.length;
-        int coverWidth = cover[0].length;
+        long coverHeight = cover.length;
+        long coverWidth = cover[0].length;
 
-        return (coverWidth * coverHeight >= message.length);
+        return (coverWidth * coverHeight >= message.length); // Products of large sizes overflow an int
+    }
+
+    /**
+     * Checks if a cover image is large enough to embed a packed sequence of bits
+     * @param cover A 2D integer array
+     * @param message a sequence of bits to embed into the cover (using LSB)
+     * @return {@code true} if the cover is large enough  {@code false} otherwise
+     */
+    public static boolean isCoverLargeEnough(int[][] cover, BitBuffer message) {
+        if (!isImage(cover)) return false;
+
+        return ((long) cover.length * cover[0].length >= message.length());
     }
 
       /**
@@ -97,4 +109,54 @@ public class Utils {
         }
         return true;
     }
+
+    /**
+     * Checks if a cover raster is large enough to embed a packed sequence of bits
+     * @param cover A raster
+     * @param message a sequence of bits to embed into the cover (using LSB)
+     * @return {@code true} if the cover is large enough  {@code false} otherwise
+     */
+    public static boolean isCoverLargeEnough(IntRaster cover, BitBuffer message) {
+        return cover != null && message != null && (long) cover.width() * cover.height() >= message.length();
+    }
+
+    /**
+     * Checks if a cover image is large enough to embed a packed sequence of bits at a given depth
+     * @param cover A 2D integer array
+     * @param message a sequence of bits to embed into the cover
+     * @param depth the number of bits per color channel, {@code 0} standing for the single LSB of each pixel
+     * @return {@code true} if the cover is large enough  {@code false} otherwise
+     * @see Steganography#bitsPerPixel(int)
+     */
+    public static boolean isCoverLargeEnough(int[][] cover, BitBuffer message, int depth) {
+        if (!isImage(cover)) return false;
+
+        return ((long) cover.length * cover[0].length * Steganography.bitsPerPixel(depth) >= message.length());
+    }
+
+    /**
+     * Checks if a cover raster is large enough to embed a packed sequence of bits at a given depth
+     * @param cover A raster
+     * @param message a sequence of bits to embed into the cover
+     * @param depth the number of bits per color channel, {@code 0} standing for the single LSB of each pixel
+     * @return {@code true} if the cover is large enough  {@code false} otherwise
+     */
+    public static boolean isCoverLargeEnough(IntRaster cover, BitBuffer message, int depth) {
+        return cover != null && message != null && (long) cover.area() * Steganography.bitsPerPixel(depth) >= message.length();
+    }
+
+    /**
+     * Checks if a cover raster is large enough to embed a black and white raster
+     * @param cover A raster
+     * @param message A black and white raster to embed into the cover (using LSB)
+     * @return {@code true} if the cover is large enough  {@code false} otherwise
+     */
+    public static boolean isCoverLargeEnough(IntRaster cover, BitRaster message) {
+        return (
+                   cover != null
+                   && message != null
+                   && cover.height() >= message.height()
+                   && cover.width() >= message.width()
+               );
+    }
 }
@@ -0,0 +1,83 @@
+package main;
+
+import javax.swing.JFrame;
+import javax.swing.JPanel;
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.awt.image.BufferedImage;
+
+/**
+ * Show each image in a window, and wait until it is closed.
+ * <p>
+ * This is the only class of the project using Swing, which is loaded when the first image is shown.
+ */
+public final class WindowPreviewSink extends AbstractPreviewSink
+{
+    @Override
+    public void show(IntRaster raster, String title)
+    {
+        show(Helper.toBufferedImage(raster), title); // The caller waits until the window is closed
+    }
+
+    @Override
+    public void close()
+    {
+    }
+
+    // Show specified image in a window and wait until it is closed
+    private static void show(final BufferedImage image, String title)
+    {
+        // Create a panel to render this image
+        @SuppressWarnings("serial")
+        final JPanel panel = new JPanel()
+        {
+            @Override
+            protected void paintComponent(Graphics g)
+            {
+                super.paintComponent(g);
+                g.drawImage(image, 0, 0, Math.max(getWidth(), 100), Math.max(getHeight(), 100), null, null);
+            }
+        };
+
+        // Create a frame to hold this panel
+        final JFrame frame = new JFrame(title);
+        frame.add(panel);
+        frame.getContentPane().setPreferredSize(new Dimension(Math.max(image.getWidth(), 300), Math.max(image.getHeight(), 300)));
+        frame.pack();
+
+        // Register closing event
+        frame.setDefaultCloseOperation(JFrame.DO_NOTHING_ON_CLOSE);
+        frame.addWindowListener(new WindowAdapter()
+        {
+            @Override
+            public void windowClosing(WindowEvent e)
+            {
+                frame.setVisible(false);
+                synchronized(frame)
+                {
+                    frame.notifyAll();
+                }
+            }
+        });
+
+        // Show this frame
+        frame.setVisible(true);
+
+        // Wait for close operation
+        try
+        {
+            synchronized(frame)
+            {
+                while(frame.isVisible())
+                    frame.wait();
+            }
+        }
+        catch(InterruptedException e)
+        {
+            // Empty on purpose
+        }
+        frame.dispose();
+    }
+}
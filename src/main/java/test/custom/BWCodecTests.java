@@ -0,0 +1,126 @@
+package test.custom;
+
+import static org.junit.Assert.*;
+import static test.custom.TestImages.randomImage;
+
+import main.BWCodec;
+import main.BitRaster;
+import main.Helper;
+import main.ImageMessage;
+import main.IntRaster;
+import main.Steganography;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class BWCodecTests
+{
+    private static final Random random = new Random();
+    public static final int TESTS = 50;
+
+    private static BitRaster randomRuns(int width, int height, int meanRun)
+    {
+        final BitRaster image = new BitRaster(width, height);
+        boolean color = random.nextBoolean();
+        for(int row = 0; row < height; row++)
+        {
+            for(int col = 0; col < width; col++)
+            {
+                if(random.nextInt(meanRun) == 0)
+                    color = !color;
+                image.set(row, col, color);
+            }
+        }
+        return image;
+    }
+
+    @Test
+    public void roundTrip()
+    {
+        for(int i = 0; i < TESTS; i++)
+        {
+            final BitRaster image = randomRuns(1 + random.nextInt(200), 1 + random.nextInt(200), 1 + random.nextInt(1000));
+            assertEquals(image, BWCodec.decode(BWCodec.encode(image)));
+        }
+
+        final BitRaster single = new BitRaster(1, 1);
+        assertEquals(single, BWCodec.decode(BWCodec.encode(single)));
+        single.set(0, 0, true);
+        assertEquals(single, BWCodec.decode(BWCodec.encode(single)));
+    }
+
+    @Test
+    public void longRunsAreSmall()
+    {
+        final BitRaster image = new BitRaster(3000, 3000);
+        image.set(1500, 1500, true); // Two runs of 4.5 million pixels around a single one
+        final byte[] data = BWCodec.encode(image);
+        assertTrue(data.length < 32);
+        assertEquals(image, BWCodec.decode(data));
+    }
+
+    @Test
+    public void noiseIsNotExpanded()
+    {
+        final BitRaster image = randomRuns(100, 100, 1);
+        final byte[] data = BWCodec.encode(image);
+        assertTrue(data.length <= (65 + 100 * 100 + 7) / 8);
+        assertEquals(image, BWCodec.decode(data));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void truncatedStream()
+    {
+        final byte[] data = BWCodec.encode(randomRuns(50, 50, 10));
+        BWCodec.decode(java.util.Arrays.copyOf(data, data.length / 2));
+    }
+
+    @Test
+    public void forgedSizesAreRejected()
+    {
+        for(BitRaster image : new BitRaster[] {randomRuns(50, 50, 10), randomRuns(50, 50, 1)}) // Runs, then raw bits
+        {
+            final byte[] data = BWCodec.encode(image);
+            data[1] = data[5] = (byte) 0xa0; // Over 40000x40000, far more pixels than the stream describes
+            try
+            {
+                BWCodec.decode(data);
+                fail("Forged size accepted");
+            }
+            catch(IllegalArgumentException e)
+            {
+            }
+        }
+
+        final BitRaster blank = new BitRaster(3000, 3000);
+        assertEquals(blank, BWCodec.decode(BWCodec.encode(blank), blank.width() * blank.height()));
+        try
+        {
+            BWCodec.decode(BWCodec.encode(blank), 1000);
+            fail("Large image accepted");
+        }
+        catch(IllegalArgumentException e)
+        {
+            assertTrue(e.getMessage().contains("more than 1000"));
+        }
+    }
+
+    @Test
+    public void compressedEmbedding()
+    {
+        final boolean[][] message = ImageMessage.toBW(Helper.read("images/mickey-mouse.png"), 128);
+        final BitRaster raster = BitRaster.fromArray(message);
+        final int[][] cover = randomImage(200, 200); // Too small for the raw image
+
+        assertArrayEquals(message, Steganography.revealSpiralImage(Steganography.embedSpiralImage(cover, message, true)));
+        assertArrayEquals(message, Steganography.revealBWImage(Steganography.embedBWImage(cover, message, true)));
+        assertArrayEquals(message, Steganography.revealBWImageParallel(Steganography.embedBWImage(cover, message, true)));
+
+        final IntRaster coverRaster = IntRaster.fromArray(cover);
+        assertEquals(raster, Steganography.revealSpiralImage(Steganography.embedSpiralImage(coverRaster, raster, true)));
+        assertEquals(raster, Steganography.revealBWImage(Steganography.embedBWImage(coverRaster, raster, true)));
+
+        final int[][] big = randomImage(message.length + 10, message[0].length + 10); // Uncompressed images are still revealed
+        assertArrayEquals(message, Steganography.revealSpiralImage(Steganography.embedSpiralImage(big, message, false)));
+    }
+}
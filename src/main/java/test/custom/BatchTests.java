@@ -0,0 +1,157 @@
+package test.custom;
+
+import static org.junit.Assert.*;
+import static test.custom.TestImages.randomRaster;
+
+import main.Batch;
+import main.BitRaster;
+import main.Compression;
+import main.Helper;
+import main.IntRaster;
+import main.Payload;
+import main.TraversalOrder;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class BatchTests
+{
+    private static File directory() throws IOException
+    {
+        final File directory = Files.createTempDirectory("batch").toFile();
+        directory.deleteOnExit();
+        return directory;
+    }
+
+    private static File covers(int count) throws IOException
+    {
+        final File directory = directory();
+        new File(directory, "nested").mkdir();
+        for(int i = 0; i < count; i++)
+            assertTrue(Helper.write(new File(directory, (i % 2 == 0 ? "nested/" : "") + "cover" + i + ".png").getPath(), randomRaster(40, 30)));
+        return directory;
+    }
+
+    private static int run(Batch batch, List<Batch.Job> jobs)
+    {
+        return batch.run(jobs, 3, new PrintStream(new ByteArrayOutputStream()));
+    }
+
+    @Test
+    public void shardsPartitionTheJobs() throws IOException
+    {
+        final List<Batch.Job> jobs = new ArrayList<>();
+        for(int i = 0; i < 1000; i++)
+            jobs.add(new Batch.Job(new File("cover" + i + ".png"), "cover" + i + ".png"));
+
+        final Set<String> seen = new HashSet<>();
+        for(int shard = 0; shard < 7; shard++)
+        {
+            final List<Batch.Job> selected = Batch.shard(jobs, shard, 7);
+            assertTrue("Unbalanced shard: " + selected.size(), selected.size() > 100 && selected.size() < 190);
+            for(Batch.Job job : selected)
+                assertTrue(seen.add(job.name()));
+        }
+        assertEquals(jobs.size(), seen.size());
+        assertEquals(jobs, Batch.shard(jobs, 0, 1));
+    }
+
+    @Test
+    public void embedsThenReveals() throws IOException
+    {
+        final File covers = covers(5), hidden = directory(), revealed = directory();
+        final List<Batch.Job> jobs = Batch.list(Collections.singletonList(covers));
+        assertEquals(5, jobs.size());
+        assertEquals("cover1.png", jobs.get(0).name());
+        assertEquals("nested/cover0.png", jobs.get(2).name());
+
+        final Payload text = Payload.ofText("Batch message", StandardCharsets.UTF_8).withCompression(Compression.LZ);
+        assertEquals(0, run(Batch.embed(text, 2, TraversalOrder.SPIRAL, hidden, false), jobs));
+        final List<Batch.Job> outputs = Batch.list(Collections.singletonList(hidden));
+        assertEquals(5, outputs.size());
+        assertEquals(0, run(Batch.reveal(TraversalOrder.SPIRAL, revealed, false), outputs));
+        for(Batch.Job job : jobs)
+        {
+            final File file = new File(revealed, job.name().replace(".png", ".txt"));
+            assertEquals("Batch message", new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+        }
+
+        final BitRaster image = new BitRaster(5, 4);
+        image.set(1, 2, true);
+        assertEquals(0, run(Batch.embed(Payload.ofImage(image), 0, TraversalOrder.LINEAR, hidden, false), jobs));
+        assertEquals(0, run(Batch.reveal(TraversalOrder.LINEAR, revealed, false), outputs));
+        final IntRaster rgb = Helper.readRaster(new File(revealed, "cover1.png").getPath());
+        assertEquals(5, rgb.width());
+        assertEquals(0xffffff, rgb.get(1, 2));
+        assertEquals(0, rgb.get(0, 0));
+    }
+
+    @Test
+    public void failuresDoNotStopTheBatch() throws IOException
+    {
+        final File covers = covers(3), output = directory();
+        Files.write(new File(covers, "broken.png").toPath(), new byte[] {1, 2, 3});
+        assertTrue(Helper.write(new File(covers, "tiny.png").getPath(), randomRaster(4, 4)));
+
+        final File manifest = new File(covers, "manifest.txt");
+        Files.write(manifest.toPath(), Arrays.asList("# covers", "cover1.png", "", "broken.png", "tiny.png", "missing.png"), StandardCharsets.UTF_8);
+        final List<Batch.Job> jobs = Batch.manifest(manifest);
+        assertEquals(4, jobs.size());
+
+        final Payload data = Payload.ofBytes(new byte[] {42});
+        assertEquals(3, run(Batch.embed(data, 0, TraversalOrder.LINEAR, output, false), jobs));
+        assertTrue(new File(output, "cover1.png").isFile());
+        assertFalse(new File(output, "tiny.png").exists());
+    }
+
+    @Test
+    public void outputsNeverCollide() throws IOException
+    {
+        final File covers = covers(1), nested = new File(covers, "nested"), output = directory();
+        Files.copy(new File(nested, "cover0.png").toPath(), new File(nested, "cover0.bmp").toPath());
+        final List<Batch.Job> jobs = Batch.list(Collections.singletonList(nested));
+        assertEquals(2, jobs.size());
+
+        assertEquals(0, run(Batch.embed(Payload.ofBytes(new byte[] {7}), 0, TraversalOrder.LINEAR, output, false), jobs));
+        assertTrue(new File(output, "cover0.bmp.png").isFile());
+        assertTrue(new File(output, "cover0.png.png").isFile());
+
+        try
+        {
+            Batch.list(Arrays.asList(nested, new File(nested, "cover0.png"))); // Both named cover0.png
+            fail("Shared output accepted");
+        }
+        catch(IOException e)
+        {
+            assertTrue(e.getMessage(), e.getMessage().contains("cover0"));
+        }
+    }
+
+    @Test
+    public void outputsStayInTheOutputDirectory() throws IOException
+    {
+        final File covers = covers(1), nested = new File(covers, "nested"), output = directory();
+        assertTrue(new File(nested, "....").mkdir());
+        Files.copy(new File(nested, "cover0.png").toPath(), new File(nested, "..../cover0.png").toPath());
+        final File manifest = new File(nested, "manifest.txt");
+        Files.write(manifest.toPath(), Arrays.asList("....//cover0.png", "../nested/./cover0.png"), StandardCharsets.UTF_8);
+        final List<Batch.Job> jobs = Batch.manifest(manifest);
+        assertEquals(2, jobs.size());
+
+        assertEquals(0, run(Batch.embed(Payload.ofBytes(new byte[] {7}), 0, TraversalOrder.LINEAR, output, false), jobs));
+        assertTrue(new File(output, "..../cover0.png").isFile());
+        assertTrue(new File(output, "nested/cover0.png").isFile());
+        assertFalse(new File(output.getParentFile(), "cover0.png").exists());
+    }
+}
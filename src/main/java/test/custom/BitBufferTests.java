@@ -0,0 +1,102 @@
+package test.custom;
+
+import static org.junit.Assert.*;
+import static test.custom.TestImages.randomImage;
+
+import main.BitBuffer;
+import main.ImageMessage;
+import main.Steganography;
+import main.TextMessage;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class BitBufferTests
+{
+    private static final Random random = new Random();
+    public static final int TESTS = 100;
+
+    private static boolean[] randomBits(int length)
+    {
+        final boolean[] bits = new boolean[length];
+        for(int i = 0; i < length; i++)
+            bits[i] = random.nextBoolean();
+        return bits;
+    }
+
+    @Test
+    public void packUnpack()
+    {
+        assertEquals(new BitBuffer(0).length(), 0);
+        assertEquals(BitBuffer.wordCount(64), 1);
+        assertEquals(BitBuffer.wordCount(65), 2);
+
+        for(int i = 0; i < TESTS; i++)
+        {
+            final boolean[] bits = randomBits(random.nextInt(300));
+            final BitBuffer buffer = BitBuffer.fromBitArray(bits);
+            assertEquals(bits.length, buffer.length());
+            assertArrayEquals(bits, buffer.toBitArray());
+            for(int j = 0; j < bits.length; j++)
+                assertEquals(bits[j], buffer.get(j));
+        }
+    }
+
+    @Test
+    public void bitsAcrossWords()
+    {
+        final BitBuffer buffer = new BitBuffer(200);
+        buffer.setBits(60, 40, 0xabcdef1234L);
+        assertEquals(0xabcdef1234L, buffer.getBits(60, 40));
+        assertEquals(0L, buffer.getBits(0, 60));
+        assertEquals(0L, buffer.getBits(100, 64));
+
+        buffer.setBits(70, 64, -1L);
+        assertEquals(-1L, buffer.getBits(70, 64));
+        assertEquals(0x234L, buffer.getBits(60, 10));
+
+        final boolean[] bits = randomBits(500);
+        final BitBuffer source = BitBuffer.fromBitArray(bits);
+        final BitBuffer range = source.copyOfRange(37, 411);
+        for(int i = 0; i < range.length(); i++)
+            assertEquals(bits[37 + i], range.get(i));
+    }
+
+    @Test
+    public void conversionsMatchBitArrays()
+    {
+        for(int i = 0; i < TESTS; i++)
+        {
+            final StringBuilder builder = new StringBuilder();
+            final int length = random.nextInt(100);
+            for(int j = 0; j < length; j++)
+                builder.append((char) random.nextInt(Character.MAX_VALUE + 1));
+            final String message = builder.toString();
+
+            final BitBuffer buffer = TextMessage.stringToBitBuffer(message);
+            assertArrayEquals(TextMessage.stringToBitArray(message), buffer.toBitArray());
+            assertEquals(message, TextMessage.bitBufferToString(buffer));
+        }
+
+        final boolean[][] bw = {{true, false, false, true}, {false, false, true, true}, {true, false, false, false}};
+        final BitBuffer buffer = ImageMessage.bwImageToBitBuffer(bw);
+        assertArrayEquals(ImageMessage.bwImageToBitArray(bw), buffer.toBitArray());
+        assertArrayEquals(bw, ImageMessage.bitBufferToImage(buffer));
+    }
+
+    @Test
+    public void embedRevealMatchBitArrays()
+    {
+        for(int i = 0; i < TESTS; i++)
+        {
+            final int[][] cover = randomImage(1 + random.nextInt(20), 1 + random.nextInt(20));
+            final boolean[] bits = randomBits(random.nextInt(cover.length * cover[0].length + 1));
+            final BitBuffer buffer = BitBuffer.fromBitArray(bits);
+
+            assertArrayEquals(Steganography.embedBitArray(cover, bits), Steganography.embedBitBuffer(cover, buffer));
+            assertArrayEquals(Steganography.embedSpiralBitArray(cover, bits), Steganography.embedSpiralBitBuffer(cover, buffer));
+            assertArrayEquals(Steganography.revealBitArray(cover), Steganography.revealBitBuffer(cover).toBitArray());
+            assertArrayEquals(Steganography.revealSpiralBitArray(cover), Steganography.revealSpiralBitBuffer(cover).toBitArray());
+        }
+    }
+}
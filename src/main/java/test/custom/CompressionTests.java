@@ -0,0 +1,109 @@
+package test.custom;
+
+import static org.junit.Assert.*;
+import static test.custom.TestImages.randomImage;
+
+import main.Compression;
+import main.IntRaster;
+import main.Payload;
+import main.Steganography;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+public class CompressionTests
+{
+    private static final Random random = new Random();
+    public static final int TESTS = 50;
+
+    /**
+     * Builds lines of a log, repetitive like the blobs worth compressing.
+     */
+    private static String log(int lines)
+    {
+        final StringBuilder builder = new StringBuilder();
+        for(int i = 0; i < lines; i++)
+            builder.append("2017-11-").append(10 + random.nextInt(20)).append(" INFO [worker-").append(random.nextInt(8))
+                    .append("] request ").append(random.nextInt(100000)).append(" served in ").append(random.nextInt(500)).append(" ms\n");
+        return builder.toString();
+    }
+
+    @Test
+    public void roundTrip()
+    {
+        for(Compression compression : Compression.values())
+        {
+            for(int i = 0; i < TESTS; i++)
+            {
+                final byte[] data = new byte[random.nextInt(3000)];
+                final int alphabet = 1 + random.nextInt(256); // From runs of a single byte to noise
+                for(int j = 0; j < data.length; j++)
+                    data[j] = (byte) random.nextInt(alphabet);
+                assertArrayEquals(data, compression.decompress(compression.compress(data)));
+            }
+            final byte[] zeros = new byte[100000];
+            assertArrayEquals(zeros, compression.decompress(compression.compress(zeros)));
+            assertArrayEquals(new byte[0], compression.decompress(compression.compress(new byte[0])));
+        }
+    }
+
+    @Test
+    public void logsCompress()
+    {
+        final byte[] data = log(100).getBytes(StandardCharsets.UTF_8);
+        assertTrue(Compression.DEFLATE.compress(data).length * 3 < data.length);
+        assertTrue(Compression.LZ.compress(data).length * 2 < data.length);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void truncatedStream()
+    {
+        final byte[] compressed = Compression.LZ.compress(log(10).getBytes(StandardCharsets.UTF_8));
+        Compression.LZ.decompress(Arrays.copyOf(compressed, compressed.length - 10));
+    }
+
+    @Test
+    public void forgedLengthsAreRejected()
+    {
+        for(Compression compression : new Compression[] { Compression.DEFLATE, Compression.LZ })
+        {
+            final byte[] compressed = compression.compress(log(10).getBytes(StandardCharsets.UTF_8));
+            compressed[3] = 0x7f; // Claims almost 2 GiB
+            try
+            {
+                compression.decompress(compressed);
+                fail(compression + " accepted a forged length");
+            }
+            catch(IllegalArgumentException e)
+            {
+                assertTrue(e.getMessage(), e.getMessage().contains("out of reach"));
+            }
+        }
+    }
+
+    @Test
+    public void payloads()
+    {
+        final String message = log(20);
+        final int[][] cover = randomImage(100, 100);
+        for(Compression compression : Compression.values())
+        {
+            final Payload payload = Payload.ofText(message, StandardCharsets.UTF_8).withCompression(compression);
+            final Payload revealed = Payload.fromBitBuffer(payload.toBitBuffer());
+            assertEquals(message, revealed.getText());
+            assertEquals(compression, revealed.getCompression());
+            assertEquals(message, Steganography.revealText(Steganography.embedText(cover, message, StandardCharsets.UTF_8, compression)));
+            assertEquals(message, Steganography.revealText(Steganography.embedText(IntRaster.fromArray(cover), message, StandardCharsets.UTF_8, compression)));
+        }
+        assertTrue(Payload.ofText(message).withCompression(Compression.DEFLATE).pixels() * 4 < Payload.ofText(message).pixels());
+
+        final byte[] noise = new byte[500];
+        random.nextBytes(noise);
+        final Payload skipped = Payload.fromBitBuffer(Payload.ofBytes(noise).withCompression(Compression.DEFLATE).toBitBuffer());
+        assertEquals(Compression.NONE, skipped.getCompression()); // Noise does not compress
+        assertArrayEquals(noise, skipped.getData());
+        assertEquals(Payload.ofBytes(noise).pixels(), Payload.ofBytes(noise).withCompression(Compression.LZ).pixels());
+    }
+}
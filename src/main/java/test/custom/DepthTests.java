@@ -0,0 +1,112 @@
+package test.custom;
+
+import static org.junit.Assert.*;
+import static test.custom.TestImages.randomImage;
+
+import main.BitBuffer;
+import main.IntRaster;
+import main.Payload;
+import main.Steganography;
+import main.TraversalOrder;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class DepthTests
+{
+    private static final Random random = new Random();
+    public static final int TESTS = 20;
+
+    private static BitBuffer randomBits(int length)
+    {
+        final BitBuffer bits = new BitBuffer(length);
+        for(int i = 0; i < length; i++)
+            bits.set(i, random.nextBoolean());
+        return bits;
+    }
+
+    @Test
+    public void channels()
+    {
+        assertEquals(0x123456, Steganography.embedInChannels(0x123457, 0, 0));
+        assertEquals(0x010101, Steganography.embedInChannels(0, 7, 1));
+        assertEquals(0xfefcff, Steganography.embedInChannels(0xffffff, 0x23, 2)); // Blue 11, green 00, red 10
+        assertEquals(0xabcdef, Steganography.embedInChannels(0, 0xabcdef & 0xff | (0xcd << 8) | (0xab << 16), 8));
+        for(int depth = 0; depth <= Steganography.MAX_DEPTH; depth++)
+        {
+            final int rgb = random.nextInt(1 << 24);
+            final int bits = random.nextInt() & (int) ((1L << Steganography.bitsPerPixel(depth)) - 1);
+            final int embedded = Steganography.embedInChannels(rgb, bits, depth);
+            assertEquals(bits, Steganography.getChannelBits(embedded, depth));
+            final int kept = depth == 0 ? ~1 : ~(((1 << depth) - 1) * 0x010101);
+            assertEquals(rgb & kept, embedded & kept);
+        }
+        assertEquals(1, Steganography.bitsPerPixel(0));
+        assertEquals(24, Steganography.bitsPerPixel(8));
+    }
+
+    @Test
+    public void depthZeroMatchesLSB()
+    {
+        final int[][] cover = randomImage(13, 17);
+        final BitBuffer bits = randomBits(150);
+        assertArrayEquals(Steganography.embedBitBuffer(cover, bits), Steganography.embedBitBuffer(cover, bits, 0, TraversalOrder.LINEAR));
+        assertArrayEquals(Steganography.embedSpiralBitBuffer(cover, bits), Steganography.embedBitBuffer(cover, bits, 0, TraversalOrder.SPIRAL));
+        assertEquals(Steganography.revealSpiralBitBuffer(cover), Steganography.revealBitBuffer(cover, 0, TraversalOrder.SPIRAL));
+    }
+
+    @Test
+    public void bitsRoundTrip()
+    {
+        for(int i = 0; i < TESTS; i++)
+        {
+            final int[][] cover = randomImage(1 + random.nextInt(30), 1 + random.nextInt(30));
+            final int depth = random.nextInt(Steganography.MAX_DEPTH + 1);
+            final TraversalOrder order = TraversalOrder.values()[random.nextInt(2)];
+            final BitBuffer bits = randomBits(random.nextInt(cover.length * cover[0].length * Steganography.bitsPerPixel(depth) + 1));
+
+            final int[][] hidden = Steganography.embedBitBuffer(cover, bits, depth, order);
+            assertEquals(bits, Steganography.revealBitBuffer(hidden, depth, order).copyOfRange(0, bits.length()));
+
+            final IntRaster raster = Steganography.embedBitBuffer(IntRaster.fromArray(cover), bits, depth, order);
+            assertArrayEquals(hidden, raster.toArray());
+            assertEquals(Steganography.revealBitBuffer(hidden, depth, order), Steganography.revealBitBuffer(raster, depth, order));
+        }
+    }
+
+    @Test
+    public void payloadRoundTrip()
+    {
+        for(int depth = 0; depth <= Steganography.MAX_DEPTH; depth++)
+        {
+            for(TraversalOrder order : TraversalOrder.values())
+            {
+                final byte[] data = new byte[1 + random.nextInt(500)];
+                random.nextBytes(data);
+                final Payload payload = Payload.ofBytes(data).withDepth(depth);
+                final int[][] cover = randomImage(40, (int) (payload.pixels() / 40 + 1));
+
+                final int[][] hidden = Steganography.embedPayload(cover, Payload.ofBytes(data), depth, order);
+                final Payload revealed = Steganography.revealPayload(hidden, order);
+                assertNotNull(revealed);
+                assertEquals(depth, revealed.getDepth());
+                assertArrayEquals(data, revealed.getData());
+
+                final IntRaster raster = Steganography.embedPayload(IntRaster.fromArray(cover), Payload.ofBytes(data), depth, order);
+                assertArrayEquals(hidden, raster.toArray());
+                assertArrayEquals(data, Steganography.revealPayload(raster, order).getData());
+                final IntRaster view = IntRaster.fromArray(randomImage(42, cover[0].length + 2)).subRaster(1, 1, cover[0].length, 40);
+                assertArrayEquals(data, Steganography.revealPayload(Steganography.embedPayload(view, payload, depth, order), order).getData());
+                for(int row = 0; row < view.height(); row++) // A view holding the payload is read in place
+                    for(int col = 0; col < view.width(); col++)
+                        view.set(row, col, hidden[row][col]);
+                assertArrayEquals(data, Steganography.revealPayload(view, order).getData());
+                assertEquals(Steganography.revealBitBuffer(raster, depth, order), Steganography.revealBitBuffer(view, depth, order));
+            }
+        }
+
+        final String text = "Three bits per pixel";
+        final int[][] hidden = Steganography.embedPayload(randomImage(20, 20), Payload.ofText(text), 3, TraversalOrder.LINEAR);
+        assertEquals(text, Steganography.revealText(hidden));
+    }
+}
@@ -0,0 +1,111 @@
+package test.custom;
+
+import static org.junit.Assert.*;
+import static test.custom.TestImages.randomImage;
+
+import main.BitBuffer;
+import main.EmbedMode;
+import main.IntRaster;
+import main.Steganography;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class EmbedModeTests
+{
+    private static final Random random = new Random();
+    public static final int TESTS = 20;
+
+    private static int[][] deepCopy(int[][] image)
+    {
+        final int[][] copy = new int[image.length][];
+        for(int row = 0; row < image.length; row++)
+            copy[row] = image[row].clone();
+        return copy;
+    }
+
+    private static boolean[] randomBits(int length)
+    {
+        final boolean[] bits = new boolean[length];
+        for(int i = 0; i < length; i++)
+            bits[i] = random.nextBoolean();
+        return bits;
+    }
+
+    @Test
+    public void modesMatchCopy()
+    {
+        for(int i = 0; i < TESTS; i++)
+        {
+            final int[][] cover = randomImage(1 + random.nextInt(40), 1 + random.nextInt(40));
+            final int[][] original = deepCopy(cover);
+            final boolean[] bits = randomBits(random.nextInt(cover.length * cover[0].length + 1));
+            final boolean[][] bw = new boolean[1 + random.nextInt(cover.length)][];
+            for(int row = 0; row < bw.length; row++)
+                bw[row] = randomBits(cover[0].length / 2 + 1);
+
+            final int[][] linear = Steganography.embedBitArray(cover, bits);
+            final int[][] spiral = Steganography.embedSpiralBitArray(cover, bits);
+            final int[][] image = Steganography.embedBWImage(cover, bw);
+
+            assertArrayEquals(linear, Steganography.embedBitArray(cover, bits, EmbedMode.COPY_ON_WRITE));
+            assertArrayEquals(spiral, Steganography.embedSpiralBitArray(cover, bits, EmbedMode.COPY_ON_WRITE));
+            assertArrayEquals(image, Steganography.embedBWImage(cover, bw, EmbedMode.COPY_ON_WRITE));
+            assertArrayEquals(linear, Steganography.embedBitBuffer(cover, BitBuffer.fromBitArray(bits), EmbedMode.COPY_ON_WRITE));
+            assertArrayEquals(original, cover);
+
+            assertSame(cover, Steganography.embedSpiralBitArray(cover, bits, EmbedMode.IN_PLACE));
+            assertArrayEquals(spiral, cover);
+        }
+    }
+
+    @Test
+    public void copyOnWriteSharesUntouchedRows()
+    {
+        final int[][] cover = randomImage(50, 40);
+        final boolean[] bits = randomBits(100); // Spans the first three rows
+
+        final int[][] linear = Steganography.embedBitArray(cover, bits, EmbedMode.COPY_ON_WRITE);
+        for(int row = 0; row < cover.length; row++)
+        {
+            if(row < 3)
+                assertNotSame(cover[row], linear[row]);
+            else
+                assertSame(cover[row], linear[row]);
+        }
+
+        final int[][] spiral = Steganography.embedSpiralBitArray(cover, randomBits(40), EmbedMode.COPY_ON_WRITE);
+        assertNotSame(cover[0], spiral[0]);
+        for(int row = 1; row < cover.length; row++) // The first side of the spiral is the top row
+            assertSame(cover[row], spiral[row]);
+
+        final int[][] copy = Steganography.embedBitArray(cover, bits, EmbedMode.COPY);
+        for(int row = 0; row < cover.length; row++)
+            assertNotSame(cover[row], copy[row]);
+    }
+
+    @Test
+    public void rasterInPlace()
+    {
+        for(int i = 0; i < TESTS; i++)
+        {
+            final int[][] image = randomImage(2 + random.nextInt(30), 2 + random.nextInt(30));
+            final IntRaster view = IntRaster.fromArray(image).subRaster(1, 1, image[0].length - 1, image.length - 1);
+            final BitBuffer bits = BitBuffer.fromBitArray(randomBits(random.nextInt(view.area() + 1)));
+
+            final IntRaster linear = Steganography.embedBitBuffer(view, bits);
+            final IntRaster spiral = Steganography.embedSpiralBitBuffer(view, bits);
+            assertEquals(linear, Steganography.embedBitBuffer(view, bits, EmbedMode.COPY_ON_WRITE));
+
+            final IntRaster target = view.copy();
+            assertSame(target, Steganography.embedSpiralBitBuffer(target, bits, EmbedMode.IN_PLACE));
+            assertEquals(spiral, target);
+            assertSame(view, Steganography.embedBitBuffer(view, bits, EmbedMode.IN_PLACE)); // Not contiguous
+            assertEquals(linear, view);
+
+            final IntRaster other = IntRaster.fromArray(image).subRaster(1, 1, image[0].length - 1, image.length - 1);
+            Steganography.embedSpiralBitBuffer(other, bits, EmbedMode.IN_PLACE);
+            assertEquals(spiral, other);
+        }
+    }
+}
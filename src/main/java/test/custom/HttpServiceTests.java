@@ -0,0 +1,186 @@
+package test.custom;
+
+import static org.junit.Assert.*;
+import static test.custom.TestImages.randomRaster;
+
+import main.BitRaster;
+import main.HttpService;
+import main.ImageMessage;
+import main.IntRaster;
+import main.Steganography;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+public class HttpServiceTests
+{
+    private HttpService service;
+
+    @Before
+    public void start() throws IOException
+    {
+        service = new HttpService(new InetSocketAddress("127.0.0.1", 0), 2);
+        service.start();
+    }
+
+    @After
+    public void stop()
+    {
+        service.stop(0);
+    }
+
+    private static byte[] png(IntRaster raster) throws IOException
+    {
+        final BufferedImage image = new BufferedImage(raster.width(), raster.height(), BufferedImage.TYPE_INT_RGB);
+        image.setRGB(0, 0, raster.width(), raster.height(), raster.data(), raster.offset(), raster.stride());
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    private static IntRaster raster(byte[] png) throws IOException
+    {
+        final BufferedImage image = ImageIO.read(new ByteArrayInputStream(png));
+        final IntRaster raster = new IntRaster(image.getWidth(), image.getHeight());
+        image.getRGB(0, 0, raster.width(), raster.height(), raster.data(), 0, raster.width());
+        for(int i = 0; i < raster.data().length; i++)
+            raster.data()[i] &= 0xffffff;
+        return raster;
+    }
+
+    private HttpURLConnection post(String path, byte[]... bodies) throws IOException
+    {
+        final URL url = new URL("http://127.0.0.1:" + service.address().getPort() + path);
+        final HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        try(OutputStream out = connection.getOutputStream())
+        {
+            for(byte[] body : bodies)
+                out.write(body);
+        }
+        return connection;
+    }
+
+    private static byte[] body(HttpURLConnection connection) throws IOException
+    {
+        final InputStream in = connection.getResponseCode() < 400 ? connection.getInputStream() : connection.getErrorStream();
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[8192];
+        int count;
+        while((count = in.read(buffer)) > 0)
+            out.write(buffer, 0, count);
+        in.close();
+        return out.toByteArray();
+    }
+
+    @Test
+    public void embedsThenRevealsText() throws IOException
+    {
+        final IntRaster cover = randomRaster(64, 48);
+        final String text = "H\u00e9llo & bye?";
+        final HttpURLConnection embed = post("/embed-text?compression=lz&text=" + URLEncoder.encode(text, "UTF-8"), png(cover));
+        assertEquals(200, embed.getResponseCode());
+        assertEquals("image/png", embed.getContentType());
+        final byte[] hidden = body(embed);
+        assertEquals(text, Steganography.revealText(raster(hidden)));
+
+        final HttpURLConnection reveal = post("/reveal-text", hidden);
+        assertEquals(200, reveal.getResponseCode());
+        assertEquals(text, new String(body(reveal), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void embedsThenRevealsImages() throws IOException
+    {
+        final IntRaster cover = randomRaster(80, 60);
+        final IntRaster message = new IntRaster(20, 10);
+        message.set(3, 4, 0xffffff);
+        final byte[] coverPng = png(cover);
+        for(String options : new String[] {"", "&spiral=true", "&compressed=true", "&spiral=true&compressed=true"})
+        {
+            final HttpURLConnection embed = post("/embed-image?coverLength=" + coverPng.length + options, coverPng, png(message));
+            assertEquals(options, 200, embed.getResponseCode());
+            final byte[] hidden = body(embed);
+
+            final HttpURLConnection reveal = post("/reveal-image?" + options, hidden);
+            assertEquals(200, reveal.getResponseCode());
+            final IntRaster revealed = raster(body(reveal));
+            final BitRaster bw = ImageMessage.toBW(ImageMessage.toGray(revealed), 128);
+            if(options.contains("compressed") || options.contains("spiral"))
+            {
+                assertEquals(20, bw.width());
+                assertEquals(10, bw.height());
+            }
+            assertTrue(bw.get(3, 4));
+            assertFalse(bw.get(3, 5));
+        }
+    }
+
+    @Test
+    public void rejectsInvalidRequests() throws IOException
+    {
+        assertEquals(400, post("/reveal-text", new byte[] {1, 2, 3}).getResponseCode());
+        assertEquals(400, post("/embed-text", png(randomRaster(16, 16))).getResponseCode());
+        final HttpURLConnection tooSmall = post("/embed-text?text=" + new String(new char[200]).replace('\0', 'x'), png(randomRaster(16, 16)));
+        assertEquals(400, tooSmall.getResponseCode());
+        assertTrue(new String(body(tooSmall), StandardCharsets.UTF_8).contains("too small"));
+        assertEquals(400, post("/embed-text?text=x&compression=zip", png(randomRaster(16, 16))).getResponseCode());
+        assertEquals(404, post("/reveal-text/more", png(randomRaster(16, 16))).getResponseCode());
+
+        final byte[] cover = png(randomRaster(64, 64));
+        final HttpURLConnection truncated = post("/reveal-text", Arrays.copyOf(cover, cover.length / 2));
+        assertEquals(400, truncated.getResponseCode());
+        assertTrue(new String(body(truncated), StandardCharsets.UTF_8).startsWith("Invalid image"));
+        final HttpURLConnection empty = post("/reveal-image?spiral=true", cover); // No payload nor dimensions
+        assertEquals(400, empty.getResponseCode());
+        assertTrue(new String(body(empty), StandardCharsets.UTF_8).startsWith("No image"));
+
+        final HttpURLConnection get = (HttpURLConnection) new URL("http://127.0.0.1:" + service.address().getPort() + "/reveal-text").openConnection();
+        assertEquals(405, get.getResponseCode());
+    }
+
+    @Test
+    public void rejectsOversizedRequests() throws IOException
+    {
+        service.stop(0);
+        service = new HttpService(new InetSocketAddress("127.0.0.1", 0), 1, 2000, 1000);
+        service.start();
+
+        assertEquals(200, post("/embed-text?text=x", png(randomRaster(20, 20))).getResponseCode());
+        final HttpURLConnection large = post("/reveal-text", png(new IntRaster(40, 26))); // Small file, many pixels
+        assertEquals(413, large.getResponseCode());
+        assertTrue(new String(body(large), StandardCharsets.UTF_8).contains("pixels"));
+        assertEquals(413, post("/reveal-text", new byte[3000]).getResponseCode());
+        final IntRaster bomb = Steganography.embedBWImage(new IntRaster(30, 30), new BitRaster(100, 100), true); // Few runs, many pixels
+        final HttpURLConnection revealed = post("/reveal-image", png(bomb));
+        assertEquals(400, revealed.getResponseCode());
+        assertTrue(new String(body(revealed), StandardCharsets.UTF_8).contains("more than 1000"));
+
+        final URL url = new URL("http://127.0.0.1:" + service.address().getPort() + "/reveal-text");
+        final HttpURLConnection chunked = (HttpURLConnection) url.openConnection(); // Without a length to check first
+        chunked.setRequestMethod("POST");
+        chunked.setDoOutput(true);
+        chunked.setChunkedStreamingMode(1000);
+        try(OutputStream out = chunked.getOutputStream())
+        {
+            out.write(png(randomRaster(40, 25))); // Few pixels, large file
+        }
+        assertEquals(413, chunked.getResponseCode());
+        assertTrue(new String(body(chunked), StandardCharsets.UTF_8).contains("bytes"));
+    }
+}
@@ -0,0 +1,115 @@
+package test.custom;
+
+import static org.junit.Assert.*;
+import static test.custom.TestImages.randomRaster;
+
+import main.EmbedMode;
+import main.Helper;
+import main.ImageCache;
+import main.IntRaster;
+import main.Steganography;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+public class ImageCacheTests
+{
+    private static File image(IntRaster pixels) throws IOException
+    {
+        final File file = File.createTempFile("cache", ".png");
+        file.deleteOnExit();
+        assertTrue(Helper.write(file.getPath(), pixels));
+        return file;
+    }
+
+    @After
+    public void disableCache()
+    {
+        Helper.setCache(null);
+    }
+
+    @Test
+    public void hitsReturnCopies() throws IOException
+    {
+        final ImageCache cache = new ImageCache(1 << 20);
+        Helper.setCache(cache);
+        final IntRaster pixels = randomRaster(40, 30);
+        final File file = image(pixels);
+
+        final IntRaster first = Helper.readRaster(file.getPath());
+        assertEquals(0, cache.hits());
+        assertEquals(1, cache.misses());
+        Steganography.embedBitArray(first, new boolean[] {true, false, true}, EmbedMode.IN_PLACE);
+        first.set(5, 5, ~pixels.get(5, 5) & 0xffffff);
+
+        final IntRaster second = Helper.readRaster(file.getPath());
+        assertEquals(pixels, second);
+        assertNotSame(first.data(), second.data());
+        final int[][] array = Helper.read(file.getPath());
+        array[0][0] ^= 1;
+        assertEquals(pixels, Helper.readRaster(file.getPath()));
+        assertEquals(3, cache.hits());
+        assertEquals(1, cache.misses());
+        assertEquals(4L * pixels.area(), cache.size());
+    }
+
+    @Test
+    public void changedFilesAreDecodedAgain() throws IOException
+    {
+        final ImageCache cache = new ImageCache(1 << 20);
+        Helper.setCache(cache);
+        final File file = image(randomRaster(10, 10));
+        Helper.readRaster(file.getPath());
+
+        final IntRaster changed = randomRaster(12, 10);
+        assertTrue(Helper.write(file.getPath(), changed));
+        assertTrue(file.setLastModified(file.lastModified() + 2000));
+        assertEquals(changed, Helper.readRaster(file.getPath()));
+        assertEquals(0, cache.hits());
+        assertEquals(2, cache.misses());
+        assertEquals(1, cache.count());
+        assertEquals(4L * changed.area(), cache.size());
+    }
+
+    @Test
+    public void leastRecentlyUsedAreEvicted() throws IOException
+    {
+        final ImageCache cache = new ImageCache(4L * 100 * 3); // Three 10x10 images
+        Helper.setCache(cache);
+        final File[] files = new File[4];
+        for(int i = 0; i < files.length; i++)
+            files[i] = image(randomRaster(10, 10));
+
+        Helper.readRaster(files[0].getPath());
+        Helper.readRaster(files[1].getPath());
+        Helper.readRaster(files[2].getPath());
+        Helper.readRaster(files[0].getPath()); // 1 is now the least recently used
+        Helper.readRaster(files[3].getPath());
+        assertEquals(1, cache.evictions());
+        assertEquals(3, cache.count());
+
+        Helper.readRaster(files[0].getPath());
+        Helper.readRaster(files[2].getPath());
+        Helper.readRaster(files[3].getPath());
+        assertEquals(4, cache.hits());
+        Helper.readRaster(files[1].getPath());
+        assertEquals(5, cache.misses());
+        assertEquals(2, cache.evictions());
+        assertTrue(cache.size() <= cache.capacity());
+    }
+
+    @Test
+    public void largerImagesAreNotKept() throws IOException
+    {
+        final ImageCache cache = new ImageCache(100);
+        Helper.setCache(cache);
+        final IntRaster pixels = randomRaster(10, 10);
+        final File file = image(pixels);
+        assertEquals(pixels, Helper.readRaster(file.getPath()));
+        assertEquals(pixels, Helper.readRaster(file.getPath()));
+        assertEquals(2, cache.misses());
+        assertEquals(0, cache.size());
+    }
+}
@@ -0,0 +1,179 @@
+package test.custom;
+
+import static org.junit.Assert.*;
+import static test.custom.TestImages.randomRaster;
+
+import main.BitBuffer;
+import main.Helper;
+import main.ImageMessage;
+import main.IntRaster;
+import main.LatencyHistogram;
+import main.Metrics;
+import main.Payload;
+import main.Steganography;
+import main.TraversalOrder;
+import org.junit.After;
+import org.junit.Test;
+
+import javax.management.Attribute;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+public class MetricsTests
+{
+    @After
+    public void disable()
+    {
+        Metrics.setEnabled(false);
+        Metrics.reset();
+    }
+
+    @Test
+    public void histogramPercentilesAreWithinTheBucketWidth()
+    {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        for(long i = 1; i <= 10000; i++)
+            histogram.record(i * 1000);
+        assertEquals(10000, histogram.count());
+        assertEquals(10000000, histogram.max());
+        assertEquals(5000500.0, histogram.mean(), 1e-6);
+        for(double percentile : new double[] {1, 50, 90, 99, 99.9})
+        {
+            final double expected = percentile * 100000;
+            final long actual = histogram.percentile(percentile);
+            assertTrue(percentile + ": " + actual, actual >= expected && actual <= expected * (1 + 1.0 / 16));
+        }
+        assertEquals(histogram.max(), histogram.percentile(100));
+
+        final LatencyHistogram small = new LatencyHistogram();
+        small.record(3);
+        small.record(-5);
+        small.record(Long.MAX_VALUE);
+        assertEquals(0, small.percentile(0));
+        assertEquals(3, small.percentile(50));
+        assertEquals(Long.MAX_VALUE, small.percentile(100));
+        small.reset();
+        assertEquals(0, small.count());
+        assertEquals(0, small.percentile(99));
+    }
+
+    @Test
+    public void disabledMetricsRecordNothing()
+    {
+        assertFalse(Metrics.isEnabled());
+        final IntRaster cover = randomRaster(64, 64);
+        Steganography.revealBitBuffer(Steganography.embedBitBuffer(cover, new BitBuffer(100)));
+        ImageMessage.toGray(cover);
+        for(Metrics.Stage stage : Metrics.Stage.values())
+            assertEquals(0, Metrics.latencies(stage).count());
+        assertEquals(0, Metrics.bitsEmbedded());
+    }
+
+    @Test
+    public void stagesAreMeasured() throws IOException
+    {
+        Metrics.setEnabled(true);
+        final IntRaster cover = randomRaster(64, 50);
+        final File file = Files.createTempFile("metrics", ".png").toFile();
+        file.deleteOnExit();
+
+        final BitBuffer message = new BitBuffer(1000);
+        message.set(7, true);
+        final IntRaster hidden = Steganography.embedSpiralBitBuffer(cover, message);
+        assertTrue(Helper.write(file.getPath(), hidden));
+        final IntRaster read = Helper.readRaster(file.getPath());
+        assertEquals(500, Steganography.revealBitBuffer(read, 0, 500).length());
+        ImageMessage.toBW(ImageMessage.toGray(read), 128);
+
+        assertEquals(1, Metrics.latencies(Metrics.Stage.EMBED).count());
+        assertEquals(1000, Metrics.bitsEmbedded());
+        assertEquals(500, Metrics.bitsRevealed());
+        assertEquals(3200, Metrics.pixels(Metrics.Stage.EMBED));
+        assertEquals(2, Metrics.latencies(Metrics.Stage.CONVERT).count());
+        assertEquals(6400, Metrics.pixels(Metrics.Stage.CONVERT));
+        assertEquals(1, Metrics.latencies(Metrics.Stage.ENCODE).count());
+        assertEquals(file.length(), Metrics.bytesWritten());
+        assertEquals(1, Metrics.latencies(Metrics.Stage.DECODE).count());
+        assertEquals(file.length(), Metrics.bytesRead());
+        assertTrue(Metrics.latencies(Metrics.Stage.EMBED).max() > 0);
+    }
+
+    @Test
+    public void arrayOperationsAreMeasuredOnce()
+    {
+        Metrics.setEnabled(true);
+        final int[][] cover = randomRaster(40, 30).toArray();
+        final int[][] hidden = Steganography.embedText(cover, "Array text", StandardCharsets.UTF_8);
+        assertEquals("Array text", Steganography.revealText(hidden));
+        Steganography.revealSpiralBitBuffer(Steganography.embedSpiralBitArray(cover, new boolean[300]));
+
+        assertEquals(2, Metrics.latencies(Metrics.Stage.EMBED).count());
+        assertEquals(2, Metrics.latencies(Metrics.Stage.REVEAL).count()); // The payload, then the spiral
+        assertEquals(2400, Metrics.pixels(Metrics.Stage.EMBED));
+        assertEquals(Payload.ofText("Array text", StandardCharsets.UTF_8).toBitBuffer().length() + 1200, Metrics.bitsRevealed());
+    }
+
+    @Test
+    public void arrayConversionsAreMeasured()
+    {
+        Metrics.setEnabled(true);
+        final int[][] image = randomRaster(40, 30).toArray();
+        ImageMessage.toRGBParallel(ImageMessage.toBW(ImageMessage.toGrayParallel(image), 128));
+
+        assertEquals(3, Metrics.latencies(Metrics.Stage.CONVERT).count());
+        assertEquals(3600, Metrics.pixels(Metrics.Stage.CONVERT));
+    }
+
+    @Test
+    public void spiralWalksAreMeasured()
+    {
+        Metrics.setEnabled(true);
+        final int[][] cover = randomRaster(40, 30).toArray();
+        Steganography.embedSpiralBitArray(cover, new boolean[300]);
+        Steganography.embedBitBuffer(cover, new BitBuffer(90), 1, TraversalOrder.SPIRAL); // 3 bits per pixel
+
+        assertEquals(2, Metrics.latencies(Metrics.Stage.TRAVERSE).count());
+        assertEquals(330, Metrics.pixels(Metrics.Stage.TRAVERSE));
+    }
+
+    @Test
+    public void unframedRevealsAreMeasuredOnce()
+    {
+        Metrics.setEnabled(true);
+        final IntRaster cover = randomRaster(40, 30);
+        cover.set(0, 0, 0); // Breaks the magic number of any payload
+        Steganography.revealText(cover);
+        Steganography.revealBWImage(cover.toArray());
+
+        assertEquals(2, Metrics.latencies(Metrics.Stage.REVEAL).count());
+        assertEquals(2400, Metrics.bitsRevealed());
+    }
+
+    @Test
+    public void metricsAreExposedThroughJmx() throws Exception
+    {
+        Metrics.setEnabled(true);
+        Steganography.embedBitBuffer(randomRaster(32, 32), new BitBuffer(64));
+
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        final ObjectName name = new ObjectName(Metrics.OBJECT_NAME);
+        assertEquals(Boolean.TRUE, server.getAttribute(name, "Enabled"));
+        assertEquals(64L, server.getAttribute(name, "BitsEmbedded"));
+        final TabularData stages = (TabularData) server.getAttribute(name, "Stages");
+        final CompositeData embed = (CompositeData) stages.get(new Object[] {"EMBED"}).get("value");
+        assertEquals(1L, embed.get("count"));
+        assertEquals(1024L, embed.get("pixels"));
+
+        server.invoke(name, "reset", null, null);
+        assertEquals(0L, server.getAttribute(name, "BitsEmbedded"));
+        server.setAttribute(name, new Attribute("Enabled", false));
+        assertFalse(Metrics.isEnabled());
+    }
+}
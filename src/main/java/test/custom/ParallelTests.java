@@ -0,0 +1,90 @@
+package test.custom;
+
+import static org.junit.Assert.*;
+import static test.custom.TestImages.randomImage;
+
+import main.BitBuffer;
+import main.ImageMessage;
+import main.Parallel;
+import main.Steganography;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+public class ParallelTests
+{
+    private static final Random random = new Random();
+    public static final int TESTS = 20;
+
+    private ForkJoinPool pool;
+    private int cutoff;
+
+    @Before
+    public void setUp()
+    {
+        pool = Parallel.newPool(3);
+        cutoff = Parallel.getCutoff();
+        Parallel.setCutoff(50); // Forces small images to be split
+    }
+
+    @After
+    public void tearDown()
+    {
+        Parallel.setCutoff(cutoff);
+        pool.shutdown();
+    }
+
+    @Test
+    public void conversionsMatchSequential()
+    {
+        for(int i = 0; i < TESTS; i++)
+        {
+            final int[][] image = randomImage(1 + random.nextInt(80), 1 + random.nextInt(80));
+            final int threshold = random.nextInt(256);
+
+            final int[][] gray = ImageMessage.toGray(image);
+            assertArrayEquals(gray, ImageMessage.toGrayParallel(image, pool));
+            assertArrayEquals(ImageMessage.toRGB(gray), ImageMessage.toRGBParallel(gray, pool));
+
+            final boolean[][] bw = ImageMessage.toBW(gray, threshold);
+            assertArrayEquals(bw, ImageMessage.toBWParallel(gray, threshold, pool));
+            assertArrayEquals(ImageMessage.toRGB(bw), ImageMessage.toRGBParallel(bw, pool));
+        }
+
+        final int[][] image = randomImage(30, 30);
+        assertArrayEquals(ImageMessage.toGray(image), ImageMessage.toGrayParallel(image));
+    }
+
+    @Test
+    public void linearEmbeddingMatchesSequential()
+    {
+        for(int i = 0; i < TESTS; i++)
+        {
+            final int[][] cover = randomImage(1 + random.nextInt(80), 1 + random.nextInt(80));
+            final boolean[][] bw = new boolean[1 + random.nextInt(cover.length)][1 + random.nextInt(cover[0].length)];
+            for(boolean[] line : bw)
+                for(int col = 0; col < line.length; col++)
+                    line[col] = random.nextBoolean();
+            final boolean[] bits = new boolean[random.nextInt(cover.length * cover[0].length + 1)];
+            for(int j = 0; j < bits.length; j++)
+                bits[j] = random.nextBoolean();
+            final BitBuffer buffer = BitBuffer.fromBitArray(bits);
+
+            assertArrayEquals(Steganography.embedBWImage(cover, bw), Steganography.embedBWImageParallel(cover, bw, pool));
+            assertArrayEquals(Steganography.revealBWImage(cover), Steganography.revealBWImageParallel(cover, pool));
+            assertArrayEquals(Steganography.embedBitArray(cover, bits), Steganography.embedBitArrayParallel(cover, bits, pool));
+            assertArrayEquals(Steganography.revealBitArray(cover), Steganography.revealBitArrayParallel(cover, pool));
+            assertArrayEquals(Steganography.embedBitBuffer(cover, buffer), Steganography.embedBitBufferParallel(cover, buffer, pool));
+            assertEquals(Steganography.revealBitBuffer(cover), Steganography.revealBitBufferParallel(cover, pool));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidCutoff()
+    {
+        Parallel.setCutoff(0);
+    }
+}
@@ -0,0 +1,113 @@
+package test.custom;
+
+import static org.junit.Assert.*;
+import static test.custom.TestImages.randomImage;
+
+import main.Crc32c;
+import main.IntRaster;
+import main.Payload;
+import main.Steganography;
+import org.junit.Test;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+public class PayloadTests
+{
+    private static final Random random = new Random();
+
+    @Test
+    public void checksum()
+    {
+        assertEquals(0xe3069283L, Crc32c.of("123456789".getBytes()));
+        assertEquals(0L, Crc32c.of(new byte[0]));
+    }
+
+    @Test
+    public void serialization()
+    {
+        final byte[] data = new byte[1000];
+        random.nextBytes(data);
+        final Payload binary = Payload.fromBitBuffer(Payload.ofBytes(data).toBitBuffer());
+        assertEquals(Payload.TYPE_BINARY, binary.getType());
+        assertArrayEquals(data, binary.getData());
+
+        final String message = "Hello! This is a super secret hidden message! \u00e9\u4e2d";
+        final Payload text = Payload.fromBitBuffer(Payload.ofText(message).toBitBuffer());
+        assertEquals(Payload.TYPE_TEXT, text.getType());
+        assertEquals(message, text.getText());
+
+        assertEquals(Payload.HEADER_SIZE + 8 * data.length, Payload.ofBytes(data).toBitBuffer().length());
+    }
+
+    @Test
+    public void embedReveal()
+    {
+        final int[][] cover = randomImage(100, 100);
+        final String message = "Hello! This is a super secret hidden message!";
+        final int[][] hidden = Steganography.embedPayload(cover, Payload.ofText(message));
+        assertEquals(message, Steganography.revealText(hidden));
+        assertEquals(message, Steganography.revealText(IntRaster.fromArray(hidden)));
+        assertEquals(message, Steganography.revealPayload(IntRaster.fromArray(hidden).subRaster(0, 0, 100, 100)).getText());
+
+        final byte[] data = new byte[500];
+        random.nextBytes(data);
+        final IntRaster raster = Steganography.embedPayload(IntRaster.fromArray(cover), Payload.ofBytes(data));
+        assertArrayEquals(data, Steganography.revealPayload(raster).getData());
+        assertArrayEquals(data, Steganography.revealPayload(raster.toArray()).getData());
+    }
+
+    @Test
+    public void onlyPayloadPixelsAreRead()
+    {
+        final int[][] cover = randomImage(50, 50);
+        final String message = "short";
+        final int[][] hidden = Steganography.embedPayload(cover, Payload.ofText(message));
+
+        final int used = Payload.HEADER_SIZE + message.length() * 16;
+        for(int i = used; i < 50 * 50; i++) // Anything past the payload is ignored
+            hidden[i / 50][i % 50] ^= 1;
+        assertEquals(message, Steganography.revealText(hidden));
+
+        hidden[used / 50 - 1][0] ^= 1; // Corrupt the data
+        assertNull(Steganography.revealPayload(hidden));
+    }
+
+    @Test
+    public void unframedCovers()
+    {
+        assertNull(Steganography.revealPayload(new int[10][10])); // Too small for a header
+        assertNull(Steganography.revealPayload(new int[20][20]));
+
+        final int[][] legacy = Steganography.embedText(randomImage(20, 20), "legacy");
+        assertEquals("legacy", Steganography.revealText(legacy).substring(0, 6));
+    }
+
+    @Test
+    public void charsets()
+    {
+        final String message = "Mostly ASCII, with an \u00e9 and a \u4e2d";
+        final Payload utf8 = Payload.ofText(message, StandardCharsets.UTF_8);
+        assertEquals(message.length() + 1 + 2, utf8.getData().length);
+        assertEquals(StandardCharsets.UTF_8, Payload.fromBitBuffer(utf8.toBitBuffer()).getCharset());
+        assertEquals(StandardCharsets.UTF_16LE, Payload.ofText(message).getCharset());
+        assertEquals(message, Payload.ofText(message, StandardCharsets.UTF_16BE).getText());
+
+        final int[][] cover = randomImage(30, 30);
+        assertEquals(message, Steganography.revealText(Steganography.embedText(cover, message, StandardCharsets.UTF_8)));
+        assertEquals(message, Steganography.revealText(Steganography.embedText(IntRaster.fromArray(cover), message, StandardCharsets.UTF_8)));
+        assertEquals(message, Steganography.revealText(Steganography.embedText(cover, message, StandardCharsets.UTF_16LE)));
+        final String latin = "caf\u00e9";
+        assertEquals(latin, Steganography.revealText(Steganography.embedText(cover, latin, StandardCharsets.ISO_8859_1)));
+
+        assertTrue(Payload.isSupported(StandardCharsets.US_ASCII));
+        assertFalse(Payload.isSupported(Charset.forName("UTF-32")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unsupportedCharset()
+    {
+        Payload.ofText("text", Charset.forName("UTF-32"));
+    }
+}
@@ -0,0 +1,82 @@
+package test.custom;
+
+import static org.junit.Assert.*;
+
+import main.BitBuffer;
+import main.ImageMessage;
+import main.Kernels;
+import main.PixelKernels;
+import main.Steganography;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class PixelKernelsTests
+{
+    private static final Random random = new Random();
+    public static final int TESTS = 20;
+
+    private static int[] randomPixels(int length)
+    {
+        final int[] pixels = new int[length];
+        for(int i = 0; i < length; i++)
+            pixels[i] = random.nextInt(1 << 24);
+        return pixels;
+    }
+
+    @Test
+    public void grayOfEverySum()
+    {
+        final int[] source = new int[766];
+        for(int sum = 0; sum <= 765; sum++)
+        {
+            final int red = Math.min(sum, 255), green = Math.min(sum - red, 255), blue = sum - red - green;
+            source[sum] = ImageMessage.getRGB(red, green, blue);
+        }
+        final int[] target = new int[source.length];
+        Kernels.best().toGray(source, 0, target, 0, source.length);
+        for(int sum = 0; sum <= 765; sum++)
+            assertEquals(sum / 3, target[sum]);
+    }
+
+    @Test
+    public void bestMatchesScalar()
+    {
+        final PixelKernels best = Kernels.best(), scalar = Kernels.scalar();
+        for(int i = 0; i < TESTS; i++)
+        {
+            final int length = random.nextInt(300), offset = random.nextInt(5), threshold = random.nextInt(256);
+            final int[] pixels = randomPixels(offset + length);
+
+            final int[] expectedGray = new int[length], actualGray = new int[length];
+            scalar.toGray(pixels, offset, expectedGray, 0, length);
+            best.toGray(pixels, offset, actualGray, 0, length);
+            assertArrayEquals(expectedGray, actualGray);
+            for(int j = 0; j < length; j++)
+                assertEquals(ImageMessage.getGray(pixels[offset + j]), actualGray[j]);
+
+            final long[] expectedBW = new long[BitBuffer.wordCount(length)], actualBW = new long[expectedBW.length];
+            scalar.toBW(expectedGray, 0, length, threshold, expectedBW);
+            best.toBW(actualGray, 0, length, threshold, actualBW);
+            assertArrayEquals(expectedBW, actualBW);
+            final BitBuffer bw = new BitBuffer(actualBW, length);
+            for(int j = 0; j < length; j++)
+                assertEquals(ImageMessage.getBW(actualGray[j], threshold), bw.get(j));
+
+            final boolean[] bits = new boolean[length];
+            for(int j = 0; j < length; j++)
+                bits[j] = random.nextBoolean();
+            final long[] words = BitBuffer.fromBitArray(bits).words();
+            final int[] expected = pixels.clone(), actual = pixels.clone();
+            scalar.embed(expected, offset, words, length);
+            best.embed(actual, offset, words, length);
+            assertArrayEquals(expected, actual);
+            for(int j = 0; j < length; j++)
+                assertEquals(Steganography.embedInLSB(pixels[offset + j], bits[j]), actual[offset + j]);
+
+            final long[] revealed = new long[words.length];
+            best.reveal(actual, offset, revealed, length);
+            assertArrayEquals(words, revealed);
+        }
+    }
+}
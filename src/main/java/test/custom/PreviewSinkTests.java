@@ -0,0 +1,147 @@
+package test.custom;
+
+import static org.junit.Assert.*;
+
+import main.AbstractPreviewSink;
+import main.Helper;
+import main.IntRaster;
+import main.NullPreviewSink;
+import main.ThumbnailPreviewSink;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class PreviewSinkTests
+{
+    @After
+    public void reset()
+    {
+        Helper.setPreviewSink(null);
+    }
+
+    private static IntRaster gradient(int width, int height)
+    {
+        final IntRaster raster = new IntRaster(width, height);
+        for(int row = 0; row < height; row++)
+            for(int col = 0; col < width; col++)
+                raster.set(row, col, (row & 0xff) << 16 | (col & 0xff) << 8 | 0x40);
+        return raster;
+    }
+
+    private static File temporaryDirectory() throws IOException
+    {
+        final File directory = Files.createTempDirectory("previews").toFile();
+        directory.deleteOnExit();
+        return directory;
+    }
+
+    private static File[] sortedFiles(File directory)
+    {
+        final File[] files = directory.listFiles();
+        Arrays.sort(files);
+        for(File file : files)
+            file.deleteOnExit();
+        return files;
+    }
+
+    @Test
+    public void thumbnailsAreScaledAndWrittenByClose() throws IOException
+    {
+        final File directory = temporaryDirectory();
+        final ThumbnailPreviewSink sink = new ThumbnailPreviewSink(directory, 64, 16);
+        sink.show(gradient(400, 200), "Cover image");
+        sink.show(gradient(30, 20), "tiny/../title");
+        sink.close();
+
+        assertEquals(2, sink.written());
+        assertEquals(0, sink.dropped());
+        assertEquals(0, sink.failed());
+
+        final File[] files = sortedFiles(directory);
+        assertEquals(2, files.length);
+        assertEquals("0000-Cover-image.png", files[0].getName());
+        assertEquals("0001-tiny-..-title.png", files[1].getName());
+
+        final IntRaster large = Helper.readRaster(files[0].getPath());
+        assertEquals(64, large.width());
+        assertEquals(32, large.height());
+        assertEquals(gradient(400, 200).get(100, 200), large.get(16, 32));
+
+        final IntRaster small = Helper.readRaster(files[1].getPath());
+        assertArrayEquals(gradient(30, 20).toArray(), small.toArray());
+    }
+
+    @Test
+    public void thumbnailsShownAfterCloseAreDropped() throws IOException
+    {
+        final File directory = temporaryDirectory();
+        final ThumbnailPreviewSink sink = new ThumbnailPreviewSink(directory);
+        sink.close();
+        sink.show(gradient(10, 10), "late");
+        assertEquals(0, sink.written());
+        assertEquals(1, sink.dropped());
+        assertEquals(0, directory.listFiles().length);
+    }
+
+    @Test
+    public void helperShowsWithTheSinkSet()
+    {
+        final List<String> titles = new ArrayList<>();
+        Helper.setPreviewSink(new AbstractPreviewSink()
+        {
+            @Override
+            public void show(IntRaster raster, String title)
+            {
+                titles.add(title + " " + raster.width() + "x" + raster.height());
+            }
+
+            @Override
+            public void close()
+            {
+            }
+        });
+        Helper.show(gradient(5, 3), "raster");
+        Helper.show(new int[2][7], "array");
+        assertEquals(Arrays.asList("raster 5x3", "array 7x2"), titles);
+    }
+
+    @Test
+    public void arrayThumbnailsMatchRasterThumbnails() throws IOException
+    {
+        final File directory = temporaryDirectory();
+        final ThumbnailPreviewSink sink = new ThumbnailPreviewSink(directory, 64, 16);
+        Helper.setPreviewSink(sink);
+        Helper.show(gradient(400, 200), "raster");
+        Helper.show(gradient(400, 200).toArray(), "array");
+        sink.close();
+
+        final File[] files = sortedFiles(directory);
+        assertEquals(2, files.length);
+        assertArrayEquals(Helper.readRaster(files[0].getPath()).toArray(), Helper.readRaster(files[1].getPath()).toArray());
+    }
+
+    @Test
+    public void noneModeDiscardsImages()
+    {
+        final String mode = System.getProperty("steganography.preview");
+        System.setProperty("steganography.preview", "none");
+        try
+        {
+            assertTrue(Helper.getPreviewSink() instanceof NullPreviewSink);
+            Helper.show(gradient(4, 4), "discarded");
+        }
+        finally
+        {
+            if(mode == null)
+                System.clearProperty("steganography.preview");
+            else
+                System.setProperty("steganography.preview", mode);
+        }
+    }
+}
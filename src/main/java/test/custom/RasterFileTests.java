@@ -0,0 +1,89 @@
+package test.custom;
+
+import static org.junit.Assert.*;
+import static test.custom.TestImages.randomRaster;
+
+import main.Helper;
+import main.IntRaster;
+import main.RasterFile;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Random;
+
+public class RasterFileTests
+{
+    private static final Random random = new Random();
+
+    private static File temp(String extension) throws IOException
+    {
+        final File file = File.createTempFile("raster", extension);
+        file.deleteOnExit();
+        RasterFile.sidecar(file).deleteOnExit();
+        return file;
+    }
+
+    @Test
+    public void roundTrip() throws IOException
+    {
+        final File file = temp(RasterFile.EXTENSION);
+        for(int i = 0; i < 10; i++)
+        {
+            final IntRaster parent = randomRaster(1 + random.nextInt(50), 1 + random.nextInt(50));
+            final int row = random.nextInt(parent.height()), col = random.nextInt(parent.width());
+            final IntRaster view = parent.subRaster(row, col, parent.width() - col, parent.height() - row);
+            RasterFile.write(file, view);
+            assertEquals(view, RasterFile.read(file));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsOtherFiles() throws IOException
+    {
+        final File file = temp(".png");
+        Helper.write(file.getPath(), randomRaster(4, 4));
+        RasterFile.read(file);
+    }
+
+    @Test
+    public void sidecarIsWrittenThenUsed() throws IOException
+    {
+        final File image = temp(".png");
+        final IntRaster pixels = randomRaster(30, 20);
+        Helper.write(image.getPath(), pixels);
+        final File sidecar = RasterFile.sidecar(image);
+        assertFalse(sidecar.exists());
+
+        assertEquals(pixels, Helper.readRaster(image.getPath(), true));
+        assertTrue(sidecar.isFile());
+        assertEquals(pixels, RasterFile.readSidecar(image));
+
+        final IntRaster marked = pixels.copy(); // Proves the next read comes from the copy
+        marked.set(0, 0, pixels.get(0, 0) ^ 1);
+        RasterFile.writeSidecar(image, marked, image.length(), image.lastModified());
+        assertEquals(marked, Helper.readRaster(image.getPath(), true));
+        assertArrayEquals(marked.toArray(), Helper.read(image.getPath(), true));
+    }
+
+    @Test
+    public void staleOrBrokenSidecarIsReplaced() throws IOException
+    {
+        final File image = temp(".png");
+        final IntRaster pixels = randomRaster(30, 20);
+        Helper.write(image.getPath(), pixels);
+        RasterFile.writeSidecar(image, randomRaster(30, 20), image.length(), image.lastModified() - 1000);
+        assertNull(RasterFile.readSidecar(image));
+        assertEquals(pixels, Helper.readRaster(image.getPath(), true));
+        assertEquals(pixels, RasterFile.readSidecar(image));
+
+        try(RandomAccessFile file = new RandomAccessFile(RasterFile.sidecar(image), "rw"))
+        {
+            file.setLength(file.length() - 4); // Truncated
+        }
+        assertNull(RasterFile.readSidecar(image));
+        assertEquals(pixels, Helper.readRaster(image.getPath(), true));
+        assertEquals(pixels, RasterFile.readSidecar(image));
+    }
+}
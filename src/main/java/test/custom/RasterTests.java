@@ -0,0 +1,133 @@
+package test.custom;
+
+import static org.junit.Assert.*;
+import static test.custom.TestImages.randomImage;
+
+import main.BitBuffer;
+import main.BitRaster;
+import main.ImageMessage;
+import main.IntRaster;
+import main.Steganography;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class RasterTests
+{
+    private static final Random random = new Random();
+    public static final int TESTS = 50;
+
+    private static boolean[][] randomBW(int height, int width)
+    {
+        final boolean[][] image = new boolean[height][width];
+        for(int row = 0; row < height; row++)
+            for(int col = 0; col < width; col++)
+                image[row][col] = random.nextBoolean();
+        return image;
+    }
+
+    @Test
+    public void arrayConversions()
+    {
+        final int[][] image = randomImage(7, 11);
+        final IntRaster raster = IntRaster.fromArray(image);
+        assertEquals(11, raster.width());
+        assertEquals(7, raster.height());
+        assertTrue(raster.isContiguous());
+        assertEquals(image[3][5], raster.get(3, 5));
+        assertArrayEquals(image, raster.toArray());
+
+        final boolean[][] bw = randomBW(5, 13);
+        assertArrayEquals(bw, BitRaster.fromArray(bw).toArray());
+    }
+
+    @Test
+    public void subRasterViews()
+    {
+        final int[][] image = randomImage(8, 10);
+        final IntRaster raster = IntRaster.fromArray(image);
+        final IntRaster view = raster.subRaster(2, 3, 4, 5);
+        assertFalse(view.isContiguous());
+        assertEquals(image[2][3], view.get(0, 0));
+        assertEquals(image[6][6], view.get(4, 3));
+
+        view.set(1, 1, 42);
+        assertEquals(42, raster.get(3, 4));
+
+        final IntRaster copy = view.copy();
+        assertTrue(copy.isContiguous());
+        assertEquals(view, copy);
+        copy.set(0, 0, -1);
+        assertNotEquals(-1, raster.get(2, 3));
+
+        final int[][] expected = new int[5][4];
+        for(int row = 0; row < 5; row++)
+            System.arraycopy(raster.toArray()[row + 2], 3, expected[row], 0, 4);
+        assertArrayEquals(expected, view.toArray());
+    }
+
+    @Test
+    public void conversionsMatchArrays()
+    {
+        for(int i = 0; i < TESTS; i++)
+        {
+            final int[][] image = randomImage(1 + random.nextInt(20), 1 + random.nextInt(20));
+            final IntRaster raster = IntRaster.fromArray(image);
+            final int threshold = random.nextInt(256);
+
+            final int[][] gray = ImageMessage.toGray(image);
+            assertArrayEquals(gray, ImageMessage.toGray(raster).toArray());
+            assertArrayEquals(ImageMessage.toRGB(gray), ImageMessage.toRGB(IntRaster.fromArray(gray)).toArray());
+
+            final boolean[][] bw = ImageMessage.toBW(gray, threshold);
+            final BitRaster bwRaster = ImageMessage.toBW(IntRaster.fromArray(gray), threshold);
+            assertArrayEquals(bw, bwRaster.toArray());
+            assertArrayEquals(ImageMessage.toRGB(bw), ImageMessage.toRGB(bwRaster).toArray());
+
+            final BitBuffer bits = ImageMessage.bwImageToBitBuffer(bwRaster);
+            assertArrayEquals(ImageMessage.bwImageToBitArray(bw), bits.toBitArray());
+            assertEquals(bwRaster, ImageMessage.bitBufferToBitRaster(bits));
+        }
+    }
+
+    @Test
+    public void embedRevealMatchArrays()
+    {
+        for(int i = 0; i < TESTS; i++)
+        {
+            final int[][] cover = randomImage(4 + random.nextInt(20), 4 + random.nextInt(20));
+            final IntRaster raster = IntRaster.fromArray(cover);
+            final boolean[][] bw = randomBW(1 + random.nextInt(cover.length), 1 + random.nextInt(cover[0].length));
+            final BitRaster bwRaster = BitRaster.fromArray(bw);
+            final boolean[] bits = new boolean[random.nextInt(cover.length * cover[0].length + 1)];
+            for(int j = 0; j < bits.length; j++)
+                bits[j] = random.nextBoolean();
+
+            assertArrayEquals(Steganography.embedBWImage(cover, bw), Steganography.embedBWImage(raster, bwRaster).toArray());
+            assertArrayEquals(Steganography.revealBWImage(cover), Steganography.revealBWImage(raster).toArray());
+            assertArrayEquals(Steganography.embedBitArray(cover, bits), Steganography.embedBitArray(raster, bits).toArray());
+            assertArrayEquals(Steganography.revealBitArray(cover), Steganography.revealBitArray(raster));
+            assertArrayEquals(Steganography.embedSpiralBitArray(cover, bits), Steganography.embedSpiralBitArray(raster, bits).toArray());
+            assertArrayEquals(Steganography.revealSpiralBitArray(cover), Steganography.revealSpiralBitArray(raster));
+            assertEquals(Steganography.revealText(cover), Steganography.revealText(raster));
+            assertArrayEquals(raster.toArray(), cover); // Inputs are left untouched
+        }
+
+        final IntRaster cover = IntRaster.fromArray(randomImage(40, 40));
+        final BitRaster message = BitRaster.fromArray(randomBW(5, 6));
+        assertEquals(message, Steganography.revealSpiralImage(Steganography.embedSpiralImage(cover, message)));
+        assertEquals("Hello", Steganography.revealText(Steganography.embedText(cover, "Hello")).substring(0, 5));
+    }
+
+    @Test
+    public void embedIntoView()
+    {
+        final IntRaster raster = IntRaster.fromArray(randomImage(30, 30));
+        final IntRaster view = raster.subRaster(10, 10, 12, 12);
+        final BitRaster message = BitRaster.fromArray(randomBW(4, 4));
+        final IntRaster hidden = Steganography.embedSpiralImage(view, message);
+        assertEquals(message, Steganography.revealSpiralImage(hidden));
+        assertEquals(Steganography.revealSpiralBitBuffer(view.copy()), Steganography.revealSpiralBitBuffer(view));
+        assertEquals(Steganography.revealBitBuffer(view.copy()), Steganography.revealBitBuffer(view));
+    }
+}
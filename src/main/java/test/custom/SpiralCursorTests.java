@@ -0,0 +1,133 @@
+package test.custom;
+
+import static org.junit.Assert.*;
+
+import main.BitBuffer;
+import main.IntRaster;
+import main.Parallel;
+import main.SpiralCursor;
+import main.Steganography;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+public class SpiralCursorTests
+{
+    private static final Random random = new Random();
+
+    @Test
+    public void randomAccessMatchesSteps()
+    {
+        for(int rows = 1; rows <= 12; rows++)
+        {
+            for(int cols = 1; cols <= 12; cols++)
+            {
+                final SpiralCursor cursor = new SpiralCursor(rows, cols);
+                for(int i = 0; i < rows * cols; i++)
+                {
+                    final SpiralCursor seek = new SpiralCursor(rows, cols, i);
+                    assertEquals(cursor.getRow(), seek.getRow());
+                    assertEquals(cursor.getCol(), seek.getCol());
+                    assertEquals(i, SpiralCursor.indexOf(rows, cols, cursor.getRow(), cursor.getCol()));
+
+                    // A sought cursor keeps stepping along the same spiral
+                    for(int j = i + 1; j < rows * cols; j++)
+                    {
+                        seek.step();
+                        final SpiralCursor expected = new SpiralCursor(rows, cols, j);
+                        assertEquals(expected.getRow(), seek.getRow());
+                        assertEquals(expected.getCol(), seek.getCol());
+                    }
+
+                    cursor.step();
+                }
+            }
+        }
+    }
+
+    @Test
+    public void runsMatchSteps()
+    {
+        for(int rows = 1; rows <= 12; rows++)
+        {
+            for(int cols = 1; cols <= 12; cols++)
+            {
+                final SpiralCursor expected = new SpiralCursor(rows, cols);
+                final SpiralCursor runs = new SpiralCursor(rows, cols, random.nextInt(rows * cols));
+                for(int i = SpiralCursor.indexOf(rows, cols, runs.getRow(), runs.getCol()); i > 0; i--)
+                    expected.step();
+
+                int left = rows * cols - SpiralCursor.indexOf(rows, cols, runs.getRow(), runs.getCol());
+                while(left > 0)
+                {
+                    final int run = runs.getRun();
+                    assertTrue(run > 0 && run <= left);
+                    final int steps = 1 + random.nextInt(run); // Whole runs, or only a part
+                    for(int j = 0; j < steps; j++)
+                    {
+                        assertEquals(expected.getRow(), runs.getRow() + j * runs.getRowStep());
+                        assertEquals(expected.getCol(), runs.getCol() + j * runs.getColStep());
+                        expected.step();
+                    }
+                    runs.advance(steps);
+                    left -= steps;
+                }
+            }
+        }
+    }
+
+    @Test
+    public void randomAccessOnLargeSpiral()
+    {
+        final int rows = 1022, cols = 1024;
+        final int[] positions = new int[rows * cols];
+        final SpiralCursor cursor = new SpiralCursor(rows, cols);
+        for(int i = 0; i < positions.length; i++)
+        {
+            positions[i] = cursor.getRow() * cols + cursor.getCol();
+            cursor.step();
+        }
+
+        for(int test = 0; test < 10000; test++)
+        {
+            final int i = random.nextInt(positions.length);
+            final SpiralCursor seek = new SpiralCursor(rows, cols, i);
+            assertEquals(positions[i], seek.getRow() * cols + seek.getCol());
+            assertEquals(i, SpiralCursor.indexOf(rows, cols, positions[i] / cols, positions[i] % cols));
+        }
+    }
+
+    @Test
+    public void parallelMatchesSequential()
+    {
+        final int cutoff = Parallel.getCutoff();
+        final ForkJoinPool pool = Parallel.newPool(4);
+        Parallel.setCutoff(64);
+        try
+        {
+            for(int test = 0; test < 20; test++)
+            {
+                final int rows = 1 + random.nextInt(60), cols = 1 + random.nextInt(60);
+                final int[][] cover = new int[rows][cols];
+                for(int row = 0; row < rows; row++)
+                    for(int col = 0; col < cols; col++)
+                        cover[row][col] = random.nextInt(1 << 24);
+                final BitBuffer message = new BitBuffer(random.nextInt(rows * cols + 1));
+                for(int i = 0; i < message.length(); i++)
+                    message.set(i, random.nextBoolean());
+                final IntRaster raster = IntRaster.fromArray(cover);
+
+                assertArrayEquals(Steganography.embedSpiralBitBuffer(cover, message), Steganography.embedSpiralBitBufferParallel(cover, message, pool));
+                assertEquals(Steganography.revealSpiralBitBuffer(cover), Steganography.revealSpiralBitBufferParallel(cover, pool));
+                assertEquals(Steganography.embedSpiralBitBuffer(raster, message), Steganography.embedSpiralBitBufferParallel(raster, message, pool));
+                assertEquals(Steganography.revealSpiralBitBuffer(raster), Steganography.revealSpiralBitBufferParallel(raster));
+            }
+        }
+        finally
+        {
+            Parallel.setCutoff(cutoff);
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package test.custom;
+
+import static org.junit.Assert.*;
+import static test.custom.TestImages.randomRaster;
+
+import main.BitBuffer;
+import main.IntRaster;
+import main.LsbInputStream;
+import main.LsbOutputStream;
+import main.Steganography;
+import main.TraversalOrder;
+import org.junit.Test;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+public class StreamTests
+{
+    private static final Random random = new Random();
+    public static final int TESTS = 20;
+
+    private static BitBuffer bitsOf(byte[] data)
+    {
+        final BitBuffer bits = new BitBuffer(data.length * 8);
+        for(int i = 0; i < data.length; i++)
+            bits.setBits(i * 8, 8, data[i]);
+        return bits;
+    }
+
+    @Test
+    public void matchesBulkEmbedding() throws IOException
+    {
+        for(int i = 0; i < TESTS; i++)
+        {
+            final IntRaster cover = randomRaster(1 + random.nextInt(40), 1 + random.nextInt(40));
+            final int depth = random.nextInt(Steganography.MAX_DEPTH + 1);
+            final TraversalOrder order = TraversalOrder.values()[random.nextInt(2)];
+            final byte[] data = new byte[random.nextInt((int) ((long) cover.area() * Steganography.bitsPerPixel(depth) / 8) + 1)];
+            random.nextBytes(data);
+
+            final IntRaster hidden = cover.copy();
+            final LsbOutputStream out = new LsbOutputStream(hidden, order, depth);
+            out.write(data, 0, data.length / 2);
+            for(int j = data.length / 2; j < data.length; j++)
+                out.write(data[j]);
+            out.close();
+
+            final BitBuffer revealed = Steganography.revealBitBuffer(hidden, depth, order);
+            assertEquals(bitsOf(data), revealed.copyOfRange(0, data.length * 8));
+            final BitBuffer before = Steganography.revealBitBuffer(cover, depth, order);
+            assertEquals(before.copyOfRange(data.length * 8, before.length()), revealed.copyOfRange(data.length * 8, revealed.length()));
+
+            final LsbInputStream in = new LsbInputStream(hidden, order, depth);
+            assertEquals(cover.area() * (long) Steganography.bitsPerPixel(depth) / 8, in.available());
+            final byte[] read = new byte[data.length];
+            new DataInputStream(in).readFully(read);
+            assertArrayEquals(data, read);
+        }
+    }
+
+    @Test
+    public void framedStream() throws IOException
+    {
+        final IntRaster cover = randomRaster(300, 200);
+        final byte[] file = new byte[5000];
+        random.nextBytes(file);
+
+        final DataOutputStream out = new DataOutputStream(new LsbOutputStream(cover, TraversalOrder.SPIRAL, 2));
+        out.writeInt(file.length);
+        out.write(file);
+        out.close();
+
+        final DataInputStream in = new DataInputStream(new LsbInputStream(cover, TraversalOrder.SPIRAL, 2));
+        final byte[] read = new byte[in.readInt()];
+        in.readFully(read);
+        assertArrayEquals(file, read);
+    }
+
+    @Test
+    public void endOfCover() throws IOException
+    {
+        final IntRaster cover = randomRaster(4, 4); // 16 bits, 2 bytes
+        final LsbOutputStream out = new LsbOutputStream(cover, TraversalOrder.LINEAR);
+        out.write(0xab);
+        out.write(0xcd);
+        assertEquals(0, out.remaining());
+        try
+        {
+            out.write(0xef);
+            fail();
+        }
+        catch(IOException e)
+        {
+            // Expected
+        }
+        out.close();
+
+        final LsbInputStream in = new LsbInputStream(cover, TraversalOrder.LINEAR);
+        assertEquals(0xab, in.read());
+        assertEquals(0xcd, in.read());
+        assertEquals(-1, in.read());
+        assertEquals(-1, in.read(new byte[4], 0, 4));
+    }
+}
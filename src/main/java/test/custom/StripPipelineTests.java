@@ -0,0 +1,118 @@
+package test.custom;
+
+import static org.junit.Assert.*;
+import static test.custom.TestImages.randomRaster;
+
+import main.Helper;
+import main.IntRaster;
+import main.LsbOutputStream;
+import main.PngStripWriter;
+import main.Steganography;
+import main.StripPipeline;
+import main.TraversalOrder;
+import main.Utils;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+public class StripPipelineTests
+{
+    private static final Random random = new Random();
+    public static final int TESTS = 10;
+
+    private static File temp(String extension) throws IOException
+    {
+        final File file = File.createTempFile("strip", "." + extension);
+        file.deleteOnExit();
+        return file;
+    }
+
+    // Hides data with a stream over the whole cover, as the pipeline should do a strip at a time
+    private static IntRaster expected(IntRaster cover, byte[] data, int depth) throws IOException
+    {
+        final IntRaster hidden = cover.copy();
+        final DataOutputStream out = new DataOutputStream(new LsbOutputStream(hidden, TraversalOrder.LINEAR, depth));
+        for(int i = 0; i < Long.SIZE; i += 8)
+            out.write((int) ((long) data.length >>> i));
+        out.write(data);
+        out.close();
+        return hidden;
+    }
+
+    private static void roundTrip(String extension, IntRaster cover) throws IOException
+    {
+        final File input = temp(extension), output = temp("png");
+        assertTrue(Helper.write(input.getPath(), cover));
+        final IntRaster decoded = Helper.readRaster(input.getPath());
+
+        final int depth = random.nextInt(Steganography.MAX_DEPTH + 1);
+        final byte[] data = new byte[random.nextInt((int) StripPipeline.capacity(cover.width(), cover.height(), depth) + 1)];
+        random.nextBytes(data);
+        StripPipeline.embed(input, output, new ByteArrayInputStream(data), data.length, depth, 1 + random.nextInt(20));
+        assertEquals(expected(decoded, data, depth), Helper.readRaster(output.getPath()));
+
+        final ByteArrayOutputStream revealed = new ByteArrayOutputStream();
+        assertEquals(data.length, StripPipeline.reveal(output, revealed, depth, 1 + random.nextInt(20)));
+        assertArrayEquals(data, revealed.toByteArray());
+    }
+
+    @Test
+    public void matchesStreamOnPng() throws IOException
+    {
+        for(int i = 0; i < TESTS; i++)
+            roundTrip("png", randomRaster(8 + random.nextInt(60), 8 + random.nextInt(60)));
+    }
+
+    @Test
+    public void matchesStreamOnOtherFormats() throws IOException
+    {
+        for(int i = 0; i < TESTS; i++)
+            roundTrip("bmp", randomRaster(8 + random.nextInt(60), 8 + random.nextInt(60)));
+    }
+
+    @Test
+    public void matchesStreamOnRealImage() throws IOException
+    {
+        final File input = new File("images/tiles-large.png"), output = temp("png");
+        final byte[] data = new byte[10000];
+        random.nextBytes(data);
+        StripPipeline.embed(input, output, new ByteArrayInputStream(data), data.length, 1, 64);
+        assertEquals(expected(Helper.readRaster(input.getPath()), data, 1), Helper.readRaster(output.getPath()));
+    }
+
+    @Test
+    public void writerIsReadByImageIO() throws IOException
+    {
+        final IntRaster image = randomRaster(70, 33);
+        for(int row = 10; row < 20; row++) // Some flat rows, which compress
+            for(int col = 0; col < image.width(); col++)
+                image.set(row, col, 0x123456);
+        final File file = temp("png");
+        final PngStripWriter writer = new PngStripWriter(new FileOutputStream(file), image.width(), image.height());
+        writer.write(image.subRaster(0, 0, image.width(), 5));
+        writer.write(image.subRaster(5, 0, image.width(), image.height() - 5));
+        writer.close();
+        assertEquals(image, Helper.readRaster(file.getPath()));
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsTooMuchData() throws IOException
+    {
+        final File input = temp("png");
+        Helper.write(input.getPath(), randomRaster(10, 10));
+        StripPipeline.embed(input, temp("png"), new ByteArrayInputStream(new byte[10]), 10, 0, 4);
+    }
+
+    @Test
+    public void capacityDoesNotOverflow()
+    {
+        assertEquals(50000L * 50000 / 8 - 8, StripPipeline.capacity(50000, 50000, 0));
+        assertFalse(Utils.isCoverLargeEnough(new int[1][1], new boolean[2]));
+    }
+}
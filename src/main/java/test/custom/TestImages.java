@@ -0,0 +1,47 @@
+package test.custom;
+
+import main.IntRaster;
+
+import java.util.Random;
+
+/**
+ * Random images shared by the tests.
+ */
+final class TestImages
+{
+    private static final Random random = new Random();
+
+    private TestImages()
+    {
+    }
+
+    /**
+     * Builds an image of random RGB colors.
+     * @param height the number of rows
+     * @param width the number of columns
+     * @return a new image
+     */
+    static int[][] randomImage(int height, int width)
+    {
+        final int[][] image = new int[height][width];
+        for(int row = 0; row < height; row++)
+            for(int col = 0; col < width; col++)
+                image[row][col] = random.nextInt(1 << 24);
+        return image;
+    }
+
+    /**
+     * Builds a raster of random RGB colors.
+     * @param width the number of columns
+     * @param height the number of rows
+     * @return a new compact raster
+     */
+    static IntRaster randomRaster(int width, int height)
+    {
+        final IntRaster raster = new IntRaster(width, height);
+        for(int row = 0; row < height; row++)
+            for(int col = 0; col < width; col++)
+                raster.set(row, col, random.nextInt(1 << 24));
+        return raster;
+    }
+}
@@ -2,9 +2,13 @@ package test.custom;
 
 import static org.junit.Assert.*;
 
+import main.BitBuffer;
 import main.TextMessage;
 import org.junit.Test;
 
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Random;
 
 public class TextMessageAdvancedTests
@@ -59,4 +63,29 @@ public class TextMessageAdvancedTests
             assertEquals(builder.toString(), str);
         }
     }
+
+    @Test
+    public void charsetConversion()
+    {
+        final String ascii = "Hello! This is a super secret hidden message!";
+        final boolean[] utf8 = TextMessage.stringToBitArray(ascii, StandardCharsets.UTF_8);
+        assertEquals(ascii.length() * 8, utf8.length);
+        assertEquals(ascii, TextMessage.bitArrayToString(utf8, StandardCharsets.UTF_8));
+        assertEquals(BitBuffer.fromBitArray(utf8), TextMessage.stringToBitBuffer(ascii, StandardCharsets.UTF_8));
+        assertArrayEquals(TextMessage.intToBitArray('H', 8), Arrays.copyOf(utf8, 8));
+
+        for(Charset charset : new Charset[] {StandardCharsets.UTF_8, StandardCharsets.UTF_16LE, StandardCharsets.UTF_16BE})
+        {
+            for(int i = 0; i < TESTS; i++)
+            {
+                final StringBuilder builder = new StringBuilder();
+                final int length = random.nextInt(50);
+                for(int j = 0; j < length; j++)
+                    builder.appendCodePoint(random.nextBoolean() ? 32 + random.nextInt(95) : 0x80 + random.nextInt(0xd000));
+                final String message = builder.toString();
+                assertEquals(message, TextMessage.bitArrayToString(TextMessage.stringToBitArray(message, charset), charset));
+                assertEquals(message, TextMessage.bitBufferToString(TextMessage.stringToBitBuffer(message, charset), charset));
+            }
+        }
+    }
 }
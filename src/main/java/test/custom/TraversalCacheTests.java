@@ -0,0 +1,137 @@
+package test.custom;
+
+import static org.junit.Assert.*;
+
+import main.BitBuffer;
+import main.IntRaster;
+import main.Payload;
+import main.SpiralCursor;
+import main.Steganography;
+import main.TraversalCache;
+import main.TraversalOrder;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class TraversalCacheTests
+{
+    @Test
+    public void tables()
+    {
+        final int rows = 7, cols = 9;
+        final int[] spiral = TraversalOrder.SPIRAL.table(rows, cols);
+        final SpiralCursor cursor = new SpiralCursor(rows, cols);
+        for(int i = 0; i < rows * cols; i++)
+        {
+            assertEquals(cursor.getRow() * cols + cursor.getCol(), spiral[i]);
+            cursor.step();
+        }
+
+        final int[] linear = TraversalOrder.LINEAR.table(rows, cols);
+        for(int i = 0; i < rows * cols; i++)
+            assertEquals(i, linear[i]);
+    }
+
+    @Test
+    public void hitsAndMisses()
+    {
+        final TraversalCache cache = new TraversalCache(1 << 20);
+        final int[] first = cache.get(10, 20, TraversalOrder.SPIRAL);
+        assertSame(first, cache.get(10, 20, TraversalOrder.SPIRAL));
+        assertNotSame(first, cache.get(20, 10, TraversalOrder.SPIRAL));
+        assertNotSame(first, cache.get(10, 20, TraversalOrder.LINEAR));
+
+        assertEquals(1, cache.getHits());
+        assertEquals(3, cache.getMisses());
+        assertEquals(3, cache.getCount());
+        assertEquals(3 * (16 + 4 * 200), cache.getSize());
+    }
+
+    @Test
+    public void leastRecentlyUsedEviction()
+    {
+        final long table = 16 + 4 * 100;
+        final TraversalCache cache = new TraversalCache(2 * table);
+        final int[] a = cache.get(10, 10, TraversalOrder.SPIRAL);
+        cache.get(5, 20, TraversalOrder.SPIRAL);
+        cache.get(10, 10, TraversalOrder.SPIRAL); // Makes the 5x20 table the least recently used
+        cache.get(20, 5, TraversalOrder.SPIRAL);
+
+        assertEquals(1, cache.getEvictions());
+        assertEquals(2, cache.getCount());
+        assertEquals(2 * table, cache.getSize());
+        assertSame(a, cache.get(10, 10, TraversalOrder.SPIRAL));
+
+        cache.setCapacity(table);
+        assertEquals(1, cache.getCount());
+        assertTrue(cache.getSize() <= cache.getCapacity());
+
+        cache.get(100, 100, TraversalOrder.SPIRAL); // Larger than the whole cache
+        assertEquals(1, cache.getCount());
+        assertTrue(cache.getSize() <= cache.getCapacity());
+
+        cache.clear();
+        assertEquals(0, cache.getCount());
+        assertEquals(0, cache.getSize());
+    }
+
+    @Test
+    public void peekNeverBuilds()
+    {
+        final TraversalCache cache = new TraversalCache(16 + 4 * 200);
+        assertNull(cache.peek(10, 20, TraversalOrder.SPIRAL));
+        assertEquals(0, cache.getCount());
+        assertEquals(0, cache.getMisses());
+
+        final int[] table = cache.get(10, 20, TraversalOrder.SPIRAL);
+        assertSame(table, cache.peek(10, 20, TraversalOrder.SPIRAL));
+        assertEquals(1, cache.getHits());
+
+        assertTrue(cache.fits(10, 20));
+        assertFalse(cache.fits(10, 21));
+    }
+
+    @Test
+    public void spiralsWithoutTablesMatchTables()
+    {
+        final Random random = new Random(42);
+        final int rows = 37, cols = 53;
+        final int[][] cover = new int[rows][cols];
+        for(int[] row : cover)
+            for(int col = 0; col < cols; col++)
+                row[col] = random.nextInt(1 << 24);
+        final BitBuffer message = new BitBuffer(rows * cols);
+        for(int i = 0; i < message.length(); i++)
+            message.set(i, random.nextBoolean());
+        final byte[] data = new byte[40];
+        random.nextBytes(data);
+        final IntRaster view = IntRaster.fromArray(cover).subRaster(2, 1, cols - 3, rows - 4);
+
+        final TraversalCache cache = TraversalCache.getDefault();
+        final long capacity = cache.getCapacity();
+        try
+        {
+            cache.clear(); // Compact rasters use the tables, arrays always walk the spiral
+            final int[][] tabled = Steganography.embedSpiralBitBuffer(IntRaster.fromArray(cover), message).toArray();
+            final IntRaster tabledView = Steganography.embedSpiralBitBuffer(view, message.copyOfRange(0, view.area()));
+            final int[][] tabledPayload = Steganography.embedPayload(IntRaster.fromArray(cover), Payload.ofBytes(data), 2, TraversalOrder.SPIRAL).toArray();
+            assertTrue(cache.getCount() > 0);
+            assertArrayEquals(tabled, Steganography.embedSpiralBitBuffer(cover, message));
+            assertArrayEquals(tabledPayload, Steganography.embedPayload(cover, Payload.ofBytes(data), 2, TraversalOrder.SPIRAL));
+
+            cache.setCapacity(0); // Every spiral is walked
+            assertArrayEquals(tabled, Steganography.embedSpiralBitBuffer(IntRaster.fromArray(cover), message).toArray());
+            assertArrayEquals(tabledView.toArray(), Steganography.embedSpiralBitBuffer(view, message.copyOfRange(0, view.area())).toArray());
+            assertArrayEquals(tabledPayload, Steganography.embedPayload(IntRaster.fromArray(cover), Payload.ofBytes(data), 2, TraversalOrder.SPIRAL).toArray());
+            assertArrayEquals(message.toBitArray(), Steganography.revealSpiralBitArray(tabled));
+            assertArrayEquals(message.toBitArray(), Steganography.revealSpiralBitBuffer(IntRaster.fromArray(tabled)).toBitArray());
+            assertArrayEquals(data, Steganography.revealPayload(tabledPayload, TraversalOrder.SPIRAL).getData());
+            assertArrayEquals(data, Steganography.revealPayload(IntRaster.fromArray(tabledPayload), TraversalOrder.SPIRAL).getData());
+            assertEquals(0, cache.getCount());
+        }
+        finally
+        {
+            cache.setCapacity(capacity);
+        }
+    }
+}
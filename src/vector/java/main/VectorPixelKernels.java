@@ -0,0 +1,83 @@
+package main;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Implement the pixel kernels with the Vector API, processing as many pixels per instruction as the CPU allows.
+ * <p>
+ * Built by the {@code vector} Maven profile only; see {@link Kernels}. Leftover pixels are handed to the scalar kernels.
+ */
+public final class VectorPixelKernels implements PixelKernels
+{
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+    private static final int LANES = SPECIES.length(); // A power of two dividing 64, so a vector never straddles two words
+    private static final IntVector LANE_INDICES = IntVector.zero(SPECIES).addIndex(1); // 0, 1, 2...
+
+    /**
+     * Multiplier turning a division by 3 into a multiplication and a shift, exact for sums of three bytes.
+     */
+    private static final int THIRD = 0xaaab;
+    private static final int THIRD_SHIFT = 17;
+
+    private final ScalarPixelKernels scalar = new ScalarPixelKernels();
+
+    @Override
+    public void toGray(int[] source, int sourceOffset, int[] target, int targetOffset, int length)
+    {
+        final int bound = SPECIES.loopBound(length);
+        for(int i = 0; i < bound; i += LANES)
+        {
+            final IntVector rgb = IntVector.fromArray(SPECIES, source, sourceOffset + i);
+            final IntVector red = rgb.lanewise(VectorOperators.LSHR, 16).and(0xff);
+            final IntVector green = rgb.lanewise(VectorOperators.LSHR, 8).and(0xff);
+            final IntVector blue = rgb.and(0xff);
+            red.add(green).add(blue).mul(THIRD).lanewise(VectorOperators.LSHR, THIRD_SHIFT).intoArray(target, targetOffset + i);
+        }
+        scalar.toGray(source, sourceOffset + bound, target, targetOffset + bound, length - bound);
+    }
+
+    @Override
+    public void toBW(int[] gray, int offset, int length, int threshold, long[] words)
+    {
+        final int bound = SPECIES.loopBound(length);
+        for(int i = 0; i < bound; i += LANES)
+        {
+            final VectorMask<Integer> white = IntVector.fromArray(SPECIES, gray, offset + i).compare(VectorOperators.GE, threshold);
+            words[i >>> 6] |= white.toLong() << i;
+        }
+        for(int i = bound; i < length; i++)
+        {
+            if(ImageMessage.getBW(gray[offset + i], threshold))
+                words[i >>> 6] |= 1L << i;
+        }
+    }
+
+    @Override
+    public void embed(int[] pixels, int offset, long[] words, int length)
+    {
+        final int bound = SPECIES.loopBound(length);
+        for(int i = 0; i < bound; i += LANES)
+        {
+            final IntVector bits = IntVector.broadcast(SPECIES, (int) (words[i >>> 6] >>> i)).lanewise(VectorOperators.LSHR, LANE_INDICES).and(1);
+            IntVector.fromArray(SPECIES, pixels, offset + i).and(0xfffffffe).or(bits).intoArray(pixels, offset + i);
+        }
+        for(int i = bound; i < length; i++)
+            pixels[offset + i] = (pixels[offset + i] & 0xfffffffe) | (int) ((words[i >>> 6] >>> i) & 1);
+    }
+
+    @Override
+    public void reveal(int[] pixels, int offset, long[] words, int length)
+    {
+        final int bound = SPECIES.loopBound(length);
+        for(int i = 0; i < bound; i += LANES)
+        {
+            final VectorMask<Integer> ones = IntVector.fromArray(SPECIES, pixels, offset + i).and(1).compare(VectorOperators.NE, 0);
+            words[i >>> 6] |= ones.toLong() << i;
+        }
+        for(int i = bound; i < length; i++)
+            words[i >>> 6] |= (long) (pixels[offset + i] & 1) << i;
+    }
+}